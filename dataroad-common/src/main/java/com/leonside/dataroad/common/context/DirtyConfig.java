@@ -0,0 +1,95 @@
+package com.leonside.dataroad.common.context;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.leonside.dataroad.common.config.Validation;
+import lombok.Data;
+import org.apache.commons.lang.StringUtils;
+
+import java.io.Serializable;
+
+/**
+ * 脏数据（writer写入失败的记录）处理配置
+ * @author leon
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DirtyConfig implements Serializable, Validation {
+
+    public static final String TYPE_LOG = "log";
+
+    public static final String TYPE_FILE = "file";
+
+    public static final String TYPE_JDBC = "jdbc";
+
+    /**
+     * 脏数据存储方式：log（仅采样输出错误日志）、file（本地滚动文件）、jdbc（数据库表）
+     */
+    private String type = TYPE_LOG;
+
+    /**
+     * file方式的存储目录，默认为系统临时目录下的dataroad-dirty
+     */
+    private String path;
+
+    /**
+     * file方式单个文件大小上限，超出后滚动生成新文件，字节
+     */
+    private long maxFileSize = 64 * 1024 * 1024;
+
+    /**
+     * jdbc方式的连接配置，驱动类为空时通过DriverManager获取连接
+     */
+    private String driverClass;
+
+    private String jdbcUrl;
+
+    private String username;
+
+    private String password;
+
+    private String table = "dataroad_dirty_data";
+
+    /**
+     * 待持久化脏数据队列容量，队列满时写入线程等待
+     */
+    private int queueSize = 10000;
+
+    /**
+     * 批量持久化条数
+     */
+    private int batchSize = 500;
+
+    /**
+     * 未达到批量条数时的持久化间隔，毫秒
+     */
+    private long flushInterval = 1000;
+
+    /**
+     * 错误日志采样间隔，每N条脏数据输出一次错误日志
+     */
+    private int logSampleInterval = 1000;
+
+    public static DirtyConfig defaultConfig() {
+        return new DirtyConfig();
+    }
+
+    @JsonIgnore
+    public boolean isPersistent() {
+        return TYPE_FILE.equalsIgnoreCase(type) || TYPE_JDBC.equalsIgnoreCase(type);
+    }
+
+    @Override
+    public boolean validate() {
+        if (!TYPE_LOG.equalsIgnoreCase(type) && !isPersistent()) {
+            throw new IllegalArgumentException("dirty type must be one of log, file, jdbc, but is [" + type + "]");
+        }
+        if (TYPE_JDBC.equalsIgnoreCase(type) && StringUtils.isEmpty(jdbcUrl)) {
+            throw new IllegalArgumentException("If dirty type is jdbc, the jdbcUrl parameter must be configured");
+        }
+        if (queueSize <= 0 || batchSize <= 0 || logSampleInterval <= 0) {
+            throw new IllegalArgumentException("dirty queueSize, batchSize and logSampleInterval must be greater than 0");
+        }
+        return true;
+    }
+}
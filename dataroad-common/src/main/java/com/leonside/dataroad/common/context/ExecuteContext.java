@@ -2,6 +2,7 @@ package com.leonside.dataroad.common.context;
 
 import com.leonside.dataroad.common.config.Options;
 import com.leonside.dataroad.common.exception.JobFlowException;
+import com.leonside.dataroad.common.spi.Component;
 import com.leonside.dataroad.common.spi.JobExecutionListener;
 
 import java.io.Serializable;
@@ -21,6 +22,11 @@ public class ExecuteContext implements Serializable {
 
 	private List<ComponentHolder> componentHolders = new ArrayList<>();
 
+	/**
+	 * 多个content合并执行时的管道名，用于区分各管道的算子及指标
+	 */
+	private String pipelineName;
+
 	private transient Map<String,Object> jobFlowOutputStore = new ConcurrentHashMap<>();
 
 	public void putJobFlowOutput(String key, Object value){
@@ -54,10 +60,32 @@ public class ExecuteContext implements Serializable {
 		this.componentHolders = componentHolders;
 	}
 
+	public String getPipelineName() {
+		return pipelineName;
+	}
+
+	public void setPipelineName(String pipelineName) {
+		this.pipelineName = pipelineName;
+	}
+
 	public void setJobSetting(JobSetting jobSetting) {
 		this.jobSetting = jobSetting;
 	}
 
+	/**
+	 * 按节点算子配置对节点输入进行分区，由执行引擎实现
+	 */
+	public <T> T partition(Component component, T input){
+		return input;
+	}
+
+	/**
+	 * 按节点算子配置设置节点输出算子的并行度、算子链及slot共享组，由执行引擎实现
+	 */
+	public <T> T configureOperator(Component component, T output){
+		return output;
+	}
+
 	public static ExecuteContext of(JobSetting jobSetting,List<ComponentHolder> componentHolders, Options options){
 		ExecuteContext executeContext = new ExecuteContext();
 		executeContext.setJobSetting(jobSetting);
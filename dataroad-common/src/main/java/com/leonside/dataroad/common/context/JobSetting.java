@@ -16,6 +16,11 @@ public class JobSetting implements Serializable , Validation {
     private String name = "defaultJob";
 
     private boolean isLocal = false;
+
+    /**
+     * 运行模式：streaming（默认）、batch、automatic（满足batch条件时按batch执行）
+     */
+    private String runtimeMode;
 //    private String monitorUrls;
 
     private LogConfig log = LogConfig.defaultConfig();
@@ -26,6 +31,14 @@ public class JobSetting implements Serializable , Validation {
 
     private ErrorLimitConfig errorLimit = ErrorLimitConfig.defaultConfig();
 
+    private DirtyConfig dirty = DirtyConfig.defaultConfig();
+
+    private OptimizerConfig optimizer = OptimizerConfig.defaultConfig();
+
+    private PipelineConfig pipeline = PipelineConfig.defaultConfig();
+
+    private MetricConfig metric = MetricConfig.defaultConfig();
+
 
     public void setIsLocal(boolean local) {
         isLocal = local;
@@ -36,6 +49,10 @@ public class JobSetting implements Serializable , Validation {
 
         restore.validate();
 
+        dirty.validate();
+
+        metric.validate();
+
         return true;
     }
 }
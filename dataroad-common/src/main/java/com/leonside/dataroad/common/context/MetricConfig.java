@@ -0,0 +1,67 @@
+package com.leonside.dataroad.common.context;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.leonside.dataroad.common.config.Validation;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 指标配置：端到端延迟跟踪及指标上报
+ * @author leon
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MetricConfig implements Serializable, Validation {
+
+    public static final String REPORTER_JMX = "jmx";
+
+    public static final String REPORTER_PROMETHEUS = "prometheus";
+
+    public static final List<String> REPORTERS = Arrays.asList(REPORTER_JMX, REPORTER_PROMETHEUS);
+
+    /**
+     * 是否跟踪端到端延迟：reader下发记录时打上读取时间戳，writer按采样记录统计读取至提交的延迟
+     */
+    private boolean latencyTracking = false;
+
+    /**
+     * 延迟采样间隔，writer每N条记录采样一条计算读取至提交的延迟
+     */
+    private int latencySampleInterval = 32;
+
+    /**
+     * 指标上报方式：jmx、prometheus，集群运行时需在flink-conf.yaml中配置
+     */
+    private List<String> reporters = new ArrayList<>();
+
+    /**
+     * JMX端口或端口范围，如 8789-8799
+     */
+    private String jmxPort;
+
+    /**
+     * Prometheus拉取端口或端口范围
+     */
+    private String prometheusPort = "9249-9260";
+
+    public static MetricConfig defaultConfig() {
+        return new MetricConfig();
+    }
+
+    @Override
+    public boolean validate() {
+        if (latencySampleInterval <= 0) {
+            throw new IllegalArgumentException("metric latencySampleInterval must be greater than 0");
+        }
+        for (String reporter : reporters) {
+            if (!REPORTERS.contains(reporter)) {
+                throw new IllegalArgumentException("metric reporter must be one of " + REPORTERS + ", but is [" + reporter + "]");
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,70 @@
+package com.leonside.dataroad.common.context;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.leonside.dataroad.common.exception.JobConfigException;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 节点算子配置，与type、pluginName同级配置，未配置时沿用全局speed配置及引擎默认行为
+ * @author leon
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OperatorConfig implements Serializable {
+
+    public static final String PARTITIONING_REBALANCE = "rebalance";
+    public static final String PARTITIONING_RESCALE = "rescale";
+    public static final String PARTITIONING_HASH = "hash";
+
+    public static final List<String> PARTITIONINGS = Arrays.asList(PARTITIONING_REBALANCE, PARTITIONING_RESCALE, PARTITIONING_HASH);
+
+    /**
+     * 算子并行度，优先于speed中的channel、readerChannel、writerChannel及插件自身的并行度参数
+     */
+    private Integer parallelism;
+    /**
+     * 节点输入的分区方式：rebalance、rescale、hash，reader不支持
+     */
+    private String partitioning;
+    /**
+     * hash分区字段
+     */
+    private String[] partitionKeys;
+    /**
+     * 是否允许与上下游算子链接，false时算子独立运行
+     */
+    private Boolean chain;
+    /**
+     * 算子所属的slot共享组
+     */
+    private String slotSharingGroup;
+
+    @JsonIgnore
+    public boolean isEmpty(){
+        return parallelism == null && partitioning == null && partitionKeys == null && chain == null && slotSharingGroup == null;
+    }
+
+    public void validate(String componentName){
+        if(parallelism != null && parallelism <= 0){
+            throw new JobConfigException("component [" + componentName + "] parallelism must be greater than 0.");
+        }
+        if(partitioning != null && !PARTITIONINGS.contains(partitioning)){
+            throw new JobConfigException("component [" + componentName + "] partitioning must be one of " + PARTITIONINGS + ", but was [" + partitioning + "].");
+        }
+        boolean hash = PARTITIONING_HASH.equals(partitioning);
+        if(hash && (partitionKeys == null || partitionKeys.length == 0)){
+            throw new JobConfigException("component [" + componentName + "] partitionKeys can not be empty when partitioning is hash.");
+        }
+        if(!hash && partitionKeys != null){
+            throw new JobConfigException("component [" + componentName + "] partitionKeys is only supported when partitioning is hash.");
+        }
+        if(slotSharingGroup != null && slotSharingGroup.trim().isEmpty()){
+            throw new JobConfigException("component [" + componentName + "] slotSharingGroup can not be blank.");
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.leonside.dataroad.common.context;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 流程优化配置，任务执行前对流程进行改写
+ * @author leon
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OptimizerConfig implements Serializable {
+
+    /**
+     * 相邻的脚本过滤、脚本转换节点合并为单个算子
+     */
+    private boolean fuse = true;
+
+    /**
+     * 紧跟reader的简单过滤条件下推至数据源查询
+     */
+    private boolean filterPushdown = true;
+
+    /**
+     * 裁剪下游未引用的reader字段
+     */
+    private boolean projectionPushdown = true;
+
+    /**
+     * 紧跟reader的SQL转换节点与reader合并，由SQL引擎将过滤条件、查询字段及条数下推至数据源
+     */
+    private boolean sqlPushdown = true;
+
+    public static OptimizerConfig defaultConfig() {
+        return new OptimizerConfig();
+    }
+}
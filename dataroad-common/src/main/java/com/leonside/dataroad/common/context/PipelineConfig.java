@@ -0,0 +1,29 @@
+package com.leonside.dataroad.common.context;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 多content执行配置，content合并后作为同一Flink任务中相互独立的数据管道执行
+ * @author leon
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PipelineConfig implements Serializable {
+
+    /**
+     * 是否将多个content合并为单个Flink任务执行
+     */
+    private boolean merge = false;
+
+    /**
+     * 单个Flink任务最多包含的content数，超出后按顺序拆分为多个任务依次执行，小于等于0时不限制
+     */
+    private int maxConcurrent = -1;
+
+    public static PipelineConfig defaultConfig() {
+        return new PipelineConfig();
+    }
+}
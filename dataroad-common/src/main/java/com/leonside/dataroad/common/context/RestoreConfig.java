@@ -14,6 +14,9 @@ import java.io.Serializable;
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class RestoreConfig implements Serializable, Validation {
 
+    public static final String STATE_BACKEND_HASHMAP = "hashmap";
+    public static final String STATE_BACKEND_ROCKSDB = "rocksdb";
+
     /**
      * 是否启用Checkpointing
      */
@@ -45,6 +48,35 @@ public class RestoreConfig implements Serializable, Validation {
      */
     private Integer savepointInterval;
 
+    /**
+     * 状态后端：hashmap（状态保存在JVM堆内）、rocksdb（状态保存在本地磁盘，适合大状态），为空时沿用FsStateBackend
+     */
+    private String stateBackend;
+    /**
+     * rocksdb是否采用增量checkpoint
+     */
+    private boolean incrementalCheckpoints = true;
+    /**
+     * 是否开启本地恢复，故障恢复时优先从TaskManager本地状态副本恢复
+     */
+    private boolean localRecovery = false;
+    /**
+     * 是否开启非对齐checkpoint，反压时checkpoint barrier无需等待缓冲区中的数据处理完成
+     */
+    private boolean unalignedCheckpoints = false;
+    /**
+     * checkpoint超时时间（毫秒）
+     */
+    private Long checkpointTimeout;
+    /**
+     * 两次checkpoint之间的最小间隔（毫秒）
+     */
+    private Long minPauseBetweenCheckpoints;
+    /**
+     * 最大并发checkpoint数
+     */
+    private Integer maxConcurrentCheckpoints;
+
     public static RestoreConfig defaultConfig() {
         return new RestoreConfig();
     }
@@ -71,6 +103,30 @@ public class RestoreConfig implements Serializable, Validation {
             if(StringUtils.isEmpty(restoreColumnType)){
                 throw new IllegalArgumentException("If Restore is true, the restoreColumnType parameter must be configured");
             }
+            if(savepointInterval != null && savepointInterval <= 0){
+                throw new IllegalArgumentException("savepointInterval must be greater than 0");
+            }
+            if(checkpointTimeout != null && checkpointTimeout <= 0){
+                throw new IllegalArgumentException("checkpointTimeout must be greater than 0");
+            }
+            if(minPauseBetweenCheckpoints != null && minPauseBetweenCheckpoints < 0){
+                throw new IllegalArgumentException("minPauseBetweenCheckpoints must not be negative");
+            }
+            if(maxConcurrentCheckpoints != null && maxConcurrentCheckpoints < 1){
+                throw new IllegalArgumentException("maxConcurrentCheckpoints must be greater than 0");
+            }
+            if(unalignedCheckpoints && maxConcurrentCheckpoints != null && maxConcurrentCheckpoints > 1){
+                throw new IllegalArgumentException("unalignedCheckpoints only supports maxConcurrentCheckpoints = 1");
+            }
+        }
+
+        if(StringUtils.isNotEmpty(stateBackend)){
+            if(!STATE_BACKEND_HASHMAP.equalsIgnoreCase(stateBackend) && !STATE_BACKEND_ROCKSDB.equalsIgnoreCase(stateBackend)){
+                throw new IllegalArgumentException("stateBackend [" + stateBackend + "] is not supported, options: hashmap, rocksdb");
+            }
+            if(isRestore && STATE_BACKEND_ROCKSDB.equalsIgnoreCase(stateBackend) && StringUtils.isEmpty(savepointPath)){
+                throw new IllegalArgumentException("If stateBackend is rocksdb, the savepointPath parameter must be configured as checkpoint storage");
+            }
         }
         return true;
     }
@@ -13,11 +13,39 @@ import java.io.Serializable;
 public class SpeedConfig implements Serializable {
 
     private long bytes = Long.MAX_VALUE;
+    /**
+     * reader每秒读取记录数上限
+     */
+    private long records = Long.MAX_VALUE;
+    /**
+     * writer每秒写入字节数上限
+     */
+    private long writerBytes = Long.MAX_VALUE;
+    /**
+     * writer每秒写入记录数上限
+     */
+    private long writerRecords = Long.MAX_VALUE;
+    /**
+     * writer是否根据写入延迟及错误自适应调整（AIMD）写入速率上限
+     */
+    private boolean adaptive = false;
+    /**
+     * 自适应模式下视为拥塞的单次写入（批量写入为一批）耗时，毫秒
+     */
+    private long adaptiveLatency = 1000;
 
     public static final int CHANNEL_DEFAULT = 1;
     private int channel = -1;
     private int readerChannel = -1;
     private int writerChannel = -1;
+    /**
+     * 是否采用FLIP-27 Source读取，读取任务按需动态请求分片
+     */
+    private boolean dynamicSplit = false;
+    /**
+     * reader预读缓冲记录数，大于0时由独立线程预读，读取与下游处理重叠执行
+     */
+    private int prefetchSize = 0;
 
     public static SpeedConfig defaultConfig() {
         return new SpeedConfig();
@@ -5,7 +5,7 @@ package com.leonside.dataroad.common.exception;
  */
 public class WriteRecordException extends JobException{
 
-    private int columnIdx;
+    private int columnIdx = -1;
 
     public WriteRecordException() {
     }
@@ -0,0 +1,16 @@
+package com.leonside.dataroad.common.script;
+
+/**
+ * 可绑定行字段类型的脚本执行器，字段名称、位置及类型由算子构建时上游数据流的行类型解析得到
+ * @author leon
+ */
+public interface FieldTypeAware {
+
+    /**
+     * 绑定字段类型，需在open之前调用
+     * @param fieldNames 字段名称，数组下标即字段位置
+     * @param fieldTypes 字段类型
+     */
+    void bindFieldTypes(String[] fieldNames, Class<?>[] fieldTypes);
+
+}
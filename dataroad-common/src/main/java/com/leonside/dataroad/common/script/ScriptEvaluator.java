@@ -3,7 +3,17 @@ package com.leonside.dataroad.common.script;
 import java.io.Serializable;
 import java.util.Map;
 
+/**
+ * 脚本执行器。实例随算子序列化分发到各子任务，open时完成脚本编译，同一实例仅在单个子任务线程内执行。
+ */
 public interface ScriptEvaluator extends Serializable {
 
+    /**
+     * 编译脚本，由算子open时调用；未显式调用时在首次evaluate时完成编译
+     * @throws Exception
+     */
+    default void open() throws Exception{
+    }
+
     Object evaluate(Object row,  Map<String, Object> var2) throws Exception;
-}
\ No newline at end of file
+}
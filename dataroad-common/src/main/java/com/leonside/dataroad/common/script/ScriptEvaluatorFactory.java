@@ -3,6 +3,7 @@ package com.leonside.dataroad.common.script;
 import com.leonside.dataroad.common.script.bsh.BshScriptEvaluator;
 import com.leonside.dataroad.common.script.fel.FelScriptEvaluator;
 import com.leonside.dataroad.common.script.groovy.GroovyScriptEvaluator;
+import com.leonside.dataroad.common.script.janino.JaninoScriptEvaluator;
 import com.leonside.dataroad.common.script.javascript.JavaScriptEvaluator;
 import com.leonside.dataroad.common.utils.Asserts;
 
@@ -29,6 +30,9 @@ public class ScriptEvaluatorFactory {
             case fel:
                 scriptEvaluator = new FelScriptEvaluator(scriptSource);
                 break;
+            case janino:
+                scriptEvaluator = new JaninoScriptEvaluator(scriptSource, packages);
+                break;
             default:
                 throw new UnsupportedOperationException("unsupport script engine ["+ scriptEngine +"]");
         }
@@ -39,7 +43,8 @@ public class ScriptEvaluatorFactory {
         bsh,
         javascript,
         groovy,
-        fel;
+        fel,
+        janino;
 
 
     }
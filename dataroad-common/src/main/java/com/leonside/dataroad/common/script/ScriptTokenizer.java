@@ -0,0 +1,184 @@
+package com.leonside.dataroad.common.script;
+
+import com.leonside.dataroad.common.exception.ScriptExecuteException;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 脚本词法切分，供Janino代码生成及脚本表达式静态分析共用：
+ * <ul>
+ *     <li>单、双引号字符串为STRING，保留原始文本（含引号及转义）</li>
+ *     <li>行注释、块注释为COMMENT</li>
+ *     <li>==、!= 为EQUALITY，其余符号逐字符切分为OTHER</li>
+ *     <li>开启字段访问时，row.标识符 且非方法调用切分为FIELD，文本为字段名（janino语法）</li>
+ * </ul>
+ * @author leon
+ */
+public class ScriptTokenizer {
+
+    public static final String ROW_VARIABLE = "row";
+
+    private ScriptTokenizer() {
+    }
+
+    /**
+     * 切分脚本
+     * @param source 脚本
+     * @param fieldAccess 是否将 row.标识符 切分为FIELD
+     * @throws ScriptExecuteException 字符串或块注释未闭合
+     */
+    public static List<Token> tokenize(String source, boolean fieldAccess) {
+        List<Token> tokens = new ArrayList<>();
+        int length = source.length();
+        int i = 0;
+        while (i < length){
+            char c = source.charAt(i);
+            if(c == '"' || c == '\''){
+                int j = i + 1;
+                while (j < length && source.charAt(j) != c){
+                    j += source.charAt(j) == '\\' ? 2 : 1;
+                }
+                if(j >= length){
+                    throw new ScriptExecuteException("unclosed string literal in [" + source + "]");
+                }
+                tokens.add(new Token(TokenKind.STRING, source.substring(i, j + 1)));
+                i = j + 1;
+            }else if(c == '/' && i + 1 < length && source.charAt(i + 1) == '/'){
+                int j = source.indexOf('\n', i);
+                j = j < 0 ? length : j;
+                tokens.add(new Token(TokenKind.COMMENT, source.substring(i, j)));
+                i = j;
+            }else if(c == '/' && i + 1 < length && source.charAt(i + 1) == '*'){
+                int j = source.indexOf("*/", i + 2);
+                if(j < 0){
+                    throw new ScriptExecuteException("unclosed comment in [" + source + "]");
+                }
+                tokens.add(new Token(TokenKind.COMMENT, source.substring(i, j + 2)));
+                i = j + 2;
+            }else if(Character.isJavaIdentifierStart(c)){
+                int j = identifierEnd(source, i);
+                String identifier = source.substring(i, j);
+                int previous = previous(tokens, tokens.size());
+                boolean member = previous >= 0 && tokens.get(previous).text.equals(".");
+                int fieldEnd = fieldAccess && identifier.equals(ROW_VARIABLE) && !member ? fieldReferenceEnd(source, j) : -1;
+                if(fieldEnd > 0){
+                    String field = source.substring(skipWhitespace(source, skipWhitespace(source, j) + 1), fieldEnd);
+                    tokens.add(new Token(TokenKind.FIELD, field));
+                    i = fieldEnd;
+                }else{
+                    tokens.add(new Token(TokenKind.IDENTIFIER, identifier));
+                    i = j;
+                }
+            }else if(Character.isDigit(c)){
+                int j = i;
+                while (j < length && (Character.isLetterOrDigit(source.charAt(j)) || source.charAt(j) == '.' || source.charAt(j) == '_')){
+                    j++;
+                }
+                tokens.add(new Token(TokenKind.NUMBER, source.substring(i, j)));
+                i = j;
+            }else if(Character.isWhitespace(c)){
+                int j = skipWhitespace(source, i);
+                tokens.add(new Token(TokenKind.WHITESPACE, source.substring(i, j)));
+                i = j;
+            }else if((c == '=' || c == '!') && i + 1 < length && source.charAt(i + 1) == '='){
+                tokens.add(new Token(TokenKind.EQUALITY, source.substring(i, i + 2)));
+                i += 2;
+            }else{
+                tokens.add(new Token(TokenKind.OTHER, String.valueOf(c)));
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * index之前最近的非空白、非注释token位置，不存在时返回-1
+     */
+    public static int previous(List<Token> tokens, int index) {
+        for (int i = index - 1; i >= 0; i--) {
+            if(!tokens.get(i).isBlank()){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * index之后最近的非空白、非注释token位置，不存在时返回-1
+     */
+    public static int next(List<Token> tokens, int index) {
+        for (int i = index + 1; i < tokens.size(); i++) {
+            if(!tokens.get(i).isBlank()){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * row后紧跟 .标识符 且非方法调用时为字段引用，返回字段标识符结束位置，否则返回-1
+     */
+    private static int fieldReferenceEnd(String source, int rowEnd) {
+        int dot = skipWhitespace(source, rowEnd);
+        if(dot >= source.length() || source.charAt(dot) != '.'){
+            return -1;
+        }
+        int start = skipWhitespace(source, dot + 1);
+        if(start >= source.length() || !Character.isJavaIdentifierStart(source.charAt(start))){
+            return -1;
+        }
+        int end = identifierEnd(source, start);
+        int next = skipWhitespace(source, end);
+        return next < source.length() && source.charAt(next) == '(' ? -1 : end;
+    }
+
+    private static int identifierEnd(String source, int start) {
+        int j = start + 1;
+        while (j < source.length() && Character.isJavaIdentifierPart(source.charAt(j))){
+            j++;
+        }
+        return j;
+    }
+
+    private static int skipWhitespace(String source, int start) {
+        int j = start;
+        while (j < source.length() && Character.isWhitespace(source.charAt(j))){
+            j++;
+        }
+        return j;
+    }
+
+    public enum TokenKind {
+        STRING, FIELD, IDENTIFIER, NUMBER, EQUALITY, WHITESPACE, COMMENT, OTHER
+    }
+
+    @Getter
+    public static class Token {
+
+        private final TokenKind kind;
+
+        private final String text;
+
+        public Token(TokenKind kind, String text) {
+            this.kind = kind;
+            this.text = text;
+        }
+
+        public boolean isBlank() {
+            return kind == TokenKind.WHITESPACE || kind == TokenKind.COMMENT;
+        }
+
+        public boolean is(String symbol) {
+            return kind == TokenKind.OTHER && text.equals(symbol);
+        }
+
+        /**
+         * 字符串token引号内的原始内容（未处理转义）
+         */
+        public String getStringContent() {
+            return text.substring(1, text.length() - 1);
+        }
+    }
+}
@@ -1,45 +1,61 @@
 package com.leonside.dataroad.common.script.bsh;
 
 import bsh.Interpreter;
+import bsh.NameSpace;
+import bsh.Primitive;
 import com.leonside.dataroad.common.constant.JobCommonConstant;
 import com.leonside.dataroad.common.exception.ScriptExecuteException;
 import com.leonside.dataroad.common.script.ScriptEvaluator;
 
-import java.util.Iterator;
 import java.util.Map;
 
 /**
+ * 脚本在open时声明为BeanShell方法，解析一次后按方法调用执行，方法返回脚本最后一条语句的值
  * @author leon
  */
 public class BshScriptEvaluator implements ScriptEvaluator {
 
+    private static final String EVALUATE_METHOD_NAME = "__dataroadEvaluate";
+
     private String scriptSource;
 
-    private Interpreter interpreter;
+    private transient Interpreter interpreter;
+
+    private transient NameSpace nameSpace;
 
     public BshScriptEvaluator(String scriptSource){
         this.scriptSource = scriptSource;
+    }
+
+    @Override
+    public void open() throws Exception {
         interpreter = new Interpreter();
         interpreter.setClassLoader(BshScriptEvaluator.class.getClassLoader());
+        String script = scriptSource.trim();
+        script = script.endsWith(";") || script.endsWith("}") ? script : script + ";";
+        try {
+            interpreter.eval(EVALUATE_METHOD_NAME + "(" + JobCommonConstant.SCRIPT_CONTEXT_KEY_ROW + ", params){" + script + "\n}");
+        } catch (Exception e) {
+            throw new ScriptExecuteException("script compilation failed", e);
+        }
+        nameSpace = interpreter.getNameSpace();
     }
 
-
     @Override
     public Object evaluate(Object record, Map<String, Object> param) throws Exception {
 
+        if(interpreter == null){
+            open();
+        }
+
         try {
             if (param != null) {
-                Iterator var4 = param.entrySet().iterator();
-
-                while(var4.hasNext()) {
-                    Map.Entry<String, Object> entry = (Map.Entry)var4.next();
-                    interpreter.set((String)entry.getKey(), entry.getValue());
+                for (Map.Entry<String, Object> entry : param.entrySet()) {
+                    interpreter.set(entry.getKey(), entry.getValue());
                 }
             }
 
-            interpreter.set(JobCommonConstant.SCRIPT_CONTEXT_KEY_ROW, record);
-
-            return interpreter.eval(scriptSource);
+            return Primitive.unwrap(nameSpace.invokeMethod(EVALUATE_METHOD_NAME, new Object[]{record, param}, interpreter));
         } catch (Exception var7) {
             throw new ScriptExecuteException("script execute failed", var7);
         }
@@ -3,48 +3,50 @@ package com.leonside.dataroad.common.script.fel;
 import com.greenpineyu.fel.FelEngine;
 import com.greenpineyu.fel.FelEngineImpl;
 import com.greenpineyu.fel.context.FelContext;
+import com.greenpineyu.fel.context.MapContext;
+import com.greenpineyu.fel.parser.FelNode;
 import com.leonside.dataroad.common.constant.JobCommonConstant;
 import com.leonside.dataroad.common.script.ScriptEvaluator;
 
 import java.util.Map;
 
 /**
+ * 表达式在open时解析为语法树，每个实例使用独立的FelContext
  * @author leon
  */
 public class FelScriptEvaluator implements ScriptEvaluator {
 
     private String scriptSource;
 
-    private volatile FelEngine felEngine;
+    private transient FelNode felNode;
+
+    private transient FelContext felContext;
 
     public FelScriptEvaluator(String scriptSource, String... packages){
         this.scriptSource = scriptSource;
-       ;
     }
 
     @Override
-    public Object evaluate(Object row, Map<String, Object> params) throws Exception {
+    public void open() throws Exception {
+        FelEngine felEngine = new FelEngineImpl();
+        felContext = new MapContext();
+        felNode = felEngine.parse(scriptSource);
+    }
 
+    @Override
+    public Object evaluate(Object row, Map<String, Object> params) throws Exception {
 
-        if(felEngine == null){
-            synchronized(FelScriptEvaluator.class){
-                if(felEngine == null){
-                    felEngine = new FelEngineImpl();
-                }
-            }
+        if(felNode == null){
+            open();
         }
-        //获取引擎上下文
-        FelContext felContext = felEngine.getContext();
 
         if(params != null){
             params.forEach((key,value)->{
-                felContext.set(key, params);
+                felContext.set(key, value);
             });
         }
         felContext.set(JobCommonConstant.SCRIPT_CONTEXT_KEY_ROW, row);
 
-
-        Object eval = felEngine.eval(scriptSource);
-        return eval;
+        return felNode.eval(felContext);
     }
 }
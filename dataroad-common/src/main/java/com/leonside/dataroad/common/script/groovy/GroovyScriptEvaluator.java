@@ -16,7 +16,7 @@ public class GroovyScriptEvaluator implements ScriptEvaluator {
 
     private String scriptSource;
 
-    private volatile ScriptEvaluator scriptEvaluator;
+    private transient ScriptEvaluator scriptEvaluator;
 
     private String[] packages;
 
@@ -26,15 +26,16 @@ public class GroovyScriptEvaluator implements ScriptEvaluator {
 
     }
 
+    @Override
+    public void open() throws Exception {
+        scriptEvaluator = initGroovyScriptEvaluator(scriptSource, packages);
+    }
+
     @Override
     public Object evaluate(Object record, Map<String, Object> params) throws Exception {
 
         if(scriptEvaluator == null){
-            synchronized(GroovyScriptEvaluator.class){
-                if(scriptEvaluator == null){
-                    scriptEvaluator = initGroovyScriptEvaluator(scriptSource, packages);
-                }
-            }
+            open();
         }
 
         return scriptEvaluator.evaluate(record, params);
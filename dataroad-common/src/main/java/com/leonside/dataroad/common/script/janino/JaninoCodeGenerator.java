@@ -0,0 +1,436 @@
+package com.leonside.dataroad.common.script.janino;
+
+import com.leonside.dataroad.common.exception.ScriptExecuteException;
+import com.leonside.dataroad.common.script.ScriptTokenizer;
+import com.leonside.dataroad.common.script.ScriptTokenizer.Token;
+import com.leonside.dataroad.common.script.ScriptTokenizer.TokenKind;
+import org.apache.commons.lang.StringUtils;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Janino脚本代码生成，将脚本生成为实现ScriptEvaluator的Java类源码：
+ * <ul>
+ *     <li>row.字段名 解析为强类型局部变量，每行只读取一次字段，Row为位置模式时按RowTypeInfo位置读取，否则按名称读取</li>
+ *     <li>单引号字符串转为Java字符串，字符串字段与字符串常量的==、!=比较转为equals比较</li>
+ *     <li>不含分号的脚本视为表达式，数值、布尔字段使用基本类型（BigDecimal、BigInteger保持原类型，避免精度丢失），引用的数值、布尔字段为null时表达式结果为false；
+ *     含分号的脚本视为语句块，字段使用包装类型，由脚本自行处理null</li>
+ * </ul>
+ * @author leon
+ */
+public class JaninoCodeGenerator {
+
+    public static final String CLASS_NAME = "JaninoRULE";
+
+    private static final String ROW_CLASS = "org.apache.flink.types.Row";
+
+    private static final String RAW_VARIABLE_PREFIX = "__r_";
+
+    private static final String FIELD_VARIABLE_PREFIX = "__f_";
+
+    private static final String PARAMS_VARIABLE = "params";
+
+    private final String scriptSource;
+
+    private final List<Token> tokens;
+
+    private final Set<String> fieldReferences = new LinkedHashSet<>();
+
+    private final boolean statement;
+
+    public JaninoCodeGenerator(String scriptSource) {
+        this.scriptSource = scriptSource;
+        this.tokens = ScriptTokenizer.tokenize(scriptSource, true);
+        this.statement = tokens.stream().anyMatch(it -> it.getKind() == TokenKind.OTHER && it.getText().equals(";"));
+        for (int i = 0; i < tokens.size(); i++) {
+            if(tokens.get(i).getKind() == TokenKind.FIELD){
+                fieldReferences.add(tokens.get(i).getText());
+                checkNotAssigned(i);
+            }
+        }
+    }
+
+    /**
+     * 脚本中引用的字段
+     */
+    public Set<String> getFieldReferences() {
+        return fieldReferences;
+    }
+
+    public boolean isStatement() {
+        return statement;
+    }
+
+    /**
+     * 脚本是否引用了params参数
+     */
+    public boolean isParamsReferenced() {
+        for (int i = 0; i < tokens.size(); i++) {
+            int previous = ScriptTokenizer.previous(tokens, i);
+            if(tokens.get(i).getKind() == TokenKind.IDENTIFIER && tokens.get(i).getText().equals(PARAMS_VARIABLE)
+                    && (previous < 0 || !tokens.get(previous).getText().equals("."))){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 生成Java类源码
+     * @param fieldNames 字段名称，数组下标即字段位置
+     * @param fieldTypes 字段类型
+     * @param positional 字段位置是否有效，行类型由RowTypeInfo解析时有效
+     * @param packages 额外import语句
+     */
+    public String generate(String[] fieldNames, Class<?>[] fieldTypes, boolean positional, String... packages) {
+        Map<String, Class<?>> referenceTypes = resolveFieldTypes(fieldReferences, fieldNames, fieldTypes);
+
+        StringBuilder sb = new StringBuilder();
+        appendHeader(sb, referenceTypes, fieldNames, positional, packages);
+
+        for (Map.Entry<String, Class<?>> reference : referenceTypes.entrySet()) {
+            String raw = RAW_VARIABLE_PREFIX + reference.getKey();
+            String field = FIELD_VARIABLE_PREFIX + reference.getKey();
+            String primitive = primitiveType(reference.getValue());
+            if(!statement && primitive != null){
+                sb.append("if (").append(raw).append(" == null) return Boolean.FALSE;\n");
+                sb.append(primitive).append(" ").append(field).append(" = ").append(unbox(primitive, raw)).append(";\n");
+            }else if(primitive != null){
+                String boxed = boxedType(primitive);
+                sb.append(boxed).append(" ").append(field).append(" = ").append(raw).append(" == null ? null : ")
+                        .append(boxed).append(".valueOf(").append(unbox(primitive, raw)).append(");\n");
+            }else{
+                appendReferenceField(sb, reference.getKey(), reference.getValue());
+            }
+        }
+
+        String body = render(tokens, referenceTypes);
+        if(statement){
+            sb.append("if (true) {\n").append(body).append("\n}\nreturn null;\n");
+        }else{
+            sb.append("return ").append(body).append(";\n");
+        }
+        sb.append("}}");
+        return sb.toString();
+    }
+
+    /**
+     * 生成分支路由类源码：所有分支表达式编译到同一方法中，字段每行只读取一次，多个分支中相同的顶层&&条件每行只计算一次，
+     * evaluate返回命中分支的位掩码（Long），排他分支命中后不再计算后续分支
+     * @param branches 分支表达式，下标即掩码位
+     * @param exclusive 分支是否排他
+     */
+    public static String generateRoute(List<JaninoCodeGenerator> branches, boolean[] exclusive, String[] fieldNames, Class<?>[] fieldTypes, boolean positional, String... packages) {
+        Set<String> references = new LinkedHashSet<>();
+        for (JaninoCodeGenerator branch : branches) {
+            if(branch.isStatement()){
+                throw new ScriptExecuteException("route branch must be an expression [" + branch.scriptSource + "]");
+            }
+            references.addAll(branch.fieldReferences);
+        }
+        Map<String, Class<?>> referenceTypes = resolveFieldTypes(references, fieldNames, fieldTypes);
+
+        StringBuilder sb = new StringBuilder();
+        appendHeader(sb, referenceTypes, fieldNames, positional, packages);
+
+        for (Map.Entry<String, Class<?>> reference : referenceTypes.entrySet()) {
+            String raw = RAW_VARIABLE_PREFIX + reference.getKey();
+            String primitive = primitiveType(reference.getValue());
+            if(primitive != null){
+                sb.append(primitive).append(" ").append(FIELD_VARIABLE_PREFIX).append(reference.getKey()).append(" = ").append(raw)
+                        .append(" == null ? ").append(defaultValue(primitive)).append(" : ").append(unbox(primitive, raw)).append(";\n");
+            }else{
+                appendReferenceField(sb, reference.getKey(), reference.getValue());
+            }
+        }
+
+        //顶层&&拆分为条件，null字段守卫在条件内，多个分支共用的条件以byte缓存：0未计算 1为true 2为false
+        List<List<String>> branchConditions = new ArrayList<>();
+        Map<String, Integer> conditionCounts = new LinkedHashMap<>();
+        for (JaninoCodeGenerator branch : branches) {
+            List<String> conditions = new ArrayList<>();
+            for (List<Token> conjunct : branch.conjuncts()) {
+                String condition = branch.guard(conjunct, referenceTypes) + "(" + branch.render(conjunct, referenceTypes).trim() + ")";
+                conditions.add(condition);
+            }
+            if(!branchConditions.contains(conditions)){
+                new LinkedHashSet<>(conditions).forEach(it -> conditionCounts.merge(it, 1, Integer::sum));
+            }
+            branchConditions.add(conditions);
+        }
+        Map<String, String> sharedConditions = new LinkedHashMap<>();
+        conditionCounts.forEach((condition, count) -> {
+            if(count > 1){
+                sharedConditions.put(condition, "__c" + sharedConditions.size());
+            }
+        });
+        sharedConditions.values().forEach(it -> sb.append("byte ").append(it).append(" = 0;\n"));
+
+        sb.append("long __mask = 0L;\n");
+        Map<List<String>, Integer> evaluatedBranches = new HashMap<>();
+        for (int i = 0; i < branchConditions.size(); i++) {
+            List<String> conditions = branchConditions.get(i);
+            Integer sameBranch = evaluatedBranches.putIfAbsent(conditions, i);
+            sb.append("boolean __b").append(i).append(" = ");
+            if(sameBranch != null){
+                sb.append("__b").append(sameBranch);
+            }else{
+                List<String> terms = new ArrayList<>();
+                for (String condition : conditions) {
+                    String cache = sharedConditions.get(condition);
+                    terms.add(cache == null ? condition : "(" + cache + " == 0 ? (" + cache + " = " + condition + " ? (byte) 1 : (byte) 2) : " + cache + ") == 1");
+                }
+                sb.append(StringUtils.join(terms, " && "));
+            }
+            sb.append(";\n");
+            sb.append("if (__b").append(i).append(") {\n__mask |= ").append(1L << i).append("L;\n");
+            if(exclusive != null && exclusive[i]){
+                sb.append("return Long.valueOf(__mask);\n");
+            }
+            sb.append("}\n");
+        }
+        sb.append("return Long.valueOf(__mask);\n");
+        sb.append("}}");
+        return sb.toString();
+    }
+
+    private static Map<String, Class<?>> resolveFieldTypes(Set<String> references, String[] fieldNames, Class<?>[] fieldTypes) {
+        List<String> names = Arrays.asList(fieldNames);
+        Map<String, Class<?>> referenceTypes = new LinkedHashMap<>();
+        for (String reference : references) {
+            int position = names.indexOf(reference);
+            if(position < 0){
+                throw new ScriptExecuteException("column [" + reference + "] not found, available columns " + names);
+            }
+            referenceTypes.put(reference, fieldTypes[position] == null ? Object.class : fieldTypes[position]);
+        }
+        return referenceTypes;
+    }
+
+    private static void appendHeader(StringBuilder sb, Map<String, Class<?>> referenceTypes, String[] fieldNames, boolean positional, String... packages) {
+        sb.append("import java.util.*;\n");
+        if(packages != null){
+            for (String extraPackage : packages) {
+                if(StringUtils.isNotEmpty(extraPackage)){
+                    sb.append(extraPackage).append("\n");
+                }
+            }
+        }
+        sb.append("public class ").append(CLASS_NAME).append(" implements com.leonside.dataroad.common.script.ScriptEvaluator {\n");
+        sb.append("public Object evaluate(Object record, Map params) throws Exception {\n");
+        sb.append(ROW_CLASS).append(" row = (").append(ROW_CLASS).append(") record;\n");
+
+        if(referenceTypes.isEmpty()){
+            return;
+        }
+        for (String reference : referenceTypes.keySet()) {
+            sb.append("Object ").append(RAW_VARIABLE_PREFIX).append(reference).append(";\n");
+        }
+        List<String> names = Arrays.asList(fieldNames);
+        if(positional){
+            sb.append("if (row.getFieldNames(false) == null) {\n");
+            for (String reference : referenceTypes.keySet()) {
+                sb.append(RAW_VARIABLE_PREFIX).append(reference).append(" = row.getField(").append(names.indexOf(reference)).append(");\n");
+            }
+            sb.append("} else {\n");
+        }
+        for (String reference : referenceTypes.keySet()) {
+            sb.append(RAW_VARIABLE_PREFIX).append(reference).append(" = row.getField(\"").append(reference).append("\");\n");
+        }
+        if(positional){
+            sb.append("}\n");
+        }
+    }
+
+    private static void appendReferenceField(StringBuilder sb, String reference, Class<?> type) {
+        String referenceType = referenceType(type);
+        sb.append(referenceType).append(" ").append(FIELD_VARIABLE_PREFIX).append(reference).append(" = ")
+                .append(referenceType.equals("Object") ? "" : "(" + referenceType + ") ").append(RAW_VARIABLE_PREFIX).append(reference).append(";\n");
+    }
+
+    /**
+     * 按顶层&&拆分表达式，存在顶层||、?:时不拆分
+     */
+    private List<List<Token>> conjuncts() {
+        List<List<Token>> conjuncts = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            String text = tokens.get(i).getKind() == TokenKind.OTHER ? tokens.get(i).getText() : "";
+            if(text.equals("(") || text.equals("[") || text.equals("{")){
+                depth++;
+            }else if(text.equals(")") || text.equals("]") || text.equals("}")){
+                depth--;
+            }else if(depth == 0 && (text.equals("|") || text.equals("?"))){
+                return Arrays.asList(tokens);
+            }else if(depth == 0 && text.equals("&") && i + 1 < tokens.size() && tokens.get(i + 1).getText().equals("&")){
+                conjuncts.add(tokens.subList(start, i));
+                start = i + 2;
+                i++;
+            }
+        }
+        conjuncts.add(tokens.subList(start, tokens.size()));
+        return conjuncts;
+    }
+
+    private String guard(List<Token> conjunct, Map<String, Class<?>> referenceTypes) {
+        StringBuilder guard = new StringBuilder();
+        conjunct.stream().filter(it -> it.getKind() == TokenKind.FIELD).map(it -> it.getText()).distinct()
+                .filter(it -> primitiveType(referenceTypes.get(it)) != null)
+                .forEach(it -> guard.append(RAW_VARIABLE_PREFIX).append(it).append(" != null && "));
+        return guard.toString();
+    }
+
+    private String render(List<Token> source, Map<String, Class<?>> referenceTypes) {
+        List<Token> rendered = new ArrayList<>(source);
+        //字符串==、!=比较转为equals
+        for (int i = 0; i < rendered.size(); i++) {
+            Token token = rendered.get(i);
+            if(token.getKind() != TokenKind.EQUALITY){
+                continue;
+            }
+            int left = ScriptTokenizer.previous(rendered, i);
+            int right = ScriptTokenizer.next(rendered, i);
+            if(left < 0 || right < 0 || !isOperand(rendered.get(left)) || !isOperand(rendered.get(right))){
+                continue;
+            }
+            if(!isString(rendered.get(left), referenceTypes) && !isString(rendered.get(right), referenceTypes)){
+                continue;
+            }
+            int beforeLeft = ScriptTokenizer.previous(rendered, left);
+            int afterRight = ScriptTokenizer.next(rendered, right);
+            if((beforeLeft >= 0 && isBinding(rendered.get(beforeLeft))) || (afterRight >= 0 && isBinding(rendered.get(afterRight)))){
+                continue;
+            }
+            String equals = (token.getText().equals("!=") ? "!" : "") + "java.util.Objects.equals("
+                    + renderToken(rendered.get(left)) + ", " + renderToken(rendered.get(right)) + ")";
+            List<Token> range = rendered.subList(left, right + 1);
+            range.clear();
+            range.add(new Token(TokenKind.OTHER, equals));
+            i = left;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        rendered.forEach(it -> sb.append(renderToken(it)));
+        return sb.toString();
+    }
+
+    private void checkNotAssigned(int fieldIndex) {
+        int next = ScriptTokenizer.next(tokens, fieldIndex);
+        if(next < 0){
+            return;
+        }
+        String text = tokens.get(next).getText();
+        int afterNext = next + 1 < tokens.size() ? next + 1 : -1;
+        boolean compound = afterNext > 0 && "+-*/%&|^".contains(text) && tokens.get(afterNext).getText().equals("=");
+        boolean increment = afterNext > 0 && ("+".equals(text) || "-".equals(text)) && tokens.get(afterNext).getText().equals(text);
+        if(text.equals("=") || compound || increment){
+            throw new ScriptExecuteException("column [" + tokens.get(fieldIndex).getText() + "] can not be assigned, use row.setField(\""
+                    + tokens.get(fieldIndex).getText() + "\", value) instead. [" + scriptSource + "]");
+        }
+    }
+
+    private boolean isOperand(Token token) {
+        return token.getKind() == TokenKind.STRING || token.getKind() == TokenKind.FIELD || token.getKind() == TokenKind.IDENTIFIER || token.getKind() == TokenKind.NUMBER;
+    }
+
+    private boolean isString(Token token, Map<String, Class<?>> referenceTypes) {
+        return token.getKind() == TokenKind.STRING
+                || (token.getKind() == TokenKind.FIELD && referenceTypes.get(token.getText()) == String.class);
+    }
+
+    /**
+     * 操作数两侧紧邻的运算符优先级高于==时（如 a + b == "x"、a.b == "x"），不做equals转换
+     */
+    private boolean isBinding(Token token) {
+        return token.getKind() == TokenKind.OTHER && (token.getText().length() == 1 && "+-*/%.([".contains(token.getText()));
+    }
+
+    private String renderToken(Token token) {
+        switch (token.getKind()){
+            case FIELD:
+                return FIELD_VARIABLE_PREFIX + token.getText();
+            case STRING:
+                return javaString(token.getStringContent());
+            case COMMENT:
+                return " ";
+            default:
+                return token.getText();
+        }
+    }
+
+    /**
+     * 单、双引号字符串统一转为Java双引号字符串
+     */
+    private static String javaString(String content) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (int i = 0; i < content.length(); i++) {
+            char ch = content.charAt(i);
+            if(ch == '\\' && i + 1 < content.length()){
+                char escaped = content.charAt(++i);
+                literal.append(escaped == '\'' ? "'" : "\\" + escaped);
+            }else{
+                literal.append(ch == '"' ? "\\\"" : String.valueOf(ch));
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    private static String primitiveType(Class<?> type) {
+        if(type == Integer.class || type == Short.class || type == Byte.class){
+            return "int";
+        }else if(type == Long.class){
+            return "long";
+        }else if(type == Double.class || type == Float.class){
+            return "double";
+        }else if(type == Boolean.class){
+            return "boolean";
+        }
+        return null;
+    }
+
+    private static String boxedType(String primitive) {
+        switch (primitive){
+            case "int":
+                return "Integer";
+            case "long":
+                return "Long";
+            case "double":
+                return "Double";
+            default:
+                return "Boolean";
+        }
+    }
+
+    private static String defaultValue(String primitive) {
+        switch (primitive){
+            case "int":
+                return "0";
+            case "long":
+                return "0L";
+            case "double":
+                return "0.0D";
+            default:
+                return "false";
+        }
+    }
+
+    private static String unbox(String primitive, String raw) {
+        return primitive.equals("boolean") ? "((Boolean) " + raw + ").booleanValue()" : "((Number) " + raw + ")." + primitive + "Value()";
+    }
+
+    private static String referenceType(Class<?> type) {
+        if(type == String.class){
+            return "String";
+        }
+        return Modifier.isPublic(type.getModifiers()) && type.getCanonicalName() != null && !type.isArray() ? type.getCanonicalName() : "Object";
+    }
+}
@@ -0,0 +1,44 @@
+package com.leonside.dataroad.common.script.janino;
+
+import com.leonside.dataroad.common.exception.ScriptExecuteException;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 将多个分支条件表达式编译为一个Java类，evaluate返回命中分支的位掩码（Long），分支下标即掩码位，最多支持64个分支
+ * @see JaninoCodeGenerator#generateRoute
+ * @author leon
+ */
+public class JaninoRouteEvaluator extends JaninoScriptEvaluator {
+
+    public static final int MAX_BRANCHES = Long.SIZE;
+
+    private List<String> branchExpressions;
+
+    private boolean[] exclusive;
+
+    public JaninoRouteEvaluator(List<String> branchExpressions, boolean[] exclusive, String... packages) {
+        super(branchExpressions.toString(), packages);
+        if(branchExpressions.size() > MAX_BRANCHES){
+            throw new ScriptExecuteException("route branches can not exceed " + MAX_BRANCHES);
+        }
+        this.branchExpressions = branchExpressions;
+        this.exclusive = exclusive;
+    }
+
+    @Override
+    protected Set<String> fieldReferences() {
+        Set<String> fieldReferences = new LinkedHashSet<>();
+        branchExpressions.forEach(it -> fieldReferences.addAll(new JaninoCodeGenerator(it).getFieldReferences()));
+        return fieldReferences;
+    }
+
+    @Override
+    protected String generate(String[] fieldNames, Class<?>[] fieldTypes, boolean positional) {
+        List<JaninoCodeGenerator> branches = branchExpressions.stream().map(JaninoCodeGenerator::new).collect(Collectors.toList());
+        return JaninoCodeGenerator.generateRoute(branches, exclusive, fieldNames, fieldTypes, positional, packages);
+    }
+}
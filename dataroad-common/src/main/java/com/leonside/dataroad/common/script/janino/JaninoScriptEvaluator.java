@@ -0,0 +1,153 @@
+package com.leonside.dataroad.common.script.janino;
+
+import com.leonside.dataroad.common.exception.ScriptExecuteException;
+import com.leonside.dataroad.common.script.FieldTypeAware;
+import com.leonside.dataroad.common.script.ScriptEvaluator;
+import org.codehaus.janino.SimpleCompiler;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于Janino将脚本编译为Java字节码执行，row.字段名 按绑定的字段类型解析为强类型字段访问。
+ * 已绑定字段类型时在open中编译，否则按行内字段值类型编译：字段值为null时类型未知，暂按可编译的占位类型编译，
+ * 待该字段出现非null值时按实际类型重新编译。
+ * @author leon
+ */
+public class JaninoScriptEvaluator implements ScriptEvaluator, FieldTypeAware {
+
+    protected String scriptSource;
+
+    protected String[] packages;
+
+    private String[] fieldNames;
+
+    private Class<?>[] fieldTypes;
+
+    private transient ScriptEvaluator scriptEvaluator;
+
+    /**
+     * 类型未知字段的占位类型，字段值均为null，仅需编译通过
+     */
+    private static final Class<?>[] PLACEHOLDER_TYPES = {Object.class, Double.class, String.class, Boolean.class};
+
+    private transient String[] recordFieldNames;
+
+    private transient Class<?>[] recordFieldTypes;
+
+    private transient Method getFieldMethod;
+
+    private transient boolean unknownFieldTypes;
+
+    public JaninoScriptEvaluator(String scriptSource, String... packages){
+        this.scriptSource = scriptSource;
+        this.packages = packages;
+    }
+
+    @Override
+    public void bindFieldTypes(String[] fieldNames, Class<?>[] fieldTypes) {
+        this.fieldNames = fieldNames;
+        this.fieldTypes = fieldTypes;
+    }
+
+    @Override
+    public void open() throws Exception {
+        if(fieldNames != null){
+            scriptEvaluator = compile(generate(fieldNames, fieldTypes, true));
+        }else if(fieldReferences().isEmpty()){
+            scriptEvaluator = compile(generate(new String[0], new Class<?>[0], false));
+        }
+    }
+
+    @Override
+    public Object evaluate(Object record, Map<String, Object> params) throws Exception {
+
+        if(scriptEvaluator == null && recordFieldNames == null){
+            open();
+        }
+        if(scriptEvaluator == null || unknownFieldTypes){
+            boolean inferred = inferRecordTypes(record);
+            if(scriptEvaluator == null || inferred){
+                scriptEvaluator = null;
+                scriptEvaluator = compileWithRecordTypes();
+            }
+        }
+
+        return scriptEvaluator.evaluate(record, params);
+    }
+
+    /**
+     * 脚本引用的字段
+     */
+    protected Set<String> fieldReferences() {
+        return new JaninoCodeGenerator(scriptSource).getFieldReferences();
+    }
+
+    /**
+     * 生成Java类源码
+     */
+    protected String generate(String[] fieldNames, Class<?>[] fieldTypes, boolean positional) {
+        return new JaninoCodeGenerator(scriptSource).generate(fieldNames, fieldTypes, positional, packages);
+    }
+
+    /**
+     * 按行内字段值推断字段类型，有新推断出的类型时返回true
+     */
+    private boolean inferRecordTypes(Object record) throws Exception {
+        boolean inferred = false;
+        if(recordFieldNames == null){
+            recordFieldNames = fieldReferences().toArray(new String[0]);
+            recordFieldTypes = new Class<?>[recordFieldNames.length];
+            getFieldMethod = record.getClass().getMethod("getField", String.class);
+            inferred = true;
+        }
+        unknownFieldTypes = false;
+        for (int i = 0; i < recordFieldNames.length; i++) {
+            if(recordFieldTypes[i] != null){
+                continue;
+            }
+            Object value = getFieldMethod.invoke(record, recordFieldNames[i]);
+            if(value != null){
+                recordFieldTypes[i] = value.getClass();
+                inferred = true;
+            }else{
+                unknownFieldTypes = true;
+            }
+        }
+        return inferred;
+    }
+
+    private ScriptEvaluator compileWithRecordTypes() {
+        if(!unknownFieldTypes){
+            return compile(generate(recordFieldNames, recordFieldTypes, false));
+        }
+        ScriptExecuteException error = null;
+        for (Class<?> placeholderType : PLACEHOLDER_TYPES) {
+            Class<?>[] types = recordFieldTypes.clone();
+            for (int i = 0; i < types.length; i++) {
+                if(types[i] == null){
+                    types[i] = placeholderType;
+                }
+            }
+            try {
+                return compile(generate(recordFieldNames, types, false));
+            } catch (ScriptExecuteException e) {
+                error = error == null ? e : error;
+            }
+        }
+        throw error;
+    }
+
+    private ScriptEvaluator compile(String classSource) {
+        SimpleCompiler compiler = new SimpleCompiler();
+        compiler.setParentClassLoader(JaninoScriptEvaluator.class.getClassLoader());
+        try {
+            compiler.cook(classSource);
+            return (ScriptEvaluator) compiler.getClassLoader().loadClass(JaninoCodeGenerator.CLASS_NAME).newInstance();
+        } catch (Throwable e) {
+            throw new ScriptExecuteException("script compilation failed [" + scriptSource + "], generated source:\n" + classSource, e);
+        }
+    }
+
+}
@@ -8,32 +8,49 @@ import javax.script.*;
 import java.util.Map;
 
 /**
+ * 脚本在open时通过Compilable编译为CompiledScript，每个实例使用独立的Bindings
  * @author leon
  */
 public class JavaScriptEvaluator implements ScriptEvaluator {
 
     private String scriptSource;
-    private volatile ScriptEngine scriptEngine ;
+
+    private transient ScriptEngine scriptEngine;
+
+    private transient CompiledScript compiledScript;
+
+    private transient Bindings bindings;
 
     public JavaScriptEvaluator(String scriptSource){
         this.scriptSource = scriptSource;
     }
 
+    @Override
+    public void open() throws ScriptExecuteException {
+        scriptEngine = new ScriptEngineManager().getEngineByName("nashorn");
+        bindings = scriptEngine.createBindings();
+        if(scriptEngine instanceof Compilable){
+            try {
+                compiledScript = ((Compilable) scriptEngine).compile(scriptSource);
+            } catch (ScriptException e) {
+                throw new ScriptExecuteException("javascript compilation failed", e);
+            }
+        }
+    }
+
     @Override
     public Object evaluate(Object record, Map<String, Object> param) throws ScriptExecuteException {
 
         if(scriptEngine == null){
-            synchronized(JavaScriptEvaluator.class){
-                if(scriptEngine == null){
-                    scriptEngine = new ScriptEngineManager().getEngineByName("nashorn");
-                }
-            }
+            open();
         }
 
-        SimpleBindings simpleBindings = new SimpleBindings();
-        simpleBindings.put(JobCommonConstant.SCRIPT_CONTEXT_KEY_ROW, record);
+        if(param != null){
+            bindings.putAll(param);
+        }
+        bindings.put(JobCommonConstant.SCRIPT_CONTEXT_KEY_ROW, record);
         try {
-            return scriptEngine.eval(scriptSource, simpleBindings);
+            return compiledScript != null ? compiledScript.eval(bindings) : scriptEngine.eval(scriptSource, bindings);
         } catch (ScriptException e) {
             throw new ScriptExecuteException("javascript execute exception",e);
         }
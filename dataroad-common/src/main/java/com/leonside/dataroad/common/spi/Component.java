@@ -1,5 +1,7 @@
 package com.leonside.dataroad.common.spi;
 
+import com.leonside.dataroad.common.context.OperatorConfig;
+
 import java.io.Serializable;
 
 /**
@@ -11,5 +13,12 @@ public interface Component extends Serializable {
 
     default void setName(String name){}
 
+    /**
+     * 节点算子配置，未配置时返回null
+     */
+    default OperatorConfig getOperatorConfig(){ return null;}
+
+    default void setOperatorConfig(OperatorConfig operatorConfig){}
+
     default String description(){ return "";}
 }
@@ -2,6 +2,7 @@ package com.leonside.dataroad.config;
 
 
 import com.leonside.dataroad.common.context.ExecuteContext;
+import com.leonside.dataroad.common.context.OperatorConfig;
 import com.leonside.dataroad.common.exception.JobConfigException;
 import com.leonside.dataroad.common.spi.Component;
 import com.leonside.dataroad.common.spi.ItemProcessor;
@@ -51,6 +52,15 @@ public class ComponentFactory {
             throw new JobConfigException("Unknown Component, please check whether the configuration is valid. ComponentType ["+ componentType +"], Component PluginName name [" + componentConfig.getPluginName() + "]");
         }
 
+        OperatorConfig operatorConfig = componentConfig.getOperator();
+        if(operatorConfig != null && !operatorConfig.isEmpty()){
+            operatorConfig.validate(componentConfig.getName());
+            if(componentType == ComponentType.reader && operatorConfig.getPartitioning() != null){
+                throw new JobConfigException("reader [" + componentConfig.getName() + "] does not support partitioning.");
+            }
+            component.setOperatorConfig(operatorConfig);
+        }
+
         initComponent(component, executeContext, componentConfig);
         component.setName(componentConfig.getName());
         return component;
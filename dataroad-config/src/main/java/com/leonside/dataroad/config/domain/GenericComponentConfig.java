@@ -4,6 +4,8 @@ package com.leonside.dataroad.config.domain;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.leonside.dataroad.common.context.OperatorConfig;
 import com.leonside.dataroad.common.exception.JobConfigException;
 import com.leonside.dataroad.core.component.ComponentType;
 import lombok.Data;
@@ -28,6 +30,12 @@ public class GenericComponentConfig implements Serializable {
 
     private Map<String,Object> parameter;
 
+    /**
+     * 算子配置，parallelism、partitioning等与type同级配置
+     */
+    @JsonUnwrapped
+    private OperatorConfig operator = new OperatorConfig();
+
     @JsonIgnore
     @JsonIgnoreProperties(ignoreUnknown = true)
     private Set<GenericComponentConfig> childs = new LinkedHashSet<>();
@@ -3,6 +3,7 @@ package com.leonside.dataroad.config.job;
 import com.google.common.collect.Sets;
 import com.leonside.dataroad.common.context.ExecuteContext;
 import com.leonside.dataroad.common.context.JobSetting;
+import com.leonside.dataroad.common.context.PipelineConfig;
 import com.leonside.dataroad.common.exception.JobFlowException;
 import com.leonside.dataroad.common.extension.ExtensionLoader;
 import com.leonside.dataroad.common.spi.JobExecutionListener;
@@ -63,10 +64,28 @@ public class JsonJobCreator implements JobCreator {
 
         List<Job> jobList = new ArrayList<>();
 
-        for (Map<String, GenericComponentConfig> componentConfigMap : job.getContent()) {
+        PipelineConfig pipelineConfig = job.getSetting().getPipeline();
+        boolean merge = pipelineConfig != null && pipelineConfig.isMerge() && job.getContent().size() > 1;
+        int maxConcurrent = merge && pipelineConfig.getMaxConcurrent() > 0 ? pipelineConfig.getMaxConcurrent() : job.getContent().size();
+
+        List<Job> mergingJobs = new ArrayList<>();
+        ExecuteContext mergingExecuteContext = null;
+
+        for (int i = 0; i < job.getContent().size(); i++) {
+            Map<String, GenericComponentConfig> componentConfigMap = job.getContent().get(i);
             GenericComponentConfig startComponentConfig = componentConfigMap.values().iterator().next();
 
-            ExecuteContext executeContext = jobEngineProvider.createExecuteContext(job.getSetting(),job.getAllComponents(), options);
+            ExecuteContext executeContext;
+            if(!merge){
+                executeContext = jobEngineProvider.createExecuteContext(job.getSetting(),job.getAllComponents(), options);
+            }else{
+                //同一任务中的content共享执行环境，各自使用独立的上下文
+                executeContext = mergingExecuteContext == null ? jobEngineProvider.createExecuteContext(job.getSetting(),job.getAllComponents(), options)
+                        : jobEngineProvider.forkExecuteContext(mergingExecuteContext);
+                executeContext.setPipelineName(i + "-" + startComponentConfig.getName());
+                mergingExecuteContext = mergingExecuteContext == null ? executeContext : mergingExecuteContext;
+            }
+
             JobBuilder jobBuilder = JobBuilder.newInstance().listener(new JobExecutionListener() {
             }).executeContext(executeContext); //todo
             JobFlowBuilder jobFlowBuilder = jobBuilder.reader(ComponentFactory.getComponent(executeContext, startComponentConfig));
@@ -77,7 +96,17 @@ public class JsonJobCreator implements JobCreator {
 
             Job buildJob = jobFlowBuilder.build();
 
-            jobList.add(buildJob);
+            if(!merge){
+                jobList.add(buildJob);
+                continue;
+            }
+
+            mergingJobs.add(buildJob);
+            if(mergingJobs.size() == maxConcurrent || i == job.getContent().size() - 1){
+                jobList.add(jobEngineProvider.mergeJobs(mergingJobs));
+                mergingJobs = new ArrayList<>();
+                mergingExecuteContext = null;
+            }
         }
 
         return jobList;
@@ -2,6 +2,10 @@ package com.leonside.dataroad.core.aggregations;
 
 import org.apache.commons.lang.math.NumberUtils;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 public interface NumberFunction{
         Object create();
         Object sum(Object o1, Object o2);
@@ -10,6 +14,8 @@ public interface NumberFunction{
         Object min(Object o1, Object o2);
         Double avg(Object o1, Object o2);
         Double avgTotal(Object o1, long size);
+        void write(Object o1, DataOutput out) throws IOException;
+        Object read(DataInput in) throws IOException;
 
   public static NumberFunction getForClass(Class<?> clazz) {
 
@@ -64,6 +70,14 @@ public interface NumberFunction{
         public Double avgTotal(Object o1, long size) {
                 return Double.valueOf((Integer)o1)/ size;
         }
+        @Override
+        public void write(Object o1, DataOutput out) throws IOException {
+                out.writeInt(((Number)o1).intValue());
+        }
+        @Override
+        public Object read(DataInput in) throws IOException {
+                return in.readInt();
+        }
 }
         public static class LongFunction implements NumberFunction {
         @Override
@@ -96,6 +110,14 @@ public interface NumberFunction{
         public Double avgTotal(Object o1, long size) {
                 return Double.valueOf((Long)o1)/ size;
         }
+        @Override
+        public void write(Object o1, DataOutput out) throws IOException {
+                out.writeLong(((Number)o1).longValue());
+        }
+        @Override
+        public Object read(DataInput in) throws IOException {
+                return in.readLong();
+        }
 }
 
         public static class ShortFunction implements NumberFunction {
@@ -129,6 +151,14 @@ public interface NumberFunction{
         public Double avgTotal(Object o1, long size) {
                 return Double.valueOf((Short)o1)/ size;
         }
+        @Override
+        public void write(Object o1, DataOutput out) throws IOException {
+                out.writeShort(((Number)o1).shortValue());
+        }
+        @Override
+        public Object read(DataInput in) throws IOException {
+                return in.readShort();
+        }
 }
 
         public static class FloatFunction implements NumberFunction {
@@ -162,6 +192,14 @@ public interface NumberFunction{
         public Double avgTotal(Object o1, long size) {
                 return Double.valueOf((Float)o1)/ size;
         }
+        @Override
+        public void write(Object o1, DataOutput out) throws IOException {
+                out.writeFloat(((Number)o1).floatValue());
+        }
+        @Override
+        public Object read(DataInput in) throws IOException {
+                return in.readFloat();
+        }
 }
 
         public static class DoubleFunction implements NumberFunction {
@@ -193,5 +231,13 @@ public interface NumberFunction{
         public Double avgTotal(Object o1, long size) {
                 return Double.valueOf((Double)o1)/ size;
         }
+        @Override
+        public void write(Object o1, DataOutput out) throws IOException {
+                out.writeDouble(((Number)o1).doubleValue());
+        }
+        @Override
+        public Object read(DataInput in) throws IOException {
+                return in.readDouble();
+        }
 }
 }
\ No newline at end of file
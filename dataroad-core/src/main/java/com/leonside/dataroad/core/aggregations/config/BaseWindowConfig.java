@@ -5,9 +5,12 @@ import com.leonside.dataroad.core.aggregations.AggerationEnum;
 import lombok.Data;
 import org.apache.commons.collections.MapUtils;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * @author leon
@@ -57,6 +60,20 @@ public abstract class BaseWindowConfig extends BaseConfig  {
         return aggerations;
     }
 
+    /**
+     * 聚合引用的字段，包括分组字段及聚合字段
+     */
+    public Set<String> referencedColumns(){
+        Set<String> columns = new LinkedHashSet<>();
+        if(keyBy != null){
+            columns.addAll(Arrays.asList(keyBy));
+        }
+        if(agg != null){
+            columns.addAll(agg.keySet());
+        }
+        return columns;
+    }
+
     @Override
     public boolean validate() {
         if(MapUtils.isEmpty(agg)){
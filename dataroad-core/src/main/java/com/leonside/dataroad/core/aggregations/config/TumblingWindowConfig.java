@@ -6,6 +6,7 @@ import lombok.Data;
 import org.apache.commons.lang.StringUtils;
 
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -24,10 +25,29 @@ public class TumblingWindowConfig extends BaseWindowConfig  {
 
     public int outOfOrderness = 0;
 
+    /**
+     * 提前触发时间间隔（秒），大于0时窗口结束前按此间隔输出中间聚合结果
+     */
+    public long earlyFireInterval = 0;
+
+    /**
+     * 提前触发元素个数，大于0时窗口内每累计N条记录输出一次中间聚合结果
+     */
+    public long earlyFireCount = 0;
+
     public TumblingWindowConfig(Map<String, Object> parameter) {
         super(parameter);
     }
 
+    @Override
+    public Set<String> referencedColumns() {
+        Set<String> columns = super.referencedColumns();
+        if(timeType == WindowTimeType.event && StringUtils.isNotEmpty(eventTimeColumn)){
+            columns.add(eventTimeColumn);
+        }
+        return columns;
+    }
+
     public TumblingWindowConfig(){
         super(null);
     }
@@ -44,9 +64,21 @@ public class TumblingWindowConfig extends BaseWindowConfig  {
             throw new IllegalArgumentException("eventTimeColumn cannot be empty when timeType is WindowTimetype.event");
         }
 
+        if(earlyFireInterval < 0 || earlyFireCount < 0){
+            throw new IllegalArgumentException("earlyFireInterval and earlyFireCount cannot be negative");
+        }
+
         return super.validate();
     }
 
+    /**
+     * 是否开启提前触发，开启后窗口输出为UPDATE_AFTER类型的upsert记录
+     * @return
+     */
+    public boolean isEarlyFire(){
+        return earlyFireInterval > 0 || earlyFireCount > 0;
+    }
+
     @Override
     public Class<? extends ConfigKey> bindConfigKey() {
         return TumblingWindowConfigKey.class;
@@ -15,6 +15,8 @@ public enum TumblingWindowConfigKey implements ConfigKey {
     KEY_TIMETYPE("timeType","窗口时间类型",false,"process", "窗口时间类型，包含event, process, ingestion,其中默认process",FieldType.ENUM),
     KEY_EVENTTIMECOLUMN("eventTimeColumn","业务时间字段",false,"", "当窗口类型为event，相应设置业务时间字段",FieldType.STRING),
     KEY_OUTOFORDERNESS("outOfOrderness","最大延迟时间",false,"0", "最大延迟时间，默认0",FieldType.NUMBER),
+    KEY_EARLYFIREINTERVAL("earlyFireInterval","提前触发间隔",false,"0", "提前触发时间间隔（秒），大于0时窗口结束前周期性输出中间聚合结果，默认0不开启",FieldType.NUMBER),
+    KEY_EARLYFIRECOUNT("earlyFireCount","提前触发条数",false,"0", "提前触发元素个数，大于0时窗口内每累计N条记录输出一次中间聚合结果，默认0不开启",FieldType.NUMBER),
 
     ;
     private String name;
@@ -5,6 +5,9 @@ import com.leonside.dataroad.core.aggregations.AggerationEnum;
 import com.leonside.dataroad.core.aggregations.NumberFunction;
 import lombok.Data;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Date;
 import java.util.LinkedHashMap;
@@ -50,6 +53,46 @@ public abstract class Aggeration<IN,OUT,T extends Aggeration> implements Seriali
 
     public abstract T merge(T aggeration);
 
+    /**
+     * 序列化聚合中间状态，供状态后端使用的紧凑二进制格式
+     * @param out
+     * @throws IOException
+     */
+    public void serialize(DataOutput out) throws IOException {
+        out.writeBoolean(aggField != null);
+        if(aggField != null){
+            out.writeUTF(aggField);
+        }
+        out.writeLong(dumpTime);
+        doSerialize(out);
+    }
+
+    /**
+     * 从二进制格式恢复聚合中间状态，当前实例需由相同的值类型、聚合类型构建
+     * @param in
+     * @throws IOException
+     */
+    public void deserialize(DataInput in) throws IOException {
+        aggField = in.readBoolean() ? in.readUTF() : null;
+        dumpTime = in.readLong();
+        doDeserialize(in);
+    }
+
+    protected abstract void doSerialize(DataOutput out) throws IOException;
+
+    protected abstract void doDeserialize(DataInput in) throws IOException;
+
+    protected void writeValue(Object value, DataOutput out) throws IOException {
+        out.writeBoolean(value != null);
+        if(value != null){
+            numberFunction.write(value, out);
+        }
+    }
+
+    protected Object readValue(DataInput in) throws IOException {
+        return in.readBoolean() ? numberFunction.read(in) : null;
+    }
+
     protected Map<String,Object> getBasicRow() {
         Map<String,Object> basicMap = new LinkedHashMap<>();
         basicMap.put(AGGERATION_KEY_AGGFIELD, getAggField());
@@ -2,6 +2,9 @@ package com.leonside.dataroad.core.aggregations.response;
 
 import com.leonside.dataroad.core.aggregations.AggerationEnum;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -47,6 +50,18 @@ public class Avg<IN> extends SingleValueAggeration<IN,Double,Avg> {
         return getNumberFunction().avgTotal(sum.getValue(), count.getValue());
     }
 
+    @Override
+    protected void doSerialize(DataOutput out) throws IOException {
+        count.doSerialize(out);
+        sum.doSerialize(out);
+    }
+
+    @Override
+    protected void doDeserialize(DataInput in) throws IOException {
+        count.doDeserialize(in);
+        sum.doDeserialize(in);
+    }
+
     @Override
     public void init() {
         avg = 0.0;
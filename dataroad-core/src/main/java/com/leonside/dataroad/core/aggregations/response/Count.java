@@ -2,6 +2,9 @@ package com.leonside.dataroad.core.aggregations.response;
 
 import com.leonside.dataroad.core.aggregations.AggerationEnum;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -43,6 +46,16 @@ public class Count<IN> extends SingleValueAggeration<IN, Long,Count> {
         return count;
     }
 
+    @Override
+    protected void doSerialize(DataOutput out) throws IOException {
+        out.writeLong(count);
+    }
+
+    @Override
+    protected void doDeserialize(DataInput in) throws IOException {
+        count = in.readLong();
+    }
+
     @Override
     public void init() {
         count = 0L;
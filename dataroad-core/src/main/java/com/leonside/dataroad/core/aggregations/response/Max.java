@@ -2,6 +2,9 @@ package com.leonside.dataroad.core.aggregations.response;
 
 import com.leonside.dataroad.core.aggregations.AggerationEnum;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -43,6 +46,16 @@ public class Max<IN,OUT> extends SingleValueAggeration<IN,OUT,Max> {
         return max;
     }
 
+    @Override
+    protected void doSerialize(DataOutput out) throws IOException {
+        writeValue(max, out);
+    }
+
+    @Override
+    protected void doDeserialize(DataInput in) throws IOException {
+        max = (OUT) readValue(in);
+    }
+
     @Override
     public void init() {
         max = (OUT) getNumberFunction().create();
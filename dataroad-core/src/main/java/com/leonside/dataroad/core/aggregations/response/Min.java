@@ -2,6 +2,9 @@ package com.leonside.dataroad.core.aggregations.response;
 
 import com.leonside.dataroad.core.aggregations.AggerationEnum;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -48,6 +51,16 @@ public class Min<IN,OUT> extends SingleValueAggeration<IN,OUT,Min> {
         return min;
     }
 
+    @Override
+    protected void doSerialize(DataOutput out) throws IOException {
+        writeValue(min, out);
+    }
+
+    @Override
+    protected void doDeserialize(DataInput in) throws IOException {
+        min = (OUT) readValue(in);
+    }
+
     @Override
     public void init() {
 //        min = (OUT) getNumberFunction().create();
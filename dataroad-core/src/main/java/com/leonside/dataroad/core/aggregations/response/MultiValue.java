@@ -3,6 +3,9 @@ package com.leonside.dataroad.core.aggregations.response;
 import com.leonside.dataroad.common.utils.Asserts;
 import com.leonside.dataroad.core.aggregations.AggerationEnum;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -60,6 +63,24 @@ public class MultiValue<IN,OUT> extends MultiValueAggeration<IN, OUT,MultiValue>
         return this;
     }
 
+    public List<AggerationEnum> getAggerationEnums() {
+        return aggerationEnums;
+    }
+
+    @Override
+    protected void doSerialize(DataOutput out) throws IOException {
+        for (AggerationEnum aggerationEnum : aggerationEnums) {
+            aggerationMap.get(aggerationEnum).doSerialize(out);
+        }
+    }
+
+    @Override
+    protected void doDeserialize(DataInput in) throws IOException {
+        for (AggerationEnum aggerationEnum : aggerationEnums) {
+            aggerationMap.get(aggerationEnum).doDeserialize(in);
+        }
+    }
+
     @Override
     public OUT getValue(AggerationEnum aggerationEnum) {
         return (OUT) aggerationMap.get(aggerationEnum).getValue();
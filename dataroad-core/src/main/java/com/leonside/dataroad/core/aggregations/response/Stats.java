@@ -2,6 +2,9 @@ package com.leonside.dataroad.core.aggregations.response;
 
 import com.leonside.dataroad.core.aggregations.AggerationEnum;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -82,6 +85,22 @@ public class Stats<IN,OUT> extends MultiValueAggeration<IN, OUT,Stats> {
         return this;
     }
 
+    @Override
+    protected void doSerialize(DataOutput out) throws IOException {
+        count.doSerialize(out);
+        max.doSerialize(out);
+        min.doSerialize(out);
+        sum.doSerialize(out);
+    }
+
+    @Override
+    protected void doDeserialize(DataInput in) throws IOException {
+        count.doDeserialize(in);
+        max.doDeserialize(in);
+        min.doDeserialize(in);
+        sum.doDeserialize(in);
+    }
+
     @Override
     public void init() {
         avg = new Avg(getValueClass());
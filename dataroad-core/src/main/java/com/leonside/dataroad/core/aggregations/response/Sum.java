@@ -2,6 +2,9 @@ package com.leonside.dataroad.core.aggregations.response;
 
 import com.leonside.dataroad.core.aggregations.AggerationEnum;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -43,6 +46,16 @@ public class Sum<IN,OUT> extends SingleValueAggeration<IN,OUT,Sum> {
         return sum;
     }
 
+    @Override
+    protected void doSerialize(DataOutput out) throws IOException {
+        writeValue(sum, out);
+    }
+
+    @Override
+    protected void doDeserialize(DataInput in) throws IOException {
+        sum = (OUT) readValue(in);
+    }
+
     @Override
     public void init() {
         sum = (OUT) getNumberFunction().create();
@@ -3,6 +3,9 @@ package com.leonside.dataroad.core.aggregations.response;
 
 import com.leonside.dataroad.core.aggregations.AggerationEnum;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -43,6 +46,14 @@ public class TopHits extends SingleValueAggeration {
         return null;
     }
 
+    @Override
+    protected void doSerialize(DataOutput out) throws IOException {
+    }
+
+    @Override
+    protected void doDeserialize(DataInput in) throws IOException {
+    }
+
     @Override
     public Object getValue() {
         return null;
@@ -10,6 +10,7 @@ import com.leonside.dataroad.core.Job;
 import com.leonside.dataroad.core.component.JobExtensionLoader;
 import com.leonside.dataroad.core.component.ComponentType;
 import com.leonside.dataroad.core.flow.SimpleJobFlow;
+import com.leonside.dataroad.core.planner.JobFlowPlanner;
 import com.leonside.dataroad.core.spi.JobEngineProvider;
 import com.leonside.dataroad.core.spi.JobExecutionDecider;
 import lombok.extern.slf4j.Slf4j;
@@ -58,10 +59,12 @@ public class JobFlowBuilder extends BaseJobFlowBuilder<JobFlowBuilder> {
 
     public Job build(){
 
-        log.debug(startJobFlow.toString());
-
         ExecuteContext executeContext = jobBuilder.getExecuteContext();
 
+        new JobFlowPlanner(executeContext.getJobSetting().getOptimizer()).optimize(startJobFlow);
+
+        log.debug(startJobFlow.toString());
+
         return jobEngineCreator.createJob(executeContext, startJobFlow);
     }
 
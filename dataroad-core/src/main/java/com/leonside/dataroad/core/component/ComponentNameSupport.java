@@ -1,5 +1,6 @@
 package com.leonside.dataroad.core.component;
 
+import com.leonside.dataroad.common.context.OperatorConfig;
 import com.leonside.dataroad.common.spi.Component;
 
 /**
@@ -9,6 +10,8 @@ public abstract class ComponentNameSupport implements Component {
 
     protected String name;
 
+    protected OperatorConfig operatorConfig;
+
     @Override
     public String getName() {
         return name;
@@ -18,4 +21,14 @@ public abstract class ComponentNameSupport implements Component {
     public void setName(String name) {
         this.name = name;
     }
+
+    @Override
+    public OperatorConfig getOperatorConfig() {
+        return operatorConfig;
+    }
+
+    @Override
+    public void setOperatorConfig(OperatorConfig operatorConfig) {
+        this.operatorConfig = operatorConfig;
+    }
 }
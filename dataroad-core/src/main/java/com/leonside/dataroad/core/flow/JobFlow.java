@@ -31,6 +31,11 @@ public abstract class JobFlow<T extends ExecuteContext> implements Serializable
         return task;
     }
 
+    public void setTask(Task task) {
+        Asserts.notNull(task, "task can not be null.");
+        this.task = task;
+    }
+
     public JobFlow getRootParent(){
         JobFlow parent = getParent();
         if (parent == null){
@@ -57,6 +62,17 @@ public abstract class JobFlow<T extends ExecuteContext> implements Serializable
         children.setParent(this);
     }
 
+    /**
+     * 移除直接子节点，子节点的下游节点接到当前节点
+     */
+    public void removeChildren() {
+        JobFlow next = children == null ? null : children.getChildren();
+        this.children = null;
+        if(next != null){
+            addChildren(next);
+        }
+    }
+
     public Optional<?> execute(T executeContext) throws Exception {
         return this.execute(executeContext, (Function<JobFlow, ?>) o -> o.getParentOutput(executeContext));
     }
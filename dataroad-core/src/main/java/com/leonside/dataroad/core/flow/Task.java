@@ -35,16 +35,19 @@ public class Task< CTX extends ExecuteContext, IN, OUT> implements Serializable
 
         if(component instanceof ItemReader){
 
-            return (Optional<OUT>) Optional.of(((ItemReader) component).read(executeContext));
+            return (Optional<OUT>) Optional.of(executeContext.configureOperator(component, ((ItemReader) component).read(executeContext)));
 
         }else if (component instanceof ItemWriter){
-            //todo
-            ((ItemWriter) component).write(executeContext, in);
+            //writer算子由插件创建，算子配置在创建时设置
+            ((ItemWriter) component).write(executeContext, executeContext.partition(component, in));
             return Optional.empty();
 
         }else if(component instanceof ItemProcessor){
 
-            return (Optional<OUT>) Optional.of(((ItemProcessor) component).process(executeContext, in));
+            IN partitioned = executeContext.partition(component, in);
+            Object out = ((ItemProcessor) component).process(executeContext, partitioned);
+            //直接返回输入的节点未创建算子，不设置算子配置
+            return (Optional<OUT>) Optional.of(out == partitioned ? out : executeContext.configureOperator(component, out));
 
         }else{
             throw new JobFlowException("unkown component type [" + component.getName() + "]");
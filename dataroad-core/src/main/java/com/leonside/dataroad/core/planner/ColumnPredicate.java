@@ -0,0 +1,116 @@
+package com.leonside.dataroad.core.planner;
+
+import com.leonside.dataroad.common.domain.ColumnType;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * 可下推的字段比较条件：字段 比较符 常量
+ * @author leon
+ */
+public class ColumnPredicate implements Serializable {
+
+    private final String column;
+
+    private final Operator operator;
+
+    private final Object value;
+
+    public ColumnPredicate(String column, Operator operator, Object value) {
+        this.column = column;
+        this.operator = operator;
+        this.value = value;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public boolean isNumeric(){
+        return value instanceof Number;
+    }
+
+    /**
+     * 字段声明类型与常量类型是否匹配，数值常量要求数值类型字段，字符串常量要求字符类型字段，
+     * 类型未声明或无法识别时不下推，避免数据源隐式转换报错或与脚本比较语义不一致
+     */
+    public boolean matchesColumnType(String columnType){
+        ColumnType type = declaredType(columnType);
+        if(type == null){
+            return false;
+        }
+        return isNumeric() ? ColumnType.NUMBER_TYPE.contains(type) : ColumnType.STRING_TYPE.contains(type);
+    }
+
+    /**
+     * 去除长度、精度及unsigned后按类型名匹配，ColumnType.getType对无法识别的类型返回STRING，此时返回null
+     */
+    static ColumnType declaredType(String columnType){
+        if(columnType == null){
+            return null;
+        }
+        String name = columnType.trim();
+        int parenthesis = name.indexOf('(');
+        if(parenthesis >= 0){
+            name = name.substring(0, parenthesis).trim();
+        }
+        if(name.toLowerCase(Locale.ENGLISH).endsWith(" unsigned")){
+            name = name.substring(0, name.length() - " unsigned".length()).trim();
+        }
+        if(name.isEmpty()){
+            return null;
+        }
+        ColumnType type = ColumnType.getType(name);
+        return type.name().equalsIgnoreCase(name) ? type : null;
+    }
+
+    static Object parseNumber(String literal){
+        return literal.indexOf('.') >= 0 ? new BigDecimal(literal) : (Object) Long.valueOf(literal);
+    }
+
+    @Override
+    public String toString() {
+        return column + " " + operator.getSymbol() + " " + (isNumeric() ? value : "'" + value + "'");
+    }
+
+    public enum Operator{
+        EQ("="),
+        GT(">"),
+        GE(">="),
+        LT("<"),
+        LE("<=");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+
+        /**
+         * 交换左右操作数后的比较符
+         */
+        public Operator reverse(){
+            switch (this){
+                case GT: return LT;
+                case GE: return LE;
+                case LT: return GT;
+                case LE: return GE;
+                default: return this;
+            }
+        }
+    }
+}
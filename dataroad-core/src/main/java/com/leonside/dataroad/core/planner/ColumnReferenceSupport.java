@@ -0,0 +1,22 @@
+package com.leonside.dataroad.core.planner;
+
+import java.util.Set;
+
+/**
+ * 声明组件引用的记录字段，用于reader字段裁剪
+ * @author leon
+ */
+public interface ColumnReferenceSupport {
+
+    /**
+     * 引用的字段名，返回null表示无法确定，即需要全部字段
+     */
+    Set<String> getReferencedColumns();
+
+    /**
+     * 是否输出新结构的记录（如聚合结果），为true时下游节点不再引用上游字段
+     */
+    default boolean isRecordRebuilt(){
+        return false;
+    }
+}
@@ -0,0 +1,17 @@
+package com.leonside.dataroad.core.planner;
+
+import java.util.List;
+
+/**
+ * 支持过滤条件下推的reader
+ * @author leon
+ */
+public interface FilterPushdownSupport {
+
+    /**
+     * 下推过滤条件至数据源查询
+     * @param predicates 候选条件，均为AND关系
+     * @return 实际下推的条件
+     */
+    List<ColumnPredicate> pushdownFilters(List<ColumnPredicate> predicates);
+}
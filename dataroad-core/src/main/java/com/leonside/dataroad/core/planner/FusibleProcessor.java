@@ -0,0 +1,16 @@
+package com.leonside.dataroad.core.planner;
+
+import com.leonside.dataroad.common.spi.ItemProcessor;
+
+/**
+ * 可与下游相邻processor合并为单个算子的processor
+ * @author leon
+ */
+public interface FusibleProcessor {
+
+    /**
+     * 与下游processor合并
+     * @return 合并后的processor，无法合并时返回null
+     */
+    ItemProcessor fuse(ItemProcessor next);
+}
@@ -0,0 +1,205 @@
+package com.leonside.dataroad.core.planner;
+
+import com.leonside.dataroad.common.context.OptimizerConfig;
+import com.leonside.dataroad.common.spi.Component;
+import com.leonside.dataroad.common.spi.ItemProcessor;
+import com.leonside.dataroad.common.spi.ItemReader;
+import com.leonside.dataroad.core.flow.JobFlow;
+import com.leonside.dataroad.core.flow.MultiJobFlow;
+import com.leonside.dataroad.core.flow.SimpleJobFlow;
+import com.leonside.dataroad.core.flow.Task;
+import com.leonside.dataroad.core.spi.ItemDeciderProcessor;
+import com.leonside.dataroad.core.spi.JobPredicate;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 流程优化器，任务执行前依次对流程进行改写：
+ * <ul>
+ *     <li>SQL下推：紧跟reader的SQL转换节点与reader合并为表扫描，SQL中的过滤条件、查询字段及LIMIT下推至数据源</li>
+ *     <li>过滤下推：紧跟reader的脚本过滤节点中 字段 比较符 常量 形式的AND条件下推至reader查询，过滤节点保留以保证脚本语义</li>
+ *     <li>字段裁剪：下游全部节点可确定引用字段时，裁剪reader未被引用的字段</li>
+ *     <li>节点合并：相邻的脚本过滤、脚本转换节点合并为单个算子，省去算子间的记录传递与拷贝</li>
+ * </ul>
+ * @author leon
+ */
+@Slf4j
+public class JobFlowPlanner {
+
+    private final OptimizerConfig optimizerConfig;
+
+    public JobFlowPlanner(OptimizerConfig optimizerConfig) {
+        this.optimizerConfig = optimizerConfig == null ? OptimizerConfig.defaultConfig() : optimizerConfig;
+    }
+
+    public void optimize(SimpleJobFlow startJobFlow){
+        if(optimizerConfig.isSqlPushdown()){
+            fuseReader(startJobFlow);
+        }
+
+        Component reader = startJobFlow.getTask().getComponent();
+
+        if(optimizerConfig.isFilterPushdown()){
+            pushdownFilters(reader, startJobFlow.getChildren());
+        }
+
+        if(optimizerConfig.isProjectionPushdown()){
+            pushdownProjection(reader, startJobFlow.getChildren());
+        }
+
+        if(optimizerConfig.isFuse()){
+            fuseProcessors(startJobFlow);
+        }
+    }
+
+    private void fuseReader(SimpleJobFlow startJobFlow){
+        JobFlow jobFlow = startJobFlow.getChildren();
+        if(!(jobFlow instanceof SimpleJobFlow) || !(jobFlow.getTask().getComponent() instanceof ReaderFusibleProcessor)){
+            return;
+        }
+
+        Component reader = startJobFlow.getTask().getComponent();
+        Component processor = jobFlow.getTask().getComponent();
+        if(processor.getOperatorConfig() != null){
+            log.info("reader fusion skipped, processor [{}] has operator config.", processor.getName());
+            return;
+        }
+        ItemReader fused = ((ReaderFusibleProcessor) processor).fuseReader((ItemReader) reader);
+        if(fused == null){
+            log.info("reader fusion skipped, [{}] can not be fused into [{}].", reader.getName(), processor.getName());
+            return;
+        }
+        log.info("fuse reader [{}] and processor [{}] into [{}].", reader.getName(), processor.getName(), fused.getName());
+        fused.setOperatorConfig(reader.getOperatorConfig());
+        startJobFlow.setTask(new Task(fused));
+        startJobFlow.removeChildren();
+    }
+
+    private void pushdownFilters(Component reader, JobFlow jobFlow){
+        if(!(reader instanceof FilterPushdownSupport)){
+            log.info("filter pushdown skipped, reader [{}] does not support pushdown.", reader.getName());
+            return;
+        }
+
+        //仅处理reader之后连续的过滤节点，遇到无法完整解析的过滤节点后停止（其脚本可能修改记录）
+        for (JobFlow current = jobFlow; current instanceof SimpleJobFlow; current = current.getChildren()) {
+            Component component = current.getTask().getComponent();
+            if(!(component instanceof ScriptFilterSupport)){
+                break;
+            }
+            ScriptFilterSupport filter = (ScriptFilterSupport) component;
+            List<ColumnPredicate> predicates = ScriptExpressionAnalyzer.conjunctPredicates(filter.getScriptLanguage(), filter.getScriptExpression());
+
+            List<ColumnPredicate> candidates = new ArrayList<>();
+            predicates.stream().filter(Objects::nonNull).forEach(candidates::add);
+            if(!candidates.isEmpty()){
+                List<ColumnPredicate> pushed = ((FilterPushdownSupport) reader).pushdownFilters(candidates);
+                log.info("filter pushdown [{}] -> [{}], candidates {}, pushed {}.", component.getName(), reader.getName(), candidates, pushed);
+            }else{
+                log.info("filter pushdown [{}] skipped, no simple predicate in expression [{}].", component.getName(), filter.getScriptExpression());
+            }
+
+            if(predicates.contains(null)){
+                break;
+            }
+        }
+    }
+
+    private void pushdownProjection(Component reader, JobFlow jobFlow){
+        if(!(reader instanceof ProjectionPushdownSupport)){
+            log.info("projection pushdown skipped, reader [{}] does not support pruning.", reader.getName());
+            return;
+        }
+        if(jobFlow == null){
+            return;
+        }
+
+        Set<String> referencedColumns = new LinkedHashSet<>();
+        String unresolved = collectReferencedColumns(jobFlow, referencedColumns);
+        if(unresolved != null){
+            log.info("projection pushdown skipped, columns referenced by [{}] can not be resolved.", unresolved);
+            return;
+        }
+
+        List<String> prunedColumns = ((ProjectionPushdownSupport) reader).pruneColumns(referencedColumns);
+        log.info("projection pushdown [{}], referenced columns {}, pruned columns {}.", reader.getName(), referencedColumns, prunedColumns);
+    }
+
+    /**
+     * 收集流程引用的字段
+     * @return 无法确定引用字段的节点名，全部可确定时返回null
+     */
+    private String collectReferencedColumns(JobFlow jobFlow, Set<String> referencedColumns){
+        for (JobFlow current = jobFlow; current != null; current = current.getChildren()) {
+            Component component = current.getTask().getComponent();
+
+            if(current instanceof MultiJobFlow){
+                Map<JobPredicate, JobFlow> deciders = ((ItemDeciderProcessor) component).getJobFlowDeciders();
+                for (Map.Entry<JobPredicate, JobFlow> entry : deciders.entrySet()) {
+                    if(!collectColumns(entry.getKey(), referencedColumns)){
+                        return component.getName();
+                    }
+                    String unresolved = collectReferencedColumns(entry.getValue(), referencedColumns);
+                    if(unresolved != null){
+                        return unresolved;
+                    }
+                }
+                continue;
+            }
+
+            if(!collectColumns(component, referencedColumns)){
+                return component.getName();
+            }
+            if(((ColumnReferenceSupport) component).isRecordRebuilt()){
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private boolean collectColumns(Object target, Set<String> referencedColumns){
+        if(!(target instanceof ColumnReferenceSupport)){
+            return false;
+        }
+        Set<String> columns = ((ColumnReferenceSupport) target).getReferencedColumns();
+        if(columns == null){
+            return false;
+        }
+        referencedColumns.addAll(columns);
+        return true;
+    }
+
+    private void fuseProcessors(JobFlow jobFlow){
+        for (JobFlow current = jobFlow; current != null; current = current.getChildren()) {
+
+            if(current instanceof MultiJobFlow){
+                Map<JobPredicate, JobFlow> deciders = ((ItemDeciderProcessor) current.getTask().getComponent()).getJobFlowDeciders();
+                deciders.values().forEach(this::fuseProcessors);
+                continue;
+            }
+
+            while (current instanceof SimpleJobFlow && current.getChildren() instanceof SimpleJobFlow){
+                Component component = current.getTask().getComponent();
+                Component next = current.getChildren().getTask().getComponent();
+                //配置了算子的下游节点需独立为算子
+                if(!(component instanceof FusibleProcessor) || !(next instanceof ItemProcessor) || next.getOperatorConfig() != null){
+                    break;
+                }
+                ItemProcessor fused = ((FusibleProcessor) component).fuse((ItemProcessor) next);
+                if(fused == null){
+                    break;
+                }
+                log.info("fuse processor [{}] and [{}] into [{}].", component.getName(), next.getName(), fused.getName());
+                fused.setOperatorConfig(component.getOperatorConfig());
+                current.setTask(new Task(fused));
+                current.removeChildren();
+            }
+        }
+    }
+}
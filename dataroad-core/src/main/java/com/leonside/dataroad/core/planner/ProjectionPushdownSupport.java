@@ -0,0 +1,18 @@
+package com.leonside.dataroad.core.planner;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 支持字段裁剪的reader
+ * @author leon
+ */
+public interface ProjectionPushdownSupport {
+
+    /**
+     * 裁剪未被引用的读取字段，reader自身依赖的字段（如切分键、增量字段）需保留
+     * @param referencedColumns 下游引用的字段
+     * @return 被裁剪的字段
+     */
+    List<String> pruneColumns(Set<String> referencedColumns);
+}
@@ -0,0 +1,16 @@
+package com.leonside.dataroad.core.planner;
+
+import com.leonside.dataroad.common.spi.ItemReader;
+
+/**
+ * 可与上游reader合并为单个reader的processor，例如SQL转换将reader作为表源，由SQL引擎下推过滤、字段及条数
+ * @author leon
+ */
+public interface ReaderFusibleProcessor {
+
+    /**
+     * 与上游reader合并
+     * @return 合并后的reader，无法合并时返回null
+     */
+    ItemReader fuseReader(ItemReader reader);
+}
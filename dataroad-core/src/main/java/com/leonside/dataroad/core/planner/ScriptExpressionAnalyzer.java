@@ -0,0 +1,294 @@
+package com.leonside.dataroad.core.planner;
+
+import com.leonside.dataroad.common.exception.ScriptExecuteException;
+import com.leonside.dataroad.common.script.ScriptEvaluatorFactory;
+import com.leonside.dataroad.common.script.ScriptTokenizer;
+import com.leonside.dataroad.common.script.ScriptTokenizer.Token;
+import com.leonside.dataroad.common.script.ScriptTokenizer.TokenKind;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 脚本表达式静态分析：提取引用字段、拆分顶层AND条件并识别 字段 比较符 常量 形式的简单条件。
+ * 字段访问支持 row.getField('x') / row.setField('x', ..)，janino额外支持 row.x，其余形式视为无法分析。
+ * 词法切分与Janino代码生成共用{@link ScriptTokenizer}
+ * @author leon
+ */
+public class ScriptExpressionAnalyzer {
+
+    private static final Pattern NUMBER = Pattern.compile("\\d+(\\.\\d+)?");
+
+    private ScriptExpressionAnalyzer() {
+    }
+
+    /**
+     * 脚本引用的字段
+     * @return 引用的字段，存在无法分析的row访问时返回null
+     */
+    public static Set<String> referencedColumns(ScriptEvaluatorFactory.ScriptEngine language, String expression){
+        List<Token> tokens = tokenize(language, expression);
+        if(tokens == null){
+            return null;
+        }
+        Set<String> columns = new LinkedHashSet<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            if(token.getKind() == TokenKind.FIELD){
+                if(isFieldAccessor(token.getText())){
+                    return null;
+                }
+                columns.add(token.getText());
+            }else if(token.getKind() == TokenKind.IDENTIFIER && token.getText().equals(ScriptTokenizer.ROW_VARIABLE)
+                    && (i == 0 || !tokens.get(i - 1).is("."))){
+                String column = accessorColumn(tokens, i);
+                if(column == null){
+                    return null;
+                }
+                columns.add(column);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * 按顶层AND拆分表达式，并将每个条件解析为简单比较条件
+     * @return 与顶层条件一一对应，无法解析的条件为null
+     */
+    public static List<ColumnPredicate> conjunctPredicates(ScriptEvaluatorFactory.ScriptEngine language, String expression){
+        List<Token> tokens = tokenize(language, expression);
+        if(tokens == null){
+            return Collections.singletonList(null);
+        }
+        if(!tokens.isEmpty() && tokens.get(tokens.size() - 1).is(";")){
+            tokens = tokens.subList(0, tokens.size() - 1);
+        }
+
+        List<List<Token>> conjuncts = new ArrayList<>();
+        if(!splitConjuncts(tokens, conjuncts)){
+            return Collections.singletonList(null);
+        }
+
+        List<ColumnPredicate> predicates = new ArrayList<>();
+        for (List<Token> conjunct : conjuncts) {
+            predicates.add(parsePredicate(conjunct));
+        }
+        return predicates;
+    }
+
+    /**
+     * 切分脚本并去除空白及注释，janino脚本的 row.x 切分为字段，字符串或注释未闭合时返回null
+     */
+    private static List<Token> tokenize(ScriptEvaluatorFactory.ScriptEngine language, String expression){
+        boolean janino = language == ScriptEvaluatorFactory.ScriptEngine.janino;
+        try {
+            return ScriptTokenizer.tokenize(expression, janino).stream().filter(it -> !it.isBlank()).collect(Collectors.toList());
+        } catch (ScriptExecuteException e) {
+            return null;
+        }
+    }
+
+    private static boolean splitConjuncts(List<Token> expression, List<List<Token>> conjuncts){
+        List<Token> expr = stripParentheses(expression);
+        if(expr == null){
+            return false;
+        }
+        List<List<Token>> parts = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < expr.size(); i++) {
+            Token token = expr.get(i);
+            if(token.is("(") || token.is("[") || token.is("{")){
+                depth++;
+            }else if(token.is(")") || token.is("]") || token.is("}")){
+                depth--;
+            }else if(depth == 0 && token.is(";")){
+                return false;
+            }else if(depth == 0 && token.is("&") && i + 1 < expr.size() && expr.get(i + 1).is("&")){
+                parts.add(expr.subList(start, i));
+                start = i + 2;
+                i++;
+            }
+        }
+        if(depth != 0){
+            return false;
+        }
+        if(parts.isEmpty()){
+            conjuncts.add(expr);
+            return true;
+        }
+        parts.add(expr.subList(start, expr.size()));
+        for (List<Token> part : parts) {
+            if(!splitConjuncts(part, conjuncts)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ColumnPredicate parsePredicate(List<Token> conjunct){
+        ColumnPredicate.Operator operator = null;
+        int operatorStart = -1;
+        int operatorEnd = -1;
+        int depth = 0;
+        for (int i = 0; i < conjunct.size(); i++) {
+            Token token = conjunct.get(i);
+            if(token.is("(") || token.is("[") || token.is("{")){
+                depth++;
+                continue;
+            }
+            if(token.is(")") || token.is("]") || token.is("}")){
+                depth--;
+                continue;
+            }
+            if(depth != 0){
+                continue;
+            }
+
+            ColumnPredicate.Operator current = null;
+            int length = 1;
+            boolean followedByEquals = i + 1 < conjunct.size() && conjunct.get(i + 1).is("=");
+            if(token.getKind() == TokenKind.EQUALITY){
+                if(token.getText().equals("!=")){
+                    return null;
+                }
+                current = ColumnPredicate.Operator.EQ;
+            }else if(token.is(">")){
+                current = followedByEquals ? ColumnPredicate.Operator.GE : ColumnPredicate.Operator.GT;
+                length = followedByEquals ? 2 : 1;
+            }else if(token.is("<")){
+                current = followedByEquals ? ColumnPredicate.Operator.LE : ColumnPredicate.Operator.LT;
+                length = followedByEquals ? 2 : 1;
+            }else if(token.getKind() == TokenKind.OTHER && "!=|&?:;".contains(token.getText())){
+                return null;
+            }
+
+            if(current != null){
+                if(operator != null){
+                    return null;
+                }
+                operator = current;
+                operatorStart = i;
+                operatorEnd = i + length;
+                i = operatorEnd - 1;
+            }
+        }
+        if(operator == null){
+            return null;
+        }
+
+        List<Token> left = conjunct.subList(0, operatorStart);
+        List<Token> right = conjunct.subList(operatorEnd, conjunct.size());
+
+        ColumnPredicate predicate = null;
+        String leftField = parseField(left);
+        String rightField = parseField(right);
+        if(leftField != null){
+            Object value = parseLiteral(right);
+            predicate = value == null ? null : new ColumnPredicate(leftField, operator, value);
+        }else if(rightField != null){
+            Object value = parseLiteral(left);
+            predicate = value == null ? null : new ColumnPredicate(rightField, operator.reverse(), value);
+        }
+
+        //字符串仅支持等值比较，范围比较受数据源排序规则影响
+        if(predicate != null && !predicate.isNumeric() && operator != ColumnPredicate.Operator.EQ){
+            return null;
+        }
+        return predicate;
+    }
+
+    private static String parseField(List<Token> operand){
+        List<Token> tokens = stripParentheses(operand);
+        if(tokens == null){
+            return null;
+        }
+        if(tokens.size() == 1 && tokens.get(0).getKind() == TokenKind.FIELD){
+            return isFieldAccessor(tokens.get(0).getText()) ? null : tokens.get(0).getText();
+        }
+        if(tokens.size() == 6 && tokens.get(0).getText().equals(ScriptTokenizer.ROW_VARIABLE) && tokens.get(2).getText().equals("getField")
+                && tokens.get(5).is(")")){
+            return accessorColumn(tokens, 0);
+        }
+        return null;
+    }
+
+    private static Object parseLiteral(List<Token> operand){
+        List<Token> tokens = stripParentheses(operand);
+        if(tokens == null || tokens.isEmpty() || tokens.size() > 2){
+            return null;
+        }
+        Token last = tokens.get(tokens.size() - 1);
+        boolean negative = tokens.size() == 2 && tokens.get(0).is("-");
+        if(last.getKind() == TokenKind.NUMBER && (tokens.size() == 1 || negative) && NUMBER.matcher(last.getText()).matches()){
+            return ColumnPredicate.parseNumber(negative ? "-" + last.getText() : last.getText());
+        }
+        if(tokens.size() == 1 && last.getKind() == TokenKind.STRING && isPlainString(last)){
+            return last.getStringContent();
+        }
+        return null;
+    }
+
+    /**
+     * row.getField('x') / row.setField('x', ..) 访问的字段，rowIndex为row的位置，不符合该形式时返回null
+     */
+    private static String accessorColumn(List<Token> tokens, int rowIndex){
+        if(rowIndex + 5 >= tokens.size() || !tokens.get(rowIndex + 1).is(".") || !isFieldAccessor(tokens.get(rowIndex + 2).getText())
+                || tokens.get(rowIndex + 2).getKind() != TokenKind.IDENTIFIER || !tokens.get(rowIndex + 3).is("(")){
+            return null;
+        }
+        Token name = tokens.get(rowIndex + 4);
+        Token after = tokens.get(rowIndex + 5);
+        if(name.getKind() != TokenKind.STRING || !isPlainString(name) || name.getStringContent().isEmpty() || !(after.is(")") || after.is(","))){
+            return null;
+        }
+        return name.getStringContent();
+    }
+
+    private static boolean isFieldAccessor(String member){
+        return "getField".equals(member) || "setField".equals(member);
+    }
+
+    /**
+     * 不含转义及groovy ${}插值的字符串，内容即字面值
+     */
+    private static boolean isPlainString(Token token){
+        String content = token.getStringContent();
+        return content.indexOf('\\') < 0 && !(token.getText().startsWith("\"") && content.contains("${"));
+    }
+
+    /**
+     * 去除包裹整个表达式的括号，括号不匹配时返回null
+     */
+    private static List<Token> stripParentheses(List<Token> expression){
+        List<Token> expr = expression;
+        while (!expr.isEmpty() && expr.get(0).is("(")){
+            int depth = 0;
+            int close = -1;
+            for (int i = 0; i < expr.size(); i++) {
+                if(expr.get(i).is("(")){
+                    depth++;
+                }else if(expr.get(i).is(")")){
+                    depth--;
+                    if(depth == 0){
+                        close = i;
+                        break;
+                    }
+                }
+            }
+            if(close < 0){
+                return null;
+            }
+            if(close != expr.size() - 1){
+                break;
+            }
+            expr = expr.subList(1, close);
+        }
+        return expr;
+    }
+}
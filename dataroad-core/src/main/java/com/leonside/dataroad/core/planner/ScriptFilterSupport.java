@@ -0,0 +1,14 @@
+package com.leonside.dataroad.core.planner;
+
+import com.leonside.dataroad.common.script.ScriptEvaluatorFactory;
+
+/**
+ * 基于脚本表达式过滤记录的processor，过滤表达式中的简单条件可下推至reader
+ * @author leon
+ */
+public interface ScriptFilterSupport {
+
+    ScriptEvaluatorFactory.ScriptEngine getScriptLanguage();
+
+    String getScriptExpression();
+}
@@ -2,11 +2,14 @@ package com.leonside.dataroad.core.predicate;
 
 import com.leonside.dataroad.common.constant.JobConfigKeyConstants;
 import com.leonside.dataroad.common.context.ExecuteContext;
+import com.leonside.dataroad.core.planner.ColumnReferenceSupport;
 import com.leonside.dataroad.core.spi.JobPredicate;
 
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.Set;
 
-public class OtherwisePredicate implements JobPredicate<ExecuteContext, Object>, Serializable {
+public class OtherwisePredicate implements JobPredicate<ExecuteContext, Object>, ColumnReferenceSupport, Serializable {
 
     private String name = JobConfigKeyConstants.KEY_PREDICATE_OTHERWISE;
 
@@ -15,4 +18,9 @@ public class OtherwisePredicate implements JobPredicate<ExecuteContext, Object>,
         return true;
     }
 
+    @Override
+    public Set<String> getReferencedColumns() {
+        return Collections.emptySet();
+    }
+
 }
\ No newline at end of file
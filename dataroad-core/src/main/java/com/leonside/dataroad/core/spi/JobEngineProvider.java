@@ -18,4 +18,14 @@ public interface JobEngineProvider<T extends ExecuteContext> {
 
     T createExecuteContext(JobSetting jobSetting, List<ComponentHolder> componentHolders, Options options);
 
+    /**
+     * 创建与指定上下文共享执行环境的新上下文，多个content合并执行时各content使用独立的上下文
+     */
+    T forkExecuteContext(T executeContext);
+
+    /**
+     * 将共享执行环境的多个Job合并为单个Job，各流程作为独立的数据管道在同一任务中执行
+     */
+    Job mergeJobs(List<Job> jobs);
+
 }
@@ -18,4 +18,11 @@ public interface JobPredicate<T extends ExecuteContext, ROW> extends Serializabl
 
     boolean test(T t, ROW row);
 
+    /**
+     * 子任务启动时调用，用于预编译表达式等初始化
+     * @throws Exception
+     */
+    default void open() throws Exception{
+    }
+
 }
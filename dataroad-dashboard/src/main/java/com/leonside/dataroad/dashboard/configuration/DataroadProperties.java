@@ -71,6 +71,14 @@ public class DataroadProperties {
         return webUi + "/jars/"+jarId+"/run";
     }
 
+    public String getJobDetailURL(String flinkJobId){
+        return webUi + "/jobs/" + flinkJobId;
+    }
+
+    public String getJobVertexMetricsURL(String flinkJobId, String vertexId){
+        return webUi + "/jobs/" + flinkJobId + "/vertices/" + vertexId + "/subtasks/metrics";
+    }
+
     public String getConfURL(String jobId){
         return getServerURL() + "/api/jobflowjson/" + jobId;
     }
@@ -77,8 +77,9 @@ public class JobFlowTaskController {
     @PostMapping("/api/jobflowtask/submit")
     public ResponseStatus submitJobFlow(JobRequestParam jobRequestParam){
 
+        JobSubmitReponse response;
         try {
-            taskService.submitJobFlow(jobRequestParam);
+            response = taskService.submitJobFlow(jobRequestParam);
 
         } catch (JobException e) {
             log.error("submit job exception", e);
@@ -91,7 +92,18 @@ public class JobFlowTaskController {
             return ResponseStatus.error("任务提交异常");
         }
 
-        return ResponseStatus.success("提交成功");
+        return ResponseStatus.success("提交成功，JobID：" + response.getJobid(), 1, response);
+    }
+
+    @GetMapping("/api/jobflowtask/{flinkJobId}/metrics")
+    public ResponseStatus<List<JobFlowNodeMetric>> jobFlowNodeMetrics(@PathVariable("flinkJobId") String flinkJobId){
+        try {
+            List<JobFlowNodeMetric> nodeMetrics = taskService.getJobFlowNodeMetrics(flinkJobId);
+            return ResponseStatus.success("加载完成", nodeMetrics.size(), nodeMetrics);
+        } catch (Exception e) {
+            log.error("load job metrics exception", e);
+            return ResponseStatus.error("获取任务指标失败：" + e.getMessage());
+        }
     }
 
     @PostMapping("/api/jobflowtask/{id}/schedule")
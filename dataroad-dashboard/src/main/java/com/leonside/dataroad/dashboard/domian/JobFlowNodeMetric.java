@@ -0,0 +1,47 @@
+package com.leonside.dataroad.dashboard.domian;
+
+import lombok.Data;
+
+/**
+ * 流程节点运行指标，节点对应以节点名命名的Flink算子，busyTime、backPressuredTime为节点所在Task（算子链）的指标
+ * @author leon
+ */
+@Data
+public class JobFlowNodeMetric {
+
+    private String nodeName;
+
+    private String vertexName;
+
+    private int parallelism;
+
+    private Double numRecordsIn;
+
+    private Double numRecordsOut;
+
+    private Double numRecordsInPerSecond;
+
+    private Double numRecordsOutPerSecond;
+
+    /**
+     * 各子任务每秒繁忙时间最大值，毫秒
+     */
+    private Double busyTimeMsPerSecond;
+
+    /**
+     * 各子任务每秒反压时间最大值，毫秒
+     */
+    private Double backPressuredTimeMsPerSecond;
+
+    /**
+     * 读取至提交延迟的中位数及p99，毫秒，仅writer节点开启latencyTracking时有值
+     */
+    private Double sourceToCommitLatencyMedian;
+
+    private Double sourceToCommitLatencyP99;
+
+    /**
+     * 单次写入调用耗时p99，毫秒，仅writer节点有值
+     */
+    private Double writeCallLatencyP99;
+}
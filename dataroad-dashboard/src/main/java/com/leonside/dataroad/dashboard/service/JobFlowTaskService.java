@@ -5,6 +5,7 @@ import com.leonside.dataroad.dashboard.domian.*;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.util.List;
 
 /**
  * @author leon
@@ -18,4 +19,10 @@ public interface JobFlowTaskService {
     JobJarsReponse listDataroadJar();
 
     void checkDataroadJar();
+
+    /**
+     * 查询运行中任务各流程节点的指标
+     * @param flinkJobId 提交后返回的Flink JobID
+     */
+    List<JobFlowNodeMetric> getJobFlowNodeMetrics(String flinkJobId);
 }
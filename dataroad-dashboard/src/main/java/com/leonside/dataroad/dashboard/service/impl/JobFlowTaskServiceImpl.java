@@ -30,8 +30,13 @@ import org.springframework.web.client.RestTemplate;
 import javax.ws.rs.core.MultivaluedMap;
 import java.io.*;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 /**
  * @author leon
@@ -40,6 +45,19 @@ import java.util.List;
 @Slf4j
 public class JobFlowTaskServiceImpl implements JobFlowTaskService {
 
+    private static final String METRIC_NUM_RECORDS_IN = "numRecordsIn";
+    private static final String METRIC_NUM_RECORDS_OUT = "numRecordsOut";
+    private static final String METRIC_NUM_RECORDS_IN_RATE = "numRecordsInPerSecond";
+    private static final String METRIC_NUM_RECORDS_OUT_RATE = "numRecordsOutPerSecond";
+    private static final String METRIC_BUSY_TIME = "busyTimeMsPerSecond";
+    private static final String METRIC_BACK_PRESSURED_TIME = "backPressuredTimeMsPerSecond";
+    private static final String METRIC_SOURCE_TO_COMMIT_MEDIAN = "latency.sourceToCommit_median";
+    private static final String METRIC_SOURCE_TO_COMMIT_P99 = "latency.sourceToCommit_p99";
+    private static final String METRIC_WRITE_CALL_P99 = "latency.writeCall_p99";
+
+    /** Flink指标ID中的算子名会将以下字符替换为'_' */
+    private static final Pattern METRIC_INVALID_CHARS = Pattern.compile("[ .:,]");
+
     private RestTemplate restTemplate = new RestTemplate();
     @Autowired
     private JobFlowService jobFlowService;
@@ -98,6 +116,85 @@ public class JobFlowTaskServiceImpl implements JobFlowTaskService {
         return jobJarsReponse;
     }
 
+    @Override
+    public List<JobFlowNodeMetric> getJobFlowNodeMetrics(String flinkJobId) {
+        Map<String, Object> job = restTemplate.getForObject(dataroadProperties.getJobDetailURL(flinkJobId), Map.class);
+        List<Map<String, Object>> vertices = (List<Map<String, Object>>) job.get("vertices");
+
+        List<JobFlowNodeMetric> nodeMetrics = new ArrayList<>();
+        for (Map<String, Object> vertex : vertices) {
+            String metricsURL = dataroadProperties.getJobVertexMetricsURL(flinkJobId, (String) vertex.get("id"));
+            //算子级指标以 算子名.指标名 命名，算子以流程节点名命名，算子名中的'.'已被替换为'_'，可按指标名后缀截取算子名
+            Set<String> availableMetrics = new LinkedHashSet<>();
+            List<Map<String, Object>> metrics = restTemplate.getForObject(metricsURL, List.class);
+            metrics.forEach(metric -> availableMetrics.add((String) metric.get("id")));
+
+            Map<String, String> nodeNames = getOperatorNodeNames((String) vertex.get("name"));
+            Set<String> operators = new LinkedHashSet<>();
+            String suffix = "." + METRIC_NUM_RECORDS_IN;
+            availableMetrics.stream().filter(id -> id.endsWith(suffix)).forEach(id -> operators.add(id.substring(0, id.length() - suffix.length())));
+            if(operators.isEmpty()){
+                continue;
+            }
+
+            List<String> queryMetrics = new ArrayList<>();
+            queryMetrics.add(METRIC_BUSY_TIME);
+            queryMetrics.add(METRIC_BACK_PRESSURED_TIME);
+            for (String operator : operators) {
+                for (String metric : new String[]{METRIC_NUM_RECORDS_IN, METRIC_NUM_RECORDS_OUT, METRIC_NUM_RECORDS_IN_RATE, METRIC_NUM_RECORDS_OUT_RATE,
+                        METRIC_SOURCE_TO_COMMIT_MEDIAN, METRIC_SOURCE_TO_COMMIT_P99, METRIC_WRITE_CALL_P99}) {
+                    String id = operator + "." + metric;
+                    if(availableMetrics.contains(id)){
+                        queryMetrics.add(id);
+                    }
+                }
+            }
+            List<Map<String, Object>> values = restTemplate.getForObject(metricsURL + "?get={get}&agg=sum,max", List.class, StringUtils.join(queryMetrics, ","));
+            Map<String, Map<String, Object>> valueMap = new HashMap<>();
+            values.forEach(value -> valueMap.put((String) value.get("id"), value));
+
+            for (String operator : operators) {
+                JobFlowNodeMetric nodeMetric = new JobFlowNodeMetric();
+                nodeMetric.setNodeName(nodeNames.getOrDefault(operator, operator.replaceFirst("^(Source|Sink)__", "")));
+                nodeMetric.setVertexName((String) vertex.get("name"));
+                nodeMetric.setParallelism(((Number) vertex.get("parallelism")).intValue());
+                nodeMetric.setNumRecordsIn(getMetricValue(valueMap, operator + "." + METRIC_NUM_RECORDS_IN, "sum"));
+                nodeMetric.setNumRecordsOut(getMetricValue(valueMap, operator + "." + METRIC_NUM_RECORDS_OUT, "sum"));
+                nodeMetric.setNumRecordsInPerSecond(getMetricValue(valueMap, operator + "." + METRIC_NUM_RECORDS_IN_RATE, "sum"));
+                nodeMetric.setNumRecordsOutPerSecond(getMetricValue(valueMap, operator + "." + METRIC_NUM_RECORDS_OUT_RATE, "sum"));
+                nodeMetric.setBusyTimeMsPerSecond(getMetricValue(valueMap, METRIC_BUSY_TIME, "max"));
+                nodeMetric.setBackPressuredTimeMsPerSecond(getMetricValue(valueMap, METRIC_BACK_PRESSURED_TIME, "max"));
+                nodeMetric.setSourceToCommitLatencyMedian(getMetricValue(valueMap, operator + "." + METRIC_SOURCE_TO_COMMIT_MEDIAN, "max"));
+                nodeMetric.setSourceToCommitLatencyP99(getMetricValue(valueMap, operator + "." + METRIC_SOURCE_TO_COMMIT_P99, "max"));
+                nodeMetric.setWriteCallLatencyP99(getMetricValue(valueMap, operator + "." + METRIC_WRITE_CALL_P99, "max"));
+                nodeMetrics.add(nodeMetric);
+            }
+        }
+        return nodeMetrics;
+    }
+
+    /**
+     * 顶点名由链接的算子名以" -> "连接而成，按替换字符后的算子名还原流程节点名（去除Source:/Sink:前缀）
+     */
+    private Map<String, String> getOperatorNodeNames(String vertexName) {
+        Map<String, String> nodeNames = new HashMap<>();
+        if(StringUtils.isEmpty(vertexName)){
+            return nodeNames;
+        }
+        for (String operatorName : vertexName.split(" -> ")) {
+            nodeNames.put(METRIC_INVALID_CHARS.matcher(operatorName).replaceAll("_"), operatorName.replaceFirst("^(Source|Sink): ", ""));
+        }
+        return nodeNames;
+    }
+
+    private Double getMetricValue(Map<String, Map<String, Object>> valueMap, String metricId, String agg){
+        Map<String, Object> value = valueMap.get(metricId);
+        if(value == null || !(value.get(agg) instanceof Number)){
+            return null;
+        }
+        return ((Number) value.get(agg)).doubleValue();
+    }
+
     @Override
     public void checkDataroadJar() {
         //校验是否本地jar包存在
@@ -26,9 +26,20 @@ public class FlinkJob implements Job {
     @Override
     public void execute() throws Exception {
 
-        simpleJobFlow.execute(flinkExecuteContext);
+        buildPipeline();
 
         environment.execute(flinkExecuteContext.getJobSetting().getName());
     }
 
+    /**
+     * 将流程转换为执行环境中的算子
+     */
+    public void buildPipeline() throws Exception {
+        simpleJobFlow.execute(flinkExecuteContext);
+    }
+
+    public FlinkExecuteContext getFlinkExecuteContext() {
+        return flinkExecuteContext;
+    }
+
 }
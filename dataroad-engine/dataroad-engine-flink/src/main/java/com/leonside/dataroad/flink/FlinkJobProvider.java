@@ -5,22 +5,40 @@ import com.leonside.dataroad.common.config.Options;
 import com.leonside.dataroad.common.context.ComponentHolder;
 import com.leonside.dataroad.common.context.ExecuteContext;
 import com.leonside.dataroad.common.context.JobSetting;
+import com.leonside.dataroad.common.context.MetricConfig;
+import com.leonside.dataroad.common.context.RestoreConfig;
 import com.leonside.dataroad.common.context.SpeedConfig;
+import com.leonside.dataroad.common.exception.JobConfigException;
 import com.leonside.dataroad.common.exception.JobFlowException;
+import com.leonside.dataroad.common.spi.Component;
+import com.leonside.dataroad.common.spi.ItemReader;
 import com.leonside.dataroad.common.spi.JobExecutionListener;
 import com.leonside.dataroad.core.Job;
 import com.leonside.dataroad.core.spi.JobEngineProvider;
+import com.leonside.dataroad.core.flow.JobFlow;
+import com.leonside.dataroad.core.flow.MultiJobFlow;
 import com.leonside.dataroad.core.flow.SimpleJobFlow;
+import com.leonside.dataroad.core.spi.ItemDeciderProcessor;
+import com.leonside.dataroad.core.spi.JobPredicate;
 import com.leonside.dataroad.core.support.LoggerHelper;
 import com.leonside.dataroad.flink.context.FlinkExecuteContext;
+import com.leonside.dataroad.flink.processor.BatchModeSupport;
+import com.leonside.dataroad.flink.reader.BoundedSupport;
 import com.leonside.dataroad.flink.utils.PluginJarHelper;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.flink.api.common.RuntimeExecutionMode;
+import org.apache.flink.configuration.CheckpointingOptions;
+import org.apache.flink.configuration.ConfigConstants;
 import org.apache.flink.configuration.Configuration;
+import org.apache.flink.configuration.StateBackendOptions;
 import org.apache.flink.runtime.jobgraph.SavepointRestoreSettings;
+import org.apache.flink.runtime.state.StateBackendLoader;
 import org.apache.flink.runtime.state.filesystem.FsStateBackend;
 import org.apache.flink.streaming.api.environment.CheckpointConfig;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
+import org.apache.flink.util.DynamicCodeLoadingException;
 
 import java.io.File;
 import java.io.IOException;
@@ -34,12 +52,20 @@ import java.util.*;
 /**
  * @author leon
  */
+@Slf4j
 public class FlinkJobProvider implements JobEngineProvider<FlinkExecuteContext> {
+
+    private static final String REPORTER_FACTORY_JMX = "org.apache.flink.metrics.jmx.JMXReporterFactory";
+
+    private static final String REPORTER_FACTORY_PROMETHEUS = "org.apache.flink.metrics.prometheus.PrometheusReporterFactory";
+
     @Override
     public Job createJob(FlinkExecuteContext executeContext, SimpleJobFlow startJobFlow) {
 
         initLoggerSetting(executeContext);
 
+        buildRuntimeMode(executeContext, startJobFlow);
+
 //        buildJobExecuteListener();
 
         return new FlinkJob(executeContext, startJobFlow);
@@ -53,22 +79,77 @@ public class FlinkJobProvider implements JobEngineProvider<FlinkExecuteContext>
         StreamExecutionEnvironment environment = buildStreamExecutionEnvironment(executeContext);
 
 
+        buildStateBackend(environment, jobSetting.getRestore());
+
         if(jobSetting.getRestore().isRestore()){
-            //// TODO: 2021/12/3
-            if(jobSetting.getRestore().getSavepointInterval() != null){
-                environment.enableCheckpointing(jobSetting.getRestore().getSavepointInterval());
-            }else {
-                environment.enableCheckpointing();
-            }
-            environment.getCheckpointConfig().enableExternalizedCheckpoints(CheckpointConfig.ExternalizedCheckpointCleanup.RETAIN_ON_CANCELLATION);
-            if(StringUtils.isNotEmpty(jobSetting.getRestore().getSavepointPath())){
-                environment.setStateBackend(new FsStateBackend(jobSetting.getRestore().getSavepointPath()));
-            }
+            buildCheckpointSetting(environment, jobSetting.getRestore());
         }
 
         return buildFlinkExecuteContext(executeContext, environment, options);
     }
 
+    private void buildStateBackend(StreamExecutionEnvironment environment, RestoreConfig restore) {
+        if(StringUtils.isEmpty(restore.getStateBackend())){
+            if(restore.isRestore() && StringUtils.isNotEmpty(restore.getSavepointPath())){
+                environment.setStateBackend(new FsStateBackend(restore.getSavepointPath()));
+            }
+            return;
+        }
+
+        //按名称加载状态后端，rocksdb由Flink发行包中的flink-statebackend-rocksdb提供
+        Configuration configuration = new Configuration();
+        configuration.set(StateBackendOptions.STATE_BACKEND, restore.getStateBackend().toLowerCase());
+        configuration.set(CheckpointingOptions.INCREMENTAL_CHECKPOINTS, restore.isIncrementalCheckpoints());
+        try {
+            environment.setStateBackend(StateBackendLoader.loadStateBackendFromConfig(configuration, Thread.currentThread().getContextClassLoader(), log));
+        } catch (DynamicCodeLoadingException | IOException e) {
+            throw new JobConfigException("load stateBackend [" + restore.getStateBackend() + "] failed, rocksdb requires flink-statebackend-rocksdb in classpath", e);
+        }
+        if(StringUtils.isNotEmpty(restore.getSavepointPath())){
+            environment.getCheckpointConfig().setCheckpointStorage(restore.getSavepointPath());
+        }
+    }
+
+    private void buildCheckpointSetting(StreamExecutionEnvironment environment, RestoreConfig restore) {
+        if(restore.getSavepointInterval() != null){
+            environment.enableCheckpointing(restore.getSavepointInterval());
+        }else {
+            environment.enableCheckpointing();
+        }
+
+        CheckpointConfig checkpointConfig = environment.getCheckpointConfig();
+        checkpointConfig.enableExternalizedCheckpoints(CheckpointConfig.ExternalizedCheckpointCleanup.RETAIN_ON_CANCELLATION);
+        if(restore.getCheckpointTimeout() != null){
+            checkpointConfig.setCheckpointTimeout(restore.getCheckpointTimeout());
+        }
+        if(restore.getMinPauseBetweenCheckpoints() != null){
+            checkpointConfig.setMinPauseBetweenCheckpoints(restore.getMinPauseBetweenCheckpoints());
+        }
+        if(restore.getMaxConcurrentCheckpoints() != null){
+            checkpointConfig.setMaxConcurrentCheckpoints(restore.getMaxConcurrentCheckpoints());
+        }
+        checkpointConfig.enableUnalignedCheckpoints(restore.isUnalignedCheckpoints());
+    }
+
+    @Override
+    public FlinkExecuteContext forkExecuteContext(FlinkExecuteContext executeContext) {
+        FlinkExecuteContext flinkExecuteContext = new FlinkExecuteContext();
+        flinkExecuteContext.setEnvironment(executeContext.getEnvironment());
+        flinkExecuteContext.setOptions(executeContext.getOptions());
+        flinkExecuteContext.setJobSetting(executeContext.getJobSetting());
+        flinkExecuteContext.setComponentHolders(executeContext.getComponentHolders());
+        return flinkExecuteContext;
+    }
+
+    @Override
+    public Job mergeJobs(List<Job> jobs) {
+        List<FlinkJob> flinkJobs = new ArrayList<>();
+        for (Job job : jobs) {
+            flinkJobs.add((FlinkJob) job);
+        }
+        return new FlinkMergedJob(flinkJobs);
+    }
+
     private void buildGlobalSetting(FlinkExecuteContext executeContext, Options options) {
 
         //设置配置中的全局设置，其中GlobalSetting优先级最高，其次是confProp配置，都没有配置情况下设置默认值为1
@@ -87,6 +168,71 @@ public class FlinkJobProvider implements JobEngineProvider<FlinkExecuteContext>
 
     }
 
+    /**
+     * 默认按STREAMING执行，BATCH需显式配置batch或automatic。BATCH模式下读取任务累加器不汇总至JobManager，
+     * 因此断点续传、错误数限制、非有界reader及仅在输入结束时触发的窗口均不支持BATCH
+     */
+    private void buildRuntimeMode(FlinkExecuteContext executeContext, SimpleJobFlow startJobFlow) {
+        JobSetting jobSetting = executeContext.getJobSetting();
+        RuntimeExecutionMode runtimeMode;
+        try {
+            runtimeMode = StringUtils.isEmpty(jobSetting.getRuntimeMode()) ? RuntimeExecutionMode.STREAMING : RuntimeExecutionMode.valueOf(jobSetting.getRuntimeMode().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new JobConfigException("runtimeMode [" + jobSetting.getRuntimeMode() + "] is not supported, options: streaming, batch, automatic.");
+        }
+
+        if(runtimeMode != RuntimeExecutionMode.STREAMING){
+            String reason = unsupportedBatchReason(jobSetting, startJobFlow);
+            if(runtimeMode == RuntimeExecutionMode.BATCH && reason != null){
+                throw new JobConfigException("runtimeMode [batch] is not supported, " + reason + ", please use streaming mode.");
+            }
+            if(runtimeMode == RuntimeExecutionMode.AUTOMATIC){
+                runtimeMode = reason == null ? RuntimeExecutionMode.BATCH : RuntimeExecutionMode.STREAMING;
+                if(reason != null){
+                    log.info("job [{}] can not run in batch mode, {}.", jobSetting.getName(), reason);
+                }
+            }
+        }
+
+        log.info("job [{}] runs in {} mode.", jobSetting.getName(), runtimeMode);
+        executeContext.setRuntimeMode(runtimeMode);
+    }
+
+    private String unsupportedBatchReason(JobSetting jobSetting, SimpleJobFlow startJobFlow) {
+        if(jobSetting.getRestore().isRestore()){
+            return "restore depends on checkpoint";
+        }
+        if(jobSetting.getErrorLimit().getRecord() > 0 || jobSetting.getErrorLimit().getPercentage() > 0){
+            return "error limit depends on accumulators aggregated by JobManager";
+        }
+
+        List<Component> components = new ArrayList<>();
+        collectComponents(startJobFlow, components, Collections.newSetFromMap(new IdentityHashMap<>()));
+        for (Component component : components) {
+            if(component instanceof ItemReader && !(component instanceof BoundedSupport && ((BoundedSupport) component).isBounded())){
+                return "reader [" + component.getName() + "] is unbounded";
+            }
+            if(component instanceof BatchModeSupport){
+                String reason = ((BatchModeSupport) component).unsupportedBatchReason();
+                if(reason != null){
+                    return reason;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void collectComponents(JobFlow jobFlow, List<Component> components, Set<JobFlow> visited) {
+        for (JobFlow current = jobFlow; current != null && visited.add(current); current = current.getChildren()) {
+            Component component = current.getTask().getComponent();
+            components.add(component);
+            if(current instanceof MultiJobFlow){
+                Map<JobPredicate, JobFlow> deciders = ((ItemDeciderProcessor) component).getJobFlowDeciders();
+                deciders.values().forEach(it -> collectComponents(it, components, visited));
+            }
+        }
+    }
+
     private void initLoggerSetting(ExecuteContext executeContext) {
         LoggerHelper.init(executeContext.getJobSetting().getLog());
     }
@@ -111,10 +257,34 @@ public class FlinkJobProvider implements JobEngineProvider<FlinkExecuteContext>
         return flinkExecuteContext;
     }
 
+    /**
+     * 指标上报同为集群级别配置，仅本地运行时生效，提交至集群时需在集群的flink-conf.yaml中配置
+     */
+    private void buildMetricReporters(Configuration configuration, MetricConfig metricConfig) {
+        metricConfig.validate();
+        for (String reporter : metricConfig.getReporters()) {
+            String prefix = ConfigConstants.METRICS_REPORTER_PREFIX + reporter + ".";
+            if(MetricConfig.REPORTER_JMX.equals(reporter)){
+                configuration.setString(prefix + ConfigConstants.METRICS_REPORTER_FACTORY_CLASS_SUFFIX, REPORTER_FACTORY_JMX);
+                if(StringUtils.isNotEmpty(metricConfig.getJmxPort())){
+                    configuration.setString(prefix + "port", metricConfig.getJmxPort());
+                }
+            }else{
+                configuration.setString(prefix + ConfigConstants.METRICS_REPORTER_FACTORY_CLASS_SUFFIX, REPORTER_FACTORY_PROMETHEUS);
+                configuration.setString(prefix + "port", metricConfig.getPrometheusPort());
+            }
+        }
+    }
+
     private StreamExecutionEnvironment buildStreamExecutionEnvironment(ExecuteContext executeContext) {
         Map<String, String> confProp = executeContext.getOptions().getConfProp();
         //获取运行参数confProp传递的flink参数（Client级别），其优先级低于配置配置文件的参数配置（env级别）
         Configuration configuration = MapUtils.isNotEmpty(confProp) ? Configuration.fromMap(confProp) : new Configuration();
+        //本地恢复为TaskManager级别配置，集群运行时需在flink-conf.yaml中配置state.backend.local-recovery
+        if(executeContext.getJobSetting().getRestore().isLocalRecovery()){
+            configuration.set(CheckpointingOptions.LOCAL_RECOVERY, true);
+        }
+        buildMetricReporters(configuration, executeContext.getJobSetting().getMetric());
 
         StreamExecutionEnvironment environment =
                 (!executeContext.getJobSetting().isLocal()) ?
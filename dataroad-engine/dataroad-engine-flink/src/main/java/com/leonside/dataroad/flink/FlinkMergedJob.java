@@ -0,0 +1,47 @@
+package com.leonside.dataroad.flink;
+
+import com.leonside.dataroad.core.Job;
+import com.leonside.dataroad.flink.context.FlinkExecuteContext;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.flink.api.common.RuntimeExecutionMode;
+import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
+
+import java.util.List;
+
+/**
+ * 多个content合并的Job：各流程在同一执行环境中构建为相互独立的数据管道，作为单个Flink任务提交，
+ * 省去逐个任务的调度、启动及插件加载开销
+ * @author leon
+ */
+@Slf4j
+public class FlinkMergedJob implements Job {
+
+    private final List<FlinkJob> jobs;
+
+    private final StreamExecutionEnvironment environment;
+
+    private final FlinkExecuteContext flinkExecuteContext;
+
+    public FlinkMergedJob(List<FlinkJob> jobs) {
+        this.jobs = jobs;
+        this.flinkExecuteContext = jobs.get(0).getFlinkExecuteContext();
+        this.environment = flinkExecuteContext.getEnvironment();
+
+        //执行环境共享运行模式，全部管道均可按BATCH执行时才采用BATCH模式
+        boolean batch = jobs.stream().allMatch(job -> job.getFlinkExecuteContext().getRuntimeMode() == RuntimeExecutionMode.BATCH);
+        if(!batch){
+            jobs.forEach(job -> job.getFlinkExecuteContext().setRuntimeMode(RuntimeExecutionMode.STREAMING));
+        }
+        log.info("merge {} pipelines into job [{}], runs in {} mode.", jobs.size(), flinkExecuteContext.getJobSetting().getName(), flinkExecuteContext.getRuntimeMode());
+    }
+
+    @Override
+    public void execute() throws Exception {
+
+        for (FlinkJob job : jobs) {
+            job.buildPipeline();
+        }
+
+        environment.execute(flinkExecuteContext.getJobSetting().getName());
+    }
+}
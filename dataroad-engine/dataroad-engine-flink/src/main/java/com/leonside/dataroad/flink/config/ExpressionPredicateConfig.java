@@ -0,0 +1,24 @@
+package com.leonside.dataroad.flink.config;
+
+import com.leonside.dataroad.common.config.ConfigKey;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * @author leon
+ */
+@Data
+public class ExpressionPredicateConfig extends ScriptExpressionConfig {
+
+    public boolean exclusive = false;
+
+    public ExpressionPredicateConfig(Map<String, Object> parameter) {
+        super(parameter);
+    }
+
+    @Override
+    public Class<? extends ConfigKey> bindConfigKey() {
+        return ExpressionPredicateConfigKey.class;
+    }
+}
@@ -8,7 +8,7 @@ import com.leonside.dataroad.common.enums.FieldType;
  */
 public enum ScriptExpressionConfigKey implements ConfigKey {
 
-    KEY_LANGUAGE("language","脚本语言",false,"", "脚本语言实现，支持bsh、groovy、javascript、aviator，默认aviator",FieldType.ENUM),
+    KEY_LANGUAGE("language","脚本语言",false,"", "脚本语言实现，支持bsh、groovy、javascript、fel、janino，默认fel",FieldType.ENUM),
     KEY_EXPRESSION("expression","表达式",false,"", "根据选择的脚本语言，填写对应的表达式", FieldType.OBJECT),
     ;
 
@@ -2,9 +2,17 @@ package com.leonside.dataroad.flink.context;
 
 import com.leonside.dataroad.common.context.ExecuteContext;
 import com.leonside.dataroad.common.domain.MetaColumn;
+import com.leonside.dataroad.common.spi.Component;
+import com.leonside.dataroad.common.spi.ItemReader;
 import com.leonside.dataroad.core.flow.JobFlow;
+import com.leonside.dataroad.flink.utils.OperatorConfigUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.flink.api.common.RuntimeExecutionMode;
+import org.apache.flink.streaming.api.datastream.DataStream;
+import org.apache.flink.streaming.api.datastream.SingleOutputStreamOperator;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
 import org.apache.flink.table.api.bridge.java.StreamTableEnvironment;
+import org.apache.flink.types.Row;
 
 import java.util.List;
 
@@ -21,6 +29,8 @@ public class FlinkExecuteContext extends ExecuteContext {
 
     private transient JobFlow startJobFlow;
 
+    private RuntimeExecutionMode runtimeMode = RuntimeExecutionMode.STREAMING;
+
     private List<MetaColumn> startMetaColumn;
 
     public StreamExecutionEnvironment getEnvironment() {
@@ -43,6 +53,15 @@ public class FlinkExecuteContext extends ExecuteContext {
         this.startMetaColumn = startMetaColumn;
     }
 
+    public RuntimeExecutionMode getRuntimeMode() {
+        return runtimeMode;
+    }
+
+    public void setRuntimeMode(RuntimeExecutionMode runtimeMode) {
+        this.runtimeMode = runtimeMode;
+        environment.setRuntimeMode(runtimeMode);
+    }
+
     public void setEnvironment(StreamExecutionEnvironment environment) {
         this.environment = environment;
     }
@@ -53,4 +72,28 @@ public class FlinkExecuteContext extends ExecuteContext {
         }
         return streamTableEnvironment;
     }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T partition(Component component, T input) {
+        if(component.getOperatorConfig() == null || !(input instanceof DataStream)){
+            return input;
+        }
+        return (T) OperatorConfigUtils.partition((DataStream<Row>) input, component.getOperatorConfig());
+    }
+
+    @Override
+    public <T> T configureOperator(Component component, T output) {
+        //union、分流等输出非单一算子的节点不支持算子配置
+        if(!(output instanceof SingleOutputStreamOperator)){
+            return output;
+        }
+        SingleOutputStreamOperator<?> operator = (SingleOutputStreamOperator<?>) output;
+        //processor算子以节点名命名，便于按节点查看指标，reader在创建数据源时已命名
+        if(!(component instanceof ItemReader) && StringUtils.isNotEmpty(component.getName())){
+            operator.name(StringUtils.isNotEmpty(getPipelineName()) ? getPipelineName() + "-" + component.getName() : component.getName());
+        }
+        OperatorConfigUtils.configure(operator, component.getOperatorConfig());
+        return output;
+    }
 }
@@ -1,23 +1,12 @@
-
-
 package com.leonside.dataroad.flink.metric;
 
-import com.google.common.collect.Lists;
-import com.google.gson.Gson;
-import com.google.gson.internal.LinkedTreeMap;
-import com.leonside.dataroad.common.constant.JobCommonConstant;
-import com.leonside.dataroad.core.support.LoggerHelper;
-import com.leonside.dataroad.flink.utils.UrlUtil;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.flink.api.common.accumulators.LongCounter;
 import org.apache.flink.api.common.functions.RuntimeContext;
+import org.apache.flink.runtime.taskexecutor.GlobalAggregateManager;
 import org.apache.flink.util.Preconditions;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,7 +16,7 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Regularly get statistics from the flink API
+ * 定时上报本子任务累加器并获取全局统计值，经GlobalAggregateManager由JobMaster汇总，见{@link GlobalAggregates}
  *
  */
 public class AccumulatorCollector {
@@ -36,23 +25,13 @@ public class AccumulatorCollector {
 
     private static final String THREAD_NAME = "accumulator-collector-thread";
 
-    private static final String KEY_ACCUMULATORS = "user-task-accumulators";
-    private static final String KEY_NAME = "name";
-    private static final String KEY_VALUE = "value";
-
     private static final int MAX_COLLECT_ERROR_TIMES = 100;
 
-    private Gson gson = new Gson();
-
     private RuntimeContext context;
 
-    private String jobId;
-
-    private List<String> monitorUrls = Lists.newArrayList();
-
     private int period = 2;
 
-    private CloseableHttpClient httpClient;
+    private GlobalAggregateManager globalAggregateManager;
 
     private boolean isLocalMode;
 
@@ -62,73 +41,44 @@ public class AccumulatorCollector {
 
     private List<String> metricNames;
 
+    private String pipelineName;
+
     private long collectErrorTimes = 0;
 
-    public AccumulatorCollector(String jobId, String monitorUrlStr, RuntimeContext runtimeContext, int period, List<String> metricNames){
-        Preconditions.checkArgument(jobId != null && jobId.length() > 0);
+    public AccumulatorCollector(RuntimeContext runtimeContext, int period, List<String> metricNames){
+        this(runtimeContext, period, metricNames, null);
+    }
+
+    /**
+     * @param pipelineName 管道名，多个content合并执行时累加器及全局汇总按管道区分，见{@link Metrics#getAccumulatorName(String, String)}
+     */
+    public AccumulatorCollector(RuntimeContext runtimeContext, int period, List<String> metricNames, String pipelineName){
         Preconditions.checkArgument(period > 0);
         Preconditions.checkArgument(metricNames != null && metricNames.size() > 0);
 
         this.context = runtimeContext;
         this.period = period;
-        this.jobId = jobId;
         this.metricNames = metricNames;
+        this.pipelineName = pipelineName;
 
-        isLocalMode = StringUtils.isEmpty(monitorUrlStr);
+        globalAggregateManager = GlobalAggregates.getGlobalAggregateManager(runtimeContext);
+        isLocalMode = globalAggregateManager == null;
+        if(isLocalMode){
+            LOG.info("GlobalAggregateManager is not available, will use local mode");
+        }
 
         initValueAccumulatorMap();
 
-        if(!isLocalMode){
-            formatMonitorUrl(monitorUrlStr);
-            checkMonitorUrlIsValid();
-
-            httpClient = HttpClientBuilder.create().build();
-        }
-
         initThreadPool();
     }
 
     private void initValueAccumulatorMap(){
         valueAccumulatorMap = new HashMap<>(metricNames.size());
         for (String metricName : metricNames) {
-            valueAccumulatorMap.put(metricName, new ValueAccumulator(0, context.getLongCounter(metricName)));
+            valueAccumulatorMap.put(metricName, new ValueAccumulator(0, context.getLongCounter(Metrics.getAccumulatorName(pipelineName, metricName))));
         }
     }
 
-    private void formatMonitorUrl(String monitorUrlStr){
-        if(monitorUrlStr.startsWith(JobCommonConstant.KEY_HTTP)){
-            String url;
-            if(monitorUrlStr.endsWith(JobCommonConstant.SINGLE_SLASH_SYMBOL)){
-                url = monitorUrlStr + "jobs/" + jobId + "/accumulators";
-            } else {
-                url = monitorUrlStr + "/jobs/" + jobId + "/accumulators";
-            }
-            monitorUrls.add(url);
-        } else {
-            String[] monitor = monitorUrlStr.split(",");
-            for (int i = 0; i < monitor.length; ++i) {
-                String url = "http://" + monitor[i] + "/jobs/" + jobId + "/accumulators";
-                monitorUrls.add(url);
-            }
-        }
-        if(LoggerHelper.isLogger()){
-            LOG.debug("monitorUrls = {}", gson.toJson(monitorUrls));
-        }
-    }
-
-    private void checkMonitorUrlIsValid(){
-        for (String monitorUrl : monitorUrls) {
-            try(InputStream ignored = UrlUtil.open(monitorUrl)) {
-                return;
-            } catch (Exception e) {
-                LOG.warn("Connect error with monitor url:{}", monitorUrl);
-            }
-        }
-
-        isLocalMode = true;
-        LOG.info("No valid url，will use local mode");
-    }
-
     private void initThreadPool(){
         scheduledExecutorService = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
             @Override
@@ -147,27 +97,31 @@ public class AccumulatorCollector {
         );
     }
 
+    /**
+     * 停止定时上报，并同步上报最终累加器值，返回时最终值已在JobMaster汇总
+     */
     public void close(){
         if(scheduledExecutorService != null && !scheduledExecutorService.isShutdown() && !scheduledExecutorService.isTerminated()) {
             scheduledExecutorService.shutdown();
         }
 
+        flush();
+    }
+
+    public void flush(){
         if(isLocalMode){
             return;
         }
-
         try {
-            if(httpClient != null){
-                httpClient.close();
-            }
+            collectAccumulatorWithGlobalAggregate();
         } catch (Exception e){
-            LOG.error("Close httpClient error:", e);
+            LOG.warn("Flush accumulators error:", e);
         }
     }
 
     public void collectAccumulator(){
         if(!isLocalMode){
-            collectAccumulatorWithApi();
+            collectAccumulatorWithGlobalAggregate();
         }
     }
 
@@ -193,31 +147,21 @@ public class AccumulatorCollector {
         return valueAccumulator.getLocal().getLocalValue();
     }
 
-    @SuppressWarnings("unchecked")
-    private void collectAccumulatorWithApi(){
-        for (String monitorUrl : monitorUrls) {
-            try {
-                String response = UrlUtil.get(httpClient, monitorUrl);
-                Map<String,Object> map = gson.fromJson(response, Map.class);
-                List<LinkedTreeMap> userTaskAccumulators = (List<LinkedTreeMap>) map.get(KEY_ACCUMULATORS);
-                for(LinkedTreeMap accumulator : userTaskAccumulators) {
-                    String name = (String) accumulator.get(KEY_NAME);
-                    if(name != null && !"tableCol".equalsIgnoreCase(name)) {
-                        String accValue = (String) accumulator.get(KEY_VALUE);
-                        if(!"null".equals(accValue)){
-                            long value = Double.valueOf(accValue).longValue();
-                            ValueAccumulator valueAccumulator = valueAccumulatorMap.get(name);
-                            if(valueAccumulator != null){
-                                valueAccumulator.setGlobal(value);
-                            }
-                        }
-                    }
+    private void collectAccumulatorWithGlobalAggregate(){
+        try {
+            HashMap<String, Long> localValues = new HashMap<>(valueAccumulatorMap.size());
+            valueAccumulatorMap.forEach((name, valueAccumulator) -> localValues.put(name, valueAccumulator.getLocal().getLocalValue()));
+
+            Map<String, Long> globalValues = GlobalAggregates.reportAccumulators(globalAggregateManager, context, pipelineName, localValues);
+            globalValues.forEach((name, value) -> {
+                ValueAccumulator valueAccumulator = valueAccumulatorMap.get(name);
+                if(valueAccumulator != null){
+                    valueAccumulator.setGlobal(value);
                 }
-            } catch (Exception e){
-                checkErrorTimes();
-                LOG.error("Update data error,url:[{}],error info:", monitorUrl, e);
-            }
-            break;
+            });
+        } catch (Exception e){
+            checkErrorTimes();
+            LOG.error("Update global aggregate error, error info:", e);
         }
     }
 
@@ -228,13 +172,13 @@ public class AccumulatorCollector {
         collectErrorTimes++;
         if (collectErrorTimes > MAX_COLLECT_ERROR_TIMES){
             // 主动关闭线程和资源，防止异常情况下没有关闭
-            close();
+            scheduledExecutorService.shutdown();
             throw new RuntimeException("更新统计数据出错次数超过最大限制100次，为了确保数据正确性，任务自动失败");
         }
     }
 
     static class ValueAccumulator{
-        private long global;
+        private volatile long global;
         private LongCounter local;
 
         public ValueAccumulator(long global, LongCounter local) {
@@ -13,8 +13,6 @@ public class BaseMetric {
 
     protected final Logger LOG = LoggerFactory.getLogger(getClass());
 
-    private Long delayPeriodMill = 20000L;
-
     private MetricGroup flinkxOutput;
 
     private final Map<String, LongCounter> metricCounters = new HashMap<>();
@@ -38,12 +36,4 @@ public class BaseMetric {
     public Map<String, LongCounter> getMetricCounters() {
         return metricCounters;
     }
-
-    public void waitForReportMetrics() {
-        try {
-            Thread.sleep(delayPeriodMill);
-        } catch (InterruptedException e){
-            LOG.warn("Task thread is interrupted");
-        }
-    }
 }
\ No newline at end of file
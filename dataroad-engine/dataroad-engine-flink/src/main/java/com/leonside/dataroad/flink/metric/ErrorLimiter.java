@@ -19,7 +19,8 @@
 package com.leonside.dataroad.flink.metric;
 
 import org.apache.flink.types.Row;
-import org.apache.flink.util.Preconditions;
+
+import java.util.function.Supplier;
 
 /**
  * Error Limitation
@@ -31,7 +32,7 @@ public class ErrorLimiter {
     private final Double maxErrorRatio;
     private AccumulatorCollector accumulatorCollector;
     private volatile double errorRatio = 0.0;
-    private String errMsg = "";
+    private Supplier<String> errMsg = () -> "";
     private Row errorData;
 
     public void setErrorData(Row errorData){
@@ -39,6 +40,13 @@ public class ErrorLimiter {
     }
 
     public void setErrMsg(String errMsg) {
+        this.errMsg = () -> errMsg;
+    }
+
+    /**
+     * 错误信息在超出错误限制时才生成，避免每条错误记录都拼接异常堆栈
+     */
+    public void setErrMsg(Supplier<String> errMsg) {
         this.errMsg = errMsg;
     }
 
@@ -53,15 +61,10 @@ public class ErrorLimiter {
     }
 
     public void acquire() {
-        String errorDataStr = "";
-        if(errorData != null){
-            errorDataStr = errorData.toString() + "\n";
-        }
-
         long errors = accumulatorCollector.getAccumulatorValue(Metrics.NUM_ERRORS);
-        if(maxErrors != null){
-            Preconditions.checkArgument(errors <= maxErrors, "WritingRecordError: error writing record [" + errors + "] exceed limit [" + maxErrors
-                    + "]\n" + errorDataStr + errMsg);
+        if(maxErrors != null && errors > maxErrors){
+            throw new IllegalArgumentException("WritingRecordError: error writing record [" + errors + "] exceed limit [" + maxErrors
+                    + "]\n" + errorInfo());
         }
 
         if(maxErrorRatio != null){
@@ -70,9 +73,19 @@ public class ErrorLimiter {
                 errorRatio = (double) errors / numRead;
             }
 
-            Preconditions.checkArgument(errorRatio <= maxErrorRatio, "WritingRecordError: error writing record ratio [" + errorRatio + "] exceed limit [" + maxErrorRatio
-                    + "]\n" + errorDataStr + errMsg);
+            if(errorRatio > maxErrorRatio){
+                throw new IllegalArgumentException("WritingRecordError: error writing record ratio [" + errorRatio + "] exceed limit [" + maxErrorRatio
+                        + "]\n" + errorInfo());
+            }
+        }
+    }
+
+    private String errorInfo() {
+        String errorDataStr = "";
+        if(errorData != null){
+            errorDataStr = errorData.toString() + "\n";
         }
+        return errorDataStr + errMsg.get();
     }
 
 }
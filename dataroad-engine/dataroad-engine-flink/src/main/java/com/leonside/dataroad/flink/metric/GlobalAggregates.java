@@ -0,0 +1,263 @@
+package com.leonside.dataroad.flink.metric;
+
+import org.apache.flink.api.common.functions.AggregateFunction;
+import org.apache.flink.api.common.functions.RuntimeContext;
+import org.apache.flink.runtime.taskexecutor.GlobalAggregateManager;
+import org.apache.flink.streaming.api.operators.StreamingRuntimeContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 基于Flink GlobalAggregateManager的子任务间协调：各子任务通过RPC将数据汇总到JobMaster并取回汇总结果，
+ * 用于共享全局计数、增量同步最大值及任务状态（子任务上报的失败及数据源取消），替代各子任务轮询JobManager REST API。
+ * 非StreamingRuntimeContext（如FLIP-27 Source读取任务）无法获取GlobalAggregateManager，调用方需回退为本地模式。
+ * @author leon
+ */
+public class GlobalAggregates {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GlobalAggregates.class);
+
+    public static final String ACCUMULATOR_AGGREGATE = "dataroad_accumulators";
+
+    public static final String MAX_VALUE_AGGREGATE_PREFIX = "dataroad_max_value_";
+
+    public static final String JOB_STATE_AGGREGATE = "dataroad_job_state";
+
+    public static final String FAILED_STATE = "FAILED";
+
+    public static final String CANCELED_STATE = "CANCELED";
+
+    private GlobalAggregates() {
+    }
+
+    /**
+     * @return GlobalAggregateManager，运行时上下文不支持时返回null
+     */
+    public static GlobalAggregateManager getGlobalAggregateManager(RuntimeContext runtimeContext) {
+        if (runtimeContext instanceof StreamingRuntimeContext) {
+            return ((StreamingRuntimeContext) runtimeContext).getGlobalAggregateManager();
+        }
+        return null;
+    }
+
+    /**
+     * 上报本子任务的累加器值，返回同一管道内所有子任务同名累加器之和
+     */
+    public static Map<String, Long> reportAccumulators(GlobalAggregateManager globalAggregateManager, RuntimeContext runtimeContext, String pipelineName, Map<String, Long> localValues) throws IOException {
+        AccumulatorReport report = new AccumulatorReport(runtimeContext.getTaskNameWithSubtasks(), runtimeContext.getAttemptNumber(), localValues);
+        return globalAggregateManager.updateGlobalAggregate(Metrics.getAccumulatorName(pipelineName, ACCUMULATOR_AGGREGATE), report, new AccumulatorAggregateFunction());
+    }
+
+    /**
+     * 发布全局值，value为null时仅查询，返回最近一次发布的值
+     */
+    public static String updateValue(GlobalAggregateManager globalAggregateManager, String aggregateName, String value) throws IOException {
+        return globalAggregateManager.updateGlobalAggregate(aggregateName, value, new LatestValueAggregateFunction());
+    }
+
+    /**
+     * 上报本子任务失败，失败状态在该子任务以新的执行尝试重新打开前有效
+     */
+    public static void reportFailure(RuntimeContext runtimeContext, String pipelineName) {
+        reportState(runtimeContext, pipelineName, FAILED_STATE);
+    }
+
+    /**
+     * 上报本子任务被取消（数据源收到cancel），取消状态在该子任务以新的执行尝试重新打开前有效
+     */
+    public static void reportCancel(RuntimeContext runtimeContext, String pipelineName) {
+        reportState(runtimeContext, pipelineName, CANCELED_STATE);
+    }
+
+    /**
+     * 子任务打开时上报运行状态，清除本子任务之前执行尝试上报的失败或取消状态，
+     * 避免Region故障恢复时未重启的子任务始终读取到已恢复Region的失败状态
+     */
+    public static void reportRunning(RuntimeContext runtimeContext, String pipelineName) {
+        reportState(runtimeContext, pipelineName, null);
+    }
+
+    private static void reportState(RuntimeContext runtimeContext, String pipelineName, String state) {
+        GlobalAggregateManager globalAggregateManager = getGlobalAggregateManager(runtimeContext);
+        if (globalAggregateManager == null) {
+            return;
+        }
+        try {
+            String subtask = runtimeContext.getTaskName() + "_" + runtimeContext.getIndexOfThisSubtask();
+            globalAggregateManager.updateGlobalAggregate(Metrics.getAccumulatorName(pipelineName, JOB_STATE_AGGREGATE),
+                    new JobStateReport(subtask, runtimeContext.getAttemptNumber(), state), new JobStateAggregateFunction());
+        } catch (Exception e) {
+            LOG.warn("Report job state error: ", e);
+        }
+    }
+
+    /**
+     * 获取管道内其他子任务上报的失败或取消状态，仅执行尝试不早于本子任务的上报有效，
+     * 本子任务重启前发生且已被对应子任务恢复清除的失败不影响本子任务
+     * @return 任务状态FAILED或CANCELED，无有效上报或运行时上下文不支持时返回null
+     */
+    public static String getJobState(RuntimeContext runtimeContext, String pipelineName) throws IOException {
+        GlobalAggregateManager globalAggregateManager = getGlobalAggregateManager(runtimeContext);
+        if (globalAggregateManager == null) {
+            return null;
+        }
+        HashMap<String, JobStateReport> reports = globalAggregateManager.updateGlobalAggregate(Metrics.getAccumulatorName(pipelineName, JOB_STATE_AGGREGATE),
+                new JobStateReport(null, -1, null), new JobStateAggregateFunction());
+        String jobState = null;
+        for (JobStateReport report : reports.values()) {
+            if (report.state == null || report.attemptNumber < runtimeContext.getAttemptNumber()) {
+                continue;
+            }
+            if (FAILED_STATE.equals(report.state)) {
+                return FAILED_STATE;
+            }
+            jobState = report.state;
+        }
+        return jobState;
+    }
+
+    public static class AccumulatorReport implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String subtask;
+
+        private final int attemptNumber;
+
+        private final Map<String, Long> values;
+
+        public AccumulatorReport(String subtask, int attemptNumber, Map<String, Long> values) {
+            this.subtask = subtask;
+            this.attemptNumber = attemptNumber;
+            this.values = values;
+        }
+    }
+
+    /**
+     * 按子任务保存最近一次上报的累加器值并求和。同一Task内链接的reader/writer共用子任务标识，累加器取较大值合并；
+     * 子任务重启后以新的执行尝试替换旧值（从断点恢复的计数已包含在新的累加器中）
+     */
+    public static class AccumulatorAggregateFunction implements AggregateFunction<AccumulatorReport, HashMap<String, AccumulatorReport>, HashMap<String, Long>> {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public HashMap<String, AccumulatorReport> createAccumulator() {
+            return new HashMap<>();
+        }
+
+        @Override
+        public HashMap<String, AccumulatorReport> add(AccumulatorReport report, HashMap<String, AccumulatorReport> accumulator) {
+            AccumulatorReport previous = accumulator.get(report.subtask);
+            if (previous == null || previous.attemptNumber < report.attemptNumber) {
+                accumulator.put(report.subtask, new AccumulatorReport(report.subtask, report.attemptNumber, new HashMap<>(report.values)));
+            } else if (previous.attemptNumber == report.attemptNumber) {
+                report.values.forEach((name, value) -> previous.values.merge(name, value, Math::max));
+            }
+            return accumulator;
+        }
+
+        @Override
+        public HashMap<String, Long> getResult(HashMap<String, AccumulatorReport> accumulator) {
+            HashMap<String, Long> result = new HashMap<>();
+            for (AccumulatorReport report : accumulator.values()) {
+                report.values.forEach((name, value) -> result.merge(name, value, Long::sum));
+            }
+            return result;
+        }
+
+        @Override
+        public HashMap<String, AccumulatorReport> merge(HashMap<String, AccumulatorReport> a, HashMap<String, AccumulatorReport> b) {
+            b.values().forEach(report -> add(report, a));
+            return a;
+        }
+    }
+
+    public static class JobStateReport implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String subtask;
+
+        private final int attemptNumber;
+
+        private final String state;
+
+        public JobStateReport(String subtask, int attemptNumber, String state) {
+            this.subtask = subtask;
+            this.attemptNumber = attemptNumber;
+            this.state = state;
+        }
+    }
+
+    /**
+     * 按子任务保存最近一次执行尝试上报的状态，subtask为空的上报仅查询。
+     * 同一执行尝试内失败或取消状态不被运行状态覆盖，新的执行尝试替换旧的上报
+     */
+    public static class JobStateAggregateFunction implements AggregateFunction<JobStateReport, HashMap<String, JobStateReport>, HashMap<String, JobStateReport>> {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public HashMap<String, JobStateReport> createAccumulator() {
+            return new HashMap<>();
+        }
+
+        @Override
+        public HashMap<String, JobStateReport> add(JobStateReport report, HashMap<String, JobStateReport> accumulator) {
+            if (report.subtask == null) {
+                return accumulator;
+            }
+            JobStateReport previous = accumulator.get(report.subtask);
+            if (previous == null || previous.attemptNumber < report.attemptNumber
+                    || (previous.attemptNumber == report.attemptNumber && report.state != null && !FAILED_STATE.equals(previous.state))) {
+                accumulator.put(report.subtask, report);
+            }
+            return accumulator;
+        }
+
+        @Override
+        public HashMap<String, JobStateReport> getResult(HashMap<String, JobStateReport> accumulator) {
+            return new HashMap<>(accumulator);
+        }
+
+        @Override
+        public HashMap<String, JobStateReport> merge(HashMap<String, JobStateReport> a, HashMap<String, JobStateReport> b) {
+            b.values().forEach(report -> add(report, a));
+            return a;
+        }
+    }
+
+    /**
+     * 保存最近一次发布的非空值
+     */
+    public static class LatestValueAggregateFunction implements AggregateFunction<String, String, String> {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String createAccumulator() {
+            return null;
+        }
+
+        @Override
+        public String add(String value, String accumulator) {
+            return value != null ? value : accumulator;
+        }
+
+        @Override
+        public String getResult(String accumulator) {
+            return accumulator;
+        }
+
+        @Override
+        public String merge(String a, String b) {
+            return b != null ? b : a;
+        }
+    }
+}
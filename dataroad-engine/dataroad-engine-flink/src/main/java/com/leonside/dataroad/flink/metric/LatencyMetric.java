@@ -0,0 +1,101 @@
+package com.leonside.dataroad.flink.metric;
+
+import org.apache.flink.metrics.Histogram;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.runtime.metrics.DescriptiveStatisticsHistogram;
+
+import java.util.Arrays;
+
+/**
+ * writer延迟指标，注册在算子指标组的 latency 分组下（毫秒）：
+ * <ul>
+ *     <li>sourceToCommit：记录由reader读取至写入提交的延迟，开启latencyTracking时按采样间隔采样，提交前暂存采样时间戳</li>
+ *     <li>writeCall：单次写入调用（批量写入为一批）的耗时</li>
+ * </ul>
+ * 仅在算子线程内更新，非线程安全；异步写入时由子类取出暂存的采样随请求传递，请求完成后交回算子线程提交
+ * @author leon
+ */
+public class LatencyMetric {
+
+    private static final int HISTOGRAM_WINDOW_SIZE = 1024;
+
+    /**
+     * 待提交的采样上限，超出后丢弃新的采样，避免长时间未提交时占用过多内存
+     */
+    private static final int MAX_PENDING_SAMPLES = 4096;
+
+    private final Histogram sourceToCommit;
+
+    private final Histogram writeCall;
+
+    private final int sampleInterval;
+
+    private final long[] pendingTimestamps = new long[MAX_PENDING_SAMPLES];
+
+    private int numPending;
+
+    private long sequence;
+
+    public LatencyMetric(MetricGroup operatorMetricGroup, int sampleInterval) {
+        MetricGroup latencyGroup = operatorMetricGroup.addGroup(Metrics.METRIC_GROUP_KEY_LATENCY);
+        this.sourceToCommit = latencyGroup.histogram(Metrics.SOURCE_TO_COMMIT_LATENCY, new DescriptiveStatisticsHistogram(HISTOGRAM_WINDOW_SIZE));
+        this.writeCall = latencyGroup.histogram(Metrics.WRITE_CALL_LATENCY, new DescriptiveStatisticsHistogram(HISTOGRAM_WINDOW_SIZE));
+        this.sampleInterval = sampleInterval;
+    }
+
+    /**
+     * 记录reader打上的读取时间戳，按采样间隔暂存至提交
+     */
+    public void track(long sourceTimestamp) {
+        if (sequence++ % sampleInterval == 0 && numPending < MAX_PENDING_SAMPLES) {
+            pendingTimestamps[numPending++] = sourceTimestamp;
+        }
+    }
+
+    /**
+     * 已暂存的记录写入提交
+     */
+    public void commit() {
+        if (numPending == 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < numPending; i++) {
+            sourceToCommit.update(Math.max(0, now - pendingTimestamps[i]));
+        }
+        numPending = 0;
+    }
+
+    /**
+     * 丢弃未提交的采样，如写入失败回滚
+     */
+    public void discard() {
+        numPending = 0;
+    }
+
+    /**
+     * 取出暂存的采样，由异步写入完成后调用{@link #commit(long[], long)}提交
+     */
+    public long[] drainPending() {
+        long[] samples = Arrays.copyOf(pendingTimestamps, numPending);
+        numPending = 0;
+        return samples;
+    }
+
+    /**
+     * 异步写入的记录已于commitMillis提交
+     */
+    public void commit(long[] samples, long commitMillis) {
+        for (long sample : samples) {
+            sourceToCommit.update(Math.max(0, commitMillis - sample));
+        }
+    }
+
+    public void updateWriteCall(long startMillis) {
+        updateWriteCall(startMillis, System.currentTimeMillis());
+    }
+
+    public void updateWriteCall(long startMillis, long endMillis) {
+        writeCall.update(endMillis - startMillis);
+    }
+}
@@ -0,0 +1,304 @@
+package com.leonside.dataroad.flink.metric;
+
+import org.apache.flink.api.common.functions.AggregateFunction;
+import org.apache.flink.api.common.functions.RuntimeContext;
+import org.apache.flink.runtime.taskexecutor.GlobalAggregateManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 全局速率限制：每秒记录数、字节数预算由JobMaster按时间窗口以租约形式分批发放给各子任务（见{@link GlobalAggregates}），
+ * 子任务在本地扣减许可，许可用尽时再申请下一批，当前窗口预算发完则等待下一窗口，无需逐条请求限流器。
+ * 记录许可在处理前申请，字节数在处理后按{@link com.leonside.dataroad.flink.utils.RowSizeEstimator}估算值扣减（允许透支，下一批租约补足）。
+ * 开启自适应（AIMD）时，子任务上报拥塞（写入延迟超过阈值或写入出错）则全局预算系数减半，无拥塞的窗口逐步加性恢复至配置预算。
+ * 运行时上下文不支持GlobalAggregateManager时，按预算/并发数在本地发放租约。
+ * @author leon
+ */
+public class LeaseRateLimiter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LeaseRateLimiter.class);
+
+    public static final String RATE_AGGREGATE_PREFIX = "dataroad_rate_";
+
+    /**
+     * 预算发放窗口
+     */
+    public static final long WINDOW_MILLIS = 200;
+
+    /**
+     * 每个窗口每个子任务分几批申请租约
+     */
+    private static final int LEASES_PER_WINDOW = 2;
+
+    private static final double MIN_FACTOR = 0.05;
+
+    private static final double DECREASE_FACTOR = 0.5;
+
+    /**
+     * 无拥塞时每个窗口恢复的预算系数
+     */
+    private static final double INCREASE_STEP = 0.01;
+
+    private final String aggregateName;
+
+    private final long recordsPerSecond;
+
+    private final long bytesPerSecond;
+
+    private final boolean adaptive;
+
+    private final long recordChunk;
+
+    private final long byteChunk;
+
+    private final GlobalAggregateManager globalAggregateManager;
+
+    private final RateLeaseAggregateFunction aggregateFunction = new RateLeaseAggregateFunction();
+
+    private LeaseState localLeaseState;
+
+    private long records;
+
+    private long bytes;
+
+    private volatile boolean congested;
+
+    private volatile double factor = 1.0;
+
+    /**
+     * @param name 限流器名称，同一算子的各子任务共享预算
+     * @param recordsPerSecond 每秒记录数，小于等于0或Long.MAX_VALUE为不限制
+     * @param bytesPerSecond 每秒字节数，小于等于0或Long.MAX_VALUE为不限制
+     * @param adaptive 是否根据拥塞上报自适应调整预算
+     */
+    public LeaseRateLimiter(RuntimeContext runtimeContext, String name, long recordsPerSecond, long bytesPerSecond, boolean adaptive) {
+        //不含执行尝试次数，重启后的子任务与重启前共享同一窗口预算，重启前发放的租约随窗口结束失效，不会额外获得预算
+        this.aggregateName = RATE_AGGREGATE_PREFIX + runtimeContext.getTaskName() + "_" + name;
+        this.recordsPerSecond = isUnlimited(recordsPerSecond) ? 0 : recordsPerSecond;
+        this.bytesPerSecond = isUnlimited(bytesPerSecond) ? 0 : bytesPerSecond;
+        this.adaptive = adaptive;
+
+        int parallelism = runtimeContext.getNumberOfParallelSubtasks();
+        this.recordChunk = chunk(this.recordsPerSecond, parallelism);
+        this.byteChunk = chunk(this.bytesPerSecond, parallelism);
+        this.records = this.recordsPerSecond > 0 ? 0 : Long.MAX_VALUE;
+        this.bytes = this.bytesPerSecond > 0 ? 0 : Long.MAX_VALUE;
+
+        this.globalAggregateManager = GlobalAggregates.getGlobalAggregateManager(runtimeContext);
+        if (globalAggregateManager == null) {
+            LOG.info("GlobalAggregateManager is not available, rate limiter [{}] will lease budget/{} locally", name, parallelism);
+            localLeaseState = new LeaseState();
+        }
+        LOG.info("rate limiter [{}] open, recordsPerSecond = {}, bytesPerSecond = {}, adaptive = {}", name, recordsPerSecond, bytesPerSecond, adaptive);
+    }
+
+    public static boolean isUnlimited(long permitsPerSecond) {
+        return permitsPerSecond <= 0 || permitsPerSecond == Long.MAX_VALUE;
+    }
+
+    private static long chunk(long permitsPerSecond, int parallelism) {
+        if (permitsPerSecond <= 0) {
+            return 0;
+        }
+        return Math.max(1, permitsPerSecond * WINDOW_MILLIS / 1000 / parallelism / LEASES_PER_WINDOW);
+    }
+
+    /**
+     * 处理记录前申请记录许可，字节许可已透支时一并等待补足
+     */
+    public void acquire(long recordPermits) {
+        while (records < recordPermits || bytes <= 0) {
+            lease();
+        }
+        records -= recordPermits;
+    }
+
+    /**
+     * 处理记录后扣减字节许可
+     */
+    public void consumeBytes(long bytePermits) {
+        if (bytesPerSecond > 0) {
+            bytes -= bytePermits;
+        }
+    }
+
+    /**
+     * 上报拥塞，随下次租约申请生效
+     */
+    public void reportCongestion() {
+        if (adaptive) {
+            congested = true;
+        }
+    }
+
+    public double getFactor() {
+        return factor;
+    }
+
+    private void lease() {
+        long needRecords = records < recordChunk ? recordChunk : 0;
+        long needBytes = bytes <= 0 ? byteChunk - bytes : 0;
+        LeaseRequest request = new LeaseRequest(needRecords, needBytes, recordsPerSecond, bytesPerSecond, adaptive, congested);
+        congested = false;
+
+        LeaseGrant grant;
+        try {
+            if (globalAggregateManager != null) {
+                grant = globalAggregateManager.updateGlobalAggregate(aggregateName, request, aggregateFunction);
+            } else {
+                grant = aggregateFunction.getResult(aggregateFunction.add(request.localShare(recordChunk, byteChunk), localLeaseState));
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("lease rate permits error, limiter = " + aggregateName, e);
+        }
+
+        records += grant.records;
+        bytes += grant.bytes;
+        if (factor != grant.factor) {
+            LOG.info("rate limiter [{}] factor changed from {} to {}", aggregateName, factor, grant.factor);
+            factor = grant.factor;
+        }
+
+        if ((needRecords > 0 && grant.records == 0) || (needBytes > 0 && grant.bytes == 0)) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(Math.max(1, grant.waitMillis));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("interrupted while waiting for rate permits", e);
+            }
+        }
+    }
+
+    public static class LeaseRequest implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long records;
+
+        private final long bytes;
+
+        private final long recordsPerSecond;
+
+        private final long bytesPerSecond;
+
+        private final boolean adaptive;
+
+        private final boolean congested;
+
+        public LeaseRequest(long records, long bytes, long recordsPerSecond, long bytesPerSecond, boolean adaptive, boolean congested) {
+            this.records = records;
+            this.bytes = bytes;
+            this.recordsPerSecond = recordsPerSecond;
+            this.bytesPerSecond = bytesPerSecond;
+            this.adaptive = adaptive;
+            this.congested = congested;
+        }
+
+        /**
+         * 本地模式下以本子任务分得的预算（每窗口租约批数 * 每批许可）发放租约
+         */
+        private LeaseRequest localShare(long recordChunk, long byteChunk) {
+            long windowsPerSecond = 1000 / WINDOW_MILLIS;
+            return new LeaseRequest(records, bytes,
+                    recordsPerSecond > 0 ? recordChunk * LEASES_PER_WINDOW * windowsPerSecond : 0,
+                    bytesPerSecond > 0 ? byteChunk * LEASES_PER_WINDOW * windowsPerSecond : 0,
+                    adaptive, congested);
+        }
+    }
+
+    public static class LeaseGrant implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long records;
+
+        private final long bytes;
+
+        private final long waitMillis;
+
+        private final double factor;
+
+        public LeaseGrant(long records, long bytes, long waitMillis, double factor) {
+            this.records = records;
+            this.bytes = bytes;
+            this.waitMillis = waitMillis;
+            this.factor = factor;
+        }
+    }
+
+    public static class LeaseState implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private long window = -1;
+
+        private long grantedRecords;
+
+        private long grantedBytes;
+
+        private double factor = 1.0;
+
+        private long lastDecreaseWindow = -1;
+
+        private LeaseGrant lastGrant;
+    }
+
+    /**
+     * 在JobMaster上按窗口发放租约，窗口以JobMaster时钟划分，各子任务时钟偏差不影响预算
+     */
+    public static class RateLeaseAggregateFunction implements AggregateFunction<LeaseRequest, LeaseState, LeaseGrant> {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public LeaseState createAccumulator() {
+            return new LeaseState();
+        }
+
+        @Override
+        public LeaseState add(LeaseRequest request, LeaseState state) {
+            long now = System.currentTimeMillis();
+            long window = now / WINDOW_MILLIS;
+            if (window != state.window) {
+                if (request.adaptive && state.window >= 0 && state.lastDecreaseWindow != state.window) {
+                    state.factor = Math.min(1.0, state.factor + INCREASE_STEP * (window - state.window));
+                }
+                state.window = window;
+                state.grantedRecords = 0;
+                state.grantedBytes = 0;
+            }
+            if (request.adaptive && request.congested && state.lastDecreaseWindow != window) {
+                state.factor = Math.max(MIN_FACTOR, state.factor * DECREASE_FACTOR);
+                state.lastDecreaseWindow = window;
+            }
+
+            long grantRecords = grant(request.records, request.recordsPerSecond, state.grantedRecords, state.factor);
+            long grantBytes = grant(request.bytes, request.bytesPerSecond, state.grantedBytes, state.factor);
+            state.grantedRecords += grantRecords;
+            state.grantedBytes += grantBytes;
+            state.lastGrant = new LeaseGrant(grantRecords, grantBytes, (window + 1) * WINDOW_MILLIS - now, state.factor);
+            return state;
+        }
+
+        private long grant(long request, long permitsPerSecond, long granted, double factor) {
+            if (request <= 0 || permitsPerSecond <= 0) {
+                return 0;
+            }
+            long windowBudget = Math.max(1, (long) (permitsPerSecond * factor * WINDOW_MILLIS / 1000));
+            return Math.max(0, Math.min(request, windowBudget - granted));
+        }
+
+        @Override
+        public LeaseGrant getResult(LeaseState state) {
+            return state.lastGrant;
+        }
+
+        @Override
+        public LeaseState merge(LeaseState a, LeaseState b) {
+            return a;
+        }
+    }
+}
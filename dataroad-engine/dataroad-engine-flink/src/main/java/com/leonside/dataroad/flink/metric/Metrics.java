@@ -35,6 +35,8 @@ public class Metrics {
 
     public static final String SUBTASK_INDEX = "<subtask_index>";
 
+    public static final String TASK_NAME = "<task_name>";
+
     public static final String NUM_READS = "numRead";
 
     public static final String END_LOCATION = "endLocation";
@@ -55,4 +57,31 @@ public class Metrics {
 
     public static final String SUFFIX_RATE = "PerSecond";
 
+    public static final String METRIC_GROUP_KEY_SCRIPT = "script";
+
+    /**
+     * 累加器及全局聚合在作业内按名称共享，多个content合并执行时以管道名为前缀区分各管道
+     */
+    public static String getAccumulatorName(String pipelineName, String name) {
+        return pipelineName == null || pipelineName.isEmpty() ? name : pipelineName + "_" + name;
+    }
+
+    public static final String NUM_EVALUATIONS = "numEvaluations";
+
+    public static final String NUM_EVALUATION_ERRORS = "numEvaluationErrors";
+
+    public static final String NUM_PASSED = "numPassed";
+
+    public static final String NUM_REJECTED = "numRejected";
+
+    public static final String PASS_RATIO = "passRatio";
+
+    public static final String EVALUATION_LATENCY = "evaluationLatencyNanos";
+
+    public static final String METRIC_GROUP_KEY_LATENCY = "latency";
+
+    public static final String SOURCE_TO_COMMIT_LATENCY = "sourceToCommit";
+
+    public static final String WRITE_CALL_LATENCY = "writeCall";
+
 }
@@ -0,0 +1,90 @@
+package com.leonside.dataroad.flink.metric;
+
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.metrics.Histogram;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.runtime.metrics.DescriptiveStatisticsHistogram;
+
+/**
+ * 脚本执行指标，注册在算子指标组的 script.组件名 分组下：执行次数、异常次数、通过/不通过次数及通过率，
+ * 执行耗时（纳秒）每SAMPLE_INTERVAL次采样一次计入直方图，未采样时不读取时钟。
+ * 仅在算子线程内更新，计数器非线程安全
+ * @author leon
+ */
+public class ScriptMetric {
+
+    /**
+     * 采样间隔，须为2的幂
+     */
+    public static final int SAMPLE_INTERVAL = 128;
+
+    private static final int HISTOGRAM_WINDOW_SIZE = 1024;
+
+    private static final long NOT_SAMPLED = -1L;
+
+    private final Counter evaluations;
+
+    private final Counter errors;
+
+    private final Counter passed;
+
+    private final Counter rejected;
+
+    private final Histogram latency;
+
+    private long sequence;
+
+    public ScriptMetric(MetricGroup operatorMetricGroup, String componentName) {
+        MetricGroup scriptGroup = operatorMetricGroup.addGroup(Metrics.METRIC_GROUP_KEY_SCRIPT, componentName);
+        this.evaluations = scriptGroup.counter(Metrics.NUM_EVALUATIONS);
+        this.errors = scriptGroup.counter(Metrics.NUM_EVALUATION_ERRORS);
+        this.passed = scriptGroup.counter(Metrics.NUM_PASSED);
+        this.rejected = scriptGroup.counter(Metrics.NUM_REJECTED);
+        this.latency = scriptGroup.histogram(Metrics.EVALUATION_LATENCY, new DescriptiveStatisticsHistogram(HISTOGRAM_WINDOW_SIZE));
+        scriptGroup.gauge(Metrics.PASS_RATIO, (Gauge<Double>) this::getPassRatio);
+    }
+
+    /**
+     * 开始执行
+     * @return 采样时返回开始时间，传入finish
+     */
+    public long start() {
+        evaluations.inc();
+        return (sequence++ & (SAMPLE_INTERVAL - 1)) == 0 ? System.nanoTime() : NOT_SAMPLED;
+    }
+
+    /**
+     * 转换脚本执行完成
+     */
+    public void finish(long startNanos) {
+        if(startNanos != NOT_SAMPLED){
+            latency.update(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * 过滤、条件脚本执行完成
+     */
+    public void finish(long startNanos, boolean pass) {
+        finish(startNanos);
+        (pass ? passed : rejected).inc();
+    }
+
+    /**
+     * 记录未单独执行的条件结果，如编译为一个路由类的决策分支
+     */
+    public void record(boolean pass) {
+        evaluations.inc();
+        (pass ? passed : rejected).inc();
+    }
+
+    public void error() {
+        errors.inc();
+    }
+
+    private double getPassRatio() {
+        long total = passed.getCount() + rejected.getCount();
+        return total == 0 ? 0D : (double) passed.getCount() / total;
+    }
+}
@@ -1,28 +1,44 @@
 package com.leonside.dataroad.flink.predicate;
 
 import com.leonside.dataroad.common.exception.ScriptExecuteException;
+import com.leonside.dataroad.common.script.FieldTypeAware;
 import com.leonside.dataroad.common.script.ScriptEvaluator;
 import com.leonside.dataroad.common.script.ScriptEvaluatorFactory;
 import com.leonside.dataroad.core.component.ComponentInitialization;
 import com.leonside.dataroad.core.component.ComponentNameSupport;
+import com.leonside.dataroad.core.planner.ColumnReferenceSupport;
+import com.leonside.dataroad.core.planner.ScriptExpressionAnalyzer;
 import com.leonside.dataroad.core.spi.JobPredicate;
-import com.leonside.dataroad.flink.config.ScriptExpressionConfig;
+import com.leonside.dataroad.flink.config.ExpressionPredicateConfig;
 import com.leonside.dataroad.flink.context.FlinkExecuteContext;
 import org.apache.flink.types.Row;
 
 import java.util.Map;
+import java.util.Set;
 
 /**
  * @author leon
  */
-public class ExpressionPredicate extends ComponentNameSupport implements ComponentInitialization<FlinkExecuteContext,ScriptExpressionConfig>, JobPredicate<FlinkExecuteContext, Row> {
+public class ExpressionPredicate extends ComponentNameSupport implements ComponentInitialization<FlinkExecuteContext,ExpressionPredicateConfig>, JobPredicate<FlinkExecuteContext, Row>, FieldTypeAware, ColumnReferenceSupport {
 
-    private ScriptExpressionConfig scriptExpressionConfig;
+    private ExpressionPredicateConfig scriptExpressionConfig;
 
     private ScriptEvaluator scriptEvalutor;
 
     private Map<String,Object> parameter;
 
+    @Override
+    public void bindFieldTypes(String[] fieldNames, Class<?>[] fieldTypes) {
+        if(scriptEvalutor instanceof FieldTypeAware){
+            ((FieldTypeAware) scriptEvalutor).bindFieldTypes(fieldNames, fieldTypes);
+        }
+    }
+
+    @Override
+    public void open() throws Exception {
+        scriptEvalutor.open();
+    }
+
     @Override
     public boolean test(FlinkExecuteContext executeContext, Row row) {
 
@@ -39,10 +55,19 @@ public class ExpressionPredicate extends ComponentNameSupport implements Compone
     }
 
     @Override
-    public void doInitialize(FlinkExecuteContext executeContext, ScriptExpressionConfig config) {
+    public void doInitialize(FlinkExecuteContext executeContext, ExpressionPredicateConfig config) {
         this.parameter = config.getParameter();
         this.scriptExpressionConfig =  config ;
         scriptEvalutor = ScriptEvaluatorFactory.createScriptEvalutor(scriptExpressionConfig.getLanguage(), scriptExpressionConfig.getExpression());
     }
 
+    @Override
+    public Set<String> getReferencedColumns() {
+        return ScriptExpressionAnalyzer.referencedColumns(scriptExpressionConfig.getLanguage(), scriptExpressionConfig.getExpression());
+    }
+
+    public ExpressionPredicateConfig getScriptExpressionConfig() {
+        return scriptExpressionConfig;
+    }
+
 }
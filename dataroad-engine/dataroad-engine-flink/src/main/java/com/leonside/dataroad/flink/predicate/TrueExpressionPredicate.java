@@ -2,15 +2,19 @@ package com.leonside.dataroad.flink.predicate;
 
 import com.leonside.dataroad.core.component.ComponentInitialization;
 import com.leonside.dataroad.core.component.ComponentNameSupport;
+import com.leonside.dataroad.core.planner.ColumnReferenceSupport;
 import com.leonside.dataroad.core.spi.JobPredicate;
 import com.leonside.dataroad.flink.config.ScriptExpressionConfig;
 import com.leonside.dataroad.flink.context.FlinkExecuteContext;
 import org.apache.flink.types.Row;
 
+import java.util.Collections;
+import java.util.Set;
+
 /**
  * @author leon
  */
-public class TrueExpressionPredicate extends ComponentNameSupport implements ComponentInitialization<FlinkExecuteContext,ScriptExpressionConfig>, JobPredicate<FlinkExecuteContext, Row> {
+public class TrueExpressionPredicate extends ComponentNameSupport implements ComponentInitialization<FlinkExecuteContext,ScriptExpressionConfig>, JobPredicate<FlinkExecuteContext, Row>, ColumnReferenceSupport {
 
     public static final String COMPONENT_ID = "trueExpressionPredicate";
 
@@ -20,6 +24,11 @@ public class TrueExpressionPredicate extends ComponentNameSupport implements Com
         return true;
     }
 
+    @Override
+    public Set<String> getReferencedColumns() {
+        return Collections.emptySet();
+    }
+
     @Override
     public void doInitialize(FlinkExecuteContext executeContext, ScriptExpressionConfig config) {
      }
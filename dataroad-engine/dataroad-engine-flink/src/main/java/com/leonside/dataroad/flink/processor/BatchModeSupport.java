@@ -0,0 +1,29 @@
+package com.leonside.dataroad.flink.processor;
+
+import com.leonside.dataroad.core.aggregations.config.BaseWindowConfig;
+import com.leonside.dataroad.core.aggregations.config.TumblingWindowConfig;
+
+/**
+ * 可声明能否按BATCH模式执行的processor，BATCH模式下处理时间定时器仅在输入结束时触发
+ * @author leon
+ */
+public interface BatchModeSupport {
+
+    /**
+     * @return 不支持BATCH模式执行的原因，支持时返回null
+     */
+    String unsupportedBatchReason();
+
+    /**
+     * 时间窗口仅事件时间且未开启提前触发时支持BATCH模式
+     */
+    static String windowUnsupportedBatchReason(String name, TumblingWindowConfig windowConfig) {
+        if(windowConfig.getTimeType() != BaseWindowConfig.WindowTimeType.event){
+            return "window [" + name + "] uses " + windowConfig.getTimeType() + " time, which only fires at the end of input in batch mode";
+        }
+        if(windowConfig.isEarlyFire()){
+            return "window [" + name + "] enables early fire, which only fires at the end of input in batch mode";
+        }
+        return null;
+    }
+}
@@ -4,6 +4,7 @@ import com.leonside.dataroad.common.config.BaseConfig;
 import com.leonside.dataroad.core.aggregations.config.BaseWindowConfig;
 import com.leonside.dataroad.core.component.ComponentInitialization;
 import com.leonside.dataroad.core.component.ComponentNameAutoGenerator;
+import com.leonside.dataroad.core.planner.ColumnReferenceSupport;
 import com.leonside.dataroad.core.spi.ItemAggregationProcessor;
 import com.leonside.dataroad.flink.context.FlinkExecuteContext;
 import com.leonside.dataroad.core.aggregations.config.CountWindowConfig;
@@ -12,10 +13,12 @@ import org.apache.commons.lang.ArrayUtils;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.types.Row;
 
+import java.util.Set;
+
 /**
  * @author leon
  */
-public class CountWindowAggerationProcessor extends ComponentNameAutoGenerator implements ItemAggregationProcessor<FlinkExecuteContext, DataStream<Row>, DataStream<Row>>, ComponentInitialization<FlinkExecuteContext, CountWindowConfig> {
+public class CountWindowAggerationProcessor extends ComponentNameAutoGenerator implements ItemAggregationProcessor<FlinkExecuteContext, DataStream<Row>, DataStream<Row>>, ComponentInitialization<FlinkExecuteContext, CountWindowConfig>, ColumnReferenceSupport {
 
     private CountWindowConfig countWindowConfig;
 
@@ -50,4 +53,14 @@ public class CountWindowAggerationProcessor extends ComponentNameAutoGenerator i
         this.countWindowConfig = (CountWindowConfig) baseWindowConfig;
     }
 
+    @Override
+    public Set<String> getReferencedColumns() {
+        return countWindowConfig.referencedColumns();
+    }
+
+    @Override
+    public boolean isRecordRebuilt() {
+        return true;
+    }
+
 }
@@ -4,17 +4,21 @@ import com.leonside.dataroad.core.aggregations.config.BaseWindowConfig;
 import com.leonside.dataroad.core.aggregations.config.SlidingWindowConfig;
 import com.leonside.dataroad.core.component.ComponentInitialization;
 import com.leonside.dataroad.core.component.ComponentNameAutoGenerator;
+import com.leonside.dataroad.core.planner.ColumnReferenceSupport;
 import com.leonside.dataroad.core.spi.ItemAggregationProcessor;
 import com.leonside.dataroad.flink.context.FlinkExecuteContext;
+import com.leonside.dataroad.flink.processor.BatchModeSupport;
 import com.leonside.dataroad.flink.processor.aggeration.function.SlidingWindowAggerationFunction;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.types.Row;
 
+import java.util.Set;
+
 /**
  * @author leon
  */
-public class SlidingWindowAggerationProcessor extends ComponentNameAutoGenerator implements ItemAggregationProcessor<FlinkExecuteContext, DataStream<Row>, DataStream<Row>>, ComponentInitialization<FlinkExecuteContext,SlidingWindowConfig> {
+public class SlidingWindowAggerationProcessor extends ComponentNameAutoGenerator implements ItemAggregationProcessor<FlinkExecuteContext, DataStream<Row>, DataStream<Row>>, ComponentInitialization<FlinkExecuteContext,SlidingWindowConfig>, ColumnReferenceSupport, BatchModeSupport {
 
     private SlidingWindowConfig slidingWindowConfig;
 
@@ -48,4 +52,19 @@ public class SlidingWindowAggerationProcessor extends ComponentNameAutoGenerator
     public void initialize(BaseWindowConfig baseWindowConfig) {
         this.slidingWindowConfig = (SlidingWindowConfig) baseWindowConfig;
     }
+
+    @Override
+    public Set<String> getReferencedColumns() {
+        return slidingWindowConfig.referencedColumns();
+    }
+
+    @Override
+    public boolean isRecordRebuilt() {
+        return true;
+    }
+
+    @Override
+    public String unsupportedBatchReason() {
+        return BatchModeSupport.windowUnsupportedBatchReason(getName(), slidingWindowConfig);
+    }
 }
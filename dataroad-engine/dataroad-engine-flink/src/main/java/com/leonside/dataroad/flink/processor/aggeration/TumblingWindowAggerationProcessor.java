@@ -5,8 +5,10 @@ import com.leonside.dataroad.common.utils.ConfigBeanUtils;
 import com.leonside.dataroad.core.aggregations.config.BaseWindowConfig;
 import com.leonside.dataroad.core.component.ComponentInitialization;
 import com.leonside.dataroad.core.component.ComponentNameAutoGenerator;
+import com.leonside.dataroad.core.planner.ColumnReferenceSupport;
 import com.leonside.dataroad.core.spi.ItemAggregationProcessor;
 import com.leonside.dataroad.flink.context.FlinkExecuteContext;
+import com.leonside.dataroad.flink.processor.BatchModeSupport;
 import com.leonside.dataroad.core.aggregations.config.TumblingWindowConfig;
 import com.leonside.dataroad.core.aggregations.config.TumblingWindowConfigKey;
 import com.leonside.dataroad.flink.processor.aggeration.function.TumblingWindowAggerationFunction;
@@ -15,11 +17,12 @@ import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.types.Row;
 
 import java.util.Map;
+import java.util.Set;
 
 /**
  * @author leon
  */
-public class TumblingWindowAggerationProcessor extends ComponentNameAutoGenerator implements ItemAggregationProcessor<FlinkExecuteContext, DataStream<Row>, DataStream<Row>>, ComponentInitialization<FlinkExecuteContext,TumblingWindowConfig>  {
+public class TumblingWindowAggerationProcessor extends ComponentNameAutoGenerator implements ItemAggregationProcessor<FlinkExecuteContext, DataStream<Row>, DataStream<Row>>, ComponentInitialization<FlinkExecuteContext,TumblingWindowConfig>, ColumnReferenceSupport, BatchModeSupport  {
 
 
     private TumblingWindowConfig tumblingWindowConfig;
@@ -56,4 +59,18 @@ public class TumblingWindowAggerationProcessor extends ComponentNameAutoGenerato
         this.tumblingWindowConfig = (TumblingWindowConfig) baseWindowConfig;
     }
 
+    @Override
+    public Set<String> getReferencedColumns() {
+        return tumblingWindowConfig.referencedColumns();
+    }
+
+    @Override
+    public boolean isRecordRebuilt() {
+        return true;
+    }
+
+    @Override
+    public String unsupportedBatchReason() {
+        return BatchModeSupport.windowUnsupportedBatchReason(getName(), tumblingWindowConfig);
+    }
 }
@@ -4,11 +4,11 @@ import com.leonside.dataroad.core.aggregations.AggerationEnum;
 import com.leonside.dataroad.core.aggregations.response.Aggeration;
 import com.leonside.dataroad.core.aggregations.config.BaseWindowConfig;
 import com.leonside.dataroad.core.aggregations.config.CountWindowConfig;
+import com.leonside.dataroad.flink.processor.aggeration.typeutils.AggerationTypeInfo;
+import com.leonside.dataroad.flink.processor.aggeration.typeutils.KeyByRowSelector;
 import com.leonside.dataroad.flink.utils.RowUtils;
 import org.apache.flink.api.common.ExecutionConfig;
 import org.apache.flink.api.common.typeinfo.TypeInformation;
-import org.apache.flink.api.java.functions.KeySelector;
-import org.apache.flink.api.java.tuple.Tuple;
 import org.apache.flink.streaming.api.datastream.*;
 import org.apache.flink.streaming.api.functions.windowing.AllWindowFunction;
 import org.apache.flink.streaming.api.functions.windowing.WindowFunction;
@@ -27,6 +27,8 @@ import java.util.stream.Collectors;
  */
 public class CountWindowAggerationFunction implements WindowAggerationFunction<Row>{
 
+    protected static final TypeInformation<Row> RESULT_TYPE = TypeInformation.of(Row.class);
+
     private CountWindowConfig countWindowConfig;
 
     @Override
@@ -44,9 +46,9 @@ public class CountWindowAggerationFunction implements WindowAggerationFunction<R
     @Override
     public DataStream<Row> processKeyByWindow(DataStream<Row> dataStream) {
 
-        KeyedStream<Row, Object> rowTupleKeyedStream = doKeyby(countWindowConfig, dataStream);
+        KeyedStream<Row, Row> rowTupleKeyedStream = doKeyby(countWindowConfig, dataStream);
 
-        WindowedStream<Row, Object , GlobalWindow> rowTupleGlobalWindowWindowedStream = rowTupleKeyedStream.countWindow(countWindowConfig.getWindowSize());
+        WindowedStream<Row, Row, GlobalWindow> rowTupleGlobalWindowWindowedStream = rowTupleKeyedStream.countWindow(countWindowConfig.getWindowSize());
 
         List<DataStream<Row>> collect = doKeyByAggregate(countWindowConfig, rowTupleGlobalWindowWindowedStream, dataStream.getType(), dataStream.getExecutionConfig());
 
@@ -69,20 +71,20 @@ public class CountWindowAggerationFunction implements WindowAggerationFunction<R
                                 out.collect(row);
                             });
                         }
-                    });
+                    }, AggerationTypeInfo.INSTANCE, RESULT_TYPE);
             return aggregate;
         }).collect(Collectors.toList());
     }
 
-    private List<DataStream<Row>> doKeyByAggregate(BaseWindowConfig baseWindowConfig, WindowedStream<Row, Object, GlobalWindow> windowedStream, TypeInformation<Row> type, ExecutionConfig executionConfig) {
+    private List<DataStream<Row>> doKeyByAggregate(BaseWindowConfig baseWindowConfig, WindowedStream<Row, Row, GlobalWindow> windowedStream, TypeInformation<Row> type, ExecutionConfig executionConfig) {
         return baseWindowConfig.getAggerations().entrySet().stream().map(entry -> {
             List<AggerationEnum> value = entry.getValue();
             String key = entry.getKey();
 
             SingleOutputStreamOperator<Row> aggregate = windowedStream.aggregate(new GenericAggregateFunction<Row>(entry.getKey(), type, executionConfig, value),
-                    new WindowFunction<Aggeration, Row, Object, GlobalWindow>() {
+                    new WindowFunction<Aggeration, Row, Row, GlobalWindow>() {
                 @Override
-                public void apply(Object tuple, GlobalWindow window, Iterable<Aggeration> input, Collector<Row> out) throws Exception {
+                public void apply(Row tuple, GlobalWindow window, Iterable<Aggeration> input, Collector<Row> out) throws Exception {
                     input.forEach(it -> {
                         it.setAggField(key);
                         Row row = RowUtils.toRowWithNames(it.asMap());
@@ -90,25 +92,20 @@ public class CountWindowAggerationFunction implements WindowAggerationFunction<R
                         out.collect(row);
                     });
                 }
-            });
+            }, AggerationTypeInfo.INSTANCE, RESULT_TYPE);
 
             return aggregate;
         }).collect(Collectors.toList());
     }
 
-    private KeyedStream<Row, Object> doKeyby(BaseWindowConfig baseWindowConfig, DataStream<Row> assignTimestampsStream) {
-        return assignTimestampsStream.keyBy((KeySelector<Row, Object>) value -> {
-            Tuple tuple = Tuple.newInstance(baseWindowConfig.getKeyBy().length);
-            for (int i = 0; i < baseWindowConfig.getKeyBy().length; i++) {
-                tuple.setField(value.getField(baseWindowConfig.getKeyBy()[i]), i);
-            }
-            return tuple;
-        });
+    protected KeyedStream<Row, Row> doKeyby(BaseWindowConfig baseWindowConfig, DataStream<Row> assignTimestampsStream) {
+        KeyByRowSelector keyByRowSelector = KeyByRowSelector.of(baseWindowConfig.getKeyBy());
+        return assignTimestampsStream.keyBy(keyByRowSelector, keyByRowSelector.createKeyType(assignTimestampsStream.getType()));
     }
 
-    protected void addKeyByField(String[] keyBy, Row row, Object tuple) {
+    protected void addKeyByField(String[] keyBy, Row row, Row key) {
         for (int i = 0; i < keyBy.length; i++) {
-            row.setField(keyBy[i], ((Tuple)tuple).getField(i));
+            row.setField(keyBy[i], key.getField(i));
         }
     }
 
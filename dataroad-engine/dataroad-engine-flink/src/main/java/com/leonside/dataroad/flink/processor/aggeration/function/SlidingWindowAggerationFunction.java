@@ -22,6 +22,9 @@ public class SlidingWindowAggerationFunction extends TumblingWindowAggerationFun
 
         AllWindowedStream<Row, TimeWindow> allWindowedStream = dataStream
                 .windowAll(createSlidingWindowAssigner());
+        if(slidingWindowConfig.isEarlyFire()){
+            allWindowedStream = allWindowedStream.trigger(createEarlyFireTrigger());
+        }
 
         List<SingleOutputStreamOperator<Row>> collect = doAggregate(allWindowedStream, dataStream.getType(), dataStream.getExecutionConfig());
 
@@ -48,9 +51,12 @@ public class SlidingWindowAggerationFunction extends TumblingWindowAggerationFun
 
         DataStream<Row> assignTimestampsStream = doAssignTimestampsAndWatermarks(dataStream);
 
-        KeyedStream<Row, Object> rowTupleKeyedStream = doKeyby(slidingWindowConfig, assignTimestampsStream);
+        KeyedStream<Row, Row> rowTupleKeyedStream = doKeyby(slidingWindowConfig, assignTimestampsStream);
 
-        WindowedStream<Row, Object, TimeWindow> windowedStream = rowTupleKeyedStream.window(createSlidingWindowAssigner());
+        WindowedStream<Row, Row, TimeWindow> windowedStream = rowTupleKeyedStream.window(createSlidingWindowAssigner());
+        if(slidingWindowConfig.isEarlyFire()){
+            windowedStream = windowedStream.trigger(createEarlyFireTrigger());
+        }
 
         List<DataStream<Row>> collect = doKeyByAggregate(windowedStream, dataStream.getType(), dataStream.getExecutionConfig());
 
@@ -4,12 +4,12 @@ import com.leonside.dataroad.core.aggregations.AggerationEnum;
 import com.leonside.dataroad.core.aggregations.response.Aggeration;
 import com.leonside.dataroad.core.aggregations.config.BaseWindowConfig;
 import com.leonside.dataroad.core.aggregations.config.TumblingWindowConfig;
+import com.leonside.dataroad.flink.processor.aggeration.trigger.EarlyFireTrigger;
+import com.leonside.dataroad.flink.processor.aggeration.typeutils.AggerationTypeInfo;
 import com.leonside.dataroad.flink.utils.RowUtils;
 import org.apache.flink.api.common.ExecutionConfig;
 import org.apache.flink.api.common.eventtime.WatermarkStrategy;
 import org.apache.flink.api.common.typeinfo.TypeInformation;
-import org.apache.flink.api.java.functions.KeySelector;
-import org.apache.flink.api.java.tuple.Tuple;
 import org.apache.flink.streaming.api.datastream.*;
 import org.apache.flink.streaming.api.functions.windowing.AllWindowFunction;
 import org.apache.flink.streaming.api.functions.windowing.WindowFunction;
@@ -19,12 +19,14 @@ import org.apache.flink.streaming.api.windowing.assigners.WindowAssigner;
 import org.apache.flink.streaming.api.windowing.time.Time;
 import org.apache.flink.streaming.api.windowing.windows.TimeWindow;
 import org.apache.flink.types.Row;
+import org.apache.flink.types.RowKind;
 import org.apache.flink.util.Collector;
 
 import java.time.Duration;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -39,6 +41,9 @@ public class TumblingWindowAggerationFunction extends CountWindowAggerationFunct
 
         AllWindowedStream<Row, TimeWindow> allWindowedStream = dataStream
                 .windowAll(createTumblingWindowAssigner());
+        if(tumblingWindowConfig.isEarlyFire()){
+            allWindowedStream = allWindowedStream.trigger(createEarlyFireTrigger());
+        }
 
         List<SingleOutputStreamOperator<Row>> collect = doAggregate(allWindowedStream, dataStream.getType(), dataStream.getExecutionConfig());
 
@@ -63,9 +68,12 @@ public class TumblingWindowAggerationFunction extends CountWindowAggerationFunct
 
         DataStream<Row> assignTimestampsStream = doAssignTimestampsAndWatermarks(dataStream);
 
-        KeyedStream<Row, Object> rowTupleKeyedStream = doKeyby(tumblingWindowConfig, assignTimestampsStream);
+        KeyedStream<Row, Row> rowTupleKeyedStream = doKeyby(tumblingWindowConfig, assignTimestampsStream);
 
-        WindowedStream<Row, Object, TimeWindow> windowedStream = rowTupleKeyedStream.window(createTumblingWindowAssigner());
+        WindowedStream<Row, Row, TimeWindow> windowedStream = rowTupleKeyedStream.window(createTumblingWindowAssigner());
+        if(tumblingWindowConfig.isEarlyFire()){
+            windowedStream = windowedStream.trigger(createEarlyFireTrigger());
+        }
 
         List<DataStream<Row>> collect = doKeyByAggregate(windowedStream, dataStream.getType(), dataStream.getExecutionConfig());
 
@@ -85,27 +93,29 @@ public class TumblingWindowAggerationFunction extends CountWindowAggerationFunct
                             values.forEach(it -> {
                                 it.setAggField(key);
                                 Row row = RowUtils.toRowWithNames(it.asMap());
+                                row.setKind(emitRowKind());
                                 addWindowTimeFiled(window, row);
                                 out.collect(row);
                             });
                         }
-                    });
+                    }, AggerationTypeInfo.INSTANCE, RESULT_TYPE);
             return aggregate;
         }).collect(Collectors.toList());
     }
 
-    protected List<DataStream<Row>> doKeyByAggregate(WindowedStream<Row, Object, TimeWindow> windowedStream, TypeInformation<Row> type, ExecutionConfig executionConfig) {
+    protected List<DataStream<Row>> doKeyByAggregate(WindowedStream<Row, Row, TimeWindow> windowedStream, TypeInformation<Row> type, ExecutionConfig executionConfig) {
         return tumblingWindowConfig.getAggerations().entrySet().stream().map(entry -> {
             List<AggerationEnum> value = entry.getValue();
             String key = entry.getKey();
 
             SingleOutputStreamOperator<Row> aggregate = windowedStream.aggregate(new GenericAggregateFunction<Row>(entry.getKey(), type, executionConfig, value),
-                    new WindowFunction<Aggeration, Row, Object, TimeWindow>() {
+                    new WindowFunction<Aggeration, Row, Row, TimeWindow>() {
                         @Override
-                        public void apply(Object tuple, TimeWindow window, Iterable<Aggeration> input, Collector<Row> out) throws Exception {
+                        public void apply(Row tuple, TimeWindow window, Iterable<Aggeration> input, Collector<Row> out) throws Exception {
                             input.forEach(it -> {
                                 it.setAggField(key);
                                 Row row = RowUtils.toRowWithNames(it.asMap());
+                                row.setKind(emitRowKind());
                                 if(tumblingWindowConfig.getKeyBy() != null && tumblingWindowConfig.getKeyBy().length > 0){
                                     addKeyByField(tumblingWindowConfig.getKeyBy(), row, tuple);
                                 }
@@ -113,20 +123,24 @@ public class TumblingWindowAggerationFunction extends CountWindowAggerationFunct
                                 out.collect(row);
                             });
                         }
-                    });
+                    }, AggerationTypeInfo.INSTANCE, RESULT_TYPE);
 
             return aggregate;
         }).collect(Collectors.toList());
     }
 
-    protected KeyedStream<Row, Object> doKeyby(BaseWindowConfig baseWindowConfig, DataStream<Row> assignTimestampsStream) {
-        return assignTimestampsStream.keyBy((KeySelector<Row, Object>) value -> {
-                    Tuple tuple = Tuple.newInstance(baseWindowConfig.getKeyBy().length);
-                    for (int i = 0; i < baseWindowConfig.getKeyBy().length; i++) {
-                        tuple.setField(value.getField(baseWindowConfig.getKeyBy()[i]), i);
-                    }
-                    return tuple;
-                });
+    protected EarlyFireTrigger createEarlyFireTrigger(){
+        return EarlyFireTrigger.of(tumblingWindowConfig.timeType == BaseWindowConfig.WindowTimeType.event,
+                TimeUnit.SECONDS.toMillis(tumblingWindowConfig.getEarlyFireInterval()),
+                tumblingWindowConfig.getEarlyFireCount());
+    }
+
+    /**
+     * 开启提前触发时，同一窗口会多次输出，输出记录标记为UPDATE_AFTER，下游按upsert方式写入
+     * @return
+     */
+    protected RowKind emitRowKind(){
+        return tumblingWindowConfig.isEarlyFire() ? RowKind.UPDATE_AFTER : RowKind.INSERT;
     }
 
     protected DataStream<Row> doAssignTimestampsAndWatermarks(DataStream<Row> dataStream) {
@@ -0,0 +1,144 @@
+package com.leonside.dataroad.flink.processor.aggeration.trigger;
+
+import org.apache.flink.api.common.functions.ReduceFunction;
+import org.apache.flink.api.common.state.ReducingState;
+import org.apache.flink.api.common.state.ReducingStateDescriptor;
+import org.apache.flink.api.common.typeutils.base.LongSerializer;
+import org.apache.flink.streaming.api.windowing.triggers.Trigger;
+import org.apache.flink.streaming.api.windowing.triggers.TriggerResult;
+import org.apache.flink.streaming.api.windowing.windows.TimeWindow;
+
+/**
+ * 时间窗口提前触发器：窗口结束时正常触发，窗口结束前按处理时间间隔或元素个数提前触发输出中间结果。
+ * 触发均为FIRE（不清除窗口状态），窗口结束后由WindowOperator统一清理。
+ *
+ * @author leon
+ */
+public class EarlyFireTrigger extends Trigger<Object, TimeWindow> {
+
+    private final boolean eventTime;
+
+    private final long intervalMillis;
+
+    private final long maxCount;
+
+    private final ReducingStateDescriptor<Long> countStateDesc =
+            new ReducingStateDescriptor<>("early-fire-count", new Sum(), LongSerializer.INSTANCE);
+
+    private final ReducingStateDescriptor<Long> fireTimeStateDesc =
+            new ReducingStateDescriptor<>("early-fire-time", new Min(), LongSerializer.INSTANCE);
+
+    private EarlyFireTrigger(boolean eventTime, long intervalMillis, long maxCount) {
+        this.eventTime = eventTime;
+        this.intervalMillis = intervalMillis;
+        this.maxCount = maxCount;
+    }
+
+    @Override
+    public TriggerResult onElement(Object element, long timestamp, TimeWindow window, TriggerContext ctx) throws Exception {
+        if(eventTime){
+            if (window.maxTimestamp() <= ctx.getCurrentWatermark()) {
+                return TriggerResult.FIRE;
+            }
+            ctx.registerEventTimeTimer(window.maxTimestamp());
+        }else{
+            ctx.registerProcessingTimeTimer(window.maxTimestamp());
+        }
+
+        if(intervalMillis > 0){
+            ReducingState<Long> fireTimestamp = ctx.getPartitionedState(fireTimeStateDesc);
+            if(fireTimestamp.get() == null){
+                registerNextFireTimestamp(ctx.getCurrentProcessingTime(), window, ctx, fireTimestamp);
+            }
+        }
+
+        if(maxCount > 0){
+            ReducingState<Long> count = ctx.getPartitionedState(countStateDesc);
+            count.add(1L);
+            if(count.get() >= maxCount){
+                count.clear();
+                return TriggerResult.FIRE;
+            }
+        }
+
+        return TriggerResult.CONTINUE;
+    }
+
+    @Override
+    public TriggerResult onProcessingTime(long time, TimeWindow window, TriggerContext ctx) throws Exception {
+        if(!eventTime && time == window.maxTimestamp()){
+            return TriggerResult.FIRE;
+        }
+
+        if(intervalMillis > 0){
+            ReducingState<Long> fireTimestamp = ctx.getPartitionedState(fireTimeStateDesc);
+            Long nextFireTimestamp = fireTimestamp.get();
+            if(nextFireTimestamp != null && nextFireTimestamp == time){
+                fireTimestamp.clear();
+                registerNextFireTimestamp(time, window, ctx, fireTimestamp);
+                return TriggerResult.FIRE;
+            }
+        }
+        return TriggerResult.CONTINUE;
+    }
+
+    @Override
+    public TriggerResult onEventTime(long time, TimeWindow window, TriggerContext ctx) throws Exception {
+        return eventTime && time == window.maxTimestamp() ? TriggerResult.FIRE : TriggerResult.CONTINUE;
+    }
+
+    @Override
+    public void clear(TimeWindow window, TriggerContext ctx) throws Exception {
+        if(eventTime){
+            ctx.deleteEventTimeTimer(window.maxTimestamp());
+        }else{
+            ctx.deleteProcessingTimeTimer(window.maxTimestamp());
+        }
+
+        ReducingState<Long> fireTimestamp = ctx.getPartitionedState(fireTimeStateDesc);
+        Long timestamp = fireTimestamp.get();
+        if(timestamp != null){
+            ctx.deleteProcessingTimeTimer(timestamp);
+            fireTimestamp.clear();
+        }
+        ctx.getPartitionedState(countStateDesc).clear();
+    }
+
+    private void registerNextFireTimestamp(long time, TimeWindow window, TriggerContext ctx, ReducingState<Long> fireTimestamp) throws Exception {
+        long nextFireTimestamp = time - (time % intervalMillis) + intervalMillis;
+        //窗口结束由窗口定时器触发，无需再注册提前触发定时器
+        if(!eventTime && nextFireTimestamp >= window.maxTimestamp()){
+            return;
+        }
+        fireTimestamp.add(nextFireTimestamp);
+        ctx.registerProcessingTimeTimer(nextFireTimestamp);
+    }
+
+    @Override
+    public boolean canMerge() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "EarlyFireTrigger(" + (eventTime ? "event" : "process") + ", interval=" + intervalMillis + "ms, count=" + maxCount + ")";
+    }
+
+    public static EarlyFireTrigger of(boolean eventTime, long intervalMillis, long maxCount){
+        return new EarlyFireTrigger(eventTime, intervalMillis, maxCount);
+    }
+
+    private static class Sum implements ReduceFunction<Long> {
+        @Override
+        public Long reduce(Long value1, Long value2) {
+            return value1 + value2;
+        }
+    }
+
+    private static class Min implements ReduceFunction<Long> {
+        @Override
+        public Long reduce(Long value1, Long value2) {
+            return Math.min(value1, value2);
+        }
+    }
+}
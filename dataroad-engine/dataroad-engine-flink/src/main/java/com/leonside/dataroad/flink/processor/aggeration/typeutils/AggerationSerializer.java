@@ -0,0 +1,133 @@
+package com.leonside.dataroad.flink.processor.aggeration.typeutils;
+
+import com.leonside.dataroad.core.aggregations.AggerationEnum;
+import com.leonside.dataroad.core.aggregations.response.Aggeration;
+import com.leonside.dataroad.core.aggregations.response.Aggerations;
+import com.leonside.dataroad.core.aggregations.response.MultiValue;
+import org.apache.flink.api.common.typeutils.SimpleTypeSerializerSnapshot;
+import org.apache.flink.api.common.typeutils.TypeSerializerSnapshot;
+import org.apache.flink.api.common.typeutils.base.TypeSerializerSingleton;
+import org.apache.flink.core.memory.DataInputDeserializer;
+import org.apache.flink.core.memory.DataInputView;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.flink.core.memory.DataOutputView;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 聚合中间结果Aggeration的序列化器，替代Kryo泛型序列化。
+ * 格式：聚合类型(byte) + 值类型(byte) + [MULTI时的聚合类型列表] + Aggeration自身状态
+ *
+ * @author leon
+ */
+public final class AggerationSerializer extends TypeSerializerSingleton<Aggeration> {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final AggerationSerializer INSTANCE = new AggerationSerializer();
+
+    private static final List<Class> VALUE_CLASSES = Arrays.asList(Integer.class, Long.class, Short.class, Double.class, Float.class);
+
+    private static final AggerationEnum[] AGGERATION_ENUMS = AggerationEnum.values();
+
+    @Override
+    public boolean isImmutableType() {
+        return false;
+    }
+
+    @Override
+    public Aggeration createInstance() {
+        return null;
+    }
+
+    @Override
+    public Aggeration copy(Aggeration from) {
+        if(from == null){
+            return null;
+        }
+        try {
+            DataOutputSerializer out = new DataOutputSerializer(64);
+            serialize(from, out);
+            return deserialize(new DataInputDeserializer(out.getSharedBuffer(), 0, out.length()));
+        } catch (IOException e) {
+            throw new RuntimeException("copy aggeration [" + from.getType() + "] exception", e);
+        }
+    }
+
+    @Override
+    public Aggeration copy(Aggeration from, Aggeration reuse) {
+        return copy(from);
+    }
+
+    @Override
+    public int getLength() {
+        return -1;
+    }
+
+    @Override
+    public void serialize(Aggeration record, DataOutputView target) throws IOException {
+        AggerationEnum type = record.getType();
+        target.writeByte(type.ordinal());
+        target.writeByte(valueClassTag(record.getValueClass()));
+        if(type == AggerationEnum.MULTI){
+            List<AggerationEnum> aggerationEnums = ((MultiValue) record).getAggerationEnums();
+            target.writeByte(aggerationEnums.size());
+            for (AggerationEnum aggerationEnum : aggerationEnums) {
+                target.writeByte(aggerationEnum.ordinal());
+            }
+        }
+        record.serialize(target);
+    }
+
+    @Override
+    public Aggeration deserialize(DataInputView source) throws IOException {
+        AggerationEnum type = AGGERATION_ENUMS[source.readByte()];
+        Class valueClass = VALUE_CLASSES.get(source.readByte());
+        Aggeration aggeration;
+        if(type == AggerationEnum.MULTI){
+            int size = source.readByte();
+            List<AggerationEnum> aggerationEnums = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                aggerationEnums.add(AGGERATION_ENUMS[source.readByte()]);
+            }
+            aggeration = new MultiValue(valueClass, aggerationEnums);
+        }else{
+            aggeration = Aggerations.getAggeration(valueClass, type);
+        }
+        aggeration.deserialize(source);
+        return aggeration;
+    }
+
+    @Override
+    public Aggeration deserialize(Aggeration reuse, DataInputView source) throws IOException {
+        return deserialize(source);
+    }
+
+    @Override
+    public void copy(DataInputView source, DataOutputView target) throws IOException {
+        serialize(deserialize(source), target);
+    }
+
+    @Override
+    public TypeSerializerSnapshot<Aggeration> snapshotConfiguration() {
+        return new AggerationSerializerSnapshot();
+    }
+
+    private static int valueClassTag(Class valueClass){
+        int tag = VALUE_CLASSES.indexOf(valueClass);
+        if(tag < 0){
+            throw new UnsupportedOperationException("unsupported aggeration value class [" + valueClass + "]");
+        }
+        return tag;
+    }
+
+    public static final class AggerationSerializerSnapshot extends SimpleTypeSerializerSnapshot<Aggeration> {
+
+        public AggerationSerializerSnapshot() {
+            super(() -> INSTANCE);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.leonside.dataroad.flink.processor.aggeration.typeutils;
+
+import com.leonside.dataroad.core.aggregations.response.Aggeration;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+
+/**
+ * 聚合中间结果Aggeration的类型信息，使用{@link AggerationSerializer}序列化窗口聚合状态
+ *
+ * @author leon
+ */
+public class AggerationTypeInfo extends TypeInformation<Aggeration> {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final AggerationTypeInfo INSTANCE = new AggerationTypeInfo();
+
+    @Override
+    public boolean isBasicType() {
+        return false;
+    }
+
+    @Override
+    public boolean isTupleType() {
+        return false;
+    }
+
+    @Override
+    public int getArity() {
+        return 1;
+    }
+
+    @Override
+    public int getTotalFields() {
+        return 1;
+    }
+
+    @Override
+    public Class<Aggeration> getTypeClass() {
+        return Aggeration.class;
+    }
+
+    @Override
+    public boolean isKeyType() {
+        return false;
+    }
+
+    @Override
+    public TypeSerializer<Aggeration> createSerializer(ExecutionConfig config) {
+        return AggerationSerializer.INSTANCE;
+    }
+
+    @Override
+    public String toString() {
+        return "AggerationTypeInfo";
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof AggerationTypeInfo;
+    }
+
+    @Override
+    public int hashCode() {
+        return AggerationTypeInfo.class.hashCode();
+    }
+
+    @Override
+    public boolean canEqual(Object obj) {
+        return obj instanceof AggerationTypeInfo;
+    }
+}
@@ -0,0 +1,54 @@
+package com.leonside.dataroad.flink.processor.aggeration.typeutils;
+
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.java.functions.KeySelector;
+import org.apache.flink.api.java.typeutils.GenericTypeInfo;
+import org.apache.flink.api.java.typeutils.RowTypeInfo;
+import org.apache.flink.types.Row;
+
+/**
+ * keyBy分组字段选择器，分组键为按keyBy顺序构建的位置型Row。
+ * 分组键类型由上游RowTypeInfo中分组字段的类型构建，使用RowSerializer序列化（支持null值），避免Kryo泛型序列化。
+ *
+ * @author leon
+ */
+public class KeyByRowSelector implements KeySelector<Row, Row> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String[] keyBy;
+
+    public KeyByRowSelector(String[] keyBy) {
+        this.keyBy = keyBy;
+    }
+
+    @Override
+    public Row getKey(Row value) throws Exception {
+        Row key = new Row(keyBy.length);
+        for (int i = 0; i < keyBy.length; i++) {
+            key.setField(i, value.getField(keyBy[i]));
+        }
+        return key;
+    }
+
+    /**
+     * 构建分组键类型，上游非RowTypeInfo时分组字段退化为泛型类型
+     * @param inputType
+     * @return
+     */
+    public TypeInformation<Row> createKeyType(TypeInformation<Row> inputType){
+        TypeInformation<?>[] keyTypes = new TypeInformation[keyBy.length];
+        for (int i = 0; i < keyBy.length; i++) {
+            if(inputType instanceof RowTypeInfo && ((RowTypeInfo) inputType).getFieldIndex(keyBy[i]) >= 0){
+                keyTypes[i] = ((RowTypeInfo) inputType).getTypeAt(keyBy[i]);
+            }else{
+                keyTypes[i] = new GenericTypeInfo<>(Object.class);
+            }
+        }
+        return new RowTypeInfo(keyTypes, keyBy);
+    }
+
+    public static KeyByRowSelector of(String[] keyBy){
+        return new KeyByRowSelector(keyBy);
+    }
+}
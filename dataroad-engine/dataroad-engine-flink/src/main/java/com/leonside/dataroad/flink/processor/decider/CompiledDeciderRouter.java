@@ -0,0 +1,112 @@
+package com.leonside.dataroad.flink.processor.decider;
+
+import com.leonside.dataroad.common.script.ScriptEvaluatorFactory;
+import com.leonside.dataroad.common.script.janino.JaninoCodeGenerator;
+import com.leonside.dataroad.common.script.janino.JaninoRouteEvaluator;
+import com.leonside.dataroad.core.spi.JobPredicate;
+import com.leonside.dataroad.flink.context.FlinkExecuteContext;
+import com.leonside.dataroad.flink.metric.ScriptMetric;
+import com.leonside.dataroad.flink.predicate.ExpressionPredicate;
+import com.leonside.dataroad.flink.predicate.TrueExpressionPredicate;
+import com.leonside.dataroad.flink.utils.RawTypeUtils;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.types.Row;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 分支全部为janino表达式时，将所有分支编译为一个路由类：字段每行只读取一次，分支间相同的&&条件每行只计算一次。
+ * 路由类以位掩码返回命中分支，最多支持64个分支
+ * @see JaninoCodeGenerator#generateRoute
+ * @author leon
+ */
+public class CompiledDeciderRouter extends DeciderRouter {
+
+    private static final String TRUE_EXPRESSION = "true";
+
+    private final JaninoRouteEvaluator routeEvaluator;
+
+    private transient ScriptMetric routeMetric;
+
+    private transient ScriptMetric[] branchMetrics;
+
+    public CompiledDeciderRouter(String name, List<JobPredicate> branches, TypeInformation typeInfo) {
+        super(name, branches);
+        List<String> expressions = branches.stream().map(CompiledDeciderRouter::getExpression).collect(Collectors.toList());
+        this.routeEvaluator = new JaninoRouteEvaluator(expressions, exclusive);
+        RawTypeUtils.bindFieldTypes(routeEvaluator, typeInfo);
+    }
+
+    /**
+     * 分支均为不引用params的janino表达式或并行分支时可编译
+     */
+    public static boolean isCompilable(List<JobPredicate> branches) {
+        return !branches.isEmpty() && branches.stream().allMatch(it -> {
+            if(it instanceof TrueExpressionPredicate){
+                return true;
+            }
+            if(!(it instanceof ExpressionPredicate)
+                    || ((ExpressionPredicate) it).getScriptExpressionConfig().getLanguage() != ScriptEvaluatorFactory.ScriptEngine.janino){
+                return false;
+            }
+            JaninoCodeGenerator codeGenerator = new JaninoCodeGenerator(getExpression(it));
+            return !codeGenerator.isStatement() && !codeGenerator.isParamsReferenced();
+        });
+    }
+
+    private static String getExpression(JobPredicate predicate) {
+        return predicate instanceof ExpressionPredicate ? ((ExpressionPredicate) predicate).getScriptExpressionConfig().getExpression() : TRUE_EXPRESSION;
+    }
+
+    /**
+     * 全部分支在一次路由计算中完成，执行耗时及异常按决策器记录，各分支仅记录命中结果
+     */
+    @Override
+    public void open(MetricGroup metricGroup) throws Exception {
+        routeEvaluator.open();
+        routeMetric = new ScriptMetric(metricGroup, name);
+        branchMetrics = new ScriptMetric[branches.length];
+        for (int i = 0; i < branches.length; i++) {
+            if(branches[i] instanceof ExpressionPredicate){
+                branchMetrics[i] = new ScriptMetric(metricGroup, ((ExpressionPredicate) branches[i]).getName());
+            }
+        }
+    }
+
+    @Override
+    public int route(FlinkExecuteContext executeContext, Row row, int[] matchedBranches) throws Exception {
+        long start = routeMetric.start();
+        long mask;
+        try{
+            mask = (Long) routeEvaluator.evaluate(row, null);
+        }catch (Exception exception){
+            routeMetric.error();
+            throw exception;
+        }
+        routeMetric.finish(start, mask != 0L);
+
+        for (int i = 0; i < branchMetrics.length; i++) {
+            boolean matched = (mask & (1L << i)) != 0L;
+            if(branchMetrics[i] != null){
+                branchMetrics[i].record(matched);
+            }
+            if(matched && exclusive[i]){
+                break;
+            }
+        }
+
+        int count = 0;
+        while (mask != 0L){
+            matchedBranches[count++] = Long.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledDeciderRouter(branches=" + branches.length + ")";
+    }
+}
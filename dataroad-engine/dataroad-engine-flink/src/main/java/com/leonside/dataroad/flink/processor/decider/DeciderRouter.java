@@ -0,0 +1,71 @@
+package com.leonside.dataroad.flink.processor.decider;
+
+import com.leonside.dataroad.common.script.janino.JaninoRouteEvaluator;
+import com.leonside.dataroad.core.spi.JobPredicate;
+import com.leonside.dataroad.flink.context.FlinkExecuteContext;
+import com.leonside.dataroad.flink.predicate.ExpressionPredicate;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.types.Row;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 决策器分支路由，将所有条件分支合并为一次路由计算，按分支顺序返回命中的分支下标，未命中任何分支时返回0个。
+ * 排他分支命中后不再计算后续分支。
+ * @author leon
+ */
+public abstract class DeciderRouter implements Serializable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DeciderRouter.class);
+
+    protected final String name;
+
+    protected final JobPredicate[] branches;
+
+    protected final boolean[] exclusive;
+
+    protected DeciderRouter(String name, List<JobPredicate> branches) {
+        this.name = name;
+        this.branches = branches.toArray(new JobPredicate[0]);
+        this.exclusive = new boolean[this.branches.length];
+        for (int i = 0; i < this.branches.length; i++) {
+            exclusive[i] = this.branches[i] instanceof ExpressionPredicate
+                    && ((ExpressionPredicate) this.branches[i]).getScriptExpressionConfig().isExclusive();
+        }
+    }
+
+    /**
+     * 子任务启动时调用，预编译表达式并在算子指标组注册条件执行指标
+     */
+    public abstract void open(MetricGroup metricGroup) throws Exception;
+
+    /**
+     * @param matchedBranches 命中的分支下标，长度不小于分支数
+     * @return 命中的分支数
+     */
+    public abstract int route(FlinkExecuteContext executeContext, Row row, int[] matchedBranches) throws Exception;
+
+    public int getBranchSize() {
+        return branches.length;
+    }
+
+    /**
+     * 创建分支路由，分支全部为janino表达式且不超过64个时编译为一个路由类，否则按顺序计算并复用相同表达式的结果
+     * @param name 决策器组件名
+     * @param branches 条件分支（不含otherwise分支）
+     * @param typeInfo 上游行类型
+     */
+    public static DeciderRouter create(String name, List<JobPredicate> branches, TypeInformation typeInfo) {
+        DeciderRouter deciderRouter = branches.size() <= JaninoRouteEvaluator.MAX_BRANCHES && CompiledDeciderRouter.isCompilable(branches)
+                ? new CompiledDeciderRouter(name, branches, typeInfo)
+                : new SequentialDeciderRouter(name, branches, typeInfo);
+
+        LOG.info("decider branches {} routed by {}", branches.size(), deciderRouter);
+        return deciderRouter;
+    }
+
+}
@@ -10,6 +10,7 @@ import com.leonside.dataroad.core.predicate.OtherwisePredicate;
 import com.leonside.dataroad.core.component.ComponentNameAutoGenerator;
 import com.leonside.dataroad.flink.context.FlinkExecuteContext;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.flink.configuration.Configuration;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.datastream.SingleOutputStreamOperator;
 import org.apache.flink.streaming.api.functions.ProcessFunction;
@@ -18,7 +19,6 @@ import org.apache.flink.util.Collector;
 import org.apache.flink.util.OutputTag;
 
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -60,23 +60,37 @@ public class OutputTagDeciderProcessor extends ComponentNameAutoGenerator implem
         //创建OutputTag Map
         Map<JobPredicate, OutputTag<Row>> predicateOutputTagMap = createDeciderOutputTagMap();
 
+        //条件分支按定义顺序编译为路由，路由结果为命中的分支下标
+        List<JobPredicate> branches = jobFlowDeciders.keySet().stream().filter(it -> !(it instanceof OtherwisePredicate)).collect(Collectors.toList());
+        OutputTag<Row>[] branchOutputTags = branches.stream().map(predicateOutputTagMap::get).toArray(OutputTag[]::new);
+        OutputTag<Row> otherwiseOutputTag = otherwiseStatusPredicate != null ? predicateOutputTagMap.get(otherwiseStatusPredicate) : null;
+        DeciderRouter deciderRouter = DeciderRouter.create(getName(), branches, rowDataStream.getType());
+
         //匹配JobPredicate, 其中如果全部不匹配则判断是否存在Otherwise分支，有则放入此分支
         SingleOutputStreamOperator<Row> singleOutputStream = rowDataStream.process(new ProcessFunction<Row, Row>() {
+
+            private transient int[] matchedBranches;
+
+            @Override
+            public void open(Configuration parameters) throws Exception {
+                deciderRouter.open(getRuntimeContext().getMetricGroup());
+                matchedBranches = new int[deciderRouter.getBranchSize()];
+            }
+
             @Override
             public void processElement(Row row, Context context, Collector<Row> collector) throws Exception {
 
-                boolean isOneMatch = false;
-                Iterator<JobPredicate> iterator = jobFlowDeciders.keySet().iterator();
-                while (iterator.hasNext()){
-                     JobPredicate predicate = iterator.next();
-                    if(!(predicate instanceof OtherwisePredicate) && predicate.test(executeContext, row)){
-                        context.output(predicateOutputTagMap.get(predicate), row);
-                        isOneMatch = true;
+                int matched = deciderRouter.route(executeContext, row, matchedBranches);
+
+                if(matched == 0){
+                    if(otherwiseOutputTag != null){
+                        context.output(otherwiseOutputTag, row);
                     }
+                    return;
                 }
 
-                if(!isOneMatch && otherwiseStatusPredicate != null){
-                    context.output(predicateOutputTagMap.get(otherwiseStatusPredicate), row);
+                for (int i = 0; i < matched; i++) {
+                    context.output(branchOutputTags[matchedBranches[i]], row);
                 }
             }
         });
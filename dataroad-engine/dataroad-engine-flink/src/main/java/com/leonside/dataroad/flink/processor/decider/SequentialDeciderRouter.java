@@ -0,0 +1,110 @@
+package com.leonside.dataroad.flink.processor.decider;
+
+import com.leonside.dataroad.core.spi.JobPredicate;
+import com.leonside.dataroad.flink.context.FlinkExecuteContext;
+import com.leonside.dataroad.flink.metric.ScriptMetric;
+import com.leonside.dataroad.flink.predicate.ExpressionPredicate;
+import com.leonside.dataroad.flink.utils.RawTypeUtils;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.types.Row;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按分支顺序计算条件，语言与表达式相同的条件每行只计算一次
+ * @author leon
+ */
+public class SequentialDeciderRouter extends DeciderRouter {
+
+    private final JobPredicate[] predicates;
+
+    private final int[] predicateIndexes;
+
+    private transient ScriptMetric[] predicateMetrics;
+
+    /**
+     * 当前行条件计算结果：0未计算 1为true 2为false
+     */
+    private transient byte[] results;
+
+    public SequentialDeciderRouter(String name, List<JobPredicate> branches, TypeInformation typeInfo) {
+        super(name, branches);
+
+        Map<Object, Integer> distinctPredicates = new LinkedHashMap<>();
+        List<JobPredicate> predicates = new ArrayList<>();
+        this.predicateIndexes = new int[this.branches.length];
+        for (int i = 0; i < this.branches.length; i++) {
+            JobPredicate branch = this.branches[i];
+            Object key = branch instanceof ExpressionPredicate
+                    ? ((ExpressionPredicate) branch).getScriptExpressionConfig().getLanguage() + ":" + ((ExpressionPredicate) branch).getScriptExpressionConfig().getExpression()
+                    : branch;
+            Integer index = distinctPredicates.get(key);
+            if(index == null){
+                index = predicates.size();
+                distinctPredicates.put(key, index);
+                predicates.add(branch);
+                RawTypeUtils.bindFieldTypes(branch, typeInfo);
+            }
+            predicateIndexes[i] = index;
+        }
+        this.predicates = predicates.toArray(new JobPredicate[0]);
+    }
+
+    @Override
+    public void open(MetricGroup metricGroup) throws Exception {
+        predicateMetrics = new ScriptMetric[predicates.length];
+        for (int i = 0; i < predicates.length; i++) {
+            predicates[i].open();
+            if(predicates[i] instanceof ExpressionPredicate){
+                predicateMetrics[i] = new ScriptMetric(metricGroup, ((ExpressionPredicate) predicates[i]).getName());
+            }
+        }
+        results = new byte[predicates.length];
+    }
+
+    @Override
+    public int route(FlinkExecuteContext executeContext, Row row, int[] matchedBranches) {
+        Arrays.fill(results, (byte) 0);
+        int count = 0;
+        for (int i = 0; i < predicateIndexes.length; i++) {
+            int index = predicateIndexes[i];
+            if(results[index] == 0){
+                results[index] = test(index, executeContext, row) ? (byte) 1 : (byte) 2;
+            }
+            if(results[index] == 1){
+                matchedBranches[count++] = i;
+                if(exclusive[i]){
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    private boolean test(int index, FlinkExecuteContext executeContext, Row row) {
+        ScriptMetric scriptMetric = predicateMetrics[index];
+        if(scriptMetric == null){
+            return predicates[index].test(executeContext, row);
+        }
+        long start = scriptMetric.start();
+        boolean matched;
+        try{
+            matched = predicates[index].test(executeContext, row);
+        }catch (RuntimeException exception){
+            scriptMetric.error();
+            throw exception;
+        }
+        scriptMetric.finish(start, matched);
+        return matched;
+    }
+
+    @Override
+    public String toString() {
+        return "SequentialDeciderRouter(distinct predicates=" + predicates.length + ")";
+    }
+}
@@ -0,0 +1,201 @@
+package com.leonside.dataroad.flink.processor.filter;
+
+import com.leonside.dataroad.common.exception.ScriptExecuteException;
+import com.leonside.dataroad.common.script.ScriptEvaluator;
+import com.leonside.dataroad.common.spi.ItemProcessor;
+import com.leonside.dataroad.core.component.ComponentNameSupport;
+import com.leonside.dataroad.core.planner.ColumnReferenceSupport;
+import com.leonside.dataroad.core.planner.FusibleProcessor;
+import com.leonside.dataroad.core.planner.ScriptExpressionAnalyzer;
+import com.leonside.dataroad.flink.config.ScriptExpressionConfig;
+import com.leonside.dataroad.flink.context.FlinkExecuteContext;
+import com.leonside.dataroad.flink.metric.ScriptMetric;
+import com.leonside.dataroad.flink.utils.RawTypeUtils;
+import org.apache.flink.api.common.functions.RichFilterFunction;
+import org.apache.flink.api.common.functions.RichFlatMapFunction;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.streaming.api.datastream.DataStream;
+import org.apache.flink.types.Row;
+import org.apache.flink.util.Collector;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 相邻脚本过滤、脚本转换节点合并后的processor，在单个算子内按顺序执行各脚本，
+ * 过滤不通过时跳过后续脚本，省去算子间的记录传递与拷贝
+ * @author leon
+ */
+public class FusedScriptProcessor extends ComponentNameSupport implements ItemProcessor<FlinkExecuteContext, DataStream<Row>,DataStream<Row>>, FusibleProcessor, ColumnReferenceSupport {
+
+    private final List<ScriptStep> scriptSteps;
+
+    public FusedScriptProcessor(String name, List<ScriptStep> scriptSteps) {
+        this.name = name;
+        this.scriptSteps = scriptSteps;
+    }
+
+    public List<ScriptStep> getScriptSteps() {
+        return scriptSteps;
+    }
+
+    @Override
+    public DataStream<Row> process(FlinkExecuteContext executeContext, DataStream<Row> dataStream) {
+
+        //转换脚本之后的字段类型未知，与未合并时一致，仅向首个转换脚本及之前的脚本绑定字段类型
+        for (ScriptStep scriptStep : scriptSteps) {
+            RawTypeUtils.bindFieldTypes(scriptStep.scriptEvaluator, dataStream.getType());
+            if(!scriptStep.filter){
+                break;
+            }
+        }
+
+        boolean filterOnly = scriptSteps.stream().allMatch(it -> it.filter);
+        if(filterOnly){
+            return dataStream.filter(new RichFilterFunction<Row>() {
+                @Override
+                public void open(Configuration parameters) throws Exception {
+                    openScriptSteps(getRuntimeContext().getMetricGroup());
+                }
+
+                @Override
+                public boolean filter(Row row) throws Exception {
+                    return evaluate(row);
+                }
+            });
+        }
+
+        return dataStream.flatMap(new RichFlatMapFunction<Row, Row>() {
+            @Override
+            public void open(Configuration parameters) throws Exception {
+                openScriptSteps(getRuntimeContext().getMetricGroup());
+            }
+
+            @Override
+            public void flatMap(Row row, Collector<Row> out) throws Exception {
+                if(evaluate(row)){
+                    out.collect(row);
+                }
+            }
+        });
+    }
+
+    private void openScriptSteps(MetricGroup metricGroup) throws Exception {
+        for (ScriptStep scriptStep : scriptSteps) {
+            scriptStep.open(metricGroup);
+        }
+    }
+
+    private boolean evaluate(Row row) {
+        for (ScriptStep scriptStep : scriptSteps) {
+            if(!scriptStep.evaluate(row)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public ItemProcessor fuse(ItemProcessor next) {
+        return fuse(name, scriptSteps, next);
+    }
+
+    @Override
+    public Set<String> getReferencedColumns() {
+        Set<String> columns = new LinkedHashSet<>();
+        for (ScriptStep scriptStep : scriptSteps) {
+            Set<String> stepColumns = scriptStep.getReferencedColumns();
+            if(stepColumns == null){
+                return null;
+            }
+            columns.addAll(stepColumns);
+        }
+        return columns;
+    }
+
+    static ItemProcessor fuse(String name, List<ScriptStep> scriptSteps, ItemProcessor next){
+        List<ScriptStep> nextSteps;
+        if(next instanceof ScriptFilterProcessor){
+            nextSteps = Collections.singletonList(((ScriptFilterProcessor) next).toScriptStep());
+        }else if(next instanceof ScriptTransformerProcessor){
+            nextSteps = Collections.singletonList(((ScriptTransformerProcessor) next).toScriptStep());
+        }else if(next instanceof FusedScriptProcessor){
+            nextSteps = ((FusedScriptProcessor) next).scriptSteps;
+        }else{
+            return null;
+        }
+        List<ScriptStep> fusedSteps = new ArrayList<>(scriptSteps);
+        fusedSteps.addAll(nextSteps);
+        return new FusedScriptProcessor(name + "+" + next.getName(), fusedSteps);
+    }
+
+    /**
+     * 合并算子中的单个脚本，执行指标按合并前的组件名注册
+     */
+    public static class ScriptStep implements Serializable {
+
+        private final String name;
+
+        private final boolean filter;
+
+        private final ScriptExpressionConfig scriptExpressionConfig;
+
+        private final Map<String,Object> parameter;
+
+        private final ScriptEvaluator scriptEvaluator;
+
+        private transient ScriptMetric scriptMetric;
+
+        public ScriptStep(String name, boolean filter, ScriptExpressionConfig scriptExpressionConfig, Map<String, Object> parameter, ScriptEvaluator scriptEvaluator) {
+            this.name = name;
+            this.filter = filter;
+            this.scriptExpressionConfig = scriptExpressionConfig;
+            this.parameter = parameter;
+            this.scriptEvaluator = scriptEvaluator;
+        }
+
+        public boolean isFilter() {
+            return filter;
+        }
+
+        void open(MetricGroup metricGroup) throws Exception {
+            scriptEvaluator.open();
+            scriptMetric = new ScriptMetric(metricGroup, name);
+        }
+
+        Set<String> getReferencedColumns(){
+            return ScriptExpressionAnalyzer.referencedColumns(scriptExpressionConfig.getLanguage(), scriptExpressionConfig.getExpression());
+        }
+
+        /**
+         * 执行脚本
+         * @return 过滤脚本返回过滤结果，转换脚本恒为true
+         */
+        boolean evaluate(Row row){
+            long start = scriptMetric.start();
+            Object evaluate;
+            try{
+                evaluate = scriptEvaluator.evaluate(row, parameter);
+            }catch (Exception exception){
+                scriptMetric.error();
+                throw new ScriptExecuteException("Script execution error [" + scriptExpressionConfig.getExpression() + "],language ["+scriptExpressionConfig.getLanguage()+"]",exception);
+            }
+            if(!filter){
+                scriptMetric.finish(start);
+                return true;
+            }
+            if(!(evaluate instanceof Boolean)){
+                scriptMetric.error();
+                throw new ScriptExecuteException("Boolean must be returned， check the expression is valid. [" + scriptExpressionConfig.getExpression() + "]");
+            }
+            scriptMetric.finish(start, (Boolean) evaluate);
+            return (Boolean) evaluate;
+        }
+    }
+}
@@ -6,20 +6,28 @@ import com.leonside.dataroad.common.script.ScriptEvaluatorFactory;
 import com.leonside.dataroad.common.spi.ItemProcessor;
 import com.leonside.dataroad.core.component.ComponentInitialization;
 import com.leonside.dataroad.core.component.ComponentNameSupport;
+import com.leonside.dataroad.core.planner.ColumnReferenceSupport;
+import com.leonside.dataroad.core.planner.FusibleProcessor;
+import com.leonside.dataroad.core.planner.ScriptExpressionAnalyzer;
+import com.leonside.dataroad.core.planner.ScriptFilterSupport;
 import com.leonside.dataroad.flink.config.ScriptExpressionConfig;
 import com.leonside.dataroad.flink.context.FlinkExecuteContext;
-import org.apache.flink.api.common.functions.FilterFunction;
-import org.apache.flink.api.common.functions.MapFunction;
+import com.leonside.dataroad.flink.metric.ScriptMetric;
+import com.leonside.dataroad.flink.utils.RawTypeUtils;
+import org.apache.flink.api.common.functions.RichFilterFunction;
+import org.apache.flink.configuration.Configuration;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.types.Row;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Script Filter Processor
  * @author leon
  */
-public class ScriptFilterProcessor extends ComponentNameSupport implements ComponentInitialization<FlinkExecuteContext,ScriptExpressionConfig>, ItemProcessor<FlinkExecuteContext, DataStream<Row>,DataStream<Row>> {
+public class ScriptFilterProcessor extends ComponentNameSupport implements ComponentInitialization<FlinkExecuteContext,ScriptExpressionConfig>, ItemProcessor<FlinkExecuteContext, DataStream<Row>,DataStream<Row>>, FusibleProcessor, ColumnReferenceSupport, ScriptFilterSupport {
 
     private ScriptExpressionConfig scriptExpressionConfig;
 
@@ -38,20 +46,32 @@ public class ScriptFilterProcessor extends ComponentNameSupport implements Compo
     @Override
     public DataStream<Row> process(FlinkExecuteContext executeContext, DataStream<Row> dataStream) {
 
-        return dataStream.filter(new FilterFunction<Row>() {
+        RawTypeUtils.bindFieldTypes(scriptEvalutor, dataStream.getType());
+
+        return dataStream.filter(new RichFilterFunction<Row>() {
+
+            private transient ScriptMetric scriptMetric;
+
+            @Override
+            public void open(Configuration parameters) throws Exception {
+                scriptEvalutor.open();
+                scriptMetric = new ScriptMetric(getRuntimeContext().getMetricGroup(), name);
+            }
+
             @Override
             public boolean filter(Row value) throws Exception {
 
+                long start = scriptMetric.start();
                 try{
-//long l = System.currentTimeMillis();
                     Object evaluate = scriptEvalutor.evaluate(value, parameter);
-//System.out.println(Thread.currentThread().getId() + "-" + scriptEvalutor + " >>" +scriptExpressionConfig.getExpression() + ",language["+scriptExpressionConfig.getLanguage()+"] cost:"+( System.currentTimeMillis() - l) + ",row:" + value +  ",result:" + evaluate);
 
                     if(evaluate == null || ! (evaluate instanceof Boolean)){
                         throw new ScriptExecuteException("Boolean must be returned， check the expression is valid. [" + scriptExpressionConfig.getExpression() + "]");
                     }
+                    scriptMetric.finish(start, (Boolean) evaluate);
                     return (Boolean)evaluate;
                 }catch (Exception exception){
+                    scriptMetric.error();
                     throw new ScriptExecuteException("Script execution error [" + scriptExpressionConfig.getExpression() + "]",exception);
                 }
             }
@@ -60,5 +80,28 @@ public class ScriptFilterProcessor extends ComponentNameSupport implements Compo
 
     }
 
+    @Override
+    public ItemProcessor fuse(ItemProcessor next) {
+        return FusedScriptProcessor.fuse(name, Collections.singletonList(toScriptStep()), next);
+    }
+
+    @Override
+    public Set<String> getReferencedColumns() {
+        return ScriptExpressionAnalyzer.referencedColumns(scriptExpressionConfig.getLanguage(), scriptExpressionConfig.getExpression());
+    }
+
+    @Override
+    public ScriptEvaluatorFactory.ScriptEngine getScriptLanguage() {
+        return scriptExpressionConfig.getLanguage();
+    }
+
+    @Override
+    public String getScriptExpression() {
+        return scriptExpressionConfig.getExpression();
+    }
+
+    FusedScriptProcessor.ScriptStep toScriptStep(){
+        return new FusedScriptProcessor.ScriptStep(name, true, scriptExpressionConfig, parameter, scriptEvalutor);
+    }
 
 }
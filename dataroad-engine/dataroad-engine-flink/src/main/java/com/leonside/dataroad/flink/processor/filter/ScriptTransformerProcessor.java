@@ -6,19 +6,27 @@ import com.leonside.dataroad.common.script.ScriptEvaluatorFactory;
 import com.leonside.dataroad.common.spi.ItemProcessor;
 import com.leonside.dataroad.core.component.ComponentInitialization;
 import com.leonside.dataroad.core.component.ComponentNameSupport;
+import com.leonside.dataroad.core.planner.ColumnReferenceSupport;
+import com.leonside.dataroad.core.planner.FusibleProcessor;
+import com.leonside.dataroad.core.planner.ScriptExpressionAnalyzer;
 import com.leonside.dataroad.flink.config.ScriptExpressionConfig;
 import com.leonside.dataroad.flink.context.FlinkExecuteContext;
-import org.apache.flink.api.common.functions.MapFunction;
+import com.leonside.dataroad.flink.metric.ScriptMetric;
+import com.leonside.dataroad.flink.utils.RawTypeUtils;
+import org.apache.flink.api.common.functions.RichMapFunction;
+import org.apache.flink.configuration.Configuration;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.types.Row;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Script Transformer Processor
  * @author leon
  */
-public class ScriptTransformerProcessor extends ComponentNameSupport implements ComponentInitialization<FlinkExecuteContext,ScriptExpressionConfig>, ItemProcessor<FlinkExecuteContext, DataStream<Row>,DataStream<Row>> {
+public class ScriptTransformerProcessor extends ComponentNameSupport implements ComponentInitialization<FlinkExecuteContext,ScriptExpressionConfig>, ItemProcessor<FlinkExecuteContext, DataStream<Row>,DataStream<Row>>, FusibleProcessor, ColumnReferenceSupport {
 
     private ScriptExpressionConfig scriptExpressionConfig;
 
@@ -37,20 +45,46 @@ public class ScriptTransformerProcessor extends ComponentNameSupport implements
     @Override
     public DataStream<Row> process(FlinkExecuteContext executeContext, DataStream<Row> dataStream) {
 
-        return dataStream.map(new MapFunction<Row,Row>() {
+        RawTypeUtils.bindFieldTypes(scriptEvalutor, dataStream.getType());
+
+        return dataStream.map(new RichMapFunction<Row,Row>() {
+
+            private transient ScriptMetric scriptMetric;
+
+            @Override
+            public void open(Configuration parameters) throws Exception {
+                scriptEvalutor.open();
+                scriptMetric = new ScriptMetric(getRuntimeContext().getMetricGroup(), name);
+            }
 
             @Override
             public Row map(Row row) throws Exception {
+                long start = scriptMetric.start();
                 try{
                     scriptEvalutor.evaluate(row, parameter);
+                    scriptMetric.finish(start);
 
                     return row;
                 }catch (Exception exception){
+                    scriptMetric.error();
                     throw new ScriptExecuteException("Script execution error [" + scriptExpressionConfig.getExpression() + "],language ["+scriptExpressionConfig.getLanguage()+"]",exception);
                 }
             }
         });
     }
 
+    @Override
+    public ItemProcessor fuse(ItemProcessor next) {
+        return FusedScriptProcessor.fuse(name, Collections.singletonList(toScriptStep()), next);
+    }
+
+    @Override
+    public Set<String> getReferencedColumns() {
+        return ScriptExpressionAnalyzer.referencedColumns(scriptExpressionConfig.getLanguage(), scriptExpressionConfig.getExpression());
+    }
+
+    FusedScriptProcessor.ScriptStep toScriptStep(){
+        return new FusedScriptProcessor.ScriptStep(name, false, scriptExpressionConfig, parameter, scriptEvalutor);
+    }
 
 }
@@ -0,0 +1,78 @@
+package com.leonside.dataroad.flink.processor.sql;
+
+import com.leonside.dataroad.common.spi.ItemReader;
+import com.leonside.dataroad.core.component.ComponentNameSupport;
+import com.leonside.dataroad.flink.context.FlinkExecuteContext;
+import com.leonside.dataroad.flink.processor.sql.config.SqlTransformerConfig;
+import com.leonside.dataroad.flink.processor.sql.table.ReaderTableSource;
+import com.leonside.dataroad.flink.processor.sql.table.ReaderTableSourceFactory;
+import com.leonside.dataroad.flink.reader.BoundedSupport;
+import com.leonside.dataroad.flink.reader.TableScanSupport;
+import org.apache.flink.api.java.typeutils.RowTypeInfo;
+import org.apache.flink.streaming.api.datastream.DataStream;
+import org.apache.flink.table.api.Table;
+import org.apache.flink.table.api.bridge.java.StreamTableEnvironment;
+import org.apache.flink.types.Row;
+
+/**
+ * reader与紧随的SQL转换合并后的reader：reader注册为表源，SQL中的过滤条件、查询字段及LIMIT由Flink下推至reader查询
+ * @author leon
+ */
+public class SqlScanReader extends ComponentNameSupport implements ItemReader<FlinkExecuteContext, DataStream<Row>>, BoundedSupport {
+
+    private final TableScanSupport reader;
+
+    private final RowTypeInfo rowType;
+
+    private final SqlTransformerConfig sqlTransformerConfig;
+
+    public SqlScanReader(String name, TableScanSupport reader, RowTypeInfo rowType, SqlTransformerConfig sqlTransformerConfig) {
+        this.name = name;
+        this.reader = reader;
+        this.rowType = rowType;
+        this.sqlTransformerConfig = sqlTransformerConfig;
+    }
+
+    @Override
+    public DataStream<Row> read(FlinkExecuteContext executeContext) throws Exception {
+
+        StreamTableEnvironment streamTableEnvironment = executeContext.getOrCreateStreamTableEnvironment();
+
+        String key = ReaderTableSourceFactory.register(new ReaderTableSource(name, reader, rowType));
+        try {
+            streamTableEnvironment.executeSql(createTableSql(key));
+
+            Table table = streamTableEnvironment.sqlQuery(sqlTransformerConfig.getSql());
+
+            return streamTableEnvironment.toDataStream(table);
+        } finally {
+            //toDataStream时完成SQL翻译，表源已创建
+            ReaderTableSourceFactory.unregister(key);
+        }
+    }
+
+    @Override
+    public boolean isBounded() {
+        //表扫描仅支持全量读取
+        return true;
+    }
+
+    private String createTableSql(String key){
+        StringBuilder builder = new StringBuilder("CREATE TEMPORARY TABLE ")
+                .append(quote(sqlTransformerConfig.getTableName())).append(" (");
+        for (int i = 0; i < rowType.getArity(); i++) {
+            if(i > 0){
+                builder.append(", ");
+            }
+            builder.append(quote(rowType.getFieldNames()[i])).append(" ")
+                    .append(ReaderTableSource.toDataType(rowType.getTypeAt(i)).getLogicalType().asSerializableString());
+        }
+        return builder.append(") WITH ('connector' = '").append(ReaderTableSourceFactory.IDENTIFIER)
+                .append("', '").append(ReaderTableSourceFactory.READER.key()).append("' = '").append(key).append("')")
+                .toString();
+    }
+
+    private String quote(String identifier){
+        return "`" + identifier.replace("`", "``") + "`";
+    }
+}
@@ -1,19 +1,26 @@
 package com.leonside.dataroad.flink.processor.sql;
 
 import com.leonside.dataroad.common.spi.ItemProcessor;
+import com.leonside.dataroad.common.spi.ItemReader;
 import com.leonside.dataroad.core.component.ComponentInitialization;
 import com.leonside.dataroad.core.component.ComponentNameSupport;
+import com.leonside.dataroad.core.planner.ReaderFusibleProcessor;
 import com.leonside.dataroad.flink.context.FlinkExecuteContext;
 import com.leonside.dataroad.flink.processor.sql.config.SqlTransformerConfig;
+import com.leonside.dataroad.flink.processor.sql.table.ReaderTableSource;
+import com.leonside.dataroad.flink.reader.TableScanSupport;
+import org.apache.flink.api.java.typeutils.RowTypeInfo;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.table.api.Table;
 import org.apache.flink.table.api.bridge.java.StreamTableEnvironment;
 import org.apache.flink.types.Row;
 
+import java.util.Arrays;
+
 /**
  * @author leon
  */
-public class SqlTransformerProcessor extends ComponentNameSupport implements ComponentInitialization<FlinkExecuteContext,SqlTransformerConfig>, ItemProcessor<FlinkExecuteContext, DataStream<Row>,DataStream<Row>> {
+public class SqlTransformerProcessor extends ComponentNameSupport implements ComponentInitialization<FlinkExecuteContext,SqlTransformerConfig>, ItemProcessor<FlinkExecuteContext, DataStream<Row>,DataStream<Row>>, ReaderFusibleProcessor {
 
     private SqlTransformerConfig sqlTransformerConfig;
 
@@ -29,6 +36,18 @@ public class SqlTransformerProcessor extends ComponentNameSupport implements Com
         return streamTableEnvironment.toDataStream(table);
     }
 
+    @Override
+    public ItemReader fuseReader(ItemReader reader) {
+        if(!(reader instanceof TableScanSupport)){
+            return null;
+        }
+        RowTypeInfo rowType = ((TableScanSupport) reader).getScanRowType();
+        if(rowType == null || Arrays.stream(rowType.getFieldTypes()).anyMatch(it -> ReaderTableSource.toDataType(it) == null)){
+            return null;
+        }
+        return new SqlScanReader(reader.getName() + "+" + name, (TableScanSupport) reader, rowType, sqlTransformerConfig);
+    }
+
 
     @Override
     public void doInitialize(FlinkExecuteContext executeContext, SqlTransformerConfig config) {
@@ -0,0 +1,204 @@
+package com.leonside.dataroad.flink.processor.sql.table;
+
+import com.leonside.dataroad.core.planner.ColumnPredicate;
+import com.leonside.dataroad.flink.reader.TableScanSupport;
+import org.apache.flink.api.common.io.InputFormat;
+import org.apache.flink.api.common.typeinfo.BasicTypeInfo;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.java.typeutils.RowTypeInfo;
+import org.apache.flink.table.api.DataTypes;
+import org.apache.flink.table.connector.ChangelogMode;
+import org.apache.flink.table.connector.source.DynamicTableSource;
+import org.apache.flink.table.connector.source.InputFormatProvider;
+import org.apache.flink.table.connector.source.ScanTableSource;
+import org.apache.flink.table.connector.source.abilities.SupportsFilterPushDown;
+import org.apache.flink.table.connector.source.abilities.SupportsLimitPushDown;
+import org.apache.flink.table.connector.source.abilities.SupportsProjectionPushDown;
+import org.apache.flink.table.expressions.CallExpression;
+import org.apache.flink.table.expressions.FieldReferenceExpression;
+import org.apache.flink.table.expressions.ResolvedExpression;
+import org.apache.flink.table.expressions.ValueLiteralExpression;
+import org.apache.flink.table.functions.BuiltInFunctionDefinitions;
+import org.apache.flink.table.functions.FunctionDefinition;
+import org.apache.flink.table.types.DataType;
+import org.apache.flink.table.types.logical.LegacyTypeInformationType;
+import org.apache.flink.table.types.utils.TypeConversions;
+import org.apache.flink.types.Row;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * 以reader作为Flink表源，支持过滤条件、查询字段及LIMIT下推。
+ * 过滤条件仅下推 字段 比较符 常量 形式，数据源可能只应用其中部分条件，因此全部条件仍由Flink再次过滤
+ * @author leon
+ */
+public class ReaderTableSource implements ScanTableSource, SupportsFilterPushDown, SupportsProjectionPushDown, SupportsLimitPushDown {
+
+    private final String name;
+
+    private final TableScanSupport reader;
+
+    private final RowTypeInfo rowType;
+
+    private int[] projectedFields;
+
+    private List<ColumnPredicate> filters = new ArrayList<>();
+
+    private long limit = -1;
+
+    public ReaderTableSource(String name, TableScanSupport reader, RowTypeInfo rowType) {
+        this.name = name;
+        this.reader = reader;
+        this.rowType = rowType;
+        this.projectedFields = IntStream.range(0, rowType.getArity()).toArray();
+    }
+
+    @Override
+    public ChangelogMode getChangelogMode() {
+        return ChangelogMode.insertOnly();
+    }
+
+    @Override
+    public ScanRuntimeProvider getScanRuntimeProvider(ScanContext scanContext) {
+        String[] fieldNames = new String[projectedFields.length];
+        DataType[] fieldTypes = new DataType[projectedFields.length];
+        for (int i = 0; i < projectedFields.length; i++) {
+            fieldNames[i] = rowType.getFieldNames()[projectedFields[i]];
+            fieldTypes[i] = toDataType(rowType.getTypeAt(projectedFields[i]));
+        }
+
+        InputFormat<Row, ?> inputFormat = reader.createScanInputFormat(filters, Arrays.asList(fieldNames), limit);
+        DataStructureConverter converter = scanContext.createDataStructureConverter(toRowDataType(fieldNames, fieldTypes));
+        return InputFormatProvider.of(new RowDataInputFormat(inputFormat, fieldNames, fieldTypes, converter, limit));
+    }
+
+    @Override
+    public Result applyFilters(List<ResolvedExpression> expressions) {
+        List<ResolvedExpression> accepted = new ArrayList<>();
+        for (ResolvedExpression expression : expressions) {
+            ColumnPredicate predicate = toColumnPredicate(expression);
+            if(predicate != null){
+                filters.add(predicate);
+                accepted.add(expression);
+            }
+        }
+        return Result.of(accepted, expressions);
+    }
+
+    @Override
+    public boolean supportsNestedProjection() {
+        return false;
+    }
+
+    @Override
+    public void applyProjection(int[][] projectedFields) {
+        this.projectedFields = Arrays.stream(projectedFields).mapToInt(it -> this.projectedFields[it[0]]).toArray();
+    }
+
+    @Override
+    public void applyLimit(long limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public DynamicTableSource copy() {
+        ReaderTableSource tableSource = new ReaderTableSource(name, reader, rowType);
+        tableSource.projectedFields = projectedFields.clone();
+        tableSource.filters = new ArrayList<>(filters);
+        tableSource.limit = limit;
+        return tableSource;
+    }
+
+    @Override
+    public String asSummaryString() {
+        return "DataroadReader[" + name + "]";
+    }
+
+    /**
+     * 转换为表字段类型，表引擎不支持的类型返回null。BigInteger（如MySQL bigint）按DECIMAL(20, 0)读取
+     */
+    public static DataType toDataType(TypeInformation typeInformation){
+        if(BasicTypeInfo.BIG_DEC_TYPE_INFO.equals(typeInformation)){
+            return DataTypes.DECIMAL(38, 18);
+        }else if(BasicTypeInfo.BIG_INT_TYPE_INFO.equals(typeInformation)){
+            return DataTypes.DECIMAL(20, 0);
+        }
+        DataType dataType = TypeConversions.fromLegacyInfoToDataType(typeInformation);
+        return dataType.getLogicalType() instanceof LegacyTypeInformationType ? null : dataType;
+    }
+
+    public static DataType toRowDataType(String[] fieldNames, DataType[] fieldTypes){
+        DataTypes.Field[] fields = new DataTypes.Field[fieldNames.length];
+        for (int i = 0; i < fieldNames.length; i++) {
+            fields[i] = DataTypes.FIELD(fieldNames[i], fieldTypes[i]);
+        }
+        return DataTypes.ROW(fields);
+    }
+
+    private ColumnPredicate toColumnPredicate(ResolvedExpression expression){
+        if(!(expression instanceof CallExpression) || expression.getResolvedChildren().size() != 2){
+            return null;
+        }
+        ColumnPredicate.Operator operator = toOperator(((CallExpression) expression).getFunctionDefinition());
+        if(operator == null){
+            return null;
+        }
+
+        ResolvedExpression left = expression.getResolvedChildren().get(0);
+        ResolvedExpression right = expression.getResolvedChildren().get(1);
+        if(left instanceof ValueLiteralExpression && right instanceof FieldReferenceExpression){
+            ResolvedExpression temp = left;
+            left = right;
+            right = temp;
+            operator = operator.reverse();
+        }
+        if(!(left instanceof FieldReferenceExpression) || !(right instanceof ValueLiteralExpression)){
+            return null;
+        }
+
+        Object value = toLiteralValue((ValueLiteralExpression) right);
+        if(value == null || (value instanceof String && operator != ColumnPredicate.Operator.EQ)){
+            return null;
+        }
+        return new ColumnPredicate(((FieldReferenceExpression) left).getName(), operator, value);
+    }
+
+    private ColumnPredicate.Operator toOperator(FunctionDefinition definition){
+        if(definition == BuiltInFunctionDefinitions.EQUALS){
+            return ColumnPredicate.Operator.EQ;
+        }else if(definition == BuiltInFunctionDefinitions.GREATER_THAN){
+            return ColumnPredicate.Operator.GT;
+        }else if(definition == BuiltInFunctionDefinitions.GREATER_THAN_OR_EQUAL){
+            return ColumnPredicate.Operator.GE;
+        }else if(definition == BuiltInFunctionDefinitions.LESS_THAN){
+            return ColumnPredicate.Operator.LT;
+        }else if(definition == BuiltInFunctionDefinitions.LESS_THAN_OR_EQUAL){
+            return ColumnPredicate.Operator.LE;
+        }
+        return null;
+    }
+
+    /**
+     * 常量值，整数统一为Long，小数统一为BigDecimal，与脚本条件解析结果一致
+     */
+    private Object toLiteralValue(ValueLiteralExpression literal){
+        if(literal.isNull()){
+            return null;
+        }
+        Object value = literal.getValueAs(literal.getOutputDataType().getConversionClass()).orElse(null);
+        if(value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte){
+            return ((Number) value).longValue();
+        }else if(value instanceof BigDecimal){
+            return value;
+        }else if(value instanceof Double || value instanceof Float){
+            return new BigDecimal(value.toString());
+        }else if(value instanceof String){
+            return value;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,66 @@
+package com.leonside.dataroad.flink.processor.sql.table;
+
+import com.leonside.dataroad.common.exception.JobConfigException;
+import org.apache.flink.configuration.ConfigOption;
+import org.apache.flink.configuration.ConfigOptions;
+import org.apache.flink.table.connector.source.DynamicTableSource;
+import org.apache.flink.table.factories.DynamicTableSourceFactory;
+import org.apache.flink.table.factories.FactoryUtil;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * reader表源工厂，connector为dataroad-reader。
+ * reader实例无法通过DDL属性传递，建表前注册至工厂，SQL翻译完成后注销
+ * @author leon
+ */
+public class ReaderTableSourceFactory implements DynamicTableSourceFactory {
+
+    public static final String IDENTIFIER = "dataroad-reader";
+
+    public static final ConfigOption<String> READER = ConfigOptions.key("reader").stringType().noDefaultValue();
+
+    private static final Map<String, ReaderTableSource> TABLE_SOURCES = new ConcurrentHashMap<>();
+
+    public static String register(ReaderTableSource tableSource){
+        String key = UUID.randomUUID().toString();
+        TABLE_SOURCES.put(key, tableSource);
+        return key;
+    }
+
+    public static void unregister(String key){
+        TABLE_SOURCES.remove(key);
+    }
+
+    @Override
+    public DynamicTableSource createDynamicTableSource(Context context) {
+        FactoryUtil.TableFactoryHelper helper = FactoryUtil.createTableFactoryHelper(this, context);
+        helper.validate();
+
+        String key = helper.getOptions().get(READER);
+        ReaderTableSource tableSource = TABLE_SOURCES.get(key);
+        if(tableSource == null){
+            throw new JobConfigException("reader table source [" + key + "] is not registered, table: " + context.getObjectIdentifier());
+        }
+        return tableSource.copy();
+    }
+
+    @Override
+    public String factoryIdentifier() {
+        return IDENTIFIER;
+    }
+
+    @Override
+    public Set<ConfigOption<?>> requiredOptions() {
+        return Collections.singleton(READER);
+    }
+
+    @Override
+    public Set<ConfigOption<?>> optionalOptions() {
+        return Collections.emptySet();
+    }
+}
@@ -0,0 +1,156 @@
+package com.leonside.dataroad.flink.processor.sql.table;
+
+import org.apache.flink.api.common.functions.RuntimeContext;
+import org.apache.flink.api.common.io.InputFormat;
+import org.apache.flink.api.common.io.RichInputFormat;
+import org.apache.flink.api.common.io.statistics.BaseStatistics;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.core.io.InputSplit;
+import org.apache.flink.core.io.InputSplitAssigner;
+import org.apache.flink.table.connector.RuntimeConverter;
+import org.apache.flink.table.connector.source.DynamicTableSource;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.types.DataType;
+import org.apache.flink.types.Row;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * reader的InputFormat适配为表源InputFormat：按查询字段取值并转换为字段声明类型，输出RowData，
+ * 下推LIMIT时每个分片读取到指定条数后结束
+ * @author leon
+ */
+public class RowDataInputFormat extends RichInputFormat<RowData, InputSplit> {
+
+    private final InputFormat<Row, InputSplit> inputFormat;
+
+    private final String[] fieldNames;
+
+    private final Class<?>[] fieldClasses;
+
+    private final DynamicTableSource.DataStructureConverter converter;
+
+    private final long limit;
+
+    private transient long count;
+
+    @SuppressWarnings("unchecked")
+    public RowDataInputFormat(InputFormat<Row, ?> inputFormat, String[] fieldNames, DataType[] fieldTypes, DynamicTableSource.DataStructureConverter converter, long limit) {
+        this.inputFormat = (InputFormat<Row, InputSplit>) inputFormat;
+        this.fieldNames = fieldNames;
+        this.fieldClasses = new Class<?>[fieldTypes.length];
+        for (int i = 0; i < fieldTypes.length; i++) {
+            fieldClasses[i] = fieldTypes[i].getConversionClass();
+        }
+        this.converter = converter;
+        this.limit = limit;
+    }
+
+    @Override
+    public void setRuntimeContext(RuntimeContext runtimeContext) {
+        super.setRuntimeContext(runtimeContext);
+        if(inputFormat instanceof RichInputFormat){
+            ((RichInputFormat) inputFormat).setRuntimeContext(runtimeContext);
+        }
+    }
+
+    @Override
+    public void openInputFormat() throws IOException {
+        converter.open(RuntimeConverter.Context.create(getRuntimeContext().getUserCodeClassLoader()));
+        if(inputFormat instanceof RichInputFormat){
+            ((RichInputFormat) inputFormat).openInputFormat();
+        }
+    }
+
+    @Override
+    public void closeInputFormat() throws IOException {
+        if(inputFormat instanceof RichInputFormat){
+            ((RichInputFormat) inputFormat).closeInputFormat();
+        }
+    }
+
+    @Override
+    public void configure(Configuration parameters) {
+        inputFormat.configure(parameters);
+    }
+
+    @Override
+    public BaseStatistics getStatistics(BaseStatistics cachedStatistics) throws IOException {
+        return inputFormat.getStatistics(cachedStatistics);
+    }
+
+    @Override
+    public InputSplit[] createInputSplits(int minNumSplits) throws IOException {
+        return inputFormat.createInputSplits(minNumSplits);
+    }
+
+    @Override
+    public InputSplitAssigner getInputSplitAssigner(InputSplit[] inputSplits) {
+        return inputFormat.getInputSplitAssigner(inputSplits);
+    }
+
+    @Override
+    public void open(InputSplit split) throws IOException {
+        count = 0;
+        inputFormat.open(split);
+    }
+
+    @Override
+    public boolean reachedEnd() throws IOException {
+        return (limit >= 0 && count >= limit) || inputFormat.reachedEnd();
+    }
+
+    @Override
+    public RowData nextRecord(RowData reuse) throws IOException {
+        Row record = inputFormat.nextRecord(Row.withNames());
+        if(record == null){
+            return null;
+        }
+        count++;
+
+        Row row = new Row(record.getKind(), fieldNames.length);
+        for (int i = 0; i < fieldNames.length; i++) {
+            row.setField(i, cast(record.getField(fieldNames[i]), fieldClasses[i]));
+        }
+        return (RowData) converter.toInternal(row);
+    }
+
+    @Override
+    public void close() throws IOException {
+        inputFormat.close();
+    }
+
+    /**
+     * 数据源返回的值类型与声明类型可能不一致（如ES按数值大小返回Integer或Long），按声明类型转换
+     */
+    private Object cast(Object value, Class<?> clazz){
+        if(value == null || clazz.isInstance(value)){
+            return value;
+        }
+        if(clazz == String.class){
+            return value.toString();
+        }
+        if(value instanceof Number){
+            Number number = (Number) value;
+            if(clazz == Integer.class){
+                return number.intValue();
+            }else if(clazz == Long.class){
+                return number.longValue();
+            }else if(clazz == Double.class){
+                return number.doubleValue();
+            }else if(clazz == Float.class){
+                return number.floatValue();
+            }else if(clazz == Short.class){
+                return number.shortValue();
+            }else if(clazz == Byte.class){
+                return number.byteValue();
+            }else if(clazz == BigDecimal.class){
+                return new BigDecimal(number.toString());
+            }
+        }else if(value instanceof String && clazz == BigDecimal.class){
+            return new BigDecimal((String) value);
+        }
+        return value;
+    }
+}
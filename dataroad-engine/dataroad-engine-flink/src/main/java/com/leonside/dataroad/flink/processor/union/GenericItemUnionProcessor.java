@@ -3,19 +3,22 @@ package com.leonside.dataroad.flink.processor.union;
 import com.leonside.dataroad.common.constant.JobConfigKeyConstants;
 import com.leonside.dataroad.common.spi.ItemUnionProcessor;
 import com.leonside.dataroad.core.component.ComponentNameAutoGenerator;
+import com.leonside.dataroad.core.planner.ColumnReferenceSupport;
 import com.leonside.dataroad.flink.context.FlinkExecuteContext;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.types.Row;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * @author leon
  */
-public class GenericItemUnionProcessor extends ComponentNameAutoGenerator implements ItemUnionProcessor<FlinkExecuteContext, List<DataStream<Row>>, DataStream<Row>> {
+public class GenericItemUnionProcessor extends ComponentNameAutoGenerator implements ItemUnionProcessor<FlinkExecuteContext, List<DataStream<Row>>, DataStream<Row>>, ColumnReferenceSupport {
 
     public static String COMPONENT_ID = "unionProcessor";
 
@@ -49,4 +52,9 @@ public class GenericItemUnionProcessor extends ComponentNameAutoGenerator implem
         return reduceStream.isPresent() ? reduceStream.get() : null;
     }
 
+    @Override
+    public Set<String> getReferencedColumns() {
+        return Collections.emptySet();
+    }
+
 }
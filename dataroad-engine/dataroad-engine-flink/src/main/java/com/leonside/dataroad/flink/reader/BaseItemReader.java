@@ -25,7 +25,11 @@ import com.leonside.dataroad.core.component.ComponentInitialization;
 import com.leonside.dataroad.core.component.ComponentNameSupport;
 import com.leonside.dataroad.flink.context.FlinkExecuteContext;
 import com.leonside.dataroad.flink.reader.inputformat.GenericInputFormatSourceFunction;
+import com.leonside.dataroad.flink.reader.inputformat.GenericRichInputFormat;
+import com.leonside.dataroad.flink.reader.source.InputFormatSource;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.flink.api.common.RuntimeExecutionMode;
+import org.apache.flink.api.common.eventtime.WatermarkStrategy;
 import org.apache.flink.api.common.io.InputFormat;
 import org.apache.flink.api.common.typeinfo.TypeInformation;
 import org.apache.flink.api.java.typeutils.TypeExtractor;
@@ -50,6 +54,8 @@ public abstract class BaseItemReader extends ComponentNameSupport {
 
     protected long bytes = Long.MAX_VALUE;
 
+    protected long records = Long.MAX_VALUE;
+
     protected String monitorUrls;
 
     protected RestoreConfig restoreConfig;
@@ -76,9 +82,10 @@ public abstract class BaseItemReader extends ComponentNameSupport {
 
     public void doInitialize(FlinkExecuteContext executeContext, BaseConfig baseConfig) {
         this.env = executeContext.getEnvironment();
-        this.numPartitions = Math.max(executeContext.getJobSetting().getSpeed().getChannel(),
-                executeContext.getJobSetting().getSpeed().getReaderChannel());
+        this.numPartitions = operatorConfig != null && operatorConfig.getParallelism() != null ? operatorConfig.getParallelism()
+                : Math.max(executeContext.getJobSetting().getSpeed().getChannel(), executeContext.getJobSetting().getSpeed().getReaderChannel());
         this.bytes = executeContext.getJobSetting().getSpeed().getBytes();
+        this.records = executeContext.getJobSetting().getSpeed().getRecords();
 //        this.monitorUrls = executeContext.getJobSetting().getMonitorUrls();
         this.restoreConfig = executeContext.getJobSetting().getRestore();
 
@@ -100,22 +107,52 @@ public abstract class BaseItemReader extends ComponentNameSupport {
     }
 
     protected DataStream<Row> createInput(FlinkExecuteContext executeContext, InputFormat inputFormat) {
-        return createInput(executeContext,inputFormat,null, this.getClass().getSimpleName().toLowerCase());
+        return createInput(executeContext,inputFormat,null, getSourceName());
     }
 
     protected DataStream<Row> createInput(FlinkExecuteContext executeContext, InputFormat inputFormat, TypeInformation typeInfo) {
-        return createInput(executeContext,inputFormat,typeInfo,this.getClass().getSimpleName().toLowerCase());
+        return createInput(executeContext,inputFormat,typeInfo,getSourceName());
     }
 
 
+    /**
+     * 算子以节点名命名，便于按节点查看指标
+     */
+    private String getSourceName() {
+        return StringUtils.isNotEmpty(name) ? name : this.getClass().getSimpleName().toLowerCase();
+    }
+
     private DataStream<Row> createInput(FlinkExecuteContext executeContext,InputFormat inputFormat,TypeInformation typeInformation, String sourceName) {
         Preconditions.checkNotNull(sourceName);
         Preconditions.checkNotNull(inputFormat);
 
+        //多个content合并执行时按管道名区分各管道的算子及指标
+        if(StringUtils.isNotEmpty(executeContext.getPipelineName())){
+            sourceName = executeContext.getPipelineName() + "-" + sourceName;
+        }
+        if(inputFormat instanceof GenericRichInputFormat){
+            ((GenericRichInputFormat) inputFormat).setPipelineName(executeContext.getPipelineName());
+        }
+
         TypeInformation typeInfo = typeInformation != null ? typeInformation : TypeExtractor.getInputFormatTypes(inputFormat);
-        GenericInputFormatSourceFunction function = new GenericInputFormatSourceFunction(inputFormat, typeInfo);
-        DataStreamSource dataStreamSource = env.addSource(function, sourceName, typeInfo);
-        int readerChannel = executeContext.getJobSetting().getSpeed().getReaderChannel();
+        //节点配置的并行度优先于readerChannel
+        int readerChannel = operatorConfig != null && operatorConfig.getParallelism() != null ? operatorConfig.getParallelism()
+                : executeContext.getJobSetting().getSpeed().getReaderChannel();
+        int prefetchSize = executeContext.getJobSetting().getSpeed().getPrefetchSize();
+        boolean latencyTracking = executeContext.getJobSetting().getMetric().isLatencyTracking();
+        DataStreamSource dataStreamSource;
+        //BATCH模式要求数据源有界，采用FLIP-27 Source
+        if(executeContext.getJobSetting().getSpeed().isDynamicSplit() || executeContext.getRuntimeMode() == RuntimeExecutionMode.BATCH){
+            InputFormatSource source = new InputFormatSource(inputFormat, typeInfo, readerChannel > 0 ? readerChannel : env.getParallelism());
+            source.setPrefetchSize(prefetchSize);
+            source.setLatencyTracking(latencyTracking);
+            dataStreamSource = env.fromSource(source, WatermarkStrategy.noWatermarks(), sourceName, typeInfo);
+        }else{
+            GenericInputFormatSourceFunction function = new GenericInputFormatSourceFunction(inputFormat, typeInfo);
+            function.setPrefetchSize(prefetchSize);
+            function.setLatencyTracking(latencyTracking);
+            dataStreamSource = env.addSource(function, sourceName, typeInfo);
+        }
         return (readerChannel > 0) ? dataStreamSource.setParallelism(readerChannel) : dataStreamSource;
     }
 
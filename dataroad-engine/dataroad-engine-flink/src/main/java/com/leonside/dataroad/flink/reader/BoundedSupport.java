@@ -0,0 +1,14 @@
+package com.leonside.dataroad.flink.reader;
+
+/**
+ * 可声明数据有界的reader，流程的reader有界时任务可按BATCH模式执行
+ * @author leon
+ */
+public interface BoundedSupport {
+
+    /**
+     * 当前配置下读取的数据是否有界
+     * @return 全量读取返回true，实时采集、增量轮询等持续读取返回false
+     */
+    boolean isBounded();
+}
@@ -0,0 +1,29 @@
+package com.leonside.dataroad.flink.reader;
+
+import com.leonside.dataroad.core.planner.ColumnPredicate;
+import org.apache.flink.api.common.io.InputFormat;
+import org.apache.flink.api.java.typeutils.RowTypeInfo;
+import org.apache.flink.types.Row;
+
+import java.util.List;
+
+/**
+ * 可作为Flink表源扫描的reader，由SQL引擎下推过滤条件、查询字段及读取条数
+ * @author leon
+ */
+public interface TableScanSupport {
+
+    /**
+     * 表字段名及类型
+     * @return 字段类型未声明或当前配置（如断点续传、增量轮询）不支持按表扫描时返回null
+     */
+    RowTypeInfo getScanRowType();
+
+    /**
+     * 按下推结果创建InputFormat，输出按字段名访问的Row
+     * @param filters 过滤条件，均为AND关系，数据源可仅应用其中部分条件
+     * @param columns 查询字段
+     * @param limit 每个分片读取条数，小于0时不限制
+     */
+    InputFormat<Row, ?> createScanInputFormat(List<ColumnPredicate> filters, List<String> columns, long limit);
+}
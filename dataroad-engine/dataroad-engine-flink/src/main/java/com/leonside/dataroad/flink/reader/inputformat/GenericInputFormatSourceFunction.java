@@ -3,6 +3,7 @@ package com.leonside.dataroad.flink.reader.inputformat;
 
 import com.leonside.dataroad.common.context.RestoreConfig;
 import com.leonside.dataroad.common.utils.ExceptionUtil;
+import com.leonside.dataroad.flink.metric.GlobalAggregates;
 import com.leonside.dataroad.flink.restore.FormatState;
 import org.apache.flink.annotation.Internal;
 import org.apache.flink.api.common.io.InputFormat;
@@ -23,6 +24,7 @@ import org.apache.flink.runtime.state.FunctionSnapshotContext;
 import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction;
 import org.apache.flink.streaming.api.functions.source.InputFormatSourceFunction;
 import org.apache.flink.streaming.api.operators.StreamingRuntimeContext;
+import org.apache.flink.types.Row;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -59,6 +61,18 @@ public class GenericInputFormatSourceFunction<OUT> extends InputFormatSourceFunc
 
     private boolean isStream;
 
+	private static final long PREFETCH_POLL_TIMEOUT_MILLIS = 100;
+
+	private static final int PREFETCH_EMIT_BATCH_SIZE = 1024;
+
+	private int prefetchSize;
+
+	private boolean latencyTracking;
+
+	private transient InputFormatPrefetcher<OUT> prefetcher;
+
+	private transient volatile OUT lastEmittedRecord;
+
 	@SuppressWarnings("unchecked")
 	public GenericInputFormatSourceFunction(InputFormat<OUT, ?> format, TypeInformation<OUT> typeInfo) {
 		super(format, typeInfo);
@@ -101,6 +115,11 @@ public class GenericInputFormatSourceFunction<OUT> extends InputFormatSourceFunc
 				((RichInputFormat) format).openInputFormat();
 			}
 
+			if (prefetchSize > 0) {
+				runWithPrefetch(ctx, completedSplitsCounter);
+				return;
+			}
+
 			OUT nextElement = serializer.createInstance();
 			while (isRunning) {
 				format.open(splitIterator.next());
@@ -112,13 +131,13 @@ public class GenericInputFormatSourceFunction<OUT> extends InputFormatSourceFunc
 				    if(isStream){
                         nextElement = format.nextRecord(nextElement);
                         if (nextElement != null) {
-                            ctx.collect(nextElement);
+                            emit(ctx, nextElement);
                         }
                     } else {
                         synchronized (ctx.getCheckpointLock()){
                             nextElement = format.nextRecord(nextElement);
                             if (nextElement != null) {
-                                ctx.collect(nextElement);
+                                emit(ctx, nextElement);
                             }
                         }
                     }
@@ -135,6 +154,9 @@ public class GenericInputFormatSourceFunction<OUT> extends InputFormatSourceFunc
 		} finally {
 			isRunning = false;
 			try {
+				if (prefetcher != null) {
+					prefetcher.close();
+				}
 				format.close();
 				if (format instanceof RichInputFormat) {
 					((RichInputFormat) format).closeInputFormat();
@@ -151,8 +173,46 @@ public class GenericInputFormatSourceFunction<OUT> extends InputFormatSourceFunc
 		}
 	}
 
+	/**
+	 * 预读模式：独立线程读取分片写入缓冲队列，当前线程取出记录后在Checkpoint锁内批量下发，
+	 * 网络拉取不再占用Checkpoint锁，断点续传位置以最后下发的记录为准
+	 */
+	private void runWithPrefetch(SourceContext<OUT> ctx, Counter completedSplitsCounter) throws Exception {
+		prefetcher = new InputFormatPrefetcher<>(format, serializer, prefetchSize);
+		while (isRunning) {
+			lastEmittedRecord = null;
+			prefetcher.prefetch(splitIterator.next());
+
+			while (isRunning && !prefetcher.isSplitFinished()) {
+				OUT nextElement = prefetcher.poll(PREFETCH_POLL_TIMEOUT_MILLIS);
+				if (nextElement == null) {
+					continue;
+				}
+				synchronized (ctx.getCheckpointLock()) {
+					for (int i = 0; nextElement != null; i++) {
+						emit(ctx, nextElement);
+						lastEmittedRecord = nextElement;
+						nextElement = i < PREFETCH_EMIT_BATCH_SIZE ? prefetcher.poll(0) : null;
+					}
+				}
+			}
+			lastEmittedRecord = null;
+			completedSplitsCounter.inc();
+
+			if (isRunning) {
+				isRunning = splitIterator.hasNext();
+			}
+		}
+	}
+
+	/**
+	 * 先上报取消状态再停止读取，writer关闭时据此判断是否提交事务
+	 */
 	@Override
 	public void cancel() {
+		if (format instanceof GenericRichInputFormat) {
+			GlobalAggregates.reportCancel(getRuntimeContext(), ((GenericRichInputFormat) format).getPipelineName());
+		}
 		isRunning = false;
 	}
 
@@ -164,6 +224,28 @@ public class GenericInputFormatSourceFunction<OUT> extends InputFormatSourceFunc
 		}
 	}
 
+	/**
+	 * 开启延迟跟踪时以下发时间作为记录时间戳，writer据此统计端到端延迟
+	 */
+	private void emit(SourceContext<OUT> ctx, OUT element) {
+		if (latencyTracking) {
+			ctx.collectWithTimestamp(element, System.currentTimeMillis());
+		} else {
+			ctx.collect(element);
+		}
+	}
+
+	public void setLatencyTracking(boolean latencyTracking) {
+		this.latencyTracking = latencyTracking;
+	}
+
+	/**
+	 * 预读缓冲记录数，大于0时开启预读
+	 */
+	public void setPrefetchSize(int prefetchSize) {
+		this.prefetchSize = prefetchSize;
+	}
+
 	/**
 	 * Returns the {@code InputFormat}. This is only needed because we need to set the input
 	 * split assigner on the {@code StreamGraph}.
@@ -227,7 +309,10 @@ public class GenericInputFormatSourceFunction<OUT> extends InputFormatSourceFunc
 
 	@Override
 	public void snapshotState(FunctionSnapshotContext context) throws Exception {
-        FormatState formatState = ((GenericRichInputFormat) format).getFormatState();
+        //预读模式下按最后下发的记录计算，新分片尚未下发记录时以分片起始状态为准
+        OUT lastEmitted = lastEmittedRecord;
+        FormatState formatState = prefetchSize > 0 ? ((GenericRichInputFormat) format).getFormatState(lastEmitted instanceof Row ? (Row) lastEmitted : null)
+				: ((GenericRichInputFormat) format).getFormatState();
         if (formatState != null){
             LOG.info("InputFormat format state:{}", formatState.toString());
             unionOffsetStates.clear();
@@ -4,9 +4,11 @@ import com.leonside.dataroad.common.context.RestoreConfig;
 import com.leonside.dataroad.common.utils.ExceptionUtil;
 import com.leonside.dataroad.flink.metric.AccumulatorCollector;
 import com.leonside.dataroad.flink.metric.BaseMetric;
+import com.leonside.dataroad.flink.metric.GlobalAggregates;
+import com.leonside.dataroad.flink.metric.LeaseRateLimiter;
 import com.leonside.dataroad.flink.metric.Metrics;
-import com.leonside.dataroad.flink.metric.ByteRateLimiter;
 import com.leonside.dataroad.flink.restore.FormatState;
+import com.leonside.dataroad.flink.utils.RowSizeEstimator;
 import org.apache.flink.api.common.accumulators.LongCounter;
 import org.apache.flink.api.common.io.DefaultInputSplitAssigner;
 import org.apache.flink.api.common.io.RichInputFormat;
@@ -37,7 +39,8 @@ public abstract class GenericRichInputFormat extends RichInputFormat<Row, InputS
     protected LongCounter durationCounter;
     protected String monitorUrls;
     protected long bytes;
-    protected ByteRateLimiter byteRateLimiter;
+    protected long records;
+    protected LeaseRateLimiter rateLimiter;
 
     protected RestoreConfig restoreConfig;
 
@@ -51,6 +54,15 @@ public abstract class GenericRichInputFormat extends RichInputFormat<Row, InputS
 
     protected AccumulatorCollector accumulatorCollector;
 
+    /** 管道名，多个content合并执行时用于区分各管道的累加器 */
+    protected String pipelineName;
+
+    /** 预读缓冲记录数，大于0时读取线程领先于下发记录，见{@link InputFormatPrefetcher} */
+    protected int prefetchSize;
+
+    /** 预读模式下分片起始的断点续传状态（恢复的状态），分片尚未下发记录时快照以此为准 */
+    private volatile FormatState splitStartState;
+
     private boolean inited = false;
 
     private AtomicBoolean isClosed = new AtomicBoolean(false);
@@ -116,6 +128,40 @@ public abstract class GenericRichInputFormat extends RichInputFormat<Row, InputS
         return formatState;
     }
 
+    /**
+     * 按最后下发的记录获取断点续传状态，预读模式下读取线程领先于下发记录，由子类按记录计算读取位置。
+     * 返回分片起始状态的副本，不读取读取线程维护的位置，也不修改共享的formatState
+     *
+     * @param lastEmittedRow 最后下发的记录，尚未下发记录时为null
+     * @return 断点续传状态
+     */
+    public FormatState getFormatState(Row lastEmittedRow) {
+        return getSplitStartState();
+    }
+
+    /**
+     * 记录分片起始的断点续传状态，由发送线程在读取线程打开分片前调用，见{@link InputFormatPrefetcher#prefetch(InputSplit)}
+     */
+    public void markSplitStart() {
+        FormatState state = formatState;
+        splitStartState = state == null ? null : new FormatState(state);
+    }
+
+    /**
+     * @return 分片起始断点续传状态的副本，首个分片打开前尚未创建状态时以空位置为准
+     */
+    protected FormatState getSplitStartState() {
+        FormatState start = splitStartState;
+        if (start == null && (restoreConfig == null || !restoreConfig.isRestore())) {
+            return null;
+        }
+        FormatState state = start != null ? new FormatState(start) : new FormatState(indexOfSubTask, null);
+        if (inputMetric != null) {
+            state.setMetric(inputMetric.getMetricCounters());
+        }
+        return state;
+    }
+
     @Override
     public BaseStatistics getStatistics(BaseStatistics baseStatistics) throws IOException {
         return null;
@@ -133,12 +179,13 @@ public abstract class GenericRichInputFormat extends RichInputFormat<Row, InputS
         if(!inited){
             initAccumulatorCollector();
             initStatisticsAccumulator();
-            openByteRateLimiter();
+            openRateLimiter();
             initRestoreInfo();
 
             if(restoreConfig.isRestore()){
                 formatState.setNumOfSubTask(indexOfSubTask);
             }
+            GlobalAggregates.reportRunning(getRuntimeContext(), pipelineName);
 
             inited = true;
         }
@@ -147,9 +194,9 @@ public abstract class GenericRichInputFormat extends RichInputFormat<Row, InputS
     }
 
     private void initStatisticsAccumulator(){
-        numReadCounter = getRuntimeContext().getLongCounter(Metrics.NUM_READS);
-        bytesReadCounter = getRuntimeContext().getLongCounter(Metrics.READ_BYTES);
-        durationCounter = getRuntimeContext().getLongCounter(Metrics.READ_DURATION);
+        numReadCounter = getRuntimeContext().getLongCounter(getAccumulatorName(Metrics.NUM_READS));
+        bytesReadCounter = getRuntimeContext().getLongCounter(getAccumulatorName(Metrics.READ_BYTES));
+        durationCounter = getRuntimeContext().getLongCounter(getAccumulatorName(Metrics.READ_DURATION));
 
         inputMetric = new BaseMetric(getRuntimeContext());
         inputMetric.addMetric(Metrics.NUM_READS, numReadCounter, true);
@@ -170,21 +217,20 @@ public abstract class GenericRichInputFormat extends RichInputFormat<Row, InputS
         String lastWriteLocation = String.format("%s_%s", Metrics.LAST_WRITE_LOCATION_PREFIX, indexOfSubTask);
         String lastWriteNum = String.format("%s_%s", Metrics.LAST_WRITE_NUM__PREFIX, indexOfSubTask);
 
-        accumulatorCollector = new AccumulatorCollector(jobId, monitorUrls, getRuntimeContext(), 2,
+        accumulatorCollector = new AccumulatorCollector(getRuntimeContext(), 2,
                 Arrays.asList(Metrics.NUM_READS,
                         Metrics.READ_BYTES,
                         Metrics.READ_DURATION,
                         Metrics.WRITE_BYTES,
                         Metrics.NUM_WRITES,
                         lastWriteLocation,
-                        lastWriteNum));
+                        lastWriteNum), pipelineName);
         accumulatorCollector.start();
     }
 
-    private void openByteRateLimiter(){
-        if (this.bytes > 0) {
-            this.byteRateLimiter = new ByteRateLimiter(accumulatorCollector, this.bytes);
-            this.byteRateLimiter.start();
+    private void openRateLimiter(){
+        if (!LeaseRateLimiter.isUnlimited(this.bytes) || !LeaseRateLimiter.isUnlimited(this.records)) {
+            this.rateLimiter = new LeaseRateLimiter(getRuntimeContext(), "read", this.records, this.bytes, false);
         }
     }
 
@@ -210,10 +256,16 @@ public abstract class GenericRichInputFormat extends RichInputFormat<Row, InputS
 
     @Override
     public Row nextRecord(Row row) throws IOException {
-        if(byteRateLimiter != null) {
-            byteRateLimiter.acquire();
+        if(rateLimiter != null) {
+            rateLimiter.acquire(1);
+        }
+        Row internalRow;
+        try {
+            internalRow = doNextRecord(row);
+        } catch (IOException | RuntimeException e) {
+            GlobalAggregates.reportFailure(getRuntimeContext(), pipelineName);
+            throw e;
         }
-        Row internalRow = doNextRecord(row);
         if(internalRow != null){
 //            internalRow = setChannelInformation(internalRow);
 
@@ -221,8 +273,12 @@ public abstract class GenericRichInputFormat extends RichInputFormat<Row, InputS
             if(numReadCounter !=null ){
                 numReadCounter.add(1);
             }
+            long rowBytes = RowSizeEstimator.estimate(internalRow);
             if(bytesReadCounter!=null){
-                bytesReadCounter.add(internalRow.toString().getBytes().length);
+                bytesReadCounter.add(rowBytes);
+            }
+            if(rateLimiter != null) {
+                rateLimiter.consumeBytes(rowBytes);
             }
         }
 
@@ -273,18 +329,10 @@ public abstract class GenericRichInputFormat extends RichInputFormat<Row, InputS
             updateDuration();
         }
 
-        if(byteRateLimiter != null){
-            byteRateLimiter.stop();
-        }
-
         if(accumulatorCollector != null){
             accumulatorCollector.close();
         }
 
-        if(inputMetric != null){
-            inputMetric.waitForReportMetrics();
-        }
-
         isClosed.set(true);
         LOG.info("subtask input close finished");
     }
@@ -300,6 +348,25 @@ public abstract class GenericRichInputFormat extends RichInputFormat<Row, InputS
         return restoreConfig;
     }
 
+    public void setPipelineName(String pipelineName) {
+        this.pipelineName = pipelineName;
+    }
+
+    public String getPipelineName() {
+        return pipelineName;
+    }
+
+    public void setPrefetchSize(int prefetchSize) {
+        this.prefetchSize = prefetchSize;
+    }
+
+    /**
+     * @return 按管道区分的累加器名
+     */
+    protected String getAccumulatorName(String name) {
+        return Metrics.getAccumulatorName(pipelineName, name);
+    }
+
     public void setRestoreState(FormatState formatState) {
         this.formatState = formatState;
     }
@@ -25,6 +25,11 @@ public abstract class GenericRichInputFormatBuilder<T extends GenericRichInputFo
         return (R) this;
     }
 
+    public R setRecords(long records) {
+        format.records = records;
+        return (R) this;
+    }
+
     public R setRestoreConfig(RestoreConfig restoreConfig){
         format.restoreConfig = restoreConfig;
         return (R) this;
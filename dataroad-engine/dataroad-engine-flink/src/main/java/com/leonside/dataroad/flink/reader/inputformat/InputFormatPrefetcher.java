@@ -0,0 +1,168 @@
+package com.leonside.dataroad.flink.reader.inputformat;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.flink.api.common.io.InputFormat;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.core.io.InputSplit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * InputFormat预读：独立读取线程打开分片并持续读取记录写入有界缓冲队列，发送线程从队列取出记录下发，
+ * 使JDBC ResultSet.next()的网络拉取、ES scroll翻页与下游处理重叠执行。
+ * 读取线程领先于发送线程，断点续传位置须以发送线程最后发送的记录计算，见{@link GenericRichInputFormat#getFormatState(org.apache.flink.types.Row)}。
+ * @author leon
+ */
+public class InputFormatPrefetcher<OUT> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InputFormatPrefetcher.class);
+
+    private static final Object END_OF_SPLIT = new Object();
+
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private final InputFormat<OUT, InputSplit> format;
+
+    private final TypeSerializer<OUT> serializer;
+
+    private final BlockingQueue<Object> queue;
+
+    private final ExecutorService executorService;
+
+    private volatile boolean running = true;
+
+    private volatile Throwable error;
+
+    private volatile CompletableFuture<Void> availability = new CompletableFuture<>();
+
+    private Future<?> prefetchFuture;
+
+    private boolean splitFinished = true;
+
+    public InputFormatPrefetcher(InputFormat<OUT, InputSplit> format, TypeSerializer<OUT> serializer, int prefetchSize) {
+        this.format = format;
+        this.serializer = serializer;
+        this.queue = new ArrayBlockingQueue<>(prefetchSize);
+        if (format instanceof GenericRichInputFormat) {
+            ((GenericRichInputFormat) format).setPrefetchSize(prefetchSize);
+        }
+        this.executorService = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                new BasicThreadFactory.Builder().namingPattern("InputFormatPrefetcherThread-%d").daemon(true).build());
+    }
+
+    /**
+     * 在读取线程中打开分片并开始预读，分片读取完毕后关闭分片。
+     * 读取线程启动前记录分片起始状态，分片尚未下发记录时的快照以此为准
+     */
+    public void prefetch(InputSplit split) {
+        splitFinished = false;
+        if (format instanceof GenericRichInputFormat) {
+            ((GenericRichInputFormat) format).markSplitStart();
+        }
+        prefetchFuture = executorService.submit(() -> {
+            try {
+                format.open(split);
+                while (running && !format.reachedEnd()) {
+                    OUT record = format.nextRecord(serializer.createInstance());
+                    if (record != null) {
+                        put(record);
+                    }
+                }
+            } catch (Throwable e) {
+                LOG.error("prefetch input split [{}] error", split, e);
+                error = e;
+            } finally {
+                closeSplit(split);
+                put(END_OF_SPLIT);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 取出一条预读记录
+     * @param timeoutMillis 队列为空时的等待时间，0为不等待
+     * @return 记录，暂无数据或当前分片已读取完毕时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public OUT poll(long timeoutMillis) throws IOException, InterruptedException {
+        if (splitFinished) {
+            return null;
+        }
+        Object element = timeoutMillis > 0 ? queue.poll(timeoutMillis, TimeUnit.MILLISECONDS) : queue.poll();
+        if (element == END_OF_SPLIT) {
+            splitFinished = true;
+            checkError();
+            return null;
+        }
+        return (OUT) element;
+    }
+
+    /**
+     * 当前分片是否已读取并发送完毕
+     */
+    public boolean isSplitFinished() {
+        return splitFinished;
+    }
+
+    /**
+     * 队列中有记录（或分片结束标记）时完成的Future，供FLIP-27读取任务等待数据
+     */
+    public CompletableFuture<Void> isAvailable() {
+        if (availability.isDone()) {
+            availability = new CompletableFuture<>();
+        }
+        if (splitFinished || !queue.isEmpty()) {
+            availability.complete(null);
+        }
+        return availability;
+    }
+
+    /**
+     * 停止预读并等待读取线程退出
+     */
+    public void close() {
+        running = false;
+        queue.clear();
+        if (prefetchFuture != null) {
+            try {
+                prefetchFuture.get();
+            } catch (Exception e) {
+                LOG.warn("wait for prefetcher to stop error", e);
+            }
+        }
+        executorService.shutdownNow();
+    }
+
+    private void closeSplit(InputSplit split) {
+        try {
+            format.close();
+        } catch (Throwable e) {
+            LOG.error("close input split [{}] error", split, e);
+            error = error == null ? e : error;
+        }
+    }
+
+    private void put(Object element) throws InterruptedException {
+        while (running && !queue.offer(element, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            //队列已满，等待发送线程消费
+        }
+        availability.complete(null);
+    }
+
+    private void checkError() throws IOException {
+        if (error != null) {
+            throw new IOException("prefetch input split error", error);
+        }
+    }
+}
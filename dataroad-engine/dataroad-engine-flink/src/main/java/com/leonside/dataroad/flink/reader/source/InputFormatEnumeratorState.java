@@ -0,0 +1,25 @@
+package com.leonside.dataroad.flink.reader.source;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 分片分配器Checkpoint状态：尚未分配给读取任务的分片
+ * @author leon
+ */
+public class InputFormatEnumeratorState implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<InputFormatSplit> pendingSplits;
+
+    public InputFormatEnumeratorState(Collection<InputFormatSplit> pendingSplits) {
+        this.pendingSplits = new ArrayList<>(pendingSplits);
+    }
+
+    public List<InputFormatSplit> getPendingSplits() {
+        return pendingSplits;
+    }
+}
@@ -0,0 +1,107 @@
+package com.leonside.dataroad.flink.reader.source;
+
+import com.leonside.dataroad.common.context.RestoreConfig;
+import com.leonside.dataroad.flink.reader.inputformat.GenericRichInputFormat;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.io.InputFormat;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.connector.source.Boundedness;
+import org.apache.flink.api.connector.source.Source;
+import org.apache.flink.api.connector.source.SourceReader;
+import org.apache.flink.api.connector.source.SourceReaderContext;
+import org.apache.flink.api.connector.source.SplitEnumerator;
+import org.apache.flink.api.connector.source.SplitEnumeratorContext;
+import org.apache.flink.api.java.typeutils.ResultTypeQueryable;
+import org.apache.flink.core.io.InputSplit;
+import org.apache.flink.core.io.SimpleVersionedSerializer;
+
+/**
+ * 基于FLIP-27 Source接口的InputFormat读取源：分片由JobManager端分片分配器按读取任务请求动态分配，
+ * 分片及其FormatState随Checkpoint持久化，替代GenericInputFormatSourceFunction的union list state
+ * @author leon
+ */
+public class InputFormatSource<OUT> implements Source<OUT, InputFormatSplit, InputFormatEnumeratorState>, ResultTypeQueryable<OUT> {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private final InputFormat<OUT, InputSplit> format;
+
+    private final TypeInformation<OUT> typeInfo;
+
+    private final int parallelism;
+
+    private final int batchSize;
+
+    private int prefetchSize;
+
+    private boolean latencyTracking;
+
+    public InputFormatSource(InputFormat<OUT, ?> format, TypeInformation<OUT> typeInfo, int parallelism) {
+        this(format, typeInfo, parallelism, DEFAULT_BATCH_SIZE);
+    }
+
+    @SuppressWarnings("unchecked")
+    public InputFormatSource(InputFormat<OUT, ?> format, TypeInformation<OUT> typeInfo, int parallelism, int batchSize) {
+        this.format = (InputFormat<OUT, InputSplit>) format;
+        this.typeInfo = typeInfo;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 预读缓冲记录数，大于0时由独立线程预读
+     */
+    public void setPrefetchSize(int prefetchSize) {
+        this.prefetchSize = prefetchSize;
+    }
+
+    /**
+     * 开启延迟跟踪时以下发时间作为记录时间戳
+     */
+    public void setLatencyTracking(boolean latencyTracking) {
+        this.latencyTracking = latencyTracking;
+    }
+
+    @Override
+    public Boundedness getBoundedness() {
+        if (format instanceof GenericRichInputFormat) {
+            RestoreConfig restoreConfig = ((GenericRichInputFormat) format).getRestoreConfig();
+            if (restoreConfig != null && restoreConfig.isStream()) {
+                return Boundedness.CONTINUOUS_UNBOUNDED;
+            }
+        }
+        return Boundedness.BOUNDED;
+    }
+
+    @Override
+    public SourceReader<OUT, InputFormatSplit> createReader(SourceReaderContext readerContext) {
+        return new InputFormatSourceReader<>(readerContext, format, typeInfo.createSerializer(new ExecutionConfig()), parallelism, batchSize, prefetchSize, latencyTracking);
+    }
+
+    @Override
+    public SplitEnumerator<InputFormatSplit, InputFormatEnumeratorState> createEnumerator(SplitEnumeratorContext<InputFormatSplit> enumContext) {
+        return new InputFormatSplitEnumerator(enumContext, format, null);
+    }
+
+    @Override
+    public SplitEnumerator<InputFormatSplit, InputFormatEnumeratorState> restoreEnumerator(SplitEnumeratorContext<InputFormatSplit> enumContext, InputFormatEnumeratorState checkpoint) {
+        return new InputFormatSplitEnumerator(enumContext, format, checkpoint);
+    }
+
+    @Override
+    public SimpleVersionedSerializer<InputFormatSplit> getSplitSerializer() {
+        return new JavaSerializationSerializer<>();
+    }
+
+    @Override
+    public SimpleVersionedSerializer<InputFormatEnumeratorState> getEnumeratorCheckpointSerializer() {
+        return new JavaSerializationSerializer<>();
+    }
+
+    @Override
+    public TypeInformation<OUT> getProducedType() {
+        return typeInfo;
+    }
+}
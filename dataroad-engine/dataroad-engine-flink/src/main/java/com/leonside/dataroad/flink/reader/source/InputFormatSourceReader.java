@@ -0,0 +1,280 @@
+package com.leonside.dataroad.flink.reader.source;
+
+import com.leonside.dataroad.common.context.RestoreConfig;
+import com.leonside.dataroad.flink.metric.Metrics;
+import com.leonside.dataroad.flink.reader.inputformat.GenericRichInputFormat;
+import com.leonside.dataroad.flink.reader.inputformat.InputFormatPrefetcher;
+import com.leonside.dataroad.flink.restore.FormatState;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.TaskInfo;
+import org.apache.flink.api.common.functions.util.RuntimeUDFContext;
+import org.apache.flink.api.common.io.InputFormat;
+import org.apache.flink.api.common.io.RichInputFormat;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.connector.source.ReaderOutput;
+import org.apache.flink.api.connector.source.SourceReader;
+import org.apache.flink.api.connector.source.SourceReaderContext;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.core.io.InputSplit;
+import org.apache.flink.core.io.InputStatus;
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.types.Row;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * InputFormat读取任务：按需向分片分配器请求分片，每次pollNext批量读取至多batchSize条记录。
+ * pollNext与Checkpoint均在任务主线程（mailbox）中执行，批次之间即为一致的快照点，无需逐条记录加Checkpoint锁；
+ * 快照时当前分片携带InputFormat的FormatState一并持久化，恢复后从断点继续读取。
+ * 开启预读时由{@link InputFormatPrefetcher}在独立线程读取，快照按最后下发的记录计算FormatState。
+ * @author leon
+ */
+public class InputFormatSourceReader<OUT> implements SourceReader<OUT, InputFormatSplit> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InputFormatSourceReader.class);
+
+    private final SourceReaderContext context;
+
+    private final InputFormat<OUT, InputSplit> format;
+
+    private final TypeSerializer<OUT> serializer;
+
+    private final int parallelism;
+
+    private final int batchSize;
+
+    private final int prefetchSize;
+
+    private final boolean latencyTracking;
+
+    private InputFormatPrefetcher<OUT> prefetcher;
+
+    private OUT lastEmittedRecord;
+
+    private final Queue<InputFormatSplit> pendingSplits = new ArrayDeque<>();
+
+    private InputFormatSplit currentSplit;
+
+    private OUT reuse;
+
+    private boolean formatOpened;
+
+    private boolean splitRequested;
+
+    private boolean noMoreSplits;
+
+    private CompletableFuture<Void> availability = new CompletableFuture<>();
+
+    private Counter completedSplitsCounter;
+
+    public InputFormatSourceReader(SourceReaderContext context, InputFormat<OUT, InputSplit> format, TypeSerializer<OUT> serializer, int parallelism, int batchSize, int prefetchSize, boolean latencyTracking) {
+        this.context = context;
+        this.format = format;
+        this.serializer = serializer;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+        this.prefetchSize = prefetchSize;
+        this.latencyTracking = latencyTracking;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void start() {
+        if (format instanceof RichInputFormat) {
+            ((RichInputFormat) format).setRuntimeContext(createRuntimeContext());
+        }
+        format.configure(new Configuration());
+
+        completedSplitsCounter = context.metricGroup().counter("numSplitsProcessed");
+        reuse = serializer.createInstance();
+        if (prefetchSize > 0) {
+            prefetcher = new InputFormatPrefetcher<>(format, serializer, prefetchSize);
+        }
+
+        if (pendingSplits.isEmpty()) {
+            requestSplit();
+        }
+    }
+
+    @Override
+    public InputStatus pollNext(ReaderOutput<OUT> output) throws Exception {
+        if (currentSplit == null && !openNextSplit()) {
+            return finishedOrWaiting();
+        }
+
+        if (prefetcher != null) {
+            return pollPrefetched(output);
+        }
+
+        for (int i = 0; i < batchSize; i++) {
+            if (format.reachedEnd()) {
+                finishCurrentSplit();
+                return pendingSplits.isEmpty() ? finishedOrWaiting() : InputStatus.MORE_AVAILABLE;
+            }
+
+            OUT nextElement = format.nextRecord(reuse);
+            if (nextElement == null) {
+                //暂无数据（如实时采集），结束本批次让出主线程
+                break;
+            }
+            emit(output, nextElement);
+        }
+        return InputStatus.MORE_AVAILABLE;
+    }
+
+    @Override
+    public List<InputFormatSplit> snapshotState(long checkpointId) {
+        List<InputFormatSplit> splits = new ArrayList<>(pendingSplits.size() + 1);
+        if (currentSplit != null) {
+            FormatState formatState = null;
+            if (format instanceof GenericRichInputFormat) {
+                //预读模式下按最后下发的记录计算，新分片尚未下发记录时以分片起始状态为准
+                formatState = prefetcher != null ? ((GenericRichInputFormat) format).getFormatState((Row) lastEmittedRecord)
+                        : ((GenericRichInputFormat) format).getFormatState();
+            }
+            splits.add(new InputFormatSplit(currentSplit.getSplitNumber(), currentSplit.getInputSplit(), formatState));
+        }
+        splits.addAll(pendingSplits);
+        return splits;
+    }
+
+    @Override
+    public CompletableFuture<Void> isAvailable() {
+        //预读分片读取中时等待预读队列数据
+        return currentSplit != null && prefetcher != null ? prefetcher.isAvailable() : availability;
+    }
+
+    @Override
+    public void addSplits(List<InputFormatSplit> splits) {
+        pendingSplits.addAll(splits);
+        splitRequested = false;
+        availability.complete(null);
+    }
+
+    @Override
+    public void notifyNoMoreSplits() {
+        noMoreSplits = true;
+        availability.complete(null);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void close() throws Exception {
+        //已读取完毕的分片已关闭，预读模式下分片由读取线程关闭
+        if (prefetcher != null) {
+            prefetcher.close();
+        } else if (currentSplit != null) {
+            format.close();
+        }
+        if (formatOpened && format instanceof RichInputFormat) {
+            ((RichInputFormat) format).closeInputFormat();
+        }
+    }
+
+    private boolean openNextSplit() throws Exception {
+        InputFormatSplit split = pendingSplits.poll();
+        if (split == null) {
+            requestSplit();
+            return false;
+        }
+
+        if (!formatOpened) {
+            if (format instanceof RichInputFormat) {
+                ((RichInputFormat) format).openInputFormat();
+            }
+            formatOpened = true;
+        }
+
+        if (format instanceof GenericRichInputFormat) {
+            RestoreConfig restoreConfig = ((GenericRichInputFormat) format).getRestoreConfig();
+            if (restoreConfig != null && restoreConfig.isRestore()) {
+                FormatState formatState = split.getFormatState() != null ? split.getFormatState() : new FormatState(context.getIndexOfSubtask(), null);
+                ((GenericRichInputFormat) format).setRestoreState(formatState);
+            }
+        }
+
+        LOG.info("Open input split {}", split);
+        lastEmittedRecord = null;
+        if (prefetcher != null) {
+            prefetcher.prefetch(split.getInputSplit());
+        } else {
+            format.open(split.getInputSplit());
+        }
+        currentSplit = split;
+        return true;
+    }
+
+    private InputStatus pollPrefetched(ReaderOutput<OUT> output) throws Exception {
+        for (int i = 0; i < batchSize; i++) {
+            OUT nextElement = prefetcher.poll(0);
+            if (nextElement == null) {
+                if (prefetcher.isSplitFinished()) {
+                    finishCurrentSplit();
+                    return pendingSplits.isEmpty() ? finishedOrWaiting() : InputStatus.MORE_AVAILABLE;
+                }
+                //预读队列暂无数据，等待读取线程
+                return i == 0 ? InputStatus.NOTHING_AVAILABLE : InputStatus.MORE_AVAILABLE;
+            }
+            emit(output, nextElement);
+            lastEmittedRecord = nextElement;
+        }
+        return InputStatus.MORE_AVAILABLE;
+    }
+
+    private void emit(ReaderOutput<OUT> output, OUT element) {
+        if (latencyTracking) {
+            output.collect(element, System.currentTimeMillis());
+        } else {
+            output.collect(element);
+        }
+    }
+
+    private void finishCurrentSplit() throws Exception {
+        //预读模式下分片由读取线程关闭
+        if (prefetcher == null) {
+            format.close();
+        }
+        completedSplitsCounter.inc();
+        currentSplit = null;
+        lastEmittedRecord = null;
+        if (pendingSplits.isEmpty()) {
+            requestSplit();
+        }
+    }
+
+    private InputStatus finishedOrWaiting() {
+        if (noMoreSplits && pendingSplits.isEmpty()) {
+            return InputStatus.END_OF_INPUT;
+        }
+        if (availability.isDone()) {
+            availability = new CompletableFuture<>();
+        }
+        return InputStatus.NOTHING_AVAILABLE;
+    }
+
+    private void requestSplit() {
+        if (!splitRequested && !noMoreSplits) {
+            splitRequested = true;
+            context.sendSplitRequest();
+        }
+    }
+
+    /**
+     * SourceReader无StreamingRuntimeContext，基于读取任务上下文构建运行时上下文，供GenericRichInputFormat注册指标及累加器。
+     * 累加器仅在本地累计，不汇总至JobManager。
+     */
+    private RuntimeUDFContext createRuntimeContext() {
+        String taskName = context.metricGroup().getAllVariables().getOrDefault(Metrics.TASK_NAME, "InputFormatSource");
+        TaskInfo taskInfo = new TaskInfo(taskName, Math.max(parallelism, context.getIndexOfSubtask() + 1),
+                context.getIndexOfSubtask(), Math.max(parallelism, context.getIndexOfSubtask() + 1), 0);
+        return new RuntimeUDFContext(taskInfo, context.getUserCodeClassLoader().asClassLoader(), new ExecutionConfig(),
+                new HashMap<>(), new HashMap<>(), context.metricGroup());
+    }
+}
@@ -0,0 +1,54 @@
+package com.leonside.dataroad.flink.reader.source;
+
+import com.leonside.dataroad.flink.restore.FormatState;
+import org.apache.flink.api.connector.source.SourceSplit;
+import org.apache.flink.core.io.InputSplit;
+
+import java.io.Serializable;
+
+/**
+ * InputFormat分片，包装InputFormat创建的InputSplit及该分片的断点续传状态，随Checkpoint持久化
+ * @author leon
+ */
+public class InputFormatSplit implements SourceSplit, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int splitNumber;
+
+    private final InputSplit inputSplit;
+
+    private final FormatState formatState;
+
+    public InputFormatSplit(int splitNumber, InputSplit inputSplit, FormatState formatState) {
+        this.splitNumber = splitNumber;
+        this.inputSplit = inputSplit;
+        this.formatState = formatState;
+    }
+
+    public int getSplitNumber() {
+        return splitNumber;
+    }
+
+    public InputSplit getInputSplit() {
+        return inputSplit;
+    }
+
+    public FormatState getFormatState() {
+        return formatState;
+    }
+
+    @Override
+    public String splitId() {
+        return String.valueOf(splitNumber);
+    }
+
+    @Override
+    public String toString() {
+        return "InputFormatSplit{" +
+                "splitNumber=" + splitNumber +
+                ", inputSplit=" + inputSplit +
+                ", formatState=" + formatState +
+                '}';
+    }
+}
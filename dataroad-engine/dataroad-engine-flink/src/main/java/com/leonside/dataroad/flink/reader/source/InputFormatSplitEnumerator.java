@@ -0,0 +1,89 @@
+package com.leonside.dataroad.flink.reader.source;
+
+import org.apache.flink.api.common.io.InputFormat;
+import org.apache.flink.api.connector.source.SplitEnumerator;
+import org.apache.flink.api.connector.source.SplitEnumeratorContext;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.core.io.InputSplit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 分片分配器：启动时由InputFormat创建分片，读取任务空闲时按请求逐个分配，分配完毕后通知读取任务结束
+ * @author leon
+ */
+public class InputFormatSplitEnumerator implements SplitEnumerator<InputFormatSplit, InputFormatEnumeratorState> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InputFormatSplitEnumerator.class);
+
+    private final SplitEnumeratorContext<InputFormatSplit> context;
+
+    private final InputFormat<?, InputSplit> format;
+
+    private Deque<InputFormatSplit> pendingSplits;
+
+    public InputFormatSplitEnumerator(SplitEnumeratorContext<InputFormatSplit> context, InputFormat<?, InputSplit> format, @Nullable InputFormatEnumeratorState state) {
+        this.context = context;
+        this.format = format;
+        this.pendingSplits = state == null ? null : new ArrayDeque<>(state.getPendingSplits());
+    }
+
+    @Override
+    public void start() {
+        if (pendingSplits != null) {
+            LOG.info("Restored {} pending input splits", pendingSplits.size());
+            return;
+        }
+
+        try {
+            format.configure(new Configuration());
+            InputSplit[] inputSplits = format.createInputSplits(context.currentParallelism());
+            pendingSplits = new ArrayDeque<>(inputSplits.length);
+            for (int i = 0; i < inputSplits.length; i++) {
+                pendingSplits.add(new InputFormatSplit(i, inputSplits[i], null));
+            }
+            LOG.info("Created {} input splits", inputSplits.length);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create input splits.", e);
+        }
+    }
+
+    @Override
+    public void handleSplitRequest(int subtaskId, @Nullable String requesterHostname) {
+        InputFormatSplit split = pendingSplits.poll();
+        if (split != null) {
+            LOG.info("Assign input split {} to subtask {}", split.splitId(), subtaskId);
+            context.assignSplit(split, subtaskId);
+        } else {
+            context.signalNoMoreSplits(subtaskId);
+        }
+    }
+
+    @Override
+    public void addSplitsBack(List<InputFormatSplit> splits, int subtaskId) {
+        LOG.info("Add back {} input splits of subtask {}", splits.size(), subtaskId);
+        for (int i = splits.size() - 1; i >= 0; i--) {
+            pendingSplits.addFirst(splits.get(i));
+        }
+    }
+
+    @Override
+    public void addReader(int subtaskId) {
+        //读取任务启动后主动请求分片
+    }
+
+    @Override
+    public InputFormatEnumeratorState snapshotState(long checkpointId) {
+        return new InputFormatEnumeratorState(pendingSplits);
+    }
+
+    @Override
+    public void close() {
+    }
+}
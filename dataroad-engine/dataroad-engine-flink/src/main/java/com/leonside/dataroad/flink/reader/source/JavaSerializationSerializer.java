@@ -0,0 +1,38 @@
+package com.leonside.dataroad.flink.reader.source;
+
+import org.apache.flink.core.io.SimpleVersionedSerializer;
+import org.apache.flink.util.InstantiationUtil;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * 基于Java序列化的分片及分配器状态序列化器，InputSplit、FormatState均为Serializable
+ * @author leon
+ */
+public class JavaSerializationSerializer<T extends Serializable> implements SimpleVersionedSerializer<T> {
+
+    private static final int VERSION = 1;
+
+    @Override
+    public int getVersion() {
+        return VERSION;
+    }
+
+    @Override
+    public byte[] serialize(T obj) throws IOException {
+        return InstantiationUtil.serializeObject(obj);
+    }
+
+    @Override
+    public T deserialize(int version, byte[] serialized) throws IOException {
+        if (version != VERSION) {
+            throw new IOException("Unrecognized version: " + version);
+        }
+        try {
+            return InstantiationUtil.deserializeObject(serialized, Thread.currentThread().getContextClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Could not deserialize object.", e);
+        }
+    }
+}
@@ -35,6 +35,16 @@ public class FormatState implements Serializable {
         this.state = state;
     }
 
+    public FormatState(FormatState formatState) {
+        this.numOfSubTask = formatState.numOfSubTask;
+        this.state = formatState.state;
+        this.metric = formatState.metric;
+        this.numberRead = formatState.numberRead;
+        this.numberWrite = formatState.numberWrite;
+        this.jobId = formatState.jobId;
+        this.fileIndex = formatState.fileIndex;
+    }
+
     public String getJobId() {
         return jobId;
     }
@@ -0,0 +1,67 @@
+package com.leonside.dataroad.flink.utils;
+
+import com.leonside.dataroad.common.context.OperatorConfig;
+import com.leonside.dataroad.flink.processor.aggeration.typeutils.KeyByRowSelector;
+import org.apache.flink.streaming.api.datastream.DataStream;
+import org.apache.flink.streaming.api.datastream.DataStreamSink;
+import org.apache.flink.streaming.api.datastream.SingleOutputStreamOperator;
+import org.apache.flink.types.Row;
+
+/**
+ * 节点算子配置工具，按{@link OperatorConfig}对输入分区、设置算子并行度、算子链及slot共享组
+ * @author leon
+ */
+public class OperatorConfigUtils {
+
+    /**
+     * 对节点输入分区，hash分区按partitionKeys字段值分组
+     */
+    public static DataStream<Row> partition(DataStream<Row> dataStream, OperatorConfig operatorConfig){
+        if(operatorConfig == null || operatorConfig.getPartitioning() == null){
+            return dataStream;
+        }
+        switch (operatorConfig.getPartitioning()){
+            case OperatorConfig.PARTITIONING_REBALANCE:
+                return dataStream.rebalance();
+            case OperatorConfig.PARTITIONING_RESCALE:
+                return dataStream.rescale();
+            case OperatorConfig.PARTITIONING_HASH:
+                KeyByRowSelector keySelector = KeyByRowSelector.of(operatorConfig.getPartitionKeys());
+                return dataStream.keyBy(keySelector, keySelector.createKeyType(dataStream.getType()));
+            default:
+                throw new IllegalArgumentException("unsupported partitioning [" + operatorConfig.getPartitioning() + "]");
+        }
+    }
+
+    public static <T> SingleOutputStreamOperator<T> configure(SingleOutputStreamOperator<T> operator, OperatorConfig operatorConfig){
+        if(operatorConfig == null){
+            return operator;
+        }
+        if(operatorConfig.getParallelism() != null){
+            operator.setParallelism(operatorConfig.getParallelism());
+        }
+        if(Boolean.FALSE.equals(operatorConfig.getChain())){
+            operator.disableChaining();
+        }
+        if(operatorConfig.getSlotSharingGroup() != null){
+            operator.slotSharingGroup(operatorConfig.getSlotSharingGroup());
+        }
+        return operator;
+    }
+
+    public static <T> DataStreamSink<T> configure(DataStreamSink<T> sink, OperatorConfig operatorConfig){
+        if(operatorConfig == null){
+            return sink;
+        }
+        if(operatorConfig.getParallelism() != null){
+            sink.setParallelism(operatorConfig.getParallelism());
+        }
+        if(Boolean.FALSE.equals(operatorConfig.getChain())){
+            sink.disableChaining();
+        }
+        if(operatorConfig.getSlotSharingGroup() != null){
+            sink.slotSharingGroup(operatorConfig.getSlotSharingGroup());
+        }
+        return sink;
+    }
+}
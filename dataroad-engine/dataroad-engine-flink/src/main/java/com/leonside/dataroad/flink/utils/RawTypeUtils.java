@@ -2,6 +2,7 @@ package com.leonside.dataroad.flink.utils;
 
 import com.leonside.dataroad.common.domain.MetaColumn;
 import com.leonside.dataroad.common.exception.JobConfigException;
+import com.leonside.dataroad.common.script.FieldTypeAware;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.flink.api.common.typeinfo.TypeInfo;
@@ -10,6 +11,7 @@ import org.apache.flink.api.java.typeutils.RowTypeInfo;
 import org.apache.flink.table.types.DataType;
 import org.apache.flink.table.types.utils.TypeConversions;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -28,4 +30,15 @@ public class RawTypeUtils {
         return new RowTypeInfo(types, names);
     }
 
+    /**
+     * 按上游行类型绑定字段类型，非RowTypeInfo时不绑定
+     */
+    public static void bindFieldTypes(Object target, TypeInformation typeInfo) {
+        if(target instanceof FieldTypeAware && typeInfo instanceof RowTypeInfo){
+            RowTypeInfo rowTypeInfo = (RowTypeInfo) typeInfo;
+            Class<?>[] fieldTypes = Arrays.stream(rowTypeInfo.getFieldTypes()).map(TypeInformation::getTypeClass).toArray(Class<?>[]::new);
+            ((FieldTypeAware) target).bindFieldTypes(rowTypeInfo.getFieldNames(), fieldTypes);
+        }
+    }
+
 }
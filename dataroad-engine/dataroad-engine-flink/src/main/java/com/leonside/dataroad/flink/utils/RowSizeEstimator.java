@@ -0,0 +1,96 @@
+package com.leonside.dataroad.flink.utils;
+
+import org.apache.flink.types.Row;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.temporal.Temporal;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Row字节数估算：按字段值类型累加近似序列化字节数，用于读写字节数指标（READ_BYTES/WRITE_BYTES）及字节限速，
+ * 代替row.toString().getBytes()逐行生成字符串并编码的开销。
+ * 定长类型按二进制长度计算，字符串按字符数计算（不做UTF-8编码），嵌套Row递归计算，其余类型按固定长度估算。
+ * @author leon
+ */
+public class RowSizeEstimator {
+
+    /**
+     * 每个字段的空值标记/分隔开销
+     */
+    private static final int FIELD_OVERHEAD = 1;
+
+    /**
+     * 无法估算类型（集合元素、自定义对象等）的默认长度
+     */
+    private static final int DEFAULT_SIZE = 16;
+
+    private RowSizeEstimator() {
+    }
+
+    public static long estimate(Row row) {
+        if (row == null) {
+            return 0;
+        }
+        long size = 0;
+        Set<String> fieldNames = row.getFieldNames(false);
+        if (fieldNames != null) {
+            for (String fieldName : fieldNames) {
+                size += FIELD_OVERHEAD + estimate(row.getField(fieldName));
+            }
+        } else {
+            int arity = row.getArity();
+            for (int i = 0; i < arity; i++) {
+                size += FIELD_OVERHEAD + estimate(row.getField(i));
+            }
+        }
+        return size;
+    }
+
+    public static long estimate(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String) {
+            return ((String) value).length();
+        }
+        if (value instanceof Integer || value instanceof Float) {
+            return 4;
+        }
+        if (value instanceof Long || value instanceof Double) {
+            return 8;
+        }
+        if (value instanceof Short || value instanceof Character) {
+            return 2;
+        }
+        if (value instanceof Boolean || value instanceof Byte) {
+            return 1;
+        }
+        if (value instanceof BigDecimal) {
+            //precision为十进制位数，约每2.4位一个字节，另加scale 4字节
+            return 4 + (((BigDecimal) value).precision() * 27 >> 6) + 1;
+        }
+        if (value instanceof BigInteger) {
+            return (((BigInteger) value).bitLength() >> 3) + 1;
+        }
+        if (value instanceof Date || value instanceof Temporal) {
+            return 12;
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        }
+        if (value instanceof Row) {
+            return estimate((Row) value);
+        }
+        if (value instanceof Collection) {
+            return (long) ((Collection<?>) value).size() * DEFAULT_SIZE;
+        }
+        if (value instanceof Map) {
+            return (long) ((Map<?, ?>) value).size() * DEFAULT_SIZE * 2;
+        }
+        return DEFAULT_SIZE;
+    }
+}
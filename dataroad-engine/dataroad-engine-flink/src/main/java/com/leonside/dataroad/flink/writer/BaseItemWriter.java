@@ -1,14 +1,23 @@
 package com.leonside.dataroad.flink.writer;
 
 import com.leonside.dataroad.common.config.BaseConfig;
+import com.leonside.dataroad.common.context.DirtyConfig;
+import com.leonside.dataroad.common.context.MetricConfig;
 import com.leonside.dataroad.common.context.RestoreConfig;
+import com.leonside.dataroad.common.context.SpeedConfig;
 import com.leonside.dataroad.core.component.ComponentInitialization;
 import com.leonside.dataroad.core.component.ComponentNameSupport;
 import com.leonside.dataroad.flink.context.FlinkExecuteContext;
+import com.leonside.dataroad.flink.utils.OperatorConfigUtils;
 import com.leonside.dataroad.flink.writer.outputformat.GenericOutputFormatSinkFunction;
+import com.leonside.dataroad.flink.writer.outputformat.GenericRichOutputFormat;
+import com.leonside.dataroad.flink.writer.outputformat.TwoPhaseCommitOutputFormat;
+import com.leonside.dataroad.flink.writer.outputformat.TwoPhaseCommitOutputFormatSinkFunction;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.flink.api.common.io.OutputFormat;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.datastream.DataStreamSink;
+import org.apache.flink.types.Row;
 import org.apache.flink.util.Preconditions;
 
 import java.util.UUID;
@@ -29,8 +38,20 @@ public abstract class BaseItemWriter extends ComponentNameSupport  {
 
     protected RestoreConfig restoreConfig;
 
+    protected SpeedConfig speed;
+
+    protected DirtyConfig dirty;
+
+    protected MetricConfig metric;
+
+    protected String pipelineName;
+
     public void doInitialize(FlinkExecuteContext executeContext, BaseConfig baseConfig) {
         this.restoreConfig = executeContext.getJobSetting().getRestore();
+        this.speed = executeContext.getJobSetting().getSpeed();
+        this.dirty = executeContext.getJobSetting().getDirty();
+        this.metric = executeContext.getJobSetting().getMetric();
+        this.pipelineName = executeContext.getPipelineName();
 
         if (restoreConfig.isStream()) {
             return;
@@ -52,14 +73,30 @@ public abstract class BaseItemWriter extends ComponentNameSupport  {
         Preconditions.checkNotNull(sinkName);
         Preconditions.checkNotNull(outputFormat);
 
-        DataStreamSink<?> dataStreamSink = dataSet.addSink(new GenericOutputFormatSinkFunction<>(outputFormat));
+        //多个content合并执行时按管道名区分各管道的算子及指标
+        if(StringUtils.isNotEmpty(pipelineName)){
+            sinkName = pipelineName + "-" + sinkName;
+        }
+
+        if(outputFormat instanceof GenericRichOutputFormat){
+            ((GenericRichOutputFormat) outputFormat).setMetricConfig(metric);
+            ((GenericRichOutputFormat) outputFormat).setPipelineName(pipelineName);
+        }
+
+        DataStreamSink<?> dataStreamSink;
+        if(outputFormat instanceof TwoPhaseCommitOutputFormat && ((TwoPhaseCommitOutputFormat<?>) outputFormat).isTwoPhaseCommit()){
+            dataStreamSink = TwoPhaseCommitOutputFormatSinkFunction.addSink((DataStream<Row>) dataSet, (GenericRichOutputFormat) outputFormat);
+        }else{
+            dataStreamSink = dataSet.addSink(new GenericOutputFormatSinkFunction<>(outputFormat));
+        }
         dataStreamSink.name(sinkName);
 
-        return dataStreamSink;
+        return OperatorConfigUtils.configure(dataStreamSink, operatorConfig);
     }
 
     protected DataStreamSink<?> createOutput(DataStream<?> dataSet, OutputFormat outputFormat) {
-        return createOutput(dataSet, outputFormat, this.getClass().getSimpleName().toLowerCase() );
+        //算子以节点名命名，便于按节点查看指标
+        return createOutput(dataSet, outputFormat, StringUtils.isNotEmpty(name) ? name : this.getClass().getSimpleName().toLowerCase());
     }
 
 }
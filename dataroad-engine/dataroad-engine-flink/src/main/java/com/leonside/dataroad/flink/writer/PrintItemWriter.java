@@ -3,6 +3,7 @@ package com.leonside.dataroad.flink.writer;
 import com.leonside.dataroad.common.spi.ItemWriter;
 import com.leonside.dataroad.core.component.ComponentNameSupport;
 import com.leonside.dataroad.flink.context.FlinkExecuteContext;
+import com.leonside.dataroad.flink.utils.OperatorConfigUtils;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.types.Row;
 
@@ -14,6 +15,6 @@ public class PrintItemWriter extends ComponentNameSupport implements ItemWriter<
 
     @Override
     public void write(FlinkExecuteContext executeContext, DataStream<Row> items) {
-        items.print();
+        OperatorConfigUtils.configure(items.print(), operatorConfig);
     }
 }
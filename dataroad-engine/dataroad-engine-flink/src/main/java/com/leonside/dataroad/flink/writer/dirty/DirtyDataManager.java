@@ -0,0 +1,129 @@
+package com.leonside.dataroad.flink.writer.dirty;
+
+import com.leonside.dataroad.common.context.DirtyConfig;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.flink.types.Row;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 脏数据管理：写入线程将失败记录放入有界队列后立即返回，由持久化线程按批量条数或时间间隔写入文件/数据库。
+ * 队列满时写入线程等待（不丢弃脏数据），持久化失败时下一次收集或关闭时抛出异常使任务失败。
+ * @author leon
+ */
+public class DirtyDataManager {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DirtyDataManager.class);
+
+    private static final long CLOSE_TIMEOUT_SECONDS = 60;
+
+    private final DirtyConfig dirtyConfig;
+
+    private final DirtyDataWriter dirtyDataWriter;
+
+    private final BlockingQueue<DirtyRecord> queue;
+
+    private ExecutorService executorService;
+
+    private volatile boolean running = true;
+
+    private volatile Throwable error;
+
+    private long numPersisted;
+
+    public DirtyDataManager(DirtyConfig dirtyConfig, DirtyDataWriter dirtyDataWriter) {
+        this.dirtyConfig = dirtyConfig;
+        this.dirtyDataWriter = dirtyDataWriter;
+        this.queue = new ArrayBlockingQueue<>(dirtyConfig.getQueueSize());
+    }
+
+    public static DirtyDataManager create(DirtyConfig dirtyConfig, String jobName, int taskNumber) {
+        DirtyDataWriter dirtyDataWriter = DirtyConfig.TYPE_JDBC.equalsIgnoreCase(dirtyConfig.getType())
+                ? new JdbcDirtyDataWriter(dirtyConfig, jobName, taskNumber)
+                : new FileDirtyDataWriter(dirtyConfig.getPath(), jobName, taskNumber, dirtyConfig.getMaxFileSize());
+        return new DirtyDataManager(dirtyConfig, dirtyDataWriter);
+    }
+
+    public void open() throws Exception {
+        dirtyDataWriter.open();
+        executorService = Executors.newSingleThreadExecutor(new BasicThreadFactory.Builder()
+                .namingPattern("DirtyDataManagerThread-%d")
+                .daemon(true)
+                .build());
+        executorService.execute(this::persist);
+    }
+
+    /**
+     * 收集脏数据
+     */
+    public void collect(Row row, Throwable e, String errorType, int columnIndex) {
+        checkError();
+        try {
+            queue.put(new DirtyRecord(System.currentTimeMillis(), errorType, columnIndex, e, row));
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while collecting dirty data", interruptedException);
+        }
+    }
+
+    private void persist() {
+        List<DirtyRecord> batch = new ArrayList<>(dirtyConfig.getBatchSize());
+        try {
+            while (running || !queue.isEmpty()) {
+                DirtyRecord record = queue.poll(dirtyConfig.getFlushInterval(), TimeUnit.MILLISECONDS);
+                if (record == null) {
+                    continue;
+                }
+                batch.add(record);
+                queue.drainTo(batch, dirtyConfig.getBatchSize() - 1);
+                dirtyDataWriter.write(batch);
+                numPersisted += batch.size();
+                batch.clear();
+            }
+        } catch (Throwable e) {
+            LOG.error("persist dirty data error", e);
+            error = e;
+            queue.clear();
+        }
+    }
+
+    /**
+     * 等待队列中的脏数据持久化完成后关闭
+     */
+    public void close() {
+        running = false;
+        if (executorService != null) {
+            executorService.shutdown();
+            try {
+                if (!executorService.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    LOG.warn("wait for dirty data persisted timeout, remaining [{}]", queue.size());
+                    executorService.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                executorService.shutdownNow();
+            }
+        }
+        try {
+            dirtyDataWriter.close();
+        } catch (Exception e) {
+            LOG.warn("close dirty data writer error", e);
+        }
+        LOG.info("dirty data manager closed, persisted [{}] dirty records", numPersisted);
+        checkError();
+    }
+
+    private void checkError() {
+        if (error != null) {
+            throw new RuntimeException("persist dirty data error", error);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.leonside.dataroad.flink.writer.dirty;
+
+import java.util.List;
+
+/**
+ * 脏数据持久化，由{@link DirtyDataManager}的持久化线程调用
+ * @author leon
+ */
+public interface DirtyDataWriter {
+
+    void open() throws Exception;
+
+    void write(List<DirtyRecord> records) throws Exception;
+
+    void close() throws Exception;
+}
@@ -0,0 +1,79 @@
+package com.leonside.dataroad.flink.writer.dirty;
+
+import com.leonside.dataroad.common.utils.ExceptionUtil;
+import com.leonside.dataroad.common.utils.JsonUtil;
+import org.apache.flink.types.Row;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 脏数据记录：写入失败的行、异常、出错字段位置及发生时间。
+ * 写入线程只保存引用，错误信息及行内容的格式化在持久化线程中进行
+ * @author leon
+ */
+public class DirtyRecord {
+
+    private final long time;
+
+    private final String errorType;
+
+    private final int columnIndex;
+
+    private final Throwable error;
+
+    private final Row row;
+
+    public DirtyRecord(long time, String errorType, int columnIndex, Throwable error, Row row) {
+        this.time = time;
+        this.errorType = errorType;
+        this.columnIndex = columnIndex;
+        this.error = error;
+        this.row = row;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public String getErrorType() {
+        return errorType;
+    }
+
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
+    public String getErrorMessage() {
+        return ExceptionUtil.getErrorMessage(error);
+    }
+
+    /**
+     * 行内容JSON，按字段名（或字段位置）输出字段值
+     */
+    public String getRowData() {
+        Set<String> fieldNames = row.getFieldNames(true);
+        if (fieldNames != null) {
+            Map<String, Object> fields = new LinkedHashMap<>(fieldNames.size());
+            for (String fieldName : fieldNames) {
+                fields.put(fieldName, toJsonValue(row.getField(fieldName)));
+            }
+            return JsonUtil.getInstance().writeJson(fields);
+        }
+        List<Object> fields = new ArrayList<>(row.getArity());
+        for (int i = 0; i < row.getArity(); i++) {
+            fields.add(toJsonValue(row.getField(i)));
+        }
+        return JsonUtil.getInstance().writeJson(fields);
+    }
+
+    private Object toJsonValue(Object value) {
+        if (value == null || value instanceof Number || value instanceof Boolean || value instanceof String) {
+            return value;
+        }
+        return String.valueOf(value);
+    }
+}
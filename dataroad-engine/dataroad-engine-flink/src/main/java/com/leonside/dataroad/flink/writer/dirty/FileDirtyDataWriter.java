@@ -0,0 +1,88 @@
+package com.leonside.dataroad.flink.writer.dirty;
+
+import com.leonside.dataroad.common.utils.JsonUtil;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 脏数据写入本地滚动文件，每行一条JSON记录，文件超过maxFileSize后滚动。
+ * 文件路径：{path}/{jobName}/dirty-{taskNumber}-{启动时间}-{序号}.json
+ * @author leon
+ */
+public class FileDirtyDataWriter implements DirtyDataWriter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileDirtyDataWriter.class);
+
+    private final File directory;
+
+    private final String filePrefix;
+
+    private final long maxFileSize;
+
+    private BufferedWriter writer;
+
+    private long fileSize;
+
+    private int fileIndex;
+
+    public FileDirtyDataWriter(String path, String jobName, int taskNumber, long maxFileSize) {
+        String root = StringUtils.isEmpty(path) ? System.getProperty("java.io.tmpdir") + File.separator + "dataroad-dirty" : path;
+        this.directory = new File(root, jobName);
+        this.filePrefix = "dirty-" + taskNumber + "-" + System.currentTimeMillis();
+        this.maxFileSize = maxFileSize;
+    }
+
+    @Override
+    public void open() throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("create dirty data directory [" + directory + "] failed");
+        }
+    }
+
+    @Override
+    public void write(List<DirtyRecord> records) throws IOException {
+        for (DirtyRecord record : records) {
+            if (writer == null || (maxFileSize > 0 && fileSize >= maxFileSize)) {
+                roll();
+            }
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("time", record.getTime());
+            line.put("errorType", record.getErrorType());
+            line.put("columnIndex", record.getColumnIndex());
+            line.put("error", record.getErrorMessage());
+            line.put("row", record.getRowData());
+            String json = JsonUtil.getInstance().writeJson(line);
+            writer.write(json);
+            writer.newLine();
+            fileSize += json.length() + 1;
+        }
+        writer.flush();
+    }
+
+    private void roll() throws IOException {
+        close();
+        File file = new File(directory, filePrefix + "-" + fileIndex++ + ".json");
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8));
+        fileSize = file.length();
+        LOG.info("write dirty data to file [{}]", file);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+}
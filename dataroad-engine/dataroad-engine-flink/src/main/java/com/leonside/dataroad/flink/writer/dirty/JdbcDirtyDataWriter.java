@@ -0,0 +1,86 @@
+package com.leonside.dataroad.flink.writer.dirty;
+
+import com.leonside.dataroad.common.context.DirtyConfig;
+import org.apache.commons.lang3.StringUtils;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * 脏数据批量写入数据库表，表需预先创建：
+ * job_name varchar, task_number int, error_time timestamp, error_type varchar, column_index int, error_message text, row_data text
+ * @author leon
+ */
+public class JdbcDirtyDataWriter implements DirtyDataWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO %s (job_name, task_number, error_time, error_type, column_index, error_message, row_data) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final DirtyConfig dirtyConfig;
+
+    private final String jobName;
+
+    private final int taskNumber;
+
+    private Connection connection;
+
+    private PreparedStatement statement;
+
+    public JdbcDirtyDataWriter(DirtyConfig dirtyConfig, String jobName, int taskNumber) {
+        this.dirtyConfig = dirtyConfig;
+        this.jobName = jobName;
+        this.taskNumber = taskNumber;
+    }
+
+    @Override
+    public void open() throws Exception {
+        if (StringUtils.isNotEmpty(dirtyConfig.getDriverClass())) {
+            Driver driver = (Driver) Class.forName(dirtyConfig.getDriverClass(), true, Thread.currentThread().getContextClassLoader()).newInstance();
+            Properties properties = new Properties();
+            if (dirtyConfig.getUsername() != null) {
+                properties.setProperty("user", dirtyConfig.getUsername());
+            }
+            if (dirtyConfig.getPassword() != null) {
+                properties.setProperty("password", dirtyConfig.getPassword());
+            }
+            connection = driver.connect(dirtyConfig.getJdbcUrl(), properties);
+        } else {
+            connection = DriverManager.getConnection(dirtyConfig.getJdbcUrl(), dirtyConfig.getUsername(), dirtyConfig.getPassword());
+        }
+        connection.setAutoCommit(true);
+        statement = connection.prepareStatement(String.format(INSERT_SQL, dirtyConfig.getTable()));
+    }
+
+    @Override
+    public void write(List<DirtyRecord> records) throws SQLException {
+        for (DirtyRecord record : records) {
+            statement.setString(1, jobName);
+            statement.setInt(2, taskNumber);
+            statement.setTimestamp(3, new Timestamp(record.getTime()));
+            statement.setString(4, record.getErrorType());
+            statement.setInt(5, record.getColumnIndex());
+            statement.setString(6, record.getErrorMessage());
+            statement.setString(7, record.getRowData());
+            statement.addBatch();
+        }
+        statement.executeBatch();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            if (statement != null) {
+                statement.close();
+            }
+        } finally {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+}
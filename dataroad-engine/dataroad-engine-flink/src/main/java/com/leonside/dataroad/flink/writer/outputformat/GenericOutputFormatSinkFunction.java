@@ -86,6 +86,14 @@ public class GenericOutputFormatSinkFunction<IN> extends OutputFormatSinkFunctio
         }
     }
 
+    @Override
+    public void invoke(IN record, Context context) throws Exception {
+        if (format instanceof GenericRichOutputFormat) {
+            ((GenericRichOutputFormat) format).trackLatency(context.timestamp());
+        }
+        invoke(record);
+    }
+
     @Override
     public void invoke(IN record) throws Exception {
         try {
@@ -1,8 +1,8 @@
 
 package com.leonside.dataroad.flink.writer.outputformat;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import com.leonside.dataroad.common.context.DirtyConfig;
+import com.leonside.dataroad.common.context.MetricConfig;
 import com.leonside.dataroad.common.context.RestoreConfig;
 import com.leonside.dataroad.common.exception.WriteRecordException;
 import com.leonside.dataroad.common.utils.ExceptionUtil;
@@ -10,21 +10,24 @@ import com.leonside.dataroad.core.support.LoggerHelper;
 import com.leonside.dataroad.flink.metric.AccumulatorCollector;
 import com.leonside.dataroad.flink.metric.BaseMetric;
 import com.leonside.dataroad.flink.metric.ErrorLimiter;
+import com.leonside.dataroad.flink.metric.GlobalAggregates;
+import com.leonside.dataroad.flink.metric.LatencyMetric;
+import com.leonside.dataroad.flink.metric.LeaseRateLimiter;
 import com.leonside.dataroad.flink.metric.Metrics;
 import com.leonside.dataroad.flink.restore.FormatState;
-import com.leonside.dataroad.flink.utils.UrlUtil;
-import org.apache.commons.lang.StringUtils;
+import com.leonside.dataroad.flink.utils.RowSizeEstimator;
+import com.leonside.dataroad.flink.writer.dirty.DirtyDataManager;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.flink.api.common.accumulators.LongCounter;
 import org.apache.flink.api.common.io.CleanupWhenUnsuccessful;
 import org.apache.flink.configuration.Configuration;
 import org.apache.flink.streaming.api.operators.StreamingRuntimeContext;
 import org.apache.flink.types.Row;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.util.*;
 
 
@@ -69,6 +72,13 @@ public abstract class GenericRichOutputFormat extends org.apache.flink.api.commo
     /** Number of other errors */
     protected LongCounter otherErrCounter;
 
+    /** 脏数据配置 */
+    protected DirtyConfig dirtyConfig;
+
+    protected DirtyDataManager dirtyDataManager;
+
+    private int logSampleInterval = LOG_PRINT_INTERNAL;
+
     /** 错误限制 */
     protected ErrorLimiter errorLimiter;
 
@@ -82,6 +92,25 @@ public abstract class GenericRichOutputFormat extends org.apache.flink.api.commo
     /** 错误比例阈值 */
     protected Double errorRatio;
 
+    /** 每秒写入字节数上限 */
+    protected long bytes = Long.MAX_VALUE;
+
+    /** 每秒写入记录数上限 */
+    protected long records = Long.MAX_VALUE;
+
+    /** 是否根据写入延迟及错误自适应调整写入速率 */
+    protected boolean adaptive;
+
+    /** 自适应模式下视为拥塞的写入耗时 */
+    protected long adaptiveLatency;
+
+    protected LeaseRateLimiter rateLimiter;
+
+    /** 指标配置 */
+    protected MetricConfig metricConfig;
+
+    protected transient LatencyMetric latencyMetric;
+
     /** 任务名 */
     protected String jobName = "defaultJobName";
 
@@ -109,8 +138,14 @@ public abstract class GenericRichOutputFormat extends org.apache.flink.api.commo
 
     protected AccumulatorCollector accumulatorCollector;
 
+    /** 管道名，多个content合并执行时用于区分各管道的累加器 */
+    protected String pipelineName;
+
     private long startTime;
 
+    /** 本子任务是否写入失败 */
+    private boolean failed;
+
     protected boolean initAccumulatorAndDirty = true;
 
     public void setRestoreConfig(RestoreConfig restoreConfig) {
@@ -121,6 +156,21 @@ public abstract class GenericRichOutputFormat extends org.apache.flink.api.commo
         this.errorLimiter = errorLimiter;
     }
 
+    public void setMetricConfig(MetricConfig metricConfig) {
+        this.metricConfig = metricConfig;
+    }
+
+    public void setPipelineName(String pipelineName) {
+        this.pipelineName = pipelineName;
+    }
+
+    /**
+     * @return 按管道区分的累加器名
+     */
+    protected String getAccumulatorName(String name) {
+        return Metrics.getAccumulatorName(pipelineName, name);
+    }
+
 
     @Override
     public void configure(Configuration parameters) {
@@ -156,10 +206,12 @@ public abstract class GenericRichOutputFormat extends org.apache.flink.api.commo
         if (initAccumulatorAndDirty) {
             initAccumulatorCollector();
             openErrorLimiter();
-//            openDirtyDataManager();
+            openDirtyDataManager();
         }
 
         initRestoreInfo();
+        openRateLimiter();
+        GlobalAggregates.reportRunning(getRuntimeContext(), pipelineName);
 
         if(doNeedWaitBeforeOpen()) {
             doBeforeOpen();
@@ -174,8 +226,14 @@ public abstract class GenericRichOutputFormat extends org.apache.flink.api.commo
         }
     }
 
+    private void openRateLimiter(){
+        if (!LeaseRateLimiter.isUnlimited(bytes) || !LeaseRateLimiter.isUnlimited(records)) {
+            rateLimiter = new LeaseRateLimiter(getRuntimeContext(), "write", records, bytes, adaptive);
+        }
+    }
+
     private void initAccumulatorCollector(){
-        accumulatorCollector = new AccumulatorCollector(jobId, monitorUrl, getRuntimeContext(), 2,
+        accumulatorCollector = new AccumulatorCollector(getRuntimeContext(), 2,
                 Arrays.asList(Metrics.NUM_ERRORS,
                         Metrics.NUM_NULL_ERRORS,
                         Metrics.NUM_DUPLICATE_ERRORS,
@@ -184,7 +242,7 @@ public abstract class GenericRichOutputFormat extends org.apache.flink.api.commo
                         Metrics.NUM_WRITES,
                         Metrics.WRITE_BYTES,
                         Metrics.NUM_READS,
-                        Metrics.WRITE_DURATION));
+                        Metrics.WRITE_DURATION), pipelineName);
         accumulatorCollector.start();
     }
 
@@ -225,15 +283,15 @@ public abstract class GenericRichOutputFormat extends org.apache.flink.api.commo
     }
 
     protected void initStatisticsAccumulator(){
-        errCounter = context.getLongCounter(Metrics.NUM_ERRORS);
-        nullErrCounter = context.getLongCounter(Metrics.NUM_NULL_ERRORS);
-        duplicateErrCounter = context.getLongCounter(Metrics.NUM_DUPLICATE_ERRORS);
-        conversionErrCounter = context.getLongCounter(Metrics.NUM_CONVERSION_ERRORS);
-        otherErrCounter = context.getLongCounter(Metrics.NUM_OTHER_ERRORS);
-        numWriteCounter = context.getLongCounter(Metrics.NUM_WRITES);
-        snapshotWriteCounter = context.getLongCounter(Metrics.SNAPSHOT_WRITES);
-        bytesWriteCounter = context.getLongCounter(Metrics.WRITE_BYTES);
-        durationCounter = context.getLongCounter(Metrics.WRITE_DURATION);
+        errCounter = context.getLongCounter(getAccumulatorName(Metrics.NUM_ERRORS));
+        nullErrCounter = context.getLongCounter(getAccumulatorName(Metrics.NUM_NULL_ERRORS));
+        duplicateErrCounter = context.getLongCounter(getAccumulatorName(Metrics.NUM_DUPLICATE_ERRORS));
+        conversionErrCounter = context.getLongCounter(getAccumulatorName(Metrics.NUM_CONVERSION_ERRORS));
+        otherErrCounter = context.getLongCounter(getAccumulatorName(Metrics.NUM_OTHER_ERRORS));
+        numWriteCounter = context.getLongCounter(getAccumulatorName(Metrics.NUM_WRITES));
+        snapshotWriteCounter = context.getLongCounter(getAccumulatorName(Metrics.SNAPSHOT_WRITES));
+        bytesWriteCounter = context.getLongCounter(getAccumulatorName(Metrics.WRITE_BYTES));
+        durationCounter = context.getLongCounter(getAccumulatorName(Metrics.WRITE_DURATION));
 
         outputMetric = new BaseMetric(context);
         outputMetric.addMetric(Metrics.NUM_ERRORS, errCounter);
@@ -246,9 +304,29 @@ public abstract class GenericRichOutputFormat extends org.apache.flink.api.commo
         outputMetric.addMetric(Metrics.WRITE_BYTES, bytesWriteCounter, true);
         outputMetric.addMetric(Metrics.WRITE_DURATION, durationCounter);
 
+        if(metricConfig == null){
+            metricConfig = MetricConfig.defaultConfig();
+        }
+        latencyMetric = new LatencyMetric(context.getMetricGroup(), metricConfig.getLatencySampleInterval());
+
         startTime = System.currentTimeMillis();
     }
 
+    private void openDirtyDataManager(){
+        if(dirtyConfig == null){
+            dirtyConfig = DirtyConfig.defaultConfig();
+        }
+        logSampleInterval = dirtyConfig.getLogSampleInterval() > 0 ? dirtyConfig.getLogSampleInterval() : LOG_PRINT_INTERNAL;
+        if(dirtyConfig.isPersistent()){
+            dirtyDataManager = DirtyDataManager.create(dirtyConfig, jobName, taskNumber);
+            try {
+                dirtyDataManager.open();
+            } catch (Exception e) {
+                throw new RuntimeException("open dirty data manager error", e);
+            }
+        }
+    }
+
     private void openErrorLimiter(){
         if(errors != null || errorRatio != null) {
             errorLimiter = new ErrorLimiter(accumulatorCollector, errors, errorRatio);
@@ -268,26 +346,46 @@ public abstract class GenericRichOutputFormat extends org.apache.flink.api.commo
             errorLimiter.acquire();
         }
 
+        long start = System.currentTimeMillis();
         try {
             doWriteSingleRecord(row);
+            latencyMetric.updateWriteCall(start);
+            if(!isCommitDeferred()){
+                latencyMetric.commit();
+            }
+            checkCongestion(start);
 
             if(!restoreConfig.isRestore() || isStreamButNoWriteCheckpoint()){
                 numWriteCounter.add(1);
                 snapshotWriteCounter.add(1);
             }
         } catch(WriteRecordException e) {
-            saveErrorData(row, e);
-            updateStatisticsOfDirtyData(row, e);
+            if(rateLimiter != null){
+                rateLimiter.reportCongestion();
+            }
+            if(!isCommitDeferred()){
+                latencyMetric.discard();
+            }
+            saveWriteError(row, e);
             // 总记录数加1
             numWriteCounter.add(1);
             snapshotWriteCounter.add(1);
+        }
+    }
 
-//            if(dirtyDataManager == null && errCounter.getLocalValue() % LOG_PRINT_INTERNAL == 0){
-                LOG.error(e.getMessage());
-//            }
-            if(LoggerHelper.isLogger()){
-                LOG.trace("write error row, row = {}, e = {}", row.toString(), ExceptionUtil.getErrorMessage(e));
-            }
+    /**
+     * 记录写入失败的数据：错误计数、脏数据收集及错误日志，须在算子线程调用
+     */
+    protected void saveWriteError(Row row, WriteRecordException e){
+        saveErrorData(row, e);
+
+        //错误日志按采样间隔输出，避免脏数据较多时日志拖慢正常数据写入
+        long numErrors = errCounter.getLocalValue();
+        if((numErrors - 1) % logSampleInterval == 0){
+            LOG.error("write record error, total error records [{}]: {}", numErrors, e.getMessage());
+        }
+        if(LoggerHelper.isLogger()){
+            LOG.trace("write error row, row = {}, e = {}", row.toString(), ExceptionUtil.getErrorMessage(e));
         }
     }
 
@@ -297,21 +395,47 @@ public abstract class GenericRichOutputFormat extends org.apache.flink.api.commo
 
     private void saveErrorData(Row row, WriteRecordException e){
         errCounter.add(1);
+        String errorType = updateStatisticsOfDirtyData(e);
 
-        String errMsg = ExceptionUtil.getErrorMessage(e);
         int pos = e.getColumnIdx();
-        if (pos != -1) {
-            errMsg += recordConvertDetailErrorMessage(pos, row);
+        if(dirtyDataManager != null){
+            dirtyDataManager.collect(row, e, errorType, pos);
         }
 
         if(errorLimiter != null) {
-            errorLimiter.setErrMsg(errMsg);
+            errorLimiter.setErrMsg(() -> {
+                String errMsg = ExceptionUtil.getErrorMessage(e);
+                if (pos != -1) {
+                    errMsg += recordConvertDetailErrorMessage(pos, row);
+                }
+                return errMsg;
+            });
             errorLimiter.setErrorData(row);
         }
     }
 
-    private void updateStatisticsOfDirtyData(Row row, WriteRecordException e){
-        errCounter.add(1);
+    /**
+     * 按异常原因分类统计脏数据
+     * @return 错误类型，即对应的统计指标名
+     */
+    private String updateStatisticsOfDirtyData(WriteRecordException e){
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof NullPointerException) {
+                nullErrCounter.add(1);
+                return Metrics.NUM_NULL_ERRORS;
+            }
+            if (cause instanceof SQLIntegrityConstraintViolationException
+                    || (cause.getMessage() != null && StringUtils.containsIgnoreCase(cause.getMessage(), "duplicate"))) {
+                duplicateErrCounter.add(1);
+                return Metrics.NUM_DUPLICATE_ERRORS;
+            }
+        }
+        if (e.getColumnIdx() != -1) {
+            conversionErrCounter.add(1);
+            return Metrics.NUM_CONVERSION_ERRORS;
+        }
+        otherErrCounter.add(1);
+        return Metrics.NUM_OTHER_ERRORS;
     }
 
     protected String recordConvertDetailErrorMessage(int pos, Row row) {
@@ -347,9 +471,20 @@ public abstract class GenericRichOutputFormat extends org.apache.flink.api.commo
     }
 
     protected void doWriteRecord() {
+        long start = System.currentTimeMillis();
         try {
             writeMultipleRecords();
+            if(!isWriteAsync()){
+                latencyMetric.updateWriteCall(start);
+            }
+            if(!isCommitDeferred()){
+                latencyMetric.commit();
+            }
+            checkCongestion(start);
         } catch(Exception e) {
+            if(rateLimiter != null){
+                rateLimiter.reportCongestion();
+            }
             if(restoreConfig.isRestore()){
                 throw new RuntimeException(e);
             } else {
@@ -359,21 +494,66 @@ public abstract class GenericRichOutputFormat extends org.apache.flink.api.commo
         rows.clear();
     }
 
+    /**
+     * 写入后是否延迟到checkpoint等时机才提交，是时由子类在提交后调用{@link LatencyMetric#commit()}
+     */
+    protected boolean isCommitDeferred(){
+        return false;
+    }
+
+    /**
+     * 批量写入是否异步完成，是时写入调用耗时由子类在请求完成后调用{@link LatencyMetric#updateWriteCall(long, long)}统计
+     */
+    protected boolean isWriteAsync(){
+        return false;
+    }
+
+    /**
+     * 记录reader打上的读取时间戳，用于统计读取至提交的延迟
+     */
+    public void trackLatency(Long sourceTimestamp){
+        if(sourceTimestamp != null && metricConfig.isLatencyTracking()){
+            latencyMetric.track(sourceTimestamp);
+        }
+    }
+
+    /**
+     * 自适应限速：写入耗时超过阈值视为目标库拥塞
+     */
+    private void checkCongestion(long start){
+        if(rateLimiter != null && System.currentTimeMillis() - start > adaptiveLatency){
+            rateLimiter.reportCongestion();
+        }
+    }
+
     @Override
     public void writeRecord(Row row) throws IOException {
         Row internalRow = row;// todo setChannelInfo(row);
-        if(batchInterval <= 1) {
-            writeSingleRecord(internalRow);
-        } else {
-            rows.add(internalRow);
-            if(rows.size() == batchInterval) {
-                doWriteRecord();
+        if(rateLimiter != null){
+            rateLimiter.acquire(1);
+        }
+        try {
+            if(batchInterval <= 1) {
+                writeSingleRecord(internalRow);
+            } else {
+                rows.add(internalRow);
+                if(rows.size() == batchInterval) {
+                    doWriteRecord();
+                }
             }
+        } catch (RuntimeException e) {
+            failed = true;
+            GlobalAggregates.reportFailure(getRuntimeContext(), pipelineName);
+            throw e;
         }
 
         updateDuration();
+        long rowBytes = RowSizeEstimator.estimate(row);
         if(bytesWriteCounter!=null){
-            bytesWriteCounter.add(row.toString().getBytes().length);
+            bytesWriteCounter.add(rowBytes);
+        }
+        if(rateLimiter != null){
+            rateLimiter.consumeBytes(rowBytes);
         }
     }
 
@@ -402,12 +582,11 @@ public abstract class GenericRichOutputFormat extends org.apache.flink.api.commo
                     doAfterClose();
 //                    waitWhile("#4");
                 }
-
-                if (outputMetric != null) {
-                    outputMetric.waitForReportMetrics();
-                }
             }finally {
 
+                if(dirtyDataManager != null){
+                    dirtyDataManager.close();
+                }
                 checkErrorLimit();
                 if(accumulatorCollector != null){
                     accumulatorCollector.close();
@@ -443,50 +622,17 @@ public abstract class GenericRichOutputFormat extends org.apache.flink.api.commo
 
     @Override
     public void tryCleanupOnError() throws Exception {
-
+        failed = true;
+        GlobalAggregates.reportFailure(getRuntimeContext(), pipelineName);
     }
 
+    /**
+     * 获取任务状态：本子任务写入失败，或管道内子任务上报失败、数据源被取消且尚未恢复时返回FAILED/CANCELED，否则返回RUNNING，见{@link GlobalAggregates}
+     */
     protected String getTaskState() throws IOException{
-        if (StringUtils.isEmpty(monitorUrl)) {
-            return RUNNING_STATE;
-        }
-
-        String taskState = null;
-        CloseableHttpClient httpClient = HttpClientBuilder.create().build();
-        String monitors = String.format("%s/jobs/overview", monitorUrl);
-        LOG.info("Monitor url:{}", monitors);
-
-        int retryNumber = 5;
-        for (int i = 0; i < retryNumber; i++) {
-            try{
-                String response = UrlUtil.get(httpClient, monitors);
-                LOG.info("response:{}", response);
-                HashMap<String, ArrayList<HashMap<String, Object>>> map = new Gson().fromJson(response, new TypeToken<HashMap<String, ArrayList<HashMap<String, Object>>>>() {}.getType());
-                List<HashMap<String, Object>> list = map.get("jobs");
-
-                for (HashMap<String, Object> hashMap : list) {
-                    String jid = (String)hashMap.get("jid");
-                    if(Objects.equals(jid, jobId)){
-                        taskState = (String) hashMap.get("state");
-                        break;
-                    }
-                }
-                LOG.info("Job state is:{}", taskState);
-
-                if(taskState != null){
-                    httpClient.close();
-                    return taskState;
-                }
-
-                Thread.sleep(500);
-            }catch (Exception e){
-                LOG.info("Get job state error:{}", e.getMessage());
-            }
-        }
-
-        httpClient.close();
-
-        return RUNNING_STATE;
+        String taskState = failed ? GlobalAggregates.FAILED_STATE : GlobalAggregates.getJobState(getRuntimeContext(), pipelineName);
+        LOG.info("Job state is:{}", taskState);
+        return taskState == null ? RUNNING_STATE : taskState;
     }
 
     /**
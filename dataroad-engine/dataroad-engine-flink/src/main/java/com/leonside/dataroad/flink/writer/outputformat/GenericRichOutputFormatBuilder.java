@@ -2,7 +2,9 @@
 package com.leonside.dataroad.flink.writer.outputformat;
 
 import com.leonside.dataroad.common.constant.JobCommonConstant;
+import com.leonside.dataroad.common.context.DirtyConfig;
 import com.leonside.dataroad.common.context.RestoreConfig;
+import com.leonside.dataroad.common.context.SpeedConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,6 +42,21 @@ public abstract class GenericRichOutputFormatBuilder<T extends GenericRichOutput
         return (R)this;
     }
 
+    public R setSpeed(SpeedConfig speed) {
+        if (speed != null) {
+            format.bytes = speed.getWriterBytes();
+            format.records = speed.getWriterRecords();
+            format.adaptive = speed.isAdaptive();
+            format.adaptiveLatency = speed.getAdaptiveLatency();
+        }
+        return (R)this;
+    }
+
+    public R setDirty(DirtyConfig dirty) {
+        format.dirtyConfig = dirty;
+        return (R)this;
+    }
+
     public R setRestoreConfig(RestoreConfig restoreConfig){
         format.restoreConfig = restoreConfig;
         return (R)this;
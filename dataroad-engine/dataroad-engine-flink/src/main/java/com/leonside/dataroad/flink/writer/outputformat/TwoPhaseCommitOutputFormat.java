@@ -0,0 +1,49 @@
+package com.leonside.dataroad.flink.writer.outputformat;
+
+/**
+ * 支持两阶段提交的OutputFormat：checkpoint时预提交当前事务，checkpoint完成后再提交，
+ * 故障恢复时提交已完成checkpoint的事务并回滚其余事务，保证数据不重复写入。见{@link TwoPhaseCommitOutputFormatSinkFunction}
+ * @author leon
+ */
+public interface TwoPhaseCommitOutputFormat<TXN> {
+
+    /**
+     * 是否启用两阶段提交，未启用时按原有方式写入
+     */
+    boolean isTwoPhaseCommit();
+
+    /**
+     * 事务句柄类型，事务句柄需要保存到checkpoint
+     */
+    Class<TXN> getTransactionClass();
+
+    /**
+     * 创建新事务，恢复状态时会在open之前调用，此时不能依赖open中打开的资源
+     */
+    TXN beginTransaction() throws Exception;
+
+    /**
+     * 写出缓存的数据并预提交事务，在checkpoint时调用
+     */
+    void preCommit(TXN transaction) throws Exception;
+
+    /**
+     * 提交已预提交的事务，在checkpoint完成后调用
+     */
+    void commit(TXN transaction);
+
+    /**
+     * 回滚事务
+     */
+    void abort(TXN transaction);
+
+    /**
+     * 恢复时提交已完成checkpoint中记录的事务，事务可能已经提交过
+     */
+    void recoverAndCommit(TXN transaction);
+
+    /**
+     * 恢复时回滚未完成checkpoint的事务，事务可能已不存在
+     */
+    void recoverAndAbort(TXN transaction);
+}
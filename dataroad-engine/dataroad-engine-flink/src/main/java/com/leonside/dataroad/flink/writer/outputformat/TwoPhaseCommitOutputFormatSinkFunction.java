@@ -0,0 +1,224 @@
+package com.leonside.dataroad.flink.writer.outputformat;
+
+import com.leonside.dataroad.flink.restore.FormatState;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.functions.RuntimeContext;
+import org.apache.flink.api.common.state.ListState;
+import org.apache.flink.api.common.state.ListStateDescriptor;
+import org.apache.flink.api.common.state.OperatorStateStore;
+import org.apache.flink.api.common.typeinfo.TypeHint;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.common.typeutils.base.VoidSerializer;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.runtime.state.FunctionInitializationContext;
+import org.apache.flink.runtime.state.FunctionSnapshotContext;
+import org.apache.flink.streaming.api.datastream.DataStream;
+import org.apache.flink.streaming.api.datastream.DataStreamSink;
+import org.apache.flink.streaming.api.functions.sink.TwoPhaseCommitSinkFunction;
+import org.apache.flink.streaming.api.operators.BoundedOneInput;
+import org.apache.flink.streaming.api.operators.StreamSink;
+import org.apache.flink.types.Row;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * 基于{@link TwoPhaseCommitSinkFunction}的SinkFunction：数据写入当前事务，checkpoint时由OutputFormat预提交，
+ * checkpoint完成（notifyCheckpointComplete）后提交，checkpoint只等待预提交而不等待事务提交。
+ * 批任务输入正常结束时提交剩余事务（见{@link #addSink}），任务失败或取消时回滚当前事务，已预提交的事务在恢复时按checkpoint提交
+ * @author leon
+ */
+public class TwoPhaseCommitOutputFormatSinkFunction<TXN> extends TwoPhaseCommitSinkFunction<Row, TXN, Void> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOG = LoggerFactory.getLogger(TwoPhaseCommitOutputFormatSinkFunction.class);
+
+    private static final String LOCATION_STATE_NAME = "data-sync-location-states";
+
+    private final GenericRichOutputFormat format;
+
+    private final TwoPhaseCommitOutputFormat<TXN> transactionFormat;
+
+    private transient ListState<FormatState> unionOffsetStates;
+
+    private Map<Integer, FormatState> formatStateMap;
+
+    private boolean cleanupCalled = false;
+
+    private boolean finished = false;
+
+    @SuppressWarnings("unchecked")
+    public TwoPhaseCommitOutputFormatSinkFunction(GenericRichOutputFormat format) {
+        super(createTransactionSerializer((TwoPhaseCommitOutputFormat<TXN>) format), VoidSerializer.INSTANCE);
+        this.format = format;
+        this.transactionFormat = (TwoPhaseCommitOutputFormat<TXN>) format;
+    }
+
+    private static <TXN> TypeSerializer<TXN> createTransactionSerializer(TwoPhaseCommitOutputFormat<TXN> format) {
+        return TypeInformation.of(format.getTransactionClass()).createSerializer(new ExecutionConfig());
+    }
+
+    @Override
+    public void setRuntimeContext(RuntimeContext context) {
+        super.setRuntimeContext(context);
+        format.setRuntimeContext(context);
+    }
+
+    @Override
+    public void open(Configuration parameters) throws Exception {
+        super.open(parameters);
+        RuntimeContext context = getRuntimeContext();
+        format.configure(parameters);
+
+        if (formatStateMap != null){
+            format.setRestoreState(formatStateMap.get(context.getIndexOfThisSubtask()));
+        }
+
+        format.open(context.getIndexOfThisSubtask(), context.getNumberOfParallelSubtasks());
+    }
+
+    @Override
+    protected void invoke(TXN transaction, Row value, Context context) throws Exception {
+        try {
+            format.trackLatency(context.timestamp());
+            format.writeRecord(value);
+        } catch (Exception ex) {
+            cleanup();
+            throw ex;
+        }
+    }
+
+    @Override
+    protected TXN beginTransaction() throws Exception {
+        return transactionFormat.beginTransaction();
+    }
+
+    @Override
+    protected void preCommit(TXN transaction) throws Exception {
+        transactionFormat.preCommit(transaction);
+    }
+
+    @Override
+    protected void commit(TXN transaction) {
+        transactionFormat.commit(transaction);
+    }
+
+    @Override
+    protected void abort(TXN transaction) {
+        transactionFormat.abort(transaction);
+    }
+
+    @Override
+    protected void recoverAndCommit(TXN transaction) {
+        transactionFormat.recoverAndCommit(transaction);
+    }
+
+    @Override
+    protected void recoverAndAbort(TXN transaction) {
+        transactionFormat.recoverAndAbort(transaction);
+    }
+
+    @Override
+    public void snapshotState(FunctionSnapshotContext context) throws Exception {
+        super.snapshotState(context);
+
+        FormatState formatState = format.getFormatState();
+        if (formatState != null){
+            LOG.info("OutputFormat format state:{}", formatState);
+            unionOffsetStates.clear();
+            unionOffsetStates.add(formatState);
+        }
+    }
+
+    @Override
+    public void initializeState(FunctionInitializationContext context) throws Exception {
+        OperatorStateStore stateStore = context.getOperatorStateStore();
+        unionOffsetStates = stateStore.getUnionListState(new ListStateDescriptor<>(
+                LOCATION_STATE_NAME,
+                TypeInformation.of(new TypeHint<FormatState>() {})));
+
+        if (context.isRestored()){
+            formatStateMap = new HashMap<>(16);
+            for (FormatState formatState : unionOffsetStates.get()) {
+                formatStateMap.put(formatState.getNumOfSubTask(), formatState);
+            }
+        }
+
+        super.initializeState(context);
+    }
+
+    /**
+     * 输入正常结束，之后不会再触发checkpoint，提交已预提交及当前事务
+     */
+    public void finish() throws Exception {
+        try {
+            TXN transaction = currentTransaction();
+            transactionFormat.preCommit(transaction);
+            Iterator<Map.Entry<Long, TXN>> pending = pendingTransactions().iterator();
+            while (pending.hasNext()) {
+                transactionFormat.commit(pending.next().getValue());
+            }
+            pendingCommitTransactions.clear();
+            transactionFormat.commit(transaction);
+            finished = true;
+        } catch (Exception ex) {
+            cleanup();
+            throw ex;
+        }
+    }
+
+    /**
+     * 任务失败或取消时丢弃缓存数据并回滚当前事务，由恢复后重新写入
+     */
+    @Override
+    public void close() throws Exception {
+        if (!finished) {
+            format.rows.clear();
+        }
+        try {
+            format.close();
+        } finally {
+            super.close();
+        }
+    }
+
+    /**
+     * 添加两阶段提交Sink，算子在输入正常结束时调用{@link #finish()}，以区分批任务正常结束与任务失败
+     */
+    public static DataStreamSink<Row> addSink(DataStream<Row> dataStream, GenericRichOutputFormat format) {
+        StreamSink<Row> operator = new FinishOnEndInputSink(new TwoPhaseCommitOutputFormatSinkFunction<>(format));
+        DataStreamSink<Row> dataStreamSink = new DataStreamSink<Row>(dataStream, operator) {};
+        dataStream.getExecutionEnvironment().addOperator(dataStreamSink.getTransformation());
+        return dataStreamSink;
+    }
+
+    private static class FinishOnEndInputSink extends StreamSink<Row> implements BoundedOneInput {
+
+        private static final long serialVersionUID = 1L;
+
+        FinishOnEndInputSink(TwoPhaseCommitOutputFormatSinkFunction<?> sinkFunction) {
+            super(sinkFunction);
+        }
+
+        @Override
+        public void endInput() throws Exception {
+            ((TwoPhaseCommitOutputFormatSinkFunction<?>) userFunction).finish();
+        }
+    }
+
+    private void cleanup() {
+        try {
+            if (!cleanupCalled) {
+                cleanupCalled = true;
+                format.tryCleanupOnError();
+            }
+        } catch (Throwable t) {
+            LOG.error("Cleanup on error failed.", t);
+        }
+    }
+}
@@ -127,7 +127,7 @@ public class EsUtil {
         return  current.get(fieldParts[i]);
     }
 
-    private static Object convertValueToAssignType(String columnType, String constantValue) {
+    public static Object convertValueToAssignType(String columnType, String constantValue) {
         Object column  = null;
         if(org.apache.commons.lang3.StringUtils.isEmpty(constantValue)) {
             return column;
@@ -11,4 +11,10 @@ public class EsConstants {
 
     public static final String KEY_PATH_PREFIX = "pathPrefix";
 
+    public static final String READ_MODE_SCROLL = "scroll";
+
+    public static final String READ_MODE_SEARCH_AFTER = "searchAfter";
+
+    public static final String DEFAULT_SORT_FIELD = "_id";
+
 }
@@ -25,6 +25,8 @@ public class EsReaderConfig extends BaseConfig  {
     private String index;
     private String indexType;
     private Integer batchSize;
+    private String readMode;
+    private String sortField;
 
     private Integer timeout;
     private String pathPrefix;
@@ -14,7 +14,9 @@ public enum EsReaderConfigKey implements ConfigKey {
     KEY_TYPE("indexType","Type",true,"_doc", "索引type，默认_doc",FieldType.STRING),
     KEY_COLUMN("column","列名",true,"", "索引列名集合，例如：[{\"name\": \"id\",\"type\": \"int\"},...]",FieldType.OBJECT),
 
-    KEY_BATCH_SIZE("batchSize","批量大小",false,"10", "批量大小,默认10",FieldType.NUMBER),
+    KEY_BATCH_SIZE("batchSize","批量大小",false,"", "每页读取数量，scroll方式默认10，searchAfter方式默认1000",FieldType.NUMBER),
+    KEY_READ_MODE("readMode","读取方式",false,"scroll", "读取方式：scroll、searchAfter，searchAfter方式按排序字段翻页并预取下一页，支持断点续传",FieldType.STRING),
+    KEY_SORT_FIELD("sortField","排序字段",false,"_id", "searchAfter方式的排序字段，字段值须唯一，开启断点续传时采用restoreColumnName",FieldType.STRING),
     KEY_TIMEOUT("timeout","超时时间",false,"", "超时时间",FieldType.NUMBER),
 //    KEY_PATH_PREFIX("pathPrefix","路径前缀",false,"", "路径前缀",FieldType.STRING),
     KEY_QUERY("query","查询条件",false,"", "JSON格式查询条件，详见ES的相关文档",FieldType.OBJECT);
@@ -23,6 +23,10 @@ public class EsWriterConfig extends BaseConfig {
     public String index;
     public String indexType;
     public int bulkAction;
+    public int bulkSizeMb;
+    public int concurrentRequests;
+    public int maxRetries;
+    public long retryBackoff;
 
     public Integer timeout;
     public String pathPrefix;
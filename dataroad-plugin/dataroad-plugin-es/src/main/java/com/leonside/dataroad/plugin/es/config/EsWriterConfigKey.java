@@ -17,6 +17,10 @@ public enum EsWriterConfigKey implements ConfigKey {
     KEY_ID_COLUMN("idColumn","主键列",false,"", "主键列，例如：[{\"name\": \"id\",\"type\": \"int\"}]",FieldType.OBJECT),
 
     KEY_BULK_ACTION("bulkAction","批量大小",false,"100", "批量大小,默认100",FieldType.NUMBER),
+    KEY_BULK_SIZE_MB("bulkSizeMb","批量字节数",false,"5", "单个bulk请求的数据量上限（MB），达到记录数或数据量任一上限即提交，默认5",FieldType.NUMBER),
+    KEY_CONCURRENT_REQUESTS("concurrentRequests","并发请求数",false,"1", "同时执行中的bulk请求数上限，默认1",FieldType.NUMBER),
+    KEY_MAX_RETRIES("maxRetries","最大重试次数",false,"3", "bulk中被拒绝（429）的记录及连接异常的重试次数，默认3",FieldType.NUMBER),
+    KEY_RETRY_BACKOFF("retryBackoff","重试间隔",false,"100", "首次重试间隔（毫秒），之后每次重试间隔翻倍，默认100",FieldType.NUMBER),
     KEY_TIMEOUT("timeout","超时时间",false,"", "超时时间",FieldType.NUMBER),
 //    KEY_PATH_PREFIX("pathPrefix","路径前缀",false,"", "路径前缀",FieldType.STRING)
         ;
@@ -0,0 +1,154 @@
+package com.leonside.dataroad.plugin.es.reader;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.leonside.dataroad.plugin.es.EsUtil;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.flink.types.Row;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesReference;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ES查询结果解析：按column配置预先构建字段路径树并计算常量列，直接从hit的_source字节流读取所需字段写入Row，
+ * 未配置的字段跳过解析，不构建中间Map，_source中不存在的字段为null
+ * @author leon
+ */
+public class EsHitDecoder {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final List<String> columnNames;
+
+    private final Object[] constantValues;
+
+    private final PathNode root = new PathNode();
+
+    public EsHitDecoder(List<String> columnNames, List<String> columnTypes, List<String> columnValues) {
+        this.columnNames = columnNames;
+        this.constantValues = new Object[columnNames.size()];
+        for (int i = 0; i < columnNames.size(); i++) {
+            String columnName = columnNames.get(i);
+            if (StringUtils.isNotBlank(columnName)) {
+                PathNode node = root;
+                for (String part : columnName.split("\\.")) {
+                    node = node.children.computeIfAbsent(part, key -> new PathNode());
+                }
+                node.columnName = columnName;
+            } else {
+                constantValues[i] = EsUtil.convertValueToAssignType(columnTypes.get(i), columnValues.get(i));
+            }
+        }
+    }
+
+    /**
+     * _source包含的字段，仅返回配置的列
+     */
+    public String[] getSourceIncludes() {
+        List<String> includes = new ArrayList<>();
+        for (String columnName : columnNames) {
+            if (StringUtils.isNotBlank(columnName)) {
+                includes.add(columnName);
+            }
+        }
+        return includes.toArray(new String[0]);
+    }
+
+    public Row decode(BytesReference source) throws IOException {
+        Row row = Row.withNames();
+        for (int i = 0; i < columnNames.size(); i++) {
+            row.setField(columnNames.get(i), constantValues[i]);
+        }
+        if (source == null || root.children.isEmpty()) {
+            return row;
+        }
+
+        BytesRef bytes = source.toBytesRef();
+        try (JsonParser parser = JSON_FACTORY.createParser(bytes.bytes, bytes.offset, bytes.length)) {
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                readObject(parser, root, row);
+            }
+        }
+        return row;
+    }
+
+    private void readObject(JsonParser parser, PathNode node, Row row) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            PathNode child = node.children.get(parser.getCurrentName());
+            JsonToken token = parser.nextToken();
+            if (child == null) {
+                parser.skipChildren();
+            } else if (child.columnName != null) {
+                Object value = readValue(parser, token);
+                row.setField(child.columnName, value);
+                if (!child.children.isEmpty() && value instanceof Map) {
+                    readMap((Map<String, Object>) value, child, row);
+                }
+            } else if (token == JsonToken.START_OBJECT) {
+                readObject(parser, child, row);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * 同时配置了父字段及子字段时，子字段从已读取的父字段值中获取
+     */
+    private void readMap(Map<String, Object> map, PathNode node, Row row) {
+        for (Map.Entry<String, PathNode> entry : node.children.entrySet()) {
+            Object value = map.get(entry.getKey());
+            PathNode child = entry.getValue();
+            if (child.columnName != null) {
+                row.setField(child.columnName, value);
+            }
+            if (!child.children.isEmpty() && value instanceof Map) {
+                readMap((Map<String, Object>) value, child, row);
+            }
+        }
+    }
+
+    private Object readValue(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case START_OBJECT:
+                Map<String, Object> map = new LinkedHashMap<>();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.getCurrentName();
+                    map.put(name, readValue(parser, parser.nextToken()));
+                }
+                return map;
+            case START_ARRAY:
+                List<Object> list = new ArrayList<>();
+                JsonToken next;
+                while ((next = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    list.add(readValue(parser, next));
+                }
+                return list;
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            default:
+                return null;
+        }
+    }
+
+    private static class PathNode {
+
+        private final Map<String, PathNode> children = new HashMap<>();
+
+        private String columnName;
+    }
+}
@@ -1,13 +1,14 @@
-
 package com.leonside.dataroad.plugin.es.reader;
 
-import com.google.common.collect.Lists;
 import com.leonside.dataroad.flink.reader.inputformat.GenericRichInputFormat;
+import com.leonside.dataroad.flink.restore.FormatState;
 import com.leonside.dataroad.plugin.es.EsUtil;
+import com.leonside.dataroad.plugin.es.config.EsConstants;
 import org.apache.commons.lang.StringUtils;
 import org.apache.flink.core.io.GenericInputSplit;
 import org.apache.flink.core.io.InputSplit;
 import org.apache.flink.types.Row;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.search.*;
 import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.common.unit.TimeValue;
@@ -16,15 +17,22 @@ import org.elasticsearch.search.Scroll;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.slice.SliceBuilder;
+import org.elasticsearch.search.sort.SortOrder;
 
 import java.io.IOException;
-import java.util.Iterator;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 /**
  * InputFormat for Elasticsearch
  *
+ * <p>scroll方式按scroll上下文翻页；searchAfter方式按唯一排序字段search_after翻页，不占用集群scroll上下文，
+ * 下发当前页时异步请求下一页，多分片读取时各分片按preference读取部分ES分片，最后下发记录的排序值作为断点续传位置。
+ * 两种方式均只请求column配置的_source字段，由{@link EsHitDecoder}直接解析_source字节流。
  */
 public class EsInputFormat extends GenericRichInputFormat {
 
@@ -46,7 +54,15 @@ public class EsInputFormat extends GenericRichInputFormat {
 
     protected List<String> columnNames;
 
-    protected int batchSize = 10;
+    public static final int DEFAULT_BATCH_SIZE = 10;
+
+    public static final int DEFAULT_SEARCH_AFTER_BATCH_SIZE = 1000;
+
+    protected int batchSize;
+
+    protected String readMode = EsConstants.READ_MODE_SCROLL;
+
+    protected String sortField = EsConstants.DEFAULT_SORT_FIELD;
 
     protected Map<String,Object> clientConfig;
 
@@ -54,7 +70,11 @@ public class EsInputFormat extends GenericRichInputFormat {
 
     private transient RestHighLevelClient client;
 
-    private Iterator<Map<String, Object>> iterator;
+    private transient EsHitDecoder hitDecoder;
+
+    private transient SearchHit[] searchHits;
+
+    private int hitIndex;
 
     private transient SearchRequest searchRequest;
 
@@ -62,6 +82,17 @@ public class EsInputFormat extends GenericRichInputFormat {
 
     private String scrollId;
 
+    private transient CompletableFuture<SearchResponse> nextPage;
+
+    private Object[] lastSortValues;
+
+    /** 预读模式下按读取顺序保存已读取记录的原始排序值，用于按最后下发的记录计算search_after位置 */
+    private transient ArrayDeque<RowSortValues> readSortValues;
+
+    public static int defaultBatchSize(String readMode) {
+        return EsConstants.READ_MODE_SEARCH_AFTER.equals(readMode) ? DEFAULT_SEARCH_AFTER_BATCH_SIZE : DEFAULT_BATCH_SIZE;
+    }
+
     @Override
     public void openInputFormat() throws IOException {
         super.openInputFormat();
@@ -72,8 +103,68 @@ public class EsInputFormat extends GenericRichInputFormat {
         GenericInputSplit genericInputSplit = (GenericInputSplit)inputSplit;
 
         client = EsUtil.getClient(address, username, password, clientConfig);
+        hitDecoder = new EsHitDecoder(columnNames, columnTypes, columnValues);
+        searchHits = new SearchHit[0];
+        hitIndex = 0;
+        //各分片独立计算读取位置，无断点续传状态时从头读取
+        lastSortValues = null;
+        readSortValues = new ArrayDeque<>();
+
+        if(isSearchAfter()){
+            openSearchAfter(genericInputSplit);
+            return;
+        }
+
         scroll = new Scroll(TimeValue.timeValueMinutes(keepAlive));
 
+        SearchSourceBuilder searchSourceBuilder = createSearchSource();
+        if(genericInputSplit.getTotalNumberOfSplits() > 1){
+            searchSourceBuilder.slice(new SliceBuilder(genericInputSplit.getSplitNumber(), genericInputSplit.getTotalNumberOfSplits()));
+        }
+
+        searchRequest = new SearchRequest(index);
+        searchRequest.types(type);
+        searchRequest.scroll(scroll);
+        searchRequest.source(searchSourceBuilder);
+    }
+
+    private void openSearchAfter(GenericInputSplit inputSplit) throws IOException {
+        searchRequest = new SearchRequest(index);
+        searchRequest.types(type);
+
+        //search_after不支持slice，多分片时按ES分片号取模分配，各分片通过preference只查询分配到的ES分片
+        if(inputSplit.getTotalNumberOfSplits() > 1){
+            String shards = getAssignedShards(inputSplit);
+            if(shards.isEmpty()){
+                LOG.info("no elasticsearch shard assigned to split [{}]", inputSplit.getSplitNumber());
+                return;
+            }
+            searchRequest.preference("_shards:" + shards);
+        }
+
+        Object[] searchAfter = null;
+        if(formatState != null && formatState.getState() != null){
+            searchAfter = (Object[]) formatState.getState();
+            lastSortValues = searchAfter;
+            LOG.info("restore search_after from {}", StringUtils.join(searchAfter, ","));
+        }
+        nextPage = searchAsync(searchAfter);
+    }
+
+    private String getAssignedShards(GenericInputSplit inputSplit) throws IOException {
+        SearchRequest shardsRequest = new SearchRequest(index);
+        shardsRequest.types(type);
+        shardsRequest.source(new SearchSourceBuilder().size(0));
+        int totalShards = client.search(shardsRequest).getTotalShards();
+
+        List<String> shards = new ArrayList<>();
+        for (int shard = inputSplit.getSplitNumber(); shard < totalShards; shard += inputSplit.getTotalNumberOfSplits()) {
+            shards.add(String.valueOf(shard));
+        }
+        return StringUtils.join(shards, ",");
+    }
+
+    private SearchSourceBuilder createSearchSource() {
         SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
         searchSourceBuilder.size(batchSize);
 
@@ -81,14 +172,38 @@ public class EsInputFormat extends GenericRichInputFormat {
             searchSourceBuilder.query(QueryBuilders.wrapperQuery(query));
         }
 
-        if(genericInputSplit.getTotalNumberOfSplits() > 1){
-            searchSourceBuilder.slice(new SliceBuilder(genericInputSplit.getSplitNumber(), genericInputSplit.getTotalNumberOfSplits()));
+        //_source仅返回配置的列，全部为常量列时不返回_source
+        String[] sourceIncludes = hitDecoder.getSourceIncludes();
+        if(sourceIncludes.length > 0){
+            searchSourceBuilder.fetchSource(sourceIncludes, null);
+        } else {
+            searchSourceBuilder.fetchSource(false);
         }
+        return searchSourceBuilder;
+    }
 
-        searchRequest = new SearchRequest(index);
-        searchRequest.types(type);
-        searchRequest.scroll(scroll);
+    private CompletableFuture<SearchResponse> searchAsync(Object[] searchAfter) {
+        SearchSourceBuilder searchSourceBuilder = createSearchSource();
+        searchSourceBuilder.sort(sortField, SortOrder.ASC);
+        searchSourceBuilder.trackTotalHits(false);
+        if(searchAfter != null){
+            searchSourceBuilder.searchAfter(searchAfter);
+        }
         searchRequest.source(searchSourceBuilder);
+
+        CompletableFuture<SearchResponse> future = new CompletableFuture<>();
+        client.searchAsync(searchRequest, new ActionListener<SearchResponse>() {
+            @Override
+            public void onResponse(SearchResponse searchResponse) {
+                future.complete(searchResponse);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
     }
 
     @Override
@@ -103,45 +218,123 @@ public class EsInputFormat extends GenericRichInputFormat {
 
     @Override
     public boolean reachedEnd() throws IOException {
-        if(iterator != null && iterator.hasNext()) {
+        if(hitIndex < searchHits.length) {
             return false;
         } else {
-            return searchScroll();
+            return isSearchAfter() ? searchAfter() : searchScroll();
         }
     }
 
+    private boolean searchAfter() throws IOException {
+        if(nextPage == null){
+            return true;
+        }
+
+        SearchResponse searchResponse;
+        try {
+            searchResponse = nextPage.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("search_after request interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("search_after request error", e.getCause());
+        }
+
+        searchHits = searchResponse.getHits().getHits();
+        hitIndex = 0;
+
+        //当前页未满即为最后一页，否则在下发当前页时预取下一页
+        nextPage = searchHits.length < batchSize ? null : searchAsync(searchHits[searchHits.length - 1].getSortValues());
+        return searchHits.length == 0;
+    }
+
     private boolean searchScroll() throws IOException{
-        SearchHit[] searchHits;
+        SearchResponse searchResponse;
         if(scrollId == null){
-            SearchResponse searchResponse = client.search(searchRequest);
-            scrollId = searchResponse.getScrollId();
-            searchHits = searchResponse.getHits().getHits();
+            searchResponse = client.search(searchRequest);
         } else {
             SearchScrollRequest scrollRequest = new SearchScrollRequest(scrollId);
             scrollRequest.scroll(scroll);
-            SearchResponse searchResponse = client.searchScroll(scrollRequest);
-            scrollId = searchResponse.getScrollId();
-            searchHits = searchResponse.getHits().getHits();
+            searchResponse = client.searchScroll(scrollRequest);
         }
+        scrollId = searchResponse.getScrollId();
+        searchHits = searchResponse.getHits().getHits();
+        hitIndex = 0;
 
-        List<Map<String, Object>> resultList = Lists.newArrayList();
-        for(SearchHit searchHit : searchHits) {
-            Map<String,Object> source = searchHit.getSourceAsMap();
-            resultList.add(source);
+        return searchHits.length == 0;
+    }
+
+    @Override
+    public Row doNextRecord(Row row) throws IOException {
+        SearchHit searchHit = searchHits[hitIndex++];
+        lastSortValues = searchHit.getSortValues();
+        Row record = hitDecoder.decode(searchHit.getSourceRef());
+        if (prefetchSize > 0 && isSearchAfter()) {
+            //未下发的记录至多为预读队列中的记录及读取线程待放入队列的一条
+            synchronized (readSortValues) {
+                readSortValues.addLast(new RowSortValues(record, lastSortValues));
+                while (readSortValues.size() > prefetchSize + 2) {
+                    readSortValues.pollFirst();
+                }
+            }
         }
+        return record;
+    }
+
+    @Override
+    public FormatState getFormatState() {
+        super.getFormatState();
 
-        iterator = resultList.iterator();
-        return !iterator.hasNext();
+        if (formatState != null && lastSortValues != null) {
+            formatState.setState(lastSortValues);
+        }
+        return formatState;
     }
 
     @Override
-    public Row doNextRecord(Row row) throws IOException {
-        return EsUtil.jsonMapToRow(iterator.next(), columnNames, columnTypes, columnValues);
+    public FormatState getFormatState(Row lastEmittedRow) {
+        //按最后下发记录读取时ES返回的原始排序值计算search_after位置，与非预读模式一致，尚未下发记录时以分片起始状态为准
+        FormatState state = getSplitStartState();
+        Object[] sortValues = getReadSortValues(lastEmittedRow);
+        if (state != null && sortValues != null) {
+            state.setState(sortValues);
+        }
+        return state;
+    }
+
+    /**
+     * 查找记录读取时的排序值，并移除之前已下发记录的排序值
+     */
+    private Object[] getReadSortValues(Row row) {
+        if (row == null || readSortValues == null) {
+            return null;
+        }
+        synchronized (readSortValues) {
+            int index = 0;
+            for (RowSortValues rowSortValues : readSortValues) {
+                if (rowSortValues.row == row) {
+                    for (int i = 0; i < index; i++) {
+                        readSortValues.pollFirst();
+                    }
+                    return rowSortValues.sortValues;
+                }
+                index++;
+            }
+        }
+        return null;
+    }
+
+    private boolean isSearchAfter() {
+        return EsConstants.READ_MODE_SEARCH_AFTER.equals(readMode);
     }
 
     @Override
     public void doClose() throws IOException {
         if(client != null) {
+            if(nextPage != null){
+                nextPage.cancel(true);
+                nextPage = null;
+            }
             clearScroll();
 
             client.close();
@@ -160,4 +353,16 @@ public class EsInputFormat extends GenericRichInputFormat {
         boolean succeeded = clearScrollResponse.isSucceeded();
         LOG.info("Clear scroll response:{}", succeeded);
     }
+
+    private static class RowSortValues {
+
+        private final Row row;
+
+        private final Object[] sortValues;
+
+        private RowSortValues(Row row, Object[] sortValues) {
+            this.row = row;
+            this.sortValues = sortValues;
+        }
+    }
 }
@@ -3,6 +3,8 @@ package com.leonside.dataroad.plugin.es.reader;
 
 import com.leonside.dataroad.common.constant.JobCommonConstant;
 import com.leonside.dataroad.flink.reader.inputformat.GenericRichInputFormatBuilder;
+import com.leonside.dataroad.plugin.es.config.EsConstants;
+import org.apache.commons.lang3.StringUtils;
 
 import java.util.List;
 import java.util.Map;
@@ -76,15 +78,45 @@ public class EsInputFormatBuilder extends GenericRichInputFormatBuilder {
         return this;
     }
 
+    public EsInputFormatBuilder setReadMode(String readMode){
+        if(StringUtils.isNotEmpty(readMode)){
+            format.readMode = readMode;
+        }
+        return this;
+    }
+
+    public EsInputFormatBuilder setSortField(String sortField){
+        if(StringUtils.isNotEmpty(sortField)){
+            format.sortField = sortField;
+        }
+        return this;
+    }
+
     public EsInputFormatBuilder setClientConfig(Map<String, Object> clientConfig){
         format.clientConfig = clientConfig;
         return this;
     }
 
+    @Override
+    public EsInputFormat finish() {
+        if(format.batchSize <= 0){
+            format.batchSize = EsInputFormat.defaultBatchSize(format.readMode);
+        }
+        //断点续传按restoreColumnName排序，最后下发记录的字段值即search_after位置
+        if(format.getRestoreConfig() != null && format.getRestoreConfig().isRestore()){
+            format.sortField = format.getRestoreConfig().getRestoreColumnName();
+        }
+        return (EsInputFormat) super.finish();
+    }
+
     @Override
     public boolean validate() {
-        if (format.getRestoreConfig() != null && format.getRestoreConfig().isRestore()){
-            throw new UnsupportedOperationException("This plugin not support restore from failed state");
+        if (!EsConstants.READ_MODE_SCROLL.equals(format.readMode) && !EsConstants.READ_MODE_SEARCH_AFTER.equals(format.readMode)){
+            throw new IllegalArgumentException("readMode must be one of [scroll, searchAfter], but is [" + format.readMode + "]");
+        }
+
+        if (format.getRestoreConfig() != null && format.getRestoreConfig().isRestore() && !EsConstants.READ_MODE_SEARCH_AFTER.equals(format.readMode)){
+            throw new UnsupportedOperationException("Only searchAfter readMode support restore from failed state");
         }
 
         if (format.batchSize > JobCommonConstant.MAX_BATCH_SIZE) {
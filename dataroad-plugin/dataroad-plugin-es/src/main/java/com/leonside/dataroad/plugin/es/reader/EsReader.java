@@ -6,26 +6,42 @@ import com.leonside.dataroad.common.constant.JobCommonConstant;
 import com.leonside.dataroad.common.spi.ItemReader;
 import com.leonside.dataroad.common.utils.ParameterUtils;
 import com.leonside.dataroad.core.component.ComponentInitialization;
+import com.leonside.dataroad.core.planner.ColumnPredicate;
+import com.leonside.dataroad.core.planner.FilterPushdownSupport;
+import com.leonside.dataroad.core.planner.ProjectionPushdownSupport;
 import com.leonside.dataroad.flink.context.FlinkExecuteContext;
 import com.leonside.dataroad.flink.reader.BaseItemReader;
+import com.leonside.dataroad.flink.reader.BoundedSupport;
+import com.leonside.dataroad.flink.reader.TableScanSupport;
+import com.leonside.dataroad.flink.reader.inputformat.GenericRichInputFormat;
 import com.leonside.dataroad.plugin.es.config.EsReaderConfig;
 import com.leonside.dataroad.plugin.es.config.EsReaderConfigKey;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.flink.api.common.io.InputFormat;
+import org.apache.flink.api.common.typeinfo.BasicTypeInfo;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.java.typeutils.RowTypeInfo;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.types.Row;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * The Reader plugin of ElasticSearch
  *
  */
 @SuppressWarnings("uncheck")
-public class EsReader extends BaseItemReader implements ItemReader<FlinkExecuteContext, DataStream<Row>>, ComponentInitialization<FlinkExecuteContext,EsReaderConfig> {
+public class EsReader extends BaseItemReader implements ItemReader<FlinkExecuteContext, DataStream<Row>>, ComponentInitialization<FlinkExecuteContext,EsReaderConfig>, FilterPushdownSupport, ProjectionPushdownSupport, TableScanSupport, BoundedSupport {
 
     private static Logger LOG = LoggerFactory.getLogger(EsReader.class);
 
@@ -37,8 +53,18 @@ public class EsReader extends BaseItemReader implements ItemReader<FlinkExecuteC
     protected List<String> columnValue;
     protected List<String> columnName;
 
+    private Object scanQuery;
+    private Integer scanBatchSize;
+    private List<String> scanColumnName;
+    private List<String> scanColumnType;
+    private List<String> scanColumnValue;
+
     @Override
     public DataStream<Row> read(FlinkExecuteContext executeContext) throws Exception {
+        return createInput(executeContext, createInputFormat());
+    }
+
+    private GenericRichInputFormat createInputFormat() {
         EsInputFormatBuilder builder = new EsInputFormatBuilder();
         builder.setColumnNames(columnName)
                 .setColumnTypes(columnType)
@@ -49,14 +75,92 @@ public class EsReader extends BaseItemReader implements ItemReader<FlinkExecuteC
                 .setIndex(new String[]{esReaderConfig.getIndex()})
                 .setType(new String[]{esReaderConfig.getIndexType()})
                 .setBatchSize(esReaderConfig.getBatchSize())
+                .setReadMode(esReaderConfig.getReadMode())
+                .setSortField(esReaderConfig.getSortField())
                 .setClientConfig(clientConfig)
+                .setRestoreConfig(restoreConfig)
                 .setBytes(bytes)
+                .setRecords(records)
                 .setMonitorUrls(monitorUrls);
         if(esReaderConfig.getQuery() != null){
             builder.setQuery(new Gson().toJson(esReaderConfig.getQuery() ));
         }
+        return builder.finish();
+    }
 
-        return createInput(executeContext, builder.finish());
+    @Override
+    public boolean isBounded() {
+        //scroll、search_after读取至最后一页即结束
+        return true;
+    }
+
+    @Override
+    public RowTypeInfo getScanRowType() {
+        if(columnName == null){
+            return null;
+        }
+        TypeInformation[] types = new TypeInformation[columnName.size()];
+        for (int i = 0; i < columnName.size(); i++) {
+            types[i] = toTypeInformation(columnType.get(i));
+            if(types[i] == null || StringUtils.isBlank(columnName.get(i))){
+                return null;
+            }
+        }
+        return new RowTypeInfo(types, columnName.toArray(new String[0]));
+    }
+
+    @Override
+    public InputFormat<Row, ?> createScanInputFormat(List<ColumnPredicate> filters, List<String> columns, long limit) {
+        //每次按原始配置下推，SQL可能被多次翻译
+        if(scanColumnName == null){
+            scanQuery = esReaderConfig.getQuery();
+            scanBatchSize = esReaderConfig.getBatchSize();
+            scanColumnName = columnName;
+            scanColumnType = columnType;
+            scanColumnValue = columnValue;
+        }
+        esReaderConfig.setQuery(scanQuery);
+        columnName = scanColumnName;
+        columnType = scanColumnType;
+        columnValue = scanColumnValue;
+        int batchSize = scanBatchSize == null || scanBatchSize <= 0 ? EsInputFormat.defaultBatchSize(esReaderConfig.getReadMode()) : scanBatchSize;
+        esReaderConfig.setBatchSize(limit > 0 ? (int) Math.min(batchSize, limit) : batchSize);
+
+        pushdownFilters(filters);
+        pruneColumns(new HashSet<>(columns));
+        return createInputFormat();
+    }
+
+    private TypeInformation toTypeInformation(String type){
+        if(type == null){
+            return null;
+        }
+        switch (type.toLowerCase(Locale.ENGLISH)){
+            case "keyword":
+            case "text":
+            case "string":
+            case "date":
+                return BasicTypeInfo.STRING_TYPE_INFO;
+            case "integer":
+            case "int":
+                return BasicTypeInfo.INT_TYPE_INFO;
+            case "long":
+                return BasicTypeInfo.LONG_TYPE_INFO;
+            case "short":
+                return BasicTypeInfo.SHORT_TYPE_INFO;
+            case "byte":
+                return BasicTypeInfo.BYTE_TYPE_INFO;
+            case "double":
+            case "scaled_float":
+                return BasicTypeInfo.DOUBLE_TYPE_INFO;
+            case "float":
+            case "half_float":
+                return BasicTypeInfo.FLOAT_TYPE_INFO;
+            case "boolean":
+                return BasicTypeInfo.BOOLEAN_TYPE_INFO;
+            default:
+                return null;
+        }
     }
 
     @Override
@@ -90,6 +194,78 @@ public class EsReader extends BaseItemReader implements ItemReader<FlinkExecuteC
         }
     }
 
+    @Override
+    public List<ColumnPredicate> pushdownFilters(List<ColumnPredicate> predicates) {
+        Object query = esReaderConfig.getQuery();
+        if(columnName == null || (query != null && !(query instanceof Map))){
+            return Collections.emptyList();
+        }
+
+        List<ColumnPredicate> pushed = new ArrayList<>();
+        List<Object> filters = new ArrayList<>();
+        for (ColumnPredicate predicate : predicates) {
+            int index = columnName.indexOf(predicate.getColumn());
+            //text字段经分词，term查询与脚本比较语义不一致
+            if(index < 0 || columnValue.get(index) != null || "text".equalsIgnoreCase(columnType.get(index))
+                    || !predicate.matchesColumnType(columnType.get(index))){
+                continue;
+            }
+            filters.add(toQueryFilter(predicate));
+            pushed.add(predicate);
+        }
+
+        if(!filters.isEmpty()){
+            Map<String,Object> bool = new LinkedHashMap<>();
+            if(query != null){
+                bool.put("must", Collections.singletonList(query));
+            }
+            bool.put("filter", filters);
+            esReaderConfig.setQuery(Collections.singletonMap("bool", bool));
+        }
+        return pushed;
+    }
+
+    @Override
+    public List<String> pruneColumns(Set<String> referencedColumns) {
+        if(columnName == null){
+            return Collections.emptyList();
+        }
+        List<String> prunedColumns = new ArrayList<>();
+        List<String> keptNames = new ArrayList<>();
+        List<String> keptTypes = new ArrayList<>();
+        List<String> keptValues = new ArrayList<>();
+        for (int i = 0; i < columnName.size(); i++) {
+            if(referencedColumns.contains(columnName.get(i))){
+                keptNames.add(columnName.get(i));
+                keptTypes.add(columnType.get(i));
+                keptValues.add(columnValue.get(i));
+            }else{
+                prunedColumns.add(columnName.get(i));
+            }
+        }
+        if(keptNames.isEmpty() || prunedColumns.isEmpty()){
+            return Collections.emptyList();
+        }
+        columnName = keptNames;
+        columnType = keptTypes;
+        columnValue = keptValues;
+        return prunedColumns;
+    }
+
+    private Map<String,Object> toQueryFilter(ColumnPredicate predicate){
+        if(predicate.getOperator() == ColumnPredicate.Operator.EQ){
+            return Collections.singletonMap("term", Collections.singletonMap(predicate.getColumn(), predicate.getValue()));
+        }
+        String rangeOperator;
+        switch (predicate.getOperator()){
+            case GT: rangeOperator = "gt"; break;
+            case GE: rangeOperator = "gte"; break;
+            case LT: rangeOperator = "lt"; break;
+            default: rangeOperator = "lte";
+        }
+        return Collections.singletonMap("range", Collections.singletonMap(predicate.getColumn(), Collections.singletonMap(rangeOperator, predicate.getValue())));
+    }
+
     @Override
     public String description() {
         return super.description();
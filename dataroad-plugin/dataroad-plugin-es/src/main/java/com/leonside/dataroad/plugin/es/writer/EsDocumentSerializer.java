@@ -0,0 +1,196 @@
+package com.leonside.dataroad.plugin.es.writer;
+
+import com.leonside.dataroad.common.domain.ColumnType;
+import com.leonside.dataroad.common.exception.WriteRecordException;
+import com.leonside.dataroad.common.utils.DateUtil;
+import com.leonside.dataroad.common.utils.StringUtil;
+import org.apache.flink.types.Row;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ES文档序列化：打开时将column预编译为字段路径树及各列类型，写入时将Row直接序列化为JSON字节，
+ * 不再逐条拆分字段路径、构建嵌套Map后再由客户端序列化。类型转换与{@link StringUtil#object2col}、
+ * 文档主键与{@link StringUtil#col2string}保持一致。非线程安全，每个写入实例独立使用
+ * @author leon
+ */
+public class EsDocumentSerializer {
+
+    private final FieldNode root = new FieldNode(null);
+
+    private final String[] idColumnNames;
+
+    private final String[] idColumnTypeNames;
+
+    private final ColumnType[] idColumnTypes;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+
+    public EsDocumentSerializer(List<String> columnNames, List<String> columnTypes, List<String> idColumnNames, List<String> idColumnTypes) {
+        for (int i = 0; i < columnNames.size(); i++) {
+            String[] parts = columnNames.get(i).split("\\.");
+            FieldNode node = root;
+            for (String part : parts) {
+                if (node.columnName != null) {
+                    throw new IllegalArgumentException("es column [" + columnNames.get(i) + "] conflicts with column [" + node.columnName + "]");
+                }
+                node = node.children.computeIfAbsent(part, FieldNode::new);
+            }
+            if (!node.children.isEmpty()) {
+                throw new IllegalArgumentException("es column [" + columnNames.get(i) + "] conflicts with its nested columns");
+            }
+            node.columnIndex = i;
+            node.columnName = columnNames.get(i);
+            node.columnType = columnTypes.get(i) == null ? null : ColumnType.getType(columnTypes.get(i));
+        }
+
+        int numIdColumns = idColumnNames == null ? 0 : idColumnNames.size();
+        this.idColumnNames = new String[numIdColumns];
+        this.idColumnTypeNames = new String[numIdColumns];
+        this.idColumnTypes = new ColumnType[numIdColumns];
+        for (int i = 0; i < numIdColumns; i++) {
+            this.idColumnNames[i] = idColumnNames.get(i);
+            this.idColumnTypeNames[i] = idColumnTypes.get(i);
+            this.idColumnTypes[i] = idColumnTypes.get(i) == null ? null : ColumnType.getType(idColumnTypes.get(i));
+        }
+    }
+
+    public byte[] serialize(Row row) throws WriteRecordException {
+        buffer.reset();
+        FieldNode[] current = new FieldNode[1];
+        try {
+            XContentBuilder builder = new XContentBuilder(JsonXContent.jsonXContent, buffer);
+            builder.startObject();
+            writeFields(builder, root, row, current);
+            builder.endObject();
+            builder.close();
+        } catch (Exception ex) {
+            int pos = current[0] == null ? -1 : current[0].columnIndex;
+            String msg = "EsDocumentSerializer Writing record error: when converting field[" + pos + "] in Row(" + row + ")：" + ex.getMessage();
+            throw new WriteRecordException(pos, msg, ex);
+        }
+        return buffer.toByteArray();
+    }
+
+    private void writeFields(XContentBuilder builder, FieldNode node, Row row, FieldNode[] current) throws IOException {
+        for (FieldNode child : node.children.values()) {
+            builder.field(child.name);
+            if (child.columnName != null) {
+                current[0] = child;
+                writeValue(builder, row.getField(child.columnName), child.columnType);
+            } else {
+                builder.startObject();
+                writeFields(builder, child, row, current);
+                builder.endObject();
+            }
+        }
+    }
+
+    private void writeValue(XContentBuilder builder, Object value, ColumnType columnType) throws IOException {
+        if (value == null) {
+            builder.nullValue();
+            return;
+        }
+        if (columnType == null) {
+            builder.value(value);
+            return;
+        }
+        switch (columnType) {
+            case TINYINT:
+                builder.value(Byte.valueOf(value.toString().trim()));
+                break;
+            case SMALLINT:
+                builder.value(Short.valueOf(value.toString().trim()));
+                break;
+            case INT:
+                builder.value(value instanceof Integer ? (int) value : Integer.parseInt(value.toString().trim()));
+                break;
+            case MEDIUMINT:
+            case BIGINT:
+                if (value instanceof Long || value instanceof Integer) {
+                    builder.value(((Number) value).longValue());
+                } else {
+                    builder.value(Long.parseLong(value.toString().trim()));
+                }
+                break;
+            case FLOAT:
+                builder.value(value instanceof Float ? (float) value : Float.parseFloat(value.toString().trim()));
+                break;
+            case DOUBLE:
+                builder.value(value instanceof Double ? (double) value : Double.parseDouble(value.toString().trim()));
+                break;
+            case BOOLEAN:
+                builder.value(value instanceof Boolean ? (boolean) value : Boolean.parseBoolean(value.toString().trim().toLowerCase()));
+                break;
+            case DATE:
+                builder.value((Object) DateUtil.columnToDate(value, null));
+                break;
+            case TIMESTAMP:
+            case DATETIME:
+                builder.value((Object) DateUtil.columnToTimestamp(value, null));
+                break;
+            default:
+                builder.value(value.toString());
+        }
+    }
+
+    /**
+     * 按主键列拼接文档主键，未配置主键列时返回null由ES生成
+     */
+    public String getId(Row row) throws WriteRecordException {
+        if (idColumnNames.length == 0) {
+            return null;
+        }
+        if (idColumnNames.length == 1) {
+            return idToString(row, 0);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < idColumnNames.length; i++) {
+            sb.append(idToString(row, i));
+        }
+        return sb.toString();
+    }
+
+    private String idToString(Row row, int i) throws WriteRecordException {
+        Object value = row.getField(idColumnNames[i]);
+        try {
+            if (value == null) {
+                return "";
+            }
+            ColumnType columnType = idColumnTypes[i];
+            if (columnType == null
+                    || (value instanceof String && ColumnType.STRING_TYPE.contains(columnType))
+                    || (value instanceof Integer && (columnType == ColumnType.INT || columnType == ColumnType.INTEGER))
+                    || ((value instanceof Long || value instanceof Integer) && (columnType == ColumnType.BIGINT || columnType == ColumnType.LONG))) {
+                return value.toString();
+            }
+            return StringUtil.col2string(value, idColumnTypeNames[i]);
+        } catch (Exception ex) {
+            String msg = getClass().getName() + " Writing record error: when converting field[" + i + "] in Row(" + row + ")";
+            throw new WriteRecordException(i, msg, ex);
+        }
+    }
+
+    private static class FieldNode {
+
+        private final String name;
+
+        private final Map<String, FieldNode> children = new LinkedHashMap<>();
+
+        private int columnIndex = -1;
+
+        private String columnName;
+
+        private ColumnType columnType;
+
+        private FieldNode(String name) {
+            this.name = name;
+        }
+    }
+}
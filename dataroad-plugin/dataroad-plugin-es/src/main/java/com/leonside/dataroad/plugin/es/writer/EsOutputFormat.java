@@ -2,25 +2,46 @@
 package com.leonside.dataroad.plugin.es.writer;
 
 import com.leonside.dataroad.common.exception.WriteRecordException;
-import com.leonside.dataroad.common.utils.StringUtil;
+import com.leonside.dataroad.flink.restore.FormatState;
+import com.leonside.dataroad.flink.utils.RowSizeEstimator;
 import com.leonside.dataroad.flink.writer.outputformat.GenericRichOutputFormat;
 import com.leonside.dataroad.plugin.es.EsUtil;
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.apache.flink.configuration.Configuration;
 import org.apache.flink.types.Row;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.rest.RestStatus;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The OutputFormat class of ElasticSearch
  *
+ * <p>批量写入时bulk请求异步执行，同时执行中的请求数不超过concurrentRequests，达到上限时阻塞算子线程形成反压；
+ * bulk中被拒绝（429）的记录及连接异常的请求按指数退避重试，仅重试失败的记录，重试耗尽或不可重试的记录在算子线程中作为脏数据处理；
+ * checkpoint及关闭时等待执行中的请求全部完成。
+ * 开启延迟跟踪时，每个bulk请求携带提交前暂存的采样，请求（含重试）完成后交回算子线程计入sourceToCommit，writeCall统计请求发出至完成的耗时。
+ *
+ * <p>concurrentRequests大于1时多个bulk请求并发执行，被拒绝（429）的记录延迟重试，
+ * 同一文档id的旧版本可能晚于之后的新版本写入并将其覆盖；需要保证同一id按顺序写入时concurrentRequests应设置为1。
  */
 public class EsOutputFormat extends GenericRichOutputFormat {
 
@@ -48,8 +69,27 @@ public class EsOutputFormat extends GenericRichOutputFormat {
 
     private transient RestHighLevelClient client;
 
+    protected int bulkSizeMb;
+
+    protected int concurrentRequests = 1;
+
+    protected int maxRetries;
+
+    protected long retryBackoff;
+
     private transient BulkRequest bulkRequest;
 
+    private transient EsDocumentSerializer serializer;
+
+    private transient Semaphore inFlightRequests;
+
+    private transient ScheduledExecutorService retryExecutor;
+
+    private transient Queue<FailedRecord> failedRecords;
+
+    private transient Queue<CompletedBulk> completedBulks;
+
+    private transient long bufferedBytes;
 
     @Override
     public void configure(Configuration configuration) {
@@ -59,14 +99,30 @@ public class EsOutputFormat extends GenericRichOutputFormat {
 
     @Override
     public void doOpen(int taskNumber, int numTasks) throws IOException {
+        serializer = new EsDocumentSerializer(columnNames, columnTypes, idColumnNames, idColumnTypes);
+        inFlightRequests = new Semaphore(concurrentRequests);
+        failedRecords = new ConcurrentLinkedQueue<>();
+        completedBulks = new ConcurrentLinkedQueue<>();
+        retryExecutor = new ScheduledThreadPoolExecutor(1,
+                new BasicThreadFactory.Builder().namingPattern("EsBulkRetryThread-" + taskNumber + "-%d").daemon(true).build());
+    }
+
+    @Override
+    public void writeRecord(Row row) throws IOException {
+        super.writeRecord(row);
 
+        //记录数未达到bulkAction但数据量达到bulkSizeMb时提前提交
+        if(batchInterval > 1 && bulkSizeMb > 0 && !rows.isEmpty()){
+            bufferedBytes += RowSizeEstimator.estimate(row);
+            if(bufferedBytes >= bulkSizeMb * 1024L * 1024L){
+                doWriteRecord();
+            }
+        }
     }
 
     @Override
     protected void doWriteSingleRecord(Row row) throws WriteRecordException {
-        String id = getId(row);
-        IndexRequest request = StringUtils.isBlank(id) ? new IndexRequest(index, type) : new IndexRequest(index, type, id);
-        request = request.source(EsUtil.rowToJsonMap(row, columnNames, columnTypes));
+        IndexRequest request = createIndexRequest(row);
         try {
             client.index(request);
         } catch (Exception ex) {
@@ -76,58 +132,225 @@ public class EsOutputFormat extends GenericRichOutputFormat {
 
     @Override
     protected void doWriteMultipleRecords() throws Exception {
+        bufferedBytes = 0;
+        handleFailedRecords();
+        handleCompletedBulks();
+
         bulkRequest = new BulkRequest();
+        List<Row> bulkRows = new ArrayList<>(rows.size());
         for(Row row : rows) {
-            String id = getId(row);
-            IndexRequest request = StringUtils.isBlank(id) ? new IndexRequest(index, type) : new IndexRequest(index, type, id);
-            request = request.source(EsUtil.rowToJsonMap(row, columnNames, columnTypes));
-            bulkRequest.add(request);
+            try {
+                bulkRequest.add(createIndexRequest(row));
+                bulkRows.add(row);
+            } catch (WriteRecordException e) {
+                saveWriteError(row, e);
+            }
         }
-
-        BulkResponse response = client.bulk(bulkRequest);
-        if (response.hasFailures()){
-            processFailResponse(response);
+        long[] latencySamples = latencyMetric.drainPending();
+        if(bulkRows.isEmpty()){
+            return;
         }
+
+        inFlightRequests.acquire();
+        submitBulk(bulkRequest, bulkRows, 0, new CompletedBulk(latencySamples, System.currentTimeMillis()));
     }
 
-    private void processFailResponse(BulkResponse response){
-        BulkItemResponse[] itemResponses = response.getItems();
-        for (int i = 0; i < itemResponses.length; i++) {
-            if(itemResponses[i].isFailed()){
-                if (errCounter != null) {
-                    errCounter.add(1);
+    /**
+     * 异步提交bulk请求，请求及其重试全部完成后释放并发许可
+     */
+    private void submitBulk(BulkRequest request, List<Row> bulkRows, int retries, CompletedBulk bulk) {
+        ActionListener<BulkResponse> listener = new ActionListener<BulkResponse>() {
+            @Override
+            public void onResponse(BulkResponse response) {
+                if (!response.hasFailures()) {
+                    complete(bulk, true);
+                    return;
+                }
+                BulkRequest retryRequest = new BulkRequest();
+                List<Row> retryRows = new ArrayList<>();
+                for (BulkItemResponse itemResponse : response.getItems()) {
+                    if (!itemResponse.isFailed()) {
+                        continue;
+                    }
+                    Row row = bulkRows.get(itemResponse.getItemId());
+                    if (retries < maxRetries && itemResponse.getFailure().getStatus() == RestStatus.TOO_MANY_REQUESTS) {
+                        retryRequest.add((DocWriteRequest) request.requests().get(itemResponse.getItemId()));
+                        retryRows.add(row);
+                    } else {
+                        failedRecords.add(new FailedRecord(row, new WriteRecordException(itemResponse.getFailureMessage(), itemResponse.getFailure().getCause())));
+                    }
+                }
+                if (retryRows.isEmpty()) {
+                    complete(bulk, true);
+                } else {
+                    retryBulk(retryRequest, retryRows, retries, bulk);
+                }
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                if (retries < maxRetries && isRetryable(e)) {
+                    retryBulk(request, bulkRows, retries, bulk);
+                    return;
+                }
+                for (Row row : bulkRows) {
+                    failedRecords.add(new FailedRecord(row, new WriteRecordException(e.getMessage(), e)));
                 }
+                complete(bulk, false);
             }
+        };
+
+        try {
+            client.bulkAsync(request, listener);
+        } catch (Exception e) {
+            listener.onFailure(e);
         }
     }
 
-    @Override
-    public void doClose() throws IOException {
-        if(client != null) {
-            client.close();
+    private void retryBulk(BulkRequest request, List<Row> bulkRows, int retries, CompletedBulk bulk) {
+        long delay = retryBackoff << retries;
+        LOG.warn("retry {} records of bulk request after {} ms, retries [{}]", bulkRows.size(), delay, retries + 1);
+        retryExecutor.schedule(() -> submitBulk(request, bulkRows, retries + 1, bulk), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * bulk请求（含重试）完成，交回算子线程统计延迟后释放并发许可
+     */
+    private void complete(CompletedBulk bulk, boolean committed) {
+        bulk.committed = committed;
+        bulk.completeTime = System.currentTimeMillis();
+        completedBulks.add(bulk);
+        inFlightRequests.release();
+    }
+
+    private boolean isRetryable(Exception e) {
+        if (e instanceof ElasticsearchStatusException) {
+            return ((ElasticsearchStatusException) e).status() == RestStatus.TOO_MANY_REQUESTS;
+        }
+        return e instanceof IOException;
+    }
+
+    /**
+     * 在算子线程中处理异步写入失败的记录
+     */
+    private void handleFailedRecords() {
+        FailedRecord failedRecord;
+        boolean hasFailure = false;
+        while ((failedRecord = failedRecords.poll()) != null) {
+            saveWriteError(failedRecord.row, failedRecord.exception);
+            hasFailure = true;
+        }
+        if (hasFailure && errorLimiter != null) {
+            errorLimiter.acquire();
         }
     }
 
+    /**
+     * 在算子线程中统计已完成bulk请求的延迟，整体写入失败的请求丢弃其采样
+     */
+    private void handleCompletedBulks() {
+        CompletedBulk bulk;
+        while ((bulk = completedBulks.poll()) != null) {
+            latencyMetric.updateWriteCall(bulk.submitTime, bulk.completeTime);
+            if (bulk.committed) {
+                latencyMetric.commit(bulk.latencySamples, bulk.completeTime);
+            }
+        }
+    }
 
-    private String getId(Row record) throws WriteRecordException {
-        if(idColumnNames == null || idColumnNames.size() == 0) {
-            return null;
+    /**
+     * 等待执行中的bulk请求（含重试）全部完成
+     */
+    private void waitForInFlightRequests() throws IOException {
+        if (inFlightRequests == null) {
+            return;
+        }
+        try {
+            inFlightRequests.acquire(concurrentRequests);
+            inFlightRequests.release(concurrentRequests);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("wait for in-flight bulk requests interrupted", e);
         }
-        StringBuilder sb = new StringBuilder();
-        int i = 0;
+        handleFailedRecords();
+        handleCompletedBulks();
+    }
+
+    @Override
+    protected boolean isCommitDeferred() {
+        return batchInterval > 1;
+    }
+
+    @Override
+    protected boolean isWriteAsync() {
+        return batchInterval > 1;
+    }
+
+    @Override
+    public FormatState getFormatState() {
+        //checkpoint时提交缓存的记录并等待执行中的请求完成，保证checkpoint前的记录均已写入
+        if (batchInterval > 1) {
+            if (!rows.isEmpty()) {
+                doWriteRecord();
+            }
+            try {
+                waitForInFlightRequests();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return super.getFormatState();
+    }
+
+    @Override
+    public void doClose() throws IOException {
         try {
-            for(; i < idColumnNames.size(); ++i) {
-                String name = idColumnNames.get(i);
-                String type =  idColumnTypes.get(i);
-                sb.append(StringUtil.col2string(record.getField(name), type));
+            waitForInFlightRequests();
+        } finally {
+            if (retryExecutor != null) {
+                retryExecutor.shutdownNow();
+            }
+            if(client != null) {
+                client.close();
             }
-        } catch(Exception ex) {
-            ex.printStackTrace();
-            String msg = getClass().getName() + " Writing record error: when converting field[" + i + "] in Row(" + record + ")";
-            throw new WriteRecordException(i,msg, ex);
         }
+    }
+
 
-        return sb.toString();
+    private IndexRequest createIndexRequest(Row row) throws WriteRecordException {
+        String id = serializer.getId(row);
+        IndexRequest request = StringUtils.isBlank(id) ? new IndexRequest(index, type) : new IndexRequest(index, type, id);
+        return request.source(serializer.serialize(row), XContentType.JSON);
     }
 
+    /**
+     * 已提交的bulk请求及其携带的延迟采样，completeTime及committed由完成请求的线程设置
+     */
+    private static class CompletedBulk {
+
+        private final long[] latencySamples;
+
+        private final long submitTime;
+
+        private volatile long completeTime;
+
+        private volatile boolean committed;
+
+        private CompletedBulk(long[] latencySamples, long submitTime) {
+            this.latencySamples = latencySamples;
+            this.submitTime = submitTime;
+        }
+    }
+
+    private static class FailedRecord {
+
+        private final Row row;
+
+        private final WriteRecordException exception;
+
+        private FailedRecord(Row row, WriteRecordException exception) {
+            this.row = row;
+            this.exception = exception;
+        }
+    }
 }
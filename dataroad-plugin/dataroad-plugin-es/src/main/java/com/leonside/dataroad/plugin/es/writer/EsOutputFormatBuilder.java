@@ -75,10 +75,37 @@ public class EsOutputFormatBuilder extends GenericRichOutputFormatBuilder<EsOutp
         return this;
     }
 
+    public EsOutputFormatBuilder setBulkSizeMb(int bulkSizeMb) {
+        format.bulkSizeMb = bulkSizeMb;
+        return this;
+    }
+
+    public EsOutputFormatBuilder setConcurrentRequests(int concurrentRequests) {
+        format.concurrentRequests = concurrentRequests;
+        return this;
+    }
+
+    public EsOutputFormatBuilder setMaxRetries(int maxRetries) {
+        format.maxRetries = maxRetries;
+        return this;
+    }
+
+    public EsOutputFormatBuilder setRetryBackoff(long retryBackoff) {
+        format.retryBackoff = retryBackoff;
+        return this;
+    }
+
     @Override
     protected void checkFormat() {
         if (format.getRestoreConfig() != null && format.getRestoreConfig().isRestore()){
             throw new UnsupportedOperationException("This plugin not support restore from failed state");
         }
+
+        if (format.concurrentRequests < 1){
+            throw new IllegalArgumentException("concurrentRequests must be greater than 0");
+        }
+        if (format.maxRetries < 0 || format.retryBackoff < 0){
+            throw new IllegalArgumentException("maxRetries and retryBackoff must not be negative");
+        }
     }
 }
@@ -4,6 +4,7 @@ package com.leonside.dataroad.plugin.es.writer;
 import com.leonside.dataroad.common.spi.ItemWriter;
 import com.leonside.dataroad.common.utils.ParameterUtils;
 import com.leonside.dataroad.core.component.ComponentInitialization;
+import com.leonside.dataroad.core.planner.ColumnReferenceSupport;
 import com.leonside.dataroad.flink.context.FlinkExecuteContext;
 import com.leonside.dataroad.flink.writer.BaseItemWriter;
 import com.leonside.dataroad.plugin.es.config.EsWriterConfig;
@@ -14,14 +15,16 @@ import org.apache.flink.types.Row;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * The writer plugin of ElasticSearch
  *
  */
-public class EsWriter extends BaseItemWriter implements ItemWriter<FlinkExecuteContext, DataStream<Row>>, ComponentInitialization<FlinkExecuteContext, EsWriterConfig> {
+public class EsWriter extends BaseItemWriter implements ItemWriter<FlinkExecuteContext, DataStream<Row>>, ComponentInitialization<FlinkExecuteContext, EsWriterConfig>, ColumnReferenceSupport {
 
     public static final int DEFAULT_BULK_ACTION = 100;
 
@@ -72,6 +75,19 @@ public class EsWriter extends BaseItemWriter implements ItemWriter<FlinkExecuteC
         }
     }
 
+    @Override
+    public Set<String> getReferencedColumns() {
+        //未指定字段时写入记录的全部字段
+        if(columnNames == null){
+            return null;
+        }
+        Set<String> referencedColumns = new LinkedHashSet<>(columnNames);
+        if(idColumnNames != null){
+            referencedColumns.addAll(idColumnNames);
+        }
+        return referencedColumns;
+    }
+
     @Override
     public void write(FlinkExecuteContext executeContext, DataStream<Row> items) {
         EsOutputFormatBuilder builder = new EsOutputFormatBuilder();
@@ -81,6 +97,10 @@ public class EsWriter extends BaseItemWriter implements ItemWriter<FlinkExecuteC
                 .setIndex(esWriterConfig.getIndex())
                 .setType(esWriterConfig.getIndexType())
                 .setBatchInterval(esWriterConfig.getBulkAction())
+                .setBulkSizeMb(esWriterConfig.getBulkSizeMb())
+                .setConcurrentRequests(esWriterConfig.getConcurrentRequests())
+                .setMaxRetries(esWriterConfig.getMaxRetries())
+                .setRetryBackoff(esWriterConfig.getRetryBackoff())
                 .setClientConfig(clientConfig)
                 .setColumnNames(columnNames)
                 .setColumnTypes(columnTypes)
@@ -88,7 +108,9 @@ public class EsWriter extends BaseItemWriter implements ItemWriter<FlinkExecuteC
                 .setIdColumnTypes(idColumnTypes)
                 .setIdColumnValues(idColumnValues)
                 .setMonitorUrls(monitorUrls)
-                .setErrors(errors);
+                .setErrors(errors)
+                .setSpeed(speed)
+                .setDirty(dirty);
 
             createOutput(items, builder.finish());
     }
@@ -0,0 +1,64 @@
+package com.leonside.dataroad.plugin.es.writer;
+
+import com.leonside.dataroad.common.utils.StringUtil;
+import com.leonside.dataroad.plugin.es.EsUtil;
+import org.apache.flink.types.Row;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.common.xcontent.XContentType;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ES文档序列化吞吐（文档/秒）：EsUtil.rowToJsonMap构建Map后序列化 vs EsDocumentSerializer直接序列化为字节
+ * @author leon
+ */
+public class EsDocumentSerializerBenchmark {
+
+    private static final int LOOP = 2000000;
+
+    public static void main(String[] args) throws Exception {
+        List<String> columnNames = Arrays.asList("id", "name", "idcard", "age", "score", "address.province", "address.city", "address.detail", "create_time", "status");
+        List<String> columnTypes = Arrays.asList("bigint", "string", "string", "int", "double", "string", "string", "string", "timestamp", "string");
+        List<String> idColumnNames = Collections.singletonList("id");
+        List<String> idColumnTypes = Collections.singletonList("bigint");
+
+        Row row = Row.withNames();
+        row.setField("id", 10001L);
+        row.setField("name", "张三");
+        row.setField("idcard", "330102199001011234");
+        row.setField("age", 30);
+        row.setField("score", new BigDecimal("98.50"));
+        row.setField("address.province", "浙江省");
+        row.setField("address.city", "杭州市");
+        row.setField("address.detail", "西湖区文三路100号");
+        row.setField("create_time", new Timestamp(System.currentTimeMillis()));
+        row.setField("status", "PAID");
+
+        EsDocumentSerializer serializer = new EsDocumentSerializer(columnNames, columnTypes, idColumnNames, idColumnTypes);
+
+        for (int round = 0; round < 3; round++) {
+            long bytes = 0;
+            long l = System.currentTimeMillis();
+            for (int i = 0; i < LOOP; i++) {
+                String id = StringUtil.col2string(row.getField("id"), "bigint");
+                IndexRequest request = new IndexRequest("index", "type", id).source(EsUtil.rowToJsonMap(row, columnNames, columnTypes));
+                bytes += request.source().length();
+            }
+            long cost = System.currentTimeMillis() - l;
+            System.out.println("rowToJsonMap " + LOOP + "次耗时：" + cost + " 	文档/秒：" + LOOP * 1000L / Math.max(cost, 1) + " 	" + bytes);
+
+            bytes = 0;
+            l = System.currentTimeMillis();
+            for (int i = 0; i < LOOP; i++) {
+                IndexRequest request = new IndexRequest("index", "type", serializer.getId(row)).source(serializer.serialize(row), XContentType.JSON);
+                bytes += request.source().length();
+            }
+            cost = System.currentTimeMillis() - l;
+            System.out.println("EsDocumentSerializer " + LOOP + "次耗时：" + cost + " 	文档/秒：" + LOOP * 1000L / Math.max(cost, 1) + " 	" + bytes);
+        }
+    }
+}
@@ -34,6 +34,15 @@ public interface DatabaseDialect {
      */
     String getDriverClass();
 
+    /**
+     * 获取XADataSource实现类，用于exactly-once写入
+     *
+     * @return XADataSource类名称，不支持XA时返回null
+     */
+    default String getXaDataSourceClass() {
+        return null;
+    }
+
     /**
      * 构造查询表结构的sql语句
      *
@@ -107,6 +116,21 @@ public interface DatabaseDialect {
      */
     String quoteTable(String table);
 
+    /**
+     * 将字符串转换为SQL字符串字面量，用于过滤条件下推。
+     * 反斜杠在MySQL（未开启NO_BACKSLASH_ESCAPES）及PostgreSQL（关闭standard_conforming_strings）中为转义符，
+     * 其含义取决于数据库会话配置，无法统一转义，含反斜杠或NUL字符的值不转换
+     *
+     * @param value 字符串值
+     * @return 'value'，无法安全转换时返回null
+     */
+    default String quoteStringLiteral(String value) {
+        if (value.indexOf('\\') >= 0 || value.indexOf('\0') >= 0) {
+            return null;
+        }
+        return "'" + value.replace("'", "''") + "'";
+    }
+
     /**
      * 根据字段和表构造insert语句
      *
@@ -1,6 +1,7 @@
 package com.leonside.dataroad.plugin.jdbc.reader;
 
 import com.leonside.dataroad.common.config.BaseConfig;
+import com.leonside.dataroad.common.constant.JobCommonConstant;
 import com.leonside.dataroad.common.context.JobSetting;
 import com.leonside.dataroad.common.domain.MetaColumn;
 import com.leonside.dataroad.common.spi.ItemReader;
@@ -8,8 +9,13 @@ import com.leonside.dataroad.common.utils.ConfigBeanUtils;
 import com.leonside.dataroad.common.utils.JsonUtil;
 import com.leonside.dataroad.common.utils.ParameterUtils;
 import com.leonside.dataroad.core.component.ComponentInitialization;
+import com.leonside.dataroad.core.planner.ColumnPredicate;
+import com.leonside.dataroad.core.planner.FilterPushdownSupport;
+import com.leonside.dataroad.core.planner.ProjectionPushdownSupport;
 import com.leonside.dataroad.flink.context.FlinkExecuteContext;
 import com.leonside.dataroad.flink.reader.BaseItemReader;
+import com.leonside.dataroad.flink.reader.BoundedSupport;
+import com.leonside.dataroad.flink.reader.TableScanSupport;
 import com.leonside.dataroad.flink.utils.RawTypeUtils;
 import com.leonside.dataroad.plugin.jdbc.DatabaseDialect;
 import com.leonside.dataroad.plugin.jdbc.reader.config.JdbcReaderConfig;
@@ -22,18 +28,27 @@ import com.leonside.dataroad.plugin.jdbc.type.TypeConverterInterface;
 import lombok.Data;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.flink.api.common.io.InputFormat;
 import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.java.typeutils.RowTypeInfo;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.types.Row;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 /**
  * @author leon
  */
 @Data
-public abstract class GenericJdbcReader extends BaseItemReader implements  ItemReader<FlinkExecuteContext, DataStream<Row>>, ComponentInitialization<FlinkExecuteContext,JdbcReaderConfig> {
+public abstract class GenericJdbcReader extends BaseItemReader implements  ItemReader<FlinkExecuteContext, DataStream<Row>>, ComponentInitialization<FlinkExecuteContext,JdbcReaderConfig>, FilterPushdownSupport, ProjectionPushdownSupport, TableScanSupport, BoundedSupport {
 
     private JobSetting jobSetting;
 
@@ -42,6 +57,10 @@ public abstract class GenericJdbcReader extends BaseItemReader implements  ItemR
     protected DatabaseDialect databaseDialect;
     protected TypeConverterInterface typeConverter;
 
+    private String scanWhere;
+    private List<MetaColumn> scanMetaColumns;
+    private List<Integer> scanColumnIndexes;
+
     @Override
     public String getName() {
         return name;
@@ -50,6 +69,20 @@ public abstract class GenericJdbcReader extends BaseItemReader implements  ItemR
     @Override
     public DataStream<Row> read(FlinkExecuteContext executeContext) throws Exception {
 
+        GenericJdbcInputFormat format = createInputFormat();
+
+        if (StringUtils.isEmpty(jdbcReaderConfig.getSplitKey()) && executeContext.getEnvironment().getParallelism() > 1){
+            throw new IllegalArgumentException("Must specify the split column when the Parallelism is greater than 1");
+        }
+
+        executeContext.setStartMetaColumn(jdbcReaderConfig.getMetaColumns());
+
+        TypeInformation rowTypeInfo = createRowTypeInfo(jdbcReaderConfig.getMetaColumns());
+
+        return createInput(executeContext, format, rowTypeInfo);
+    }
+
+    protected GenericJdbcInputFormat createInputFormat() {
         if(jdbcReaderConfig.getFetchSize() == 0){
             jdbcReaderConfig.setFetchSize(databaseDialect.getFetchSize());
         }
@@ -62,25 +95,59 @@ public abstract class GenericJdbcReader extends BaseItemReader implements  ItemR
                 .jdbcReaderConfig(jdbcReaderConfig)
                 .setDatabaseDialect(databaseDialect)
                 .setBytes(bytes)
+                .setRecords(records)
                 .setMonitorUrls(monitorUrls)
                 .setTypeConverter(typeConverter)
                 .setNumPartitions(numPartitions)
                 .setRestoreConfig(restoreConfig);
 
-        QuerySqlBuilder sqlBuilder = new QuerySqlBuilder(this);
-        builder.setQuery(sqlBuilder.buildSql());
+        builder.setQuery(createQuerySqlBuilder().buildSql());
 
-        GenericJdbcInputFormat format =  builder.finish();
+        return builder.finish();
+    }
 
-        if (StringUtils.isEmpty(jdbcReaderConfig.getSplitKey()) && executeContext.getEnvironment().getParallelism() > 1){
-            throw new IllegalArgumentException("Must specify the split column when the Parallelism is greater than 1");
-        }
+    protected QuerySqlBuilder createQuerySqlBuilder() {
+        return new QuerySqlBuilder(this);
+    }
 
-        executeContext.setStartMetaColumn(jdbcReaderConfig.getMetaColumns());
+    @Override
+    public boolean isBounded() {
+        return !restoreConfig.isStream() && !jdbcReaderConfig.getIncrementConfig().isPolling();
+    }
 
-        TypeInformation rowTypeInfo = createRowTypeInfo(jdbcReaderConfig.getMetaColumns());
+    @Override
+    public RowTypeInfo getScanRowType() {
+        IncrementConfig incrementConfig = jdbcReaderConfig.getIncrementConfig();
+        //断点续传、增量及轮询依赖reader算子状态，表扫描不支持；分片按subtask序号取模，要求表源并行度与分片数一致
+        if(restoreConfig.isRestore() || restoreConfig.isStream() || incrementConfig.isIncrement() || incrementConfig.isPolling()
+                || env.getParallelism() != numPartitions || (numPartitions > 1 && StringUtils.isEmpty(jdbcReaderConfig.getSplitKey()))){
+            return null;
+        }
+        List<MetaColumn> metaColumns = jdbcReaderConfig.getMetaColumns();
+        if(CollectionUtils.isEmpty(metaColumns) || metaColumns.stream().anyMatch(it -> StringUtils.isEmpty(it.getType()))){
+            return null;
+        }
+        return (RowTypeInfo) createRowTypeInfo(metaColumns);
+    }
 
-        return createInput(executeContext, format, rowTypeInfo);
+    @Override
+    public InputFormat<Row, ?> createScanInputFormat(List<ColumnPredicate> filters, List<String> columns, long limit) {
+        //每次按原始配置下推，SQL可能被多次翻译
+        if(scanMetaColumns == null){
+            scanWhere = jdbcReaderConfig.getWhere();
+            scanMetaColumns = new ArrayList<>(jdbcReaderConfig.getMetaColumns());
+            scanColumnIndexes = scanMetaColumns.stream().map(MetaColumn::getIndex).collect(Collectors.toList());
+        }
+        jdbcReaderConfig.setWhere(scanWhere);
+        jdbcReaderConfig.setMetaColumns(new ArrayList<>(scanMetaColumns));
+        for (int i = 0; i < scanMetaColumns.size(); i++) {
+            scanMetaColumns.get(i).setIndex(scanColumnIndexes.get(i));
+        }
+        jdbcReaderConfig.setMaxRows(limit);
+
+        pushdownFilters(filters);
+        pruneColumns(new HashSet<>(columns));
+        return createInputFormat();
     }
 
     private TypeInformation createRowTypeInfo(List<MetaColumn> metaColumns) {
@@ -111,6 +178,99 @@ public abstract class GenericJdbcReader extends BaseItemReader implements  ItemR
 
     protected abstract DatabaseDialect obtainDatabaseDialect();
 
+    @Override
+    public List<ColumnPredicate> pushdownFilters(List<ColumnPredicate> predicates) {
+        List<ColumnPredicate> pushed = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        for (ColumnPredicate predicate : predicates) {
+            MetaColumn metaColumn = findMetaColumn(predicate.getColumn());
+            //常量字段为查询别名，不能用于where条件
+            if(metaColumn == null || metaColumn.getValue() != null || !predicate.matchesColumnType(metaColumn.getType())){
+                continue;
+            }
+            String literal = toSqlLiteral(predicate.getValue());
+            if(literal == null){
+                continue;
+            }
+            conditions.add(databaseDialect.quoteColumn(metaColumn.getName()) + " " + predicate.getOperator().getSymbol() + " " + literal);
+            pushed.add(predicate);
+        }
+
+        if(!conditions.isEmpty()){
+            String pushedFilter = StringUtils.join(conditions, " AND ");
+            String where = jdbcReaderConfig.getWhere();
+            jdbcReaderConfig.setWhere(StringUtils.isBlank(where) ? pushedFilter : "(" + where.trim() + ") AND " + pushedFilter);
+        }
+        return pushed;
+    }
+
+    @Override
+    public List<String> pruneColumns(Set<String> referencedColumns) {
+        List<MetaColumn> metaColumns = jdbcReaderConfig.getMetaColumns();
+        //自定义SQL、全字段读取及断点续传（按字段索引定位）时不裁剪
+        if(StringUtils.isNotEmpty(jdbcReaderConfig.getCustomSql()) || restoreConfig.isRestore()
+                || CollectionUtils.isEmpty(metaColumns) || JobCommonConstant.STAR_SYMBOL.equals(metaColumns.get(0).getName())){
+            return Collections.emptyList();
+        }
+
+        Set<String> requiredColumns = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        requiredColumns.addAll(referencedColumns);
+        String splitKey = jdbcReaderConfig.getSplitKey();
+        if(StringUtils.isNotEmpty(splitKey) && !splitKey.contains(JobCommonConstant.LEFT_PARENTHESIS_SYMBOL)){
+            requiredColumns.add(splitKey);
+        }
+        IncrementConfig incrementConfig = jdbcReaderConfig.getIncrementConfig();
+        if(incrementConfig.isIncrement()){
+            requiredColumns.add(incrementConfig.getColumnName());
+        }
+
+        List<MetaColumn> keptColumns = new ArrayList<>();
+        List<String> prunedColumns = new ArrayList<>();
+        for (MetaColumn metaColumn : metaColumns) {
+            if(requiredColumns.contains(metaColumn.getName())){
+                keptColumns.add(metaColumn);
+            }else{
+                prunedColumns.add(metaColumn.getName());
+            }
+        }
+        if(keptColumns.isEmpty() || prunedColumns.isEmpty()){
+            return Collections.emptyList();
+        }
+
+        for (int i = 0; i < keptColumns.size(); i++) {
+            MetaColumn metaColumn = keptColumns.get(i);
+            if(metaColumn.getIndex() != null && metaColumn.getIndex() >= 0){
+                metaColumn.setIndex(i);
+            }
+            if(incrementConfig.isIncrement() && metaColumn.getName().equalsIgnoreCase(incrementConfig.getColumnName())){
+                incrementConfig.setColumnIndex(metaColumn.getIndex());
+            }
+        }
+        jdbcReaderConfig.setMetaColumns(keptColumns);
+        return prunedColumns;
+    }
+
+    private MetaColumn findMetaColumn(String name){
+        for (MetaColumn metaColumn : jdbcReaderConfig.getMetaColumns()) {
+            if(name.equals(metaColumn.getName())){
+                return metaColumn;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return SQL字面量，字符串值无法安全转义时返回null，该条件不下推
+     */
+    private String toSqlLiteral(Object value){
+        if(value instanceof BigDecimal){
+            return ((BigDecimal) value).toPlainString();
+        }else if(value instanceof Number){
+            return value.toString();
+        }
+        return databaseDialect.quoteStringLiteral(value.toString());
+    }
+
     private void buildIncrementConfig(Map<String,Object> parameter,JdbcReaderConfig jdbcReaderConfig){
         String increColumn = ParameterUtils.getStringNullable(parameter, JdbcReaderConfigKey.KEY_INCRE_COLUMN.getName());
 
@@ -31,6 +31,8 @@ public class JdbcReaderConfig extends BaseConfig {
     protected List<MetaColumn> metaColumns;
 
     protected IncrementConfig incrementConfig;
+    //手动设置，SQL下推LIMIT时的最大读取条数，小于等于0时不限制
+    protected long maxRows;
 
     public JdbcReaderConfig(Map<String, Object> parameter) {
         super(parameter);
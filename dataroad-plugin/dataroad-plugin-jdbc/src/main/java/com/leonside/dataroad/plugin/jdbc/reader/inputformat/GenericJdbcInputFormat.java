@@ -5,6 +5,7 @@ import com.leonside.dataroad.common.domain.ColumnType;
 import com.leonside.dataroad.common.domain.MetaColumn;
 import com.leonside.dataroad.common.utils.*;
 import com.leonside.dataroad.flink.reader.inputformat.GenericRichInputFormat;
+import com.leonside.dataroad.flink.metric.GlobalAggregates;
 import com.leonside.dataroad.flink.metric.Metrics;
 import com.leonside.dataroad.flink.restore.FormatState;
 import com.leonside.dataroad.flink.utils.UrlUtil;
@@ -14,6 +15,7 @@ import com.leonside.dataroad.plugin.jdbc.type.TypeConverterInterface;
 import com.leonside.dataroad.plugin.jdbc.utils.DbUtil;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.flink.core.io.InputSplit;
+import org.apache.flink.runtime.taskexecutor.GlobalAggregateManager;
 import org.apache.flink.types.Row;
 
 import java.io.IOException;
@@ -31,6 +33,7 @@ public class GenericJdbcInputFormat extends GenericRichInputFormat {
 
     public static final long serialVersionUID = 1L;
     public static final int resultSetConcurrency = ResultSet.CONCUR_READ_ONLY;
+    private static final long MAX_VALUE_POLL_INTERVAL = 200;
     public static int resultSetType = ResultSet.TYPE_FORWARD_ONLY;
     public DatabaseDialect databaseDialect;
 
@@ -97,6 +100,8 @@ public class GenericJdbcInputFormat extends GenericRichInputFormat {
     @Override
     protected void doOpen(InputSplit inputSplit) throws IOException {
         LOG.info("inputSplit = {}", inputSplit);
+        //同一实例依次读取多个分片时，断点位置不能沿用上一分片的记录
+        lastRow = null;
         ClassUtil.forName(driverName, getClass().getClassLoader());
         initLocationAccumulator(inputSplit);
         if (!canReadData(inputSplit)) {
@@ -165,6 +170,9 @@ public class GenericJdbcInputFormat extends GenericRichInputFormat {
             statement = dbConn.createStatement(resultSetType, resultSetConcurrency);
             statement.setFetchSize(jdbcReaderConfig.getFetchSize());
             statement.setQueryTimeout(jdbcReaderConfig.getQueryTimeOut());
+            if(jdbcReaderConfig.getMaxRows() > 0){
+                statement.setMaxRows((int) Math.min(jdbcReaderConfig.getMaxRows(), Integer.MAX_VALUE));
+            }
             resultSet = statement.executeQuery(querySql);
             hasNext = resultSet.next();
         }
@@ -300,8 +308,8 @@ public class GenericJdbcInputFormat extends GenericRichInputFormat {
             }
         }
 
-        getRuntimeContext().addAccumulator(Metrics.START_LOCATION, startLocationAccumulator);
-        getRuntimeContext().addAccumulator(Metrics.END_LOCATION, endLocationAccumulator);
+        getRuntimeContext().addAccumulator(getAccumulatorName(Metrics.START_LOCATION), startLocationAccumulator);
+        getRuntimeContext().addAccumulator(getAccumulatorName(Metrics.END_LOCATION), endLocationAccumulator);
     }
 
     /**
@@ -313,10 +321,13 @@ public class GenericJdbcInputFormat extends GenericRichInputFormat {
         String maxValue;
         if (inputSplit.getSplitNumber() == 0) {
             maxValue = getMaxValueFromDb();
-            //将累加器信息上传至flink，供其他通道通过flink rest api获取该最大值
+            //将累加器信息上传至flink，并发布为全局聚合值供其他通道获取该最大值
             maxValueAccumulator = new StringAccumulator();
             maxValueAccumulator.add(maxValue);
-            getRuntimeContext().addAccumulator(Metrics.MAX_VALUE, maxValueAccumulator);
+            getRuntimeContext().addAccumulator(getAccumulatorName(Metrics.MAX_VALUE), maxValueAccumulator);
+            publishMaxValue(maxValue);
+        } else if (GlobalAggregates.getGlobalAggregateManager(getRuntimeContext()) != null) {
+            maxValue = getMaxValueFromGlobalAggregate();
         } else {
             maxValue = getMaxValueFromApi();
         }
@@ -329,7 +340,56 @@ public class GenericJdbcInputFormat extends GenericRichInputFormat {
     }
 
     /**
-     * 从flink rest api中获取累加器最大值
+     * 不含执行尝试次数，重启后的分片可读取到0号分片（含重启前）发布的最大值
+     */
+    private String getMaxValueAggregateName() {
+        return GlobalAggregates.MAX_VALUE_AGGREGATE_PREFIX + getRuntimeContext().getTaskName();
+    }
+
+    private void publishMaxValue(String maxValue) {
+        GlobalAggregateManager globalAggregateManager = GlobalAggregates.getGlobalAggregateManager(getRuntimeContext());
+        if (globalAggregateManager == null || StringUtils.isEmpty(maxValue)) {
+            return;
+        }
+        try {
+            GlobalAggregates.updateValue(globalAggregateManager, getMaxValueAggregateName(), maxValue);
+        } catch (IOException e) {
+            throw new RuntimeException("publish max value error", e);
+        }
+    }
+
+    /**
+     * 从全局聚合中获取0号分片发布的最大值，未发布时按MAX_VALUE_POLL_INTERVAL间隔重试
+     * @return
+     */
+    public String getMaxValueFromGlobalAggregate() {
+        GlobalAggregateManager globalAggregateManager = GlobalAggregates.getGlobalAggregateManager(getRuntimeContext());
+        String aggregateName = getMaxValueAggregateName();
+
+        //The extra 10 times is to ensure that max value is published
+        int maxAcquireTimes = (jdbcReaderConfig.getQueryTimeOut() / jdbcReaderConfig.getIncrementConfig().getRequestAccumulatorInterval()) + 10;
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis((long) maxAcquireTimes * jdbcReaderConfig.getIncrementConfig().getRequestAccumulatorInterval());
+
+        String maxValue = null;
+        while (StringUtils.isEmpty(maxValue) && System.currentTimeMillis() < deadline) {
+            try {
+                maxValue = GlobalAggregates.updateValue(globalAggregateManager, aggregateName, null);
+                if (StringUtils.isEmpty(maxValue)) {
+                    TimeUnit.MILLISECONDS.sleep(MAX_VALUE_POLL_INTERVAL);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (IOException e) {
+                LOG.warn(ExceptionUtil.getErrorMessage(e));
+            }
+        }
+        LOG.info("Max value from global aggregate:{}", maxValue);
+        return maxValue;
+    }
+
+    /**
+     * 从flink rest api中获取累加器最大值，无法使用全局聚合时（如FLIP-27 Source读取）使用
      * @return
      */
     @SuppressWarnings("unchecked")
@@ -357,7 +417,7 @@ public class GenericJdbcInputFormat extends GenericRichInputFormat {
 
                 List<Map> userTaskAccumulators = (List<Map>) map.get("user-task-accumulators");
                 for (Map accumulator : userTaskAccumulators) {
-                    if (Metrics.MAX_VALUE.equals(accumulator.get("name"))) {
+                    if (getAccumulatorName(Metrics.MAX_VALUE).equals(accumulator.get("name"))) {
                         maxValue[0] = (String) accumulator.get("value");
                         break;
                     }
@@ -476,7 +536,7 @@ public class GenericJdbcInputFormat extends GenericRichInputFormat {
         JdbcInputSplit jdbcInputSplit = (JdbcInputSplit) inputSplit;
 
         if (StringUtils.isNotEmpty(jdbcReaderConfig.getSplitKey())) {
-            querySql = queryTemplate.replace("${N}", String.valueOf(numPartitions)).replace("${M}", String.valueOf(indexOfSubTask));
+            querySql = queryTemplate.replace("${N}", String.valueOf(numPartitions)).replace("${M}", String.valueOf(jdbcInputSplit.getMod()));
         }
 
         //是否开启断点续传
@@ -731,6 +791,16 @@ public class GenericJdbcInputFormat extends GenericRichInputFormat {
         return formatState;
     }
 
+    @Override
+    public FormatState getFormatState(Row lastEmittedRow) {
+        //预读模式下lastRow由读取线程更新，领先于下发记录，仅按分片起始状态及最后下发的记录计算
+        FormatState state = getSplitStartState();
+        if (state != null && lastEmittedRow != null) {
+            state.setState(lastEmittedRow.getField(restoreConfig.getRestoreColumnName()));
+        }
+        return state;
+    }
+
     /**
      * 构建边界位置sql
      *
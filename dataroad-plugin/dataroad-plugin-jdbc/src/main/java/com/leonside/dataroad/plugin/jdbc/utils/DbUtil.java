@@ -12,6 +12,8 @@ import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.sql.XAConnection;
+import javax.sql.XADataSource;
 import java.io.BufferedReader;
 import java.sql.*;
 import java.util.*;
@@ -140,6 +142,48 @@ public class DbUtil {
         }
     }
 
+    /**
+     * 获取XA连接，XADataSource通过setUrl/setURL、setUser、setPassword设置连接参数
+     * @param xaDataSourceClass XADataSource实现类
+     * @param url       url
+     * @param username  账号
+     * @param password  密码
+     * @return
+     * @throws SQLException
+     */
+    public static XAConnection getXaConnection(String xaDataSourceClass, String url, String username, String password) throws SQLException {
+        XADataSource dataSource;
+        try {
+            Class<?> clazz = Class.forName(xaDataSourceClass, true, Thread.currentThread().getContextClassLoader());
+            dataSource = (XADataSource) clazz.newInstance();
+            invokeSetter(dataSource, url, "setUrl", "setURL");
+            if (username != null) {
+                invokeSetter(dataSource, username, "setUser");
+                invokeSetter(dataSource, password, "setPassword");
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("create XADataSource [" + xaDataSourceClass + "] failed", e);
+        }
+
+        synchronized (LOCK_STR){
+            dataSource.setLoginTimeout(10);
+            TelnetUtil.telnet(url);
+            return dataSource.getXAConnection();
+        }
+    }
+
+    private static void invokeSetter(Object target, String value, String... methodNames) throws ReflectiveOperationException {
+        for (String methodName : methodNames) {
+            try {
+                target.getClass().getMethod(methodName, String.class).invoke(target, value);
+                return;
+            } catch (NoSuchMethodException e) {
+                // try next
+            }
+        }
+        throw new NoSuchMethodException(target.getClass().getName() + "." + methodNames[0]);
+    }
+
     /**
      * 关闭连接资源
      * @param rs        ResultSet
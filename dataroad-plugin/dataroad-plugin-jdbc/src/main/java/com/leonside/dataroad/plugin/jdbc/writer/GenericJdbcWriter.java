@@ -18,8 +18,10 @@
 
 package com.leonside.dataroad.plugin.jdbc.writer;
 
+import com.leonside.dataroad.common.constant.JobCommonConstant;
 import com.leonside.dataroad.common.spi.ItemWriter;
 import com.leonside.dataroad.core.component.ComponentInitialization;
+import com.leonside.dataroad.core.planner.ColumnReferenceSupport;
 import com.leonside.dataroad.flink.context.FlinkExecuteContext;
 import com.leonside.dataroad.flink.writer.BaseItemWriter;
 import com.leonside.dataroad.plugin.jdbc.DatabaseDialect;
@@ -29,7 +31,9 @@ import com.leonside.dataroad.plugin.jdbc.writer.outputformat.GenericJdbcOutputFo
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.types.Row;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 
 /**
@@ -39,7 +43,7 @@ import java.util.List;
  *
  * @author huyifan.zju@163.com
  */
-public abstract class GenericJdbcWriter extends BaseItemWriter implements ItemWriter<FlinkExecuteContext, DataStream<Row>>, ComponentInitialization<FlinkExecuteContext, JdbcWriterConfig> {
+public abstract class GenericJdbcWriter extends BaseItemWriter implements ItemWriter<FlinkExecuteContext, DataStream<Row>>, ComponentInitialization<FlinkExecuteContext, JdbcWriterConfig>, ColumnReferenceSupport {
 
     protected DatabaseDialect databaseDialect;
 
@@ -76,10 +80,13 @@ public abstract class GenericJdbcWriter extends BaseItemWriter implements ItemWr
                 .setMode(mode)
                 .setTypeConverter(typeConverter)
                 .setRestoreConfig(restoreConfig)
+                .setSpeed(speed)
+                .setDirty(dirty)
                 .setInsertSqlMode(insertSqlMode);
 
         int writerChannel = executeContext.getJobSetting().getSpeed().getWriterChannel();
-        if(writerChannel > 0){
+        //节点配置的并行度优先于writerChannel
+        if(writerChannel > 0 && (operatorConfig == null || operatorConfig.getParallelism() == null)){
             createOutput(items, builder.finish()).setParallelism(writerChannel);
         }else{
             createOutput(items, builder.finish());
@@ -98,6 +105,23 @@ public abstract class GenericJdbcWriter extends BaseItemWriter implements ItemWr
         this.databaseDialect = obtainDatabaseDialect();
     }
 
+    @Override
+    public Set<String> getReferencedColumns() {
+        List<String> columns = jdbcWriterConfig.getColumn();
+        //未指定字段时写入表的全部字段，实时同步时按表主键更新删除
+        if(restoreConfig.isStream() || columns == null || columns.isEmpty() || columns.contains(JobCommonConstant.STAR_SYMBOL)){
+            return null;
+        }
+        Set<String> referencedColumns = new LinkedHashSet<>(columns);
+        if(jdbcWriterConfig.getUpdateKey() != null){
+            jdbcWriterConfig.getUpdateKey().values().forEach(referencedColumns::addAll);
+        }
+        if(restoreConfig.isRestore()){
+            referencedColumns.add(restoreConfig.getRestoreColumnName());
+        }
+        return referencedColumns;
+    }
+
     protected abstract GenericJdbcOutputFormatBuilder getBuilder();
 
     protected abstract DatabaseDialect obtainDatabaseDialect();
@@ -16,6 +16,9 @@ import java.util.Map;
 @Data
 public class JdbcWriterConfig extends BaseConfig {
 
+    public static final String SEMANTIC_AT_LEAST_ONCE = "at-least-once";
+    public static final String SEMANTIC_EXACTLY_ONCE = "exactly-once";
+
     protected String jdbcUrl;
     protected String username;
     protected String password;
@@ -26,6 +29,11 @@ public class JdbcWriterConfig extends BaseConfig {
     protected List<String> postSql;
     protected int batchSize;
     protected Map<String, List<String>> updateKey;
+    /**
+     * 写入语义：at-least-once按批次提交事务；exactly-once基于XA两阶段提交，checkpoint完成后提交事务
+     */
+    protected String semantic = SEMANTIC_AT_LEAST_ONCE;
+    protected String xaDataSourceClass;
 
     public String writeMode = WriteMode.INSERT.name();
 
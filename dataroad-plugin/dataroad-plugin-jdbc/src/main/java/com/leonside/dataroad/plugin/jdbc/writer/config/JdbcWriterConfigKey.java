@@ -24,6 +24,8 @@ public enum JdbcWriterConfigKey implements ConfigKey {
     KEY_PRE_SQL("preSql","前置SQL",false,"", "前置SQL，采用数组配置方式，例如：[\"update t1 set t1.status='0'\"]",FieldType.OBJECT),
     KEY_POST_SQL("postSql","后置SQL",false,"", "后置SQL，采用数组配置方式，例如：[\"update t1 set t1.status='0'\"]",FieldType.OBJECT),
     KEY_BATCH_SIZE("batchSize","批量写入大小",false,"1024", "批量写入大小，默认1024",FieldType.NUMBER),
+    KEY_SEMANTIC("semantic","写入语义",false,"at-least-once", "写入语义，包含at-least-once、exactly-once，exactly-once基于XA两阶段提交，需开启restore",FieldType.STRING),
+    KEY_XA_DATA_SOURCE_CLASS("xaDataSourceClass","XADataSource类名",false,"", "exactly-once时使用的XADataSource实现类，默认按数据库类型选择",FieldType.STRING),
     ;
 
 //    public static final String KEY_FULL_COLUMN = "fullColumn";
@@ -9,10 +9,12 @@ import com.leonside.dataroad.common.utils.DateUtil;
 import com.leonside.dataroad.common.utils.ExceptionUtil;
 import com.leonside.dataroad.flink.writer.outputformat.GenericRichOutputFormat;
 import com.leonside.dataroad.flink.restore.FormatState;
+import com.leonside.dataroad.flink.writer.outputformat.TwoPhaseCommitOutputFormat;
 import com.leonside.dataroad.plugin.jdbc.DatabaseDialect;
 import com.leonside.dataroad.plugin.jdbc.type.TypeConverterInterface;
 import com.leonside.dataroad.plugin.jdbc.utils.DbUtil;
 import com.leonside.dataroad.plugin.jdbc.writer.config.JdbcWriterConfig;
+import com.leonside.dataroad.plugin.jdbc.writer.xa.JdbcXaTransaction;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.ObjectUtils;
 import org.apache.commons.lang.StringUtils;
@@ -20,14 +22,18 @@ import org.apache.flink.types.Row;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.sql.XAConnection;
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.XAResource;
 import java.sql.*;
 import java.util.*;
 
 /**
  * OutputFormat for writing data to relational database.
+ * semantic为exactly-once时基于XA两阶段提交写入，见{@link TwoPhaseCommitOutputFormat}
  *
  */
-public class GenericJdbcOutputFormat extends GenericRichOutputFormat {
+public class GenericJdbcOutputFormat extends GenericRichOutputFormat implements TwoPhaseCommitOutputFormat<JdbcXaTransaction> {
 
     protected static final Logger LOG = LoggerFactory.getLogger(GenericJdbcOutputFormat.class);
 
@@ -64,6 +70,22 @@ public class GenericJdbcOutputFormat extends GenericRichOutputFormat {
 
     protected String primaryKey;
 
+    protected transient XAConnection xaConnection;
+
+    protected transient XAResource xaResource;
+
+    /**
+     * 提交、回滚已预提交的事务，写入连接上有进行中的事务时部分数据库不允许提交其他事务
+     */
+    protected transient XAConnection commitXaConnection;
+
+    /**
+     * 当前写入的事务，首次写入时才在连接上开启，无数据写入的事务不预提交
+     */
+    protected transient JdbcXaTransaction currentTransaction;
+
+    protected transient JdbcXaTransaction activeTransaction;
+
     /**
      * schema名
      */
@@ -108,7 +130,13 @@ public class GenericJdbcOutputFormat extends GenericRichOutputFormat {
     protected void doOpen(int taskNumber, int numTasks){
         try {
             ClassUtil.forName(driverName, getClass().getClassLoader());
-            dbConn = DbUtil.getConnection(jdbcWriterConfig.getJdbcUrl(), jdbcWriterConfig.getUsername(), jdbcWriterConfig.getPassword());
+            if (isTwoPhaseCommit()) {
+                xaConnection = DbUtil.getXaConnection(getXaDataSourceClass(), jdbcWriterConfig.getJdbcUrl(), jdbcWriterConfig.getUsername(), jdbcWriterConfig.getPassword());
+                xaResource = xaConnection.getXAResource();
+                dbConn = xaConnection.getConnection();
+            } else {
+                dbConn = DbUtil.getConnection(jdbcWriterConfig.getJdbcUrl(), jdbcWriterConfig.getUsername(), jdbcWriterConfig.getPassword());
+            }
 
             //默认关闭事务自动提交，手动控制事务
             dbConn.setAutoCommit(false);
@@ -193,10 +221,23 @@ public class GenericJdbcOutputFormat extends GenericRichOutputFormat {
                 preparedStatement.setObject(index+1, getField(row, this.jdbcWriterConfig.getColumn().get(index)));
             }
 
+            if (isTwoPhaseCommit()) {
+                startTransaction();
+                preparedStatement.execute();
+                rowsOfCurrentTransaction++;
+                return;
+            }
             preparedStatement.execute();
             DbUtil.commit(dbConn);
         } catch (Exception e) {
-            DbUtil.rollBack(dbConn);
+            if (isTwoPhaseCommit()) {
+                //执行失败可能导致整个XA事务失效，不能作为脏数据跳过，由任务失败后从checkpoint恢复
+                if (index == this.jdbcWriterConfig.getColumn().size()) {
+                    throw new RuntimeException("JdbcOutputFormat [" + jobName + "] write record in XA transaction error", e);
+                }
+            } else {
+                DbUtil.rollBack(dbConn);
+            }
             processWriteException(e, index, row);
         }
     }
@@ -208,12 +249,11 @@ public class GenericJdbcOutputFormat extends GenericRichOutputFormat {
             }
         }
 
-        if(index < row.getArity()) {
-            String message = recordConvertDetailErrorMessage(index, row);
-            LOG.error(message, e);
-            throw new WriteRecordException(index, message, e);
+        //错误日志及行内容由GenericRichOutputFormat采样输出并写入脏数据，此处不逐条记录
+        if(index < this.jdbcWriterConfig.getColumn().size()) {
+            throw new WriteRecordException(index, "JdbcOutputFormat [" + jobName + "] writeRecord error: when converting field[" + index + "], " + e.getMessage(), e);
         }
-        throw new WriteRecordException(index, e.getMessage(), e);
+        throw new WriteRecordException(e.getMessage(), e);
     }
 
     @Override
@@ -241,6 +281,9 @@ public class GenericJdbcOutputFormat extends GenericRichOutputFormat {
                 }
             }
 
+            if(isTwoPhaseCommit()){
+                startTransaction();
+            }
             preparedStatement.executeBatch();
 
             if(restoreConfig.isRestore()){
@@ -255,8 +298,10 @@ public class GenericJdbcOutputFormat extends GenericRichOutputFormat {
                     rows.size(),
                     rows.size() > 0 ? new Gson().toJson(rows.get(0)) : "null",
                     ExceptionUtil.getErrorMessage(e));
-            LOG.warn("error to writeMultipleRecords, start to rollback connection, e = {}", ExceptionUtil.getErrorMessage(e));
-            DbUtil.rollBack(dbConn);
+            if(!isTwoPhaseCommit()){
+                LOG.warn("error to writeMultipleRecords, start to rollback connection, e = {}", ExceptionUtil.getErrorMessage(e));
+                DbUtil.rollBack(dbConn);
+            }
             throw e;
         }finally {
             //执行完后清空batch
@@ -264,8 +309,25 @@ public class GenericJdbcOutputFormat extends GenericRichOutputFormat {
         }
     }
 
+    /**
+     * 断点续传及两阶段提交在checkpoint时提交
+     */
+    @Override
+    protected boolean isCommitDeferred() {
+        return restoreConfig.isRestore();
+    }
+
     @Override
     public FormatState getFormatState(){
+        if (isTwoPhaseCommit()){
+            //数据已在preCommit中写出并预提交，这里只记录写入位置及指标
+            if (lastRow != null){
+                formatState.setState(lastRow.getField(restoreConfig.getRestoreColumnName()));
+            }
+            formatState.setNumberWrite(snapshotWriteCounter.getLocalValue());
+            return super.getFormatState();
+        }
+
         if (!restoreConfig.isRestore() || lastRow == null){
             LOG.info("return null for formatState");
             return null;
@@ -284,6 +346,7 @@ public class GenericJdbcOutputFormat extends GenericRichOutputFormat {
                 }
                 //若事务提交失败，抛出异常
                 dbConn.commit();
+                latencyMetric.commit();
                 preparedStatement.clearBatch();
                 LOG.info("getFormatState:Commit connection success");
 
@@ -307,6 +370,7 @@ public class GenericJdbcOutputFormat extends GenericRichOutputFormat {
                 LOG.warn("getFormatState:Start rollback");
                 //若事务回滚失败，抛出异常
                 dbConn.rollback();
+                latencyMetric.discard();
                 LOG.warn("getFormatState:Rollback success");
             } catch (SQLException sqlE){
                 throw new RuntimeException("Rollback error:", e);
@@ -375,8 +439,162 @@ public class GenericJdbcOutputFormat extends GenericRichOutputFormat {
         return retMap;
     }
 
+    @Override
+    public boolean isTwoPhaseCommit() {
+        return JdbcWriterConfig.SEMANTIC_EXACTLY_ONCE.equalsIgnoreCase(jdbcWriterConfig.getSemantic());
+    }
+
+    @Override
+    public Class<JdbcXaTransaction> getTransactionClass() {
+        return JdbcXaTransaction.class;
+    }
+
+    @Override
+    public JdbcXaTransaction beginTransaction() {
+        currentTransaction = JdbcXaTransaction.create(getRuntimeContext().getJobId(), getRuntimeContext().getIndexOfThisSubtask());
+        return currentTransaction;
+    }
+
+    /**
+     * 首次写入时在连接上开启XA事务
+     */
+    protected void startTransaction() throws XAException {
+        if (activeTransaction == null) {
+            xaResource.start(currentTransaction, XAResource.TMNOFLAGS);
+            activeTransaction = currentTransaction;
+        }
+    }
+
+    @Override
+    public void preCommit(JdbcXaTransaction transaction) throws Exception {
+        if (rows.size() > 0) {
+            doWriteRecord();
+        }
+        if (activeTransaction != transaction) {
+            LOG.debug("no data written in transaction, skip prepare");
+            return;
+        }
+
+        activeTransaction = null;
+        xaResource.end(transaction, XAResource.TMSUCCESS);
+        //只读事务预提交后即结束，无需再提交
+        transaction.setPrepared(xaResource.prepare(transaction) != XAResource.XA_RDONLY);
+        //预提交后数据已持久化，延迟统计至预提交
+        latencyMetric.commit();
+
+        snapshotWriteCounter.add(rowsOfCurrentTransaction);
+        numWriteCounter.add(rowsOfCurrentTransaction);
+        LOG.info("prepare transaction success, rows:{}", rowsOfCurrentTransaction);
+        rowsOfCurrentTransaction = 0;
+    }
+
+    @Override
+    public void commit(JdbcXaTransaction transaction) {
+        if (!transaction.isPrepared()) {
+            return;
+        }
+        try {
+            getCommitXaResource().commit(transaction, false);
+            transaction.setPrepared(false);
+        } catch (XAException | SQLException e) {
+            throw new RuntimeException("commit transaction error", e);
+        }
+    }
+
+    @Override
+    public void abort(JdbcXaTransaction transaction) {
+        try {
+            if (transaction == activeTransaction) {
+                activeTransaction = null;
+                rowsOfCurrentTransaction = 0;
+                xaResource.end(transaction, XAResource.TMFAIL);
+                xaResource.rollback(transaction);
+            } else if (transaction.isPrepared()) {
+                getCommitXaResource().rollback(transaction);
+                transaction.setPrepared(false);
+            }
+        } catch (XAException | SQLException e) {
+            LOG.warn("rollback transaction error:{}", ExceptionUtil.getErrorMessage(e));
+        }
+    }
+
+    @Override
+    public void recoverAndCommit(JdbcXaTransaction transaction) {
+        if (!transaction.isPrepared()) {
+            return;
+        }
+        try {
+            getCommitXaResource().commit(transaction, false);
+            LOG.info("recover and commit transaction success");
+        } catch (XAException e) {
+            //事务已在checkpoint完成通知时提交
+            if (e.errorCode != XAException.XAER_NOTA) {
+                throw new RuntimeException("recover and commit transaction error", e);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("recover and commit transaction error", e);
+        }
+    }
+
+    @Override
+    public void recoverAndAbort(JdbcXaTransaction transaction) {
+        //事务可能在失败前已预提交，也可能从未开启，随连接断开已回滚
+        try {
+            getCommitXaResource().rollback(transaction);
+            LOG.info("recover and rollback transaction success");
+        } catch (XAException e) {
+            if (e.errorCode != XAException.XAER_NOTA) {
+                LOG.warn("recover and rollback transaction error:{}", ExceptionUtil.getErrorMessage(e));
+            }
+        } catch (SQLException e) {
+            LOG.warn("recover and rollback transaction error:{}", ExceptionUtil.getErrorMessage(e));
+        }
+    }
+
+    /**
+     * 恢复状态在open之前进行，提交连接按需创建
+     */
+    protected XAResource getCommitXaResource() throws SQLException {
+        if (commitXaConnection == null) {
+            commitXaConnection = DbUtil.getXaConnection(getXaDataSourceClass(), jdbcWriterConfig.getJdbcUrl(), jdbcWriterConfig.getUsername(), jdbcWriterConfig.getPassword());
+        }
+        return commitXaConnection.getXAResource();
+    }
+
+    protected String getXaDataSourceClass() {
+        return StringUtils.isNotEmpty(jdbcWriterConfig.getXaDataSourceClass())
+                ? jdbcWriterConfig.getXaDataSourceClass() : databaseDialect.getXaDataSourceClass();
+    }
+
+    /**
+     * 事务已由{@link TwoPhaseCommitOutputFormat}提交或回滚，这里回滚未完成的事务并关闭连接
+     */
+    protected void closeXaResources() {
+        if (activeTransaction != null) {
+            abort(activeTransaction);
+        }
+        DbUtil.closeDbResources(null, preparedStatement, null, false);
+        for (XAConnection connection : new XAConnection[]{xaConnection, commitXaConnection}) {
+            try {
+                if (connection != null) {
+                    connection.close();
+                }
+            } catch (SQLException e) {
+                LOG.warn("Close XA connection error:{}", ExceptionUtil.getErrorMessage(e));
+            }
+        }
+        xaConnection = null;
+        commitXaConnection = null;
+        dbConn = null;
+    }
+
     @Override
     public void doClose() {
+        if (isTwoPhaseCommit()) {
+            closeXaResources();
+            return;
+        }
+
         readyCheckpoint = false;
         boolean commit = true;
         try{
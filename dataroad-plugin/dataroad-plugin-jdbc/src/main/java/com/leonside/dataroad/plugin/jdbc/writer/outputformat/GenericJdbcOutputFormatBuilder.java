@@ -68,6 +68,15 @@ public class GenericJdbcOutputFormatBuilder extends GenericRichOutputFormatBuild
             throw new IllegalArgumentException("Batch Size must not greater than 1 when useing Stream Mode");
         }
 
+        if(format.isTwoPhaseCommit()){
+            if(format.getRestoreConfig() == null || !format.getRestoreConfig().isRestore()){
+                throw new IllegalArgumentException("exactly-once semantic requires restore.isRestore to be true");
+            }
+            if(format.getXaDataSourceClass() == null){
+                throw new IllegalArgumentException("exactly-once semantic requires xaDataSourceClass for " + format.databaseDialect.getDatabaseType());
+            }
+        }
+
     }
 
 }
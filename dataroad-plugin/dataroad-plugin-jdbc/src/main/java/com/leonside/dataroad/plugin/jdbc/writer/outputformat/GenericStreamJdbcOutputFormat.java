@@ -69,6 +69,7 @@ public class GenericStreamJdbcOutputFormat extends GenericJdbcOutputFormat{
 
     private void doUpdateSingleRecord(Row row) {
         int index = 0;
+        int updateCount = -1;
         try {
             List<String> filterColumn = jdbcWriterConfig.getColumn().stream().filter(col -> !col.equals(primaryKey)).collect(Collectors.toList());
             for (; index < filterColumn.size(); index++) {
@@ -76,12 +77,17 @@ public class GenericStreamJdbcOutputFormat extends GenericJdbcOutputFormat{
             }
             updatePreparedStatement.setObject(index + 1, getField(row, primaryKey));
 
-            updatePreparedStatement.execute();
+            updateCount = updatePreparedStatement.executeUpdate();
             DbUtil.commit(dbConn);
         } catch (Exception e) {
             DbUtil.rollBack(dbConn);
             processWriteException(e, index, row);
         }
+
+        //记录不存在时按插入处理（upsert），如窗口聚合提前触发输出的首条记录
+        if(updateCount == 0){
+            doInsertSingleRecord(row);
+        }
     }
 
     private void doDeleteSingleRecord(Row row) {
@@ -0,0 +1,43 @@
+package com.leonside.dataroad.plugin.jdbc.writer.xa;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.apache.flink.api.common.JobID;
+
+import javax.transaction.xa.Xid;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * XA事务句柄，作为两阶段提交的事务保存到checkpoint。
+ * globalTransactionId由作业ID及随机数组成，branchQualifier为子任务序号，保证作业重启后不与历史事务冲突
+ * @author leon
+ */
+@Data
+@NoArgsConstructor
+public class JdbcXaTransaction implements Xid {
+
+    public static final int FORMAT_ID = 0x44524f44;
+
+    private int formatId;
+
+    private byte[] globalTransactionId;
+
+    private byte[] branchQualifier;
+
+    /**
+     * 已预提交待提交，事务为空或已提交时为false
+     */
+    private boolean prepared;
+
+    public static JdbcXaTransaction create(JobID jobId, int subtaskIndex) {
+        JdbcXaTransaction transaction = new JdbcXaTransaction();
+        transaction.formatId = FORMAT_ID;
+        transaction.globalTransactionId = ByteBuffer.allocate(24)
+                .put(jobId.getBytes())
+                .putLong(ThreadLocalRandom.current().nextLong())
+                .array();
+        transaction.branchQualifier = ByteBuffer.allocate(4).putInt(subtaskIndex).array();
+        return transaction;
+    }
+}
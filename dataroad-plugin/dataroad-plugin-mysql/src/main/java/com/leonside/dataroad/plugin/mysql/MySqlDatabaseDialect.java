@@ -32,6 +32,11 @@ public class MySqlDatabaseDialect extends BaseDatabaseDialect {
         return "com.mysql.jdbc.Driver";
     }
 
+    @Override
+    public String getXaDataSourceClass() {
+        return "com.mysql.cj.jdbc.MysqlXADataSource";
+    }
+
     @Override
     public String getSqlQueryFields(String tableName) {
         return "SELECT * FROM " + tableName + " LIMIT 0";
@@ -46,6 +46,11 @@ public class OracleDatabaseDialect extends BaseDatabaseDialect {
         return "oracle.jdbc.driver.OracleDriver";
     }
 
+    @Override
+    public String getXaDataSourceClass() {
+        return "oracle.jdbc.xa.client.OracleXADataSource";
+    }
+
     @Override
     public String getSqlQueryFields(String tableName) {
         return "SELECT /*+FIRST_ROWS*/ * FROM " + tableName + " WHERE ROWNUM < 1";
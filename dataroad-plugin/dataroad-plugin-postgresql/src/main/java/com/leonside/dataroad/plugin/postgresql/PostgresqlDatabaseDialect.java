@@ -48,6 +48,11 @@ public class PostgresqlDatabaseDialect extends BaseDatabaseDialect {
         return "org.postgresql.Driver";
     }
 
+    @Override
+    public String getXaDataSourceClass() {
+        return "org.postgresql.xa.PGXADataSource";
+    }
+
     @Override
     public String getSqlQueryFields(String tableName) {
         return String.format("SELECT * FROM %s LIMIT 0",tableName);
@@ -7,6 +7,7 @@ import com.leonside.dataroad.plugin.postgresql.PostgresqlDatabaseDialect;
 import com.leonside.dataroad.plugin.postgresql.PostgresqlTypeConverter;
 import com.leonside.dataroad.plugin.jdbc.reader.inputformat.GenericJdbcInputFormat;
 import com.leonside.dataroad.plugin.jdbc.reader.inputformat.GenericJdbcInputFormatBuilder;
+import com.leonside.dataroad.plugin.jdbc.reader.support.QuerySqlBuilder;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.types.Row;
 
@@ -34,38 +35,13 @@ public class PostgresqlJdbcReader extends GenericJdbcReader {
     }
 
     @Override
-    public DataStream<Row> read(FlinkExecuteContext executeContext) throws Exception {
-        if(getJdbcReaderConfig().getFetchSize() == 0){
-            getJdbcReaderConfig().setFetchSize(databaseDialect.getFetchSize());
-        }
-        if(getJdbcReaderConfig().getQueryTimeOut() == 0){
-            getJdbcReaderConfig().setQueryTimeOut(databaseDialect.getQueryTimeout());
-        }
-
-        GenericJdbcInputFormatBuilder builder = getGenericJdbcInputFormatBuilder();
-        builder.setDriverName(databaseDialect.getDriverClass())
-                .setBytes(bytes)
-                .setMonitorUrls(monitorUrls)
-                .setDatabaseDialect(databaseDialect)
-                .setTypeConverter(typeConverter)
-                .jdbcReaderConfig(getJdbcReaderConfig())
-//                .setDbUrl(jdbcUrl)
-//                .setUsername(username)
-//                .setPassword(password)
-//                .setTable(table)
-//                .setMetaColumn(metaColumns)
-//                .setFetchSize(fetchSize == 0 ? databaseDialect.getFetchSize() : fetchSize)
-//                .setQueryTimeOut(queryTimeOut == 0 ? databaseDialect.getQueryTimeout() : queryTimeOut)
-//                .setIncrementConfig(incrementConfig)
-//                .setSplitKey(splitKey)
-//                .setCustomSql(customSql)
-                .setNumPartitions(numPartitions)
-                .setRestoreConfig(restoreConfig);
-
-        PostgresqlQuerySqlBuilder sqlBuilder = new PostgresqlQuerySqlBuilder(this);
-        builder.setQuery(sqlBuilder.buildSql());
+    protected QuerySqlBuilder createQuerySqlBuilder() {
+        return new PostgresqlQuerySqlBuilder(this);
+    }
 
-        GenericJdbcInputFormat format =  builder.finish();
+    @Override
+    public DataStream<Row> read(FlinkExecuteContext executeContext) throws Exception {
+        GenericJdbcInputFormat format = createInputFormat();
         return createInput(executeContext, format);
     }
 }
@@ -0,0 +1,78 @@
+package com.leonside.dataroad.common;
+
+import com.leonside.dataroad.core.aggregations.AggerationEnum;
+import com.leonside.dataroad.core.aggregations.response.Aggeration;
+import com.leonside.dataroad.core.aggregations.response.Aggerations;
+import com.leonside.dataroad.flink.processor.aggeration.typeutils.AggerationSerializer;
+import com.leonside.dataroad.flink.processor.aggeration.typeutils.KeyByRowSelector;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.typeinfo.BasicTypeInfo;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.java.tuple.Tuple;
+import org.apache.flink.api.java.typeutils.GenericTypeInfo;
+import org.apache.flink.api.java.typeutils.RowTypeInfo;
+import org.apache.flink.core.memory.DataInputDeserializer;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.flink.types.Row;
+
+import java.util.Arrays;
+
+/**
+ * 窗口聚合状态序列化对比：Kryo泛型序列化 vs AggerationSerializer / keyBy分组键RowSerializer
+ * @author leon
+ */
+public class AggerationSerializerBenchmark {
+
+    private static final int LOOP = 1000000;
+
+    public static void main(String[] args) throws Exception {
+        ExecutionConfig executionConfig = new ExecutionConfig();
+
+        Aggeration stats = Aggerations.getAggeration(Integer.class, AggerationEnum.STATS);
+        Aggeration multi = Aggerations.getAggeration(Integer.class, Arrays.asList(AggerationEnum.MAX, AggerationEnum.SUM, AggerationEnum.COUNT));
+        for (int i = 0; i < 100; i++) {
+            stats.calculate(i);
+            multi.calculate(i);
+        }
+
+        System.out.println(stats.asMap() + " -> " + AggerationSerializer.INSTANCE.copy(stats).asMap());
+        System.out.println(multi.asMap() + " -> " + AggerationSerializer.INSTANCE.copy(multi).asMap());
+
+        TypeSerializer<Aggeration> kryoSerializer = new GenericTypeInfo<>(Aggeration.class).createSerializer(executionConfig);
+        benchmark("stats kryo", kryoSerializer, stats);
+        benchmark("stats aggeration", AggerationSerializer.INSTANCE, stats);
+        benchmark("multi kryo", kryoSerializer, multi);
+        benchmark("multi aggeration", AggerationSerializer.INSTANCE, multi);
+
+        Row row = Row.withNames();
+        row.setField("idcard", "330102199001011234");
+        row.setField("age", 30);
+        RowTypeInfo rowTypeInfo = new RowTypeInfo(new TypeInformation[]{BasicTypeInfo.STRING_TYPE_INFO, BasicTypeInfo.INT_TYPE_INFO}, new String[]{"idcard", "age"});
+
+        Tuple tuple = Tuple.newInstance(2);
+        tuple.setField(row.getField("idcard"), 0);
+        tuple.setField(row.getField("age"), 1);
+        KeyByRowSelector keyByRowSelector = KeyByRowSelector.of(new String[]{"idcard", "age"});
+
+        benchmark("key kryo tuple", new GenericTypeInfo<>(Object.class).createSerializer(executionConfig), tuple);
+        benchmark("key row", keyByRowSelector.createKeyType(rowTypeInfo).createSerializer(executionConfig), keyByRowSelector.getKey(row));
+    }
+
+    private static <T> void benchmark(String name, TypeSerializer<T> serializer, T record) throws Exception {
+        DataOutputSerializer out = new DataOutputSerializer(256);
+        DataInputDeserializer in = new DataInputDeserializer();
+
+        serializer.serialize(record, out);
+        int size = out.length();
+
+        long l = System.currentTimeMillis();
+        for (int i = 0; i < LOOP; i++) {
+            out.clear();
+            serializer.serialize(record, out);
+            in.setBuffer(out.getSharedBuffer(), 0, out.length());
+            serializer.deserialize(in);
+        }
+        System.out.println(name + " 序列化字节数：" + size + " 	" + LOOP + "次序列化+反序列化耗时：" + (System.currentTimeMillis() - l));
+    }
+}
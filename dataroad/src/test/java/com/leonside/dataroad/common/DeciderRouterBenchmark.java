@@ -0,0 +1,74 @@
+package com.leonside.dataroad.common;
+
+import com.leonside.dataroad.core.spi.JobPredicate;
+import com.leonside.dataroad.flink.predicate.ExpressionPredicate;
+import com.leonside.dataroad.flink.processor.decider.DeciderRouter;
+import org.apache.flink.api.common.typeinfo.BasicTypeInfo;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.java.typeutils.RowTypeInfo;
+import org.apache.flink.metrics.groups.UnregisteredMetricsGroup;
+import org.apache.flink.types.Row;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 决策器分支路由耗时：逐个计算分支条件 vs DeciderRouter（fel顺序路由 / janino编译路由）
+ * @author leon
+ */
+public class DeciderRouterBenchmark {
+
+    private static final int LOOP = 200000;
+
+    public static void main(String[] args) throws Exception {
+        RowTypeInfo rowTypeInfo = new RowTypeInfo(new TypeInformation[]{BasicTypeInfo.STRING_TYPE_INFO, BasicTypeInfo.LONG_TYPE_INFO}, new String[]{"type", "amount"});
+        Row row = Row.withNames();
+        row.setField("type", "T3");
+        row.setField("amount", 150L);
+
+        for (int branchSize : new int[]{4, 16}) {
+            List<JobPredicate> felBranches = createBranches(branchSize, "fel", "row.getField('type') == 'T%d' && row.getField('amount') > 100", false);
+            List<JobPredicate> felExclusiveBranches = createBranches(branchSize, "fel", "row.getField('type') == 'T%d' && row.getField('amount') > 100", true);
+            List<JobPredicate> janinoBranches = createBranches(branchSize, "janino", "row.type == 'T%d' && row.amount > 100", false);
+
+            long l = System.currentTimeMillis();
+            for (int i = 0; i < LOOP; i++) {
+                for (JobPredicate branch : felBranches) {
+                    branch.test(null, row);
+                }
+            }
+            System.out.println(branchSize + "个分支 fel逐个计算 " + LOOP + "行耗时：" + (System.currentTimeMillis() - l));
+
+            benchmark(branchSize + "个分支 fel排他顺序路由", DeciderRouter.create("decider", felExclusiveBranches, rowTypeInfo), row);
+            benchmark(branchSize + "个分支 janino编译路由", DeciderRouter.create("decider", janinoBranches, rowTypeInfo), row);
+        }
+    }
+
+    private static List<JobPredicate> createBranches(int branchSize, String language, String expression, boolean exclusive) {
+        List<JobPredicate> branches = new ArrayList<>();
+        for (int i = 0; i < branchSize; i++) {
+            Map<String, Object> parameter = new HashMap<>();
+            parameter.put("language", language);
+            parameter.put("expression", String.format(expression, i));
+            parameter.put("exclusive", exclusive);
+            ExpressionPredicate expressionPredicate = new ExpressionPredicate();
+            expressionPredicate.initialize(null, parameter);
+            branches.add(expressionPredicate);
+        }
+        return branches;
+    }
+
+    private static void benchmark(String name, DeciderRouter deciderRouter, Row row) throws Exception {
+        deciderRouter.open(new UnregisteredMetricsGroup());
+        int[] matchedBranches = new int[deciderRouter.getBranchSize()];
+        int matched = deciderRouter.route(null, row, matchedBranches);
+        long l = System.currentTimeMillis();
+        for (int i = 0; i < LOOP; i++) {
+            deciderRouter.route(null, row, matchedBranches);
+        }
+        System.out.println(name + " 命中：" + Arrays.toString(Arrays.copyOf(matchedBranches, matched)) + " " + LOOP + "行耗时：" + (System.currentTimeMillis() - l));
+    }
+}
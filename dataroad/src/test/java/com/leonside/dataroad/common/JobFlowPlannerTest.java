@@ -0,0 +1,121 @@
+package com.leonside.dataroad.common;
+
+import com.leonside.dataroad.common.context.ExecuteContext;
+import com.leonside.dataroad.common.context.OptimizerConfig;
+import com.leonside.dataroad.common.script.ScriptEvaluatorFactory;
+import com.leonside.dataroad.common.spi.ItemProcessor;
+import com.leonside.dataroad.common.spi.ItemReader;
+import com.leonside.dataroad.core.flow.SimpleJobFlow;
+import com.leonside.dataroad.core.planner.ColumnPredicate;
+import com.leonside.dataroad.core.planner.FilterPushdownSupport;
+import com.leonside.dataroad.core.planner.JobFlowPlanner;
+import com.leonside.dataroad.core.planner.ScriptFilterSupport;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 过滤下推：按reader声明的字段类型下推匹配的条件，类型不匹配或无法识别的字段不下推
+ * @author leon
+ */
+public class JobFlowPlannerTest {
+
+    public static void main(String[] args) {
+        Map<String, String> columnTypes = new LinkedHashMap<>();
+        columnTypes.put("age", "int");
+        columnTypes.put("amount", "decimal(10,2)");
+        columnTypes.put("id", "bigint unsigned");
+        columnTypes.put("name", "varchar(20)");
+        columnTypes.put("location", "point");
+        columnTypes.put("duration", "interval");
+        columnTypes.put("remark", "tinytext");
+        columnTypes.put("code", "char");
+        columnTypes.put("flag", "bit");
+
+        check(columnTypes, "row.age > 18 && row.amount >= 100.5 && row.id == 1", "age > 18", "amount >= 100.5", "id = 1");
+        check(columnTypes, "row.name == 'zhangsan' && row.code == 'A'", "name = 'zhangsan'", "code = 'A'");
+        check(columnTypes, "row.location == 1 && row.duration > 10 && row.remark == 'x' && row.flag == 1");
+        check(columnTypes, "row.age == 'x' && row.name > 18");
+        check(columnTypes, "row.unknown > 18 && row.age < 60", "age < 60");
+
+        System.out.println("过滤下推校验通过");
+    }
+
+    private static void check(Map<String, String> columnTypes, String expression, String... expected) {
+        TestReader reader = new TestReader(columnTypes);
+        SimpleJobFlow startJobFlow = SimpleJobFlow.of(reader);
+        startJobFlow.addChildren(SimpleJobFlow.of(new TestFilter(expression)));
+
+        new JobFlowPlanner(OptimizerConfig.defaultConfig()).optimize(startJobFlow);
+
+        List<String> pushed = new ArrayList<>();
+        reader.pushed.forEach(it -> pushed.add(it.toString()));
+        System.out.println(expression + " 下推：" + pushed);
+        if(!pushed.equals(Arrays.asList(expected))){
+            throw new IllegalStateException("expression [" + expression + "] expected pushed " + Arrays.asList(expected) + ", actual " + pushed);
+        }
+    }
+
+    private static class TestReader implements ItemReader<ExecuteContext, Object>, FilterPushdownSupport {
+
+        private final Map<String, String> columnTypes;
+
+        private final List<ColumnPredicate> pushed = new ArrayList<>();
+
+        private TestReader(Map<String, String> columnTypes) {
+            this.columnTypes = columnTypes;
+        }
+
+        @Override
+        public List<ColumnPredicate> pushdownFilters(List<ColumnPredicate> predicates) {
+            for (ColumnPredicate predicate : predicates) {
+                if(predicate.matchesColumnType(columnTypes.get(predicate.getColumn()))){
+                    pushed.add(predicate);
+                }
+            }
+            return pushed;
+        }
+
+        @Override
+        public Object read(ExecuteContext executeContext) {
+            return null;
+        }
+
+        @Override
+        public String getName() {
+            return "testReader";
+        }
+    }
+
+    private static class TestFilter implements ItemProcessor<ExecuteContext, Object, Object>, ScriptFilterSupport {
+
+        private final String expression;
+
+        private TestFilter(String expression) {
+            this.expression = expression;
+        }
+
+        @Override
+        public ScriptEvaluatorFactory.ScriptEngine getScriptLanguage() {
+            return ScriptEvaluatorFactory.ScriptEngine.janino;
+        }
+
+        @Override
+        public String getScriptExpression() {
+            return expression;
+        }
+
+        @Override
+        public Object process(ExecuteContext executeContext, Object in) {
+            return in;
+        }
+
+        @Override
+        public String getName() {
+            return "testFilter";
+        }
+    }
+}
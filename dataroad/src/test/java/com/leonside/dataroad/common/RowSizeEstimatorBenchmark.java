@@ -0,0 +1,46 @@
+package com.leonside.dataroad.common;
+
+import com.leonside.dataroad.flink.utils.RowSizeEstimator;
+import org.apache.flink.types.Row;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+/**
+ * 读写字节数统计开销：row.toString().getBytes() vs RowSizeEstimator
+ * @author leon
+ */
+public class RowSizeEstimatorBenchmark {
+
+    private static final int LOOP = 10000000;
+
+    public static void main(String[] args) {
+        Row row = Row.withNames();
+        row.setField("id", 10001L);
+        row.setField("name", "张三");
+        row.setField("idcard", "330102199001011234");
+        row.setField("age", 30);
+        row.setField("score", new BigDecimal("98.50"));
+        row.setField("address", "浙江省杭州市西湖区文三路100号");
+        row.setField("create_time", new Timestamp(System.currentTimeMillis()));
+        row.setField("status", "PAID");
+
+        System.out.println("toString字节数：" + row.toString().getBytes().length + " 	估算字节数：" + RowSizeEstimator.estimate(row));
+
+        for (int round = 0; round < 3; round++) {
+            long bytes = 0;
+            long l = System.currentTimeMillis();
+            for (int i = 0; i < LOOP; i++) {
+                bytes += row.toString().getBytes().length;
+            }
+            System.out.println("toString().getBytes() " + LOOP + "次耗时：" + (System.currentTimeMillis() - l) + " 	" + bytes);
+
+            bytes = 0;
+            l = System.currentTimeMillis();
+            for (int i = 0; i < LOOP; i++) {
+                bytes += RowSizeEstimator.estimate(row);
+            }
+            System.out.println("RowSizeEstimator " + LOOP + "次耗时：" + (System.currentTimeMillis() - l) + " 	" + bytes);
+        }
+    }
+}
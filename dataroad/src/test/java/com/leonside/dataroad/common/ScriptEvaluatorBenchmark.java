@@ -0,0 +1,50 @@
+package com.leonside.dataroad.common;
+
+import com.leonside.dataroad.common.script.ScriptEvaluator;
+import com.leonside.dataroad.common.script.FieldTypeAware;
+import com.leonside.dataroad.common.script.ScriptEvaluatorFactory;
+import org.apache.flink.types.Row;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 各脚本引擎单行执行耗时：open时预编译后逐行执行
+ * @author leon
+ */
+public class ScriptEvaluatorBenchmark {
+
+    private static final int LOOP = 1000000;
+
+    public static void main(String[] args) throws Exception {
+        Row row = Row.withNames();
+        row.setField("name", "zhangsan");
+        row.setField("age", 30);
+        row.setField("status", "PAID");
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("minAge", 18);
+
+        benchmark(ScriptEvaluatorFactory.ScriptEngine.bsh, "row.getField(\"age\") > minAge", row, params);
+        benchmark(ScriptEvaluatorFactory.ScriptEngine.fel, "row.getField('age') > minAge", row, params);
+        benchmark(ScriptEvaluatorFactory.ScriptEngine.javascript, "row.getField('age') > minAge", row, params);
+        benchmark(ScriptEvaluatorFactory.ScriptEngine.groovy, "return row.getField('age') > params.get('minAge')", row, params);
+        benchmark(ScriptEvaluatorFactory.ScriptEngine.janino, "row.age > 18 && row.status == 'PAID'", row, params);
+        benchmark(ScriptEvaluatorFactory.ScriptEngine.groovy, "return row.getField('age') > 18 && row.getField('status') == 'PAID'", row, params);
+    }
+
+    private static void benchmark(ScriptEvaluatorFactory.ScriptEngine scriptEngine, String expression, Row row, Map<String, Object> params) throws Exception {
+        ScriptEvaluator scriptEvaluator = ScriptEvaluatorFactory.createScriptEvalutor(scriptEngine, expression);
+        if(scriptEvaluator instanceof FieldTypeAware){
+            ((FieldTypeAware) scriptEvaluator).bindFieldTypes(new String[]{"name", "age", "status"}, new Class<?>[]{String.class, Integer.class, String.class});
+        }
+        scriptEvaluator.open();
+
+        Object result = scriptEvaluator.evaluate(row, params);
+        long l = System.currentTimeMillis();
+        for (int i = 0; i < LOOP; i++) {
+            scriptEvaluator.evaluate(row, params);
+        }
+        System.out.println(scriptEngine + " result:" + result + " 	" + LOOP + "次执行耗时：" + (System.currentTimeMillis() - l));
+    }
+}
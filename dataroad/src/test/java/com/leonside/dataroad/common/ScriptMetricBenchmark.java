@@ -0,0 +1,53 @@
+package com.leonside.dataroad.common;
+
+import com.leonside.dataroad.common.script.FieldTypeAware;
+import com.leonside.dataroad.common.script.ScriptEvaluator;
+import com.leonside.dataroad.common.script.ScriptEvaluatorFactory;
+import com.leonside.dataroad.flink.metric.ScriptMetric;
+import org.apache.flink.metrics.groups.UnregisteredMetricsGroup;
+import org.apache.flink.types.Row;
+
+/**
+ * 脚本执行指标开销：janino过滤表达式 不记录指标 vs ScriptMetric采样记录 vs 每次计时
+ * @author leon
+ */
+public class ScriptMetricBenchmark {
+
+    private static final int LOOP = 10000000;
+
+    public static void main(String[] args) throws Exception {
+        Row row = Row.withNames();
+        row.setField("age", 30);
+        row.setField("status", "PAID");
+
+        ScriptEvaluator scriptEvaluator = ScriptEvaluatorFactory.createScriptEvalutor(ScriptEvaluatorFactory.ScriptEngine.janino, "row.age > 18 && row.status == 'PAID'");
+        ((FieldTypeAware) scriptEvaluator).bindFieldTypes(new String[]{"age", "status"}, new Class<?>[]{Integer.class, String.class});
+        scriptEvaluator.open();
+
+        ScriptMetric scriptMetric = new ScriptMetric(new UnregisteredMetricsGroup(), "filter");
+
+        for (int round = 0; round < 3; round++) {
+            long l = System.currentTimeMillis();
+            for (int i = 0; i < LOOP; i++) {
+                scriptEvaluator.evaluate(row, null);
+            }
+            System.out.println("不记录指标 " + LOOP + "次执行耗时：" + (System.currentTimeMillis() - l));
+
+            l = System.currentTimeMillis();
+            for (int i = 0; i < LOOP; i++) {
+                long start = scriptMetric.start();
+                scriptMetric.finish(start, (Boolean) scriptEvaluator.evaluate(row, null));
+            }
+            System.out.println("采样记录(1/" + ScriptMetric.SAMPLE_INTERVAL + ") " + LOOP + "次执行耗时：" + (System.currentTimeMillis() - l));
+
+            long nanos = 0;
+            l = System.currentTimeMillis();
+            for (int i = 0; i < LOOP; i++) {
+                long start = System.nanoTime();
+                scriptEvaluator.evaluate(row, null);
+                nanos += System.nanoTime() - start;
+            }
+            System.out.println("每次计时 " + LOOP + "次执行耗时：" + (System.currentTimeMillis() - l) + " 	脚本耗时：" + nanos / 1000000);
+        }
+    }
+}